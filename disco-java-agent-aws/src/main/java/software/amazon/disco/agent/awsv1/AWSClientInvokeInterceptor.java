@@ -117,6 +117,14 @@ public class AWSClientInvokeInterceptor implements Installable {
                     .advice(buildMethodMatcher(), this.getClass().getName()));
     }
 
+    /**
+     * Deferrable, since AWS SDK clients are constructed by the application, after premain, before doInvoke() is called.
+     */
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
     /**
      * Builds a class matcher to discover all implemented AWS clients.
      * @return an ElementMatcher suitable for passing to the type() method of a AgentBuilder
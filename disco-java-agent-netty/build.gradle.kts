@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+plugins {
+    `java-library`
+    `maven-publish`
+}
+
+val pluginImplementation by configurations.creating {}
+configurations {
+    testImplementation.extendsFrom(configurations.get("pluginImplementation"))
+    compileOnly.extendsFrom(configurations.get("pluginImplementation"))
+}
+
+dependencies {
+    implementation(project(":disco-java-agent:disco-java-agent-core"))
+    pluginImplementation("io.netty", "netty-codec-http2", "4.1.77.Final")
+}
+
+// For classes which need to be accessed in the context of the application code's classloader, they need to be injected/forced
+// into that classloader. They cannot be placed in the bootstrap classloader, nor any isolated/orphaned classloader, since they
+// use classes from Netty, which are assumed not to be present on the bootstrap classloader
+ext.set("classesToMove", arrayOf(
+        "software.amazon.disco.agent.netty.NettyTransactions",
+        "software.amazon.disco.agent.netty.NettyServerExchange",
+        "software.amazon.disco.agent.netty.NettyClientExchange",
+        "software.amazon.disco.agent.netty.NettyHttpServiceDownstreamRequestEvent",
+        "software.amazon.disco.agent.netty.NettyHttpMessages",
+        "software.amazon.disco.agent.netty.NettyHttp2Frames"
+))
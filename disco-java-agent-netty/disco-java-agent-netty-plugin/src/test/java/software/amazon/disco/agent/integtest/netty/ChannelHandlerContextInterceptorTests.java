@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.integtest.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.HeaderReplaceable;
+import software.amazon.disco.agent.event.HttpNetworkProtocolRequestEvent;
+import software.amazon.disco.agent.event.HttpNetworkProtocolResponseEvent;
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.event.Listener;
+import software.amazon.disco.agent.reflect.concurrent.TransactionContext;
+import software.amazon.disco.agent.reflect.event.EventBus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ChannelHandlerContextInterceptorTests {
+    private TestListener listener;
+
+    @Before
+    public void before() {
+        listener = new TestListener();
+        EventBus.addListener(listener);
+    }
+
+    @After
+    public void after() {
+        EventBus.removeListener(listener);
+        TransactionContext.clear();
+    }
+
+    @Test
+    public void testServerRequestHandledWithinTransaction() {
+        List<String> handlerTransactionIds = new ArrayList<>();
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpServerCodec(), new HttpObjectAggregator(1024),
+                new SimpleChannelInboundHandler<FullHttpRequest>() {
+                    @Override
+                    protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+                        handlerTransactionIds.add(TransactionContext.get());
+                        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.ACCEPTED);
+                        response.headers().set("content-length", 0);
+                        ctx.writeAndFlush(response);
+                    }
+                });
+
+        channel.writeInbound(ascii("POST /path HTTP/1.1\r\nHost: example.com\r\nUser-Agent: agent\r\nContent-Length: 0\r\n\r\n"));
+
+        Assert.assertEquals(1, handlerTransactionIds.size());
+        Assert.assertNotEquals(TransactionContext.getUninitializedTransactionContextValue(), handlerTransactionIds.get(0));
+        Assert.assertEquals(1, listener.serverRequests.size());
+        HttpNetworkProtocolRequestEvent request = listener.serverRequests.get(0);
+        Assert.assertEquals("POST", request.getMethod());
+        Assert.assertEquals("http://example.com/path", request.getURL());
+        Assert.assertEquals("agent", request.getUserAgent());
+        Assert.assertEquals(1, listener.serverResponses.size());
+        Assert.assertEquals(202, listener.serverResponses.get(0).getStatusCode());
+        Assert.assertEquals(handlerTransactionIds.get(0), listener.transactionIds.get(0));
+        Assert.assertEquals(handlerTransactionIds.get(0), listener.transactionIds.get(1));
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testClientRequestWithinCallerTransaction() {
+        TransactionContext.create();
+        String transactionId = TransactionContext.get();
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpClientCodec(), new HttpObjectAggregator(1024));
+        TransactionContext.clear();
+
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/resource");
+        channel.writeOutbound(request);
+        ByteBuf written = channel.readOutbound();
+        Assert.assertTrue(written.toString(StandardCharsets.US_ASCII).contains("X-Disco-Test: " + transactionId));
+        written.release();
+
+        channel.writeInbound(ascii("HTTP/1.1 503 Service Unavailable\r\nContent-Length: 0\r\n\r\n"));
+
+        Assert.assertEquals(1, listener.clientRequests.size());
+        Assert.assertEquals("GET", listener.clientRequests.get(0).getMethod());
+        Assert.assertEquals("/resource", listener.clientRequests.get(0).getUri());
+        Assert.assertEquals(1, listener.clientResponses.size());
+        Assert.assertEquals(503, listener.clientResponses.get(0).getStatusCode());
+        Assert.assertEquals(transactionId, listener.transactionIds.get(0));
+        Assert.assertEquals(transactionId, listener.transactionIds.get(1));
+        channel.finishAndReleaseAll();
+    }
+
+    private static ByteBuf ascii(String s) {
+        return Unpooled.copiedBuffer(s, StandardCharsets.US_ASCII);
+    }
+
+    private static class TestListener implements Listener {
+        List<HttpNetworkProtocolRequestEvent> serverRequests = new ArrayList<>();
+        List<HttpNetworkProtocolResponseEvent> serverResponses = new ArrayList<>();
+        List<HttpServiceDownstreamRequestEvent> clientRequests = new ArrayList<>();
+        List<HttpServiceDownstreamResponseEvent> clientResponses = new ArrayList<>();
+        List<String> transactionIds = new ArrayList<>();
+
+        @Override
+        public int getPriority() {
+            return 0;
+        }
+
+        @Override
+        public void listen(Event e) {
+            if (e instanceof HttpNetworkProtocolRequestEvent) {
+                serverRequests.add((HttpNetworkProtocolRequestEvent) e);
+            } else if (e instanceof HttpNetworkProtocolResponseEvent) {
+                serverResponses.add((HttpNetworkProtocolResponseEvent) e);
+            } else if (e instanceof HttpServiceDownstreamRequestEvent) {
+                clientRequests.add((HttpServiceDownstreamRequestEvent) e);
+                ((HeaderReplaceable) e).replaceHeader("X-Disco-Test", TransactionContext.get());
+            } else if (e instanceof HttpServiceDownstreamResponseEvent) {
+                clientResponses.add((HttpServiceDownstreamResponseEvent) e);
+            } else {
+                return;
+            }
+            transactionIds.add(TransactionContext.get());
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.netty;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
+import software.amazon.disco.agent.interception.Installable;
+import software.amazon.disco.agent.plugin.ResourcesClassInjector;
+
+/**
+ * Every ChannelHandler of a Netty pipeline is invoked by its AbstractChannelHandlerContext, whose private invokeXxx()
+ * methods are intercepted to swap the TransactionContext attached to the Channel onto the event loop thread for the
+ * duration of the invocation, see {@link NettyTransactions}. The messages passed to channelRead() and write() are
+ * inspected for HTTP requests and responses, to publish server and client events.
+ *
+ * The transaction of the thread which creates a client Channel, and so constructs the contexts of its pipeline, is
+ * attached to the Channel, as is the transaction of any thread which later writes to it via the private write() method.
+ * This covers writes made from a listener of the connect() future, on a thread with no transaction.
+ *
+ * IMPORTANT NOTE:
+ *
+ * This interceptor has been tested on io.netty:netty-transport 4.1.77.Final only.
+ */
+public class ChannelHandlerContextInterceptor implements Installable {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AgentBuilder install(final AgentBuilder agentBuilder) {
+        return agentBuilder
+                .type(buildClassMatcher())
+                .transform((builder, typeDescription, classLoader, module) -> {
+                    ResourcesClassInjector.injectAllClasses(
+                            classLoader,
+                            ChannelHandlerContextInterceptor.class.getClassLoader(),
+                            "software.amazon.disco.agent.netty.NettyTransactions",
+                            "software.amazon.disco.agent.netty.NettyServerExchange",
+                            "software.amazon.disco.agent.netty.NettyClientExchange",
+                            "software.amazon.disco.agent.netty.NettyHttpServiceDownstreamRequestEvent",
+                            "software.amazon.disco.agent.netty.NettyHttpMessages",
+                            "software.amazon.disco.agent.netty.NettyHttp2Frames"
+                    );
+                    return builder
+                            .visit(Advice.to(InvokeAdvice.class).on(buildInvokeMethodMatcher()))
+                            .visit(Advice.to(ChannelReadAdvice.class).on(buildChannelReadMethodMatcher()))
+                            .visit(Advice.to(WriteAdvice.class).on(buildWriteMethodMatcher()))
+                            .visit(Advice.to(AttachAdvice.class).on(buildAttachMethodMatcher()))
+                            .visit(Advice.to(ConstructorAdvice.class).on(ElementMatchers.isConstructor()));
+                });
+    }
+
+    /**
+     * Deferrable, but Channels created before installation carry no transaction, and their events are not published.
+     */
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
+    /**
+     * Build an ElementMatcher which defines the kind of class which will be intercepted. Package-private for tests.
+     *
+     * @return An ElementMatcher suitable to pass to the type() method of an AgentBuilder
+     */
+    static ElementMatcher<? super TypeDescription> buildClassMatcher() {
+        return ElementMatchers.named("io.netty.channel.AbstractChannelHandlerContext");
+    }
+
+    /**
+     * Build an ElementMatcher which will match against the private instance methods which invoke a handler for an event
+     * other than channelRead() or write(). Package-private for tests.
+     *
+     * @return An ElementMatcher suitable for passing to an Advice
+     */
+    static ElementMatcher<? super MethodDescription> buildInvokeMethodMatcher() {
+        return ElementMatchers.namedOneOf(
+                "invokeChannelRegistered",
+                "invokeChannelUnregistered",
+                "invokeChannelActive",
+                "invokeChannelInactive",
+                "invokeExceptionCaught",
+                "invokeUserEventTriggered",
+                "invokeChannelReadComplete",
+                "invokeChannelWritabilityChanged",
+                "invokeBind",
+                "invokeConnect",
+                "invokeDisconnect",
+                "invokeClose",
+                "invokeDeregister",
+                "invokeRead",
+                "invokeFlush0")
+                .and(ElementMatchers.isPrivate())
+                .and(ElementMatchers.not(ElementMatchers.isStatic()));
+    }
+
+    /**
+     * Build an ElementMatcher which will match against the private invokeChannelRead(Object) method. Package-private for
+     * tests.
+     *
+     * @return An ElementMatcher suitable for passing to an Advice
+     */
+    static ElementMatcher<? super MethodDescription> buildChannelReadMethodMatcher() {
+        return ElementMatchers.named("invokeChannelRead")
+                .and(ElementMatchers.takesArguments(1))
+                .and(ElementMatchers.isPrivate())
+                .and(ElementMatchers.not(ElementMatchers.isStatic()));
+    }
+
+    /**
+     * Build an ElementMatcher which will match against the private invokeWrite0(Object, ChannelPromise) method.
+     * Package-private for tests.
+     *
+     * @return An ElementMatcher suitable for passing to an Advice
+     */
+    static ElementMatcher<? super MethodDescription> buildWriteMethodMatcher() {
+        return ElementMatchers.named("invokeWrite0")
+                .and(ElementMatchers.takesArguments(2))
+                .and(ElementMatchers.isPrivate());
+    }
+
+    /**
+     * Build an ElementMatcher which will match against the private write(Object, boolean, ChannelPromise) method, through
+     * which all writes pass on the initiating thread. Package-private for tests.
+     *
+     * @return An ElementMatcher suitable for passing to an Advice
+     */
+    static ElementMatcher<? super MethodDescription> buildAttachMethodMatcher() {
+        return ElementMatchers.named("write")
+                .and(ElementMatchers.takesArguments(3))
+                .and(ElementMatchers.isPrivate());
+    }
+
+    /**
+     * Advice applied to the methods which invoke a handler for an event without a message
+     */
+    public static class InvokeAdvice {
+        /**
+         * Swap the Channel's transaction onto this thread.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param context the AbstractChannelHandlerContext of the invoked handler
+         * @return the transaction to restore on exit, or null
+         */
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        public static Object onMethodEnter(@Advice.This Object context) {
+            return NettyTransactions.enter(context);
+        }
+
+        /**
+         * Restore this thread's previous transaction.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param previous the value returned by onMethodEnter
+         */
+        @Advice.OnMethodExit(onThrowable = Throwable.class, suppress = Throwable.class)
+        public static void onMethodExit(@Advice.Enter Object previous) {
+            NettyTransactions.exit(previous);
+        }
+    }
+
+    /**
+     * Advice applied to the method which invokes a handler's channelRead()
+     */
+    public static class ChannelReadAdvice {
+        /**
+         * Swap the Channel's transaction onto this thread, and inspect the message read.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param context the AbstractChannelHandlerContext of the invoked handler
+         * @param msg the message read
+         * @return the transaction to restore on exit
+         */
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        public static Object onMethodEnter(@Advice.This Object context, @Advice.Argument(0) Object msg) {
+            return NettyTransactions.enterRead(context, msg);
+        }
+
+        /**
+         * Restore this thread's previous transaction.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param previous the value returned by onMethodEnter
+         */
+        @Advice.OnMethodExit(onThrowable = Throwable.class, suppress = Throwable.class)
+        public static void onMethodExit(@Advice.Enter Object previous) {
+            NettyTransactions.exit(previous);
+        }
+    }
+
+    /**
+     * Advice applied to the method which invokes a handler's write()
+     */
+    public static class WriteAdvice {
+        /**
+         * Swap the Channel's transaction onto this thread, and inspect the message written.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param context the AbstractChannelHandlerContext of the invoked handler
+         * @param msg the message written
+         * @return the transaction to restore on exit
+         */
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        public static Object onMethodEnter(@Advice.This Object context, @Advice.Argument(0) Object msg) {
+            return NettyTransactions.enterWrite(context, msg);
+        }
+
+        /**
+         * Restore this thread's previous transaction.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param previous the value returned by onMethodEnter
+         */
+        @Advice.OnMethodExit(onThrowable = Throwable.class, suppress = Throwable.class)
+        public static void onMethodExit(@Advice.Enter Object previous) {
+            NettyTransactions.exit(previous);
+        }
+    }
+
+    /**
+     * Advice applied to the methods through which outbound operations are initiated
+     */
+    public static class AttachAdvice {
+        /**
+         * Attach this thread's transaction to a client Channel.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param context the AbstractChannelHandlerContext from which the operation is initiated
+         */
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        public static void onMethodEnter(@Advice.This Object context) {
+            NettyTransactions.attach(context);
+        }
+    }
+
+    /**
+     * Advice applied to the constructors of AbstractChannelHandlerContext
+     */
+    public static class ConstructorAdvice {
+        /**
+         * Attach this thread's transaction to a client Channel, as a handler is added to its pipeline.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param context the constructed AbstractChannelHandlerContext
+         */
+        @Advice.OnMethodExit(suppress = Throwable.class)
+        public static void onMethodExit(@Advice.This Object context) {
+            NettyTransactions.attach(context);
+        }
+    }
+}
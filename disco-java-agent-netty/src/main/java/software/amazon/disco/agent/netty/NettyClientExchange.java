@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.netty;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+
+import java.util.function.BiConsumer;
+
+/**
+ * An HTTP request written to a Netty client Channel, or to an HTTP/2 stream opened by the client, awaiting its
+ * response. The request and response events are published within the transaction which the writing thread attached
+ * to the Channel, see {@link NettyTransactions#attach}.
+ */
+class NettyClientExchange {
+    private static final AttributeKey<NettyClientExchange> CLIENT_EXCHANGE = AttributeKey.valueOf("software.amazon.disco.agent.netty.NettyClientExchange");
+    static final String EVENT_ORIGIN = "NettyHttpClient";
+
+    private final Object request;
+    private final NettyHttpServiceDownstreamRequestEvent requestEvent;
+    private int statusCode = -1;
+
+    /**
+     * Construct a new NettyClientExchange
+     * @param request the request object
+     * @param requestEvent the published request event
+     */
+    private NettyClientExchange(Object request, NettyHttpServiceDownstreamRequestEvent requestEvent) {
+        this.request = request;
+        this.requestEvent = requestEvent;
+    }
+
+    /**
+     * Publish the request event for a request written to a Channel. The request passes through each outbound handler
+     * until encoded, so is only recorded once.
+     *
+     * @param channel the Channel to which the request is written
+     * @param request the request object, e.g. an HttpRequest
+     * @param method the HTTP method
+     * @param uri the URI of the request
+     * @param headerSetter a function to set a header of the request, replacing any of the same name
+     */
+    static void begin(Channel channel, Object request, String method, String uri, BiConsumer<String, String> headerSetter) {
+        NettyClientExchange current = channel.attr(CLIENT_EXCHANGE).get();
+        if (current != null && current.request == request) {
+            return;
+        }
+        NettyHttpServiceDownstreamRequestEvent requestEvent = new NettyHttpServiceDownstreamRequestEvent(EVENT_ORIGIN, uri, method, headerSetter);
+        requestEvent.withMethod(method);
+        requestEvent.withUri(uri);
+        channel.attr(CLIENT_EXCHANGE).set(new NettyClientExchange(request, requestEvent));
+        EventBus.publish(requestEvent);
+    }
+
+    /**
+     * Record the status of a response read from a Channel, if awaiting one.
+     *
+     * @param channel the Channel from which the response is read
+     * @param statusCode the HTTP status code
+     */
+    static void respond(Channel channel, int statusCode) {
+        NettyClientExchange exchange = channel.attr(CLIENT_EXCHANGE).get();
+        if (exchange != null) {
+            exchange.statusCode = statusCode;
+        }
+    }
+
+    /**
+     * Publish the response event when the end of a response is read from a Channel, if awaiting one, and detach the
+     * transaction of the request from the Channel, which may be pooled and reused by another.
+     *
+     * @param channel the Channel from which the response is read
+     */
+    static void end(Channel channel) {
+        NettyClientExchange exchange = channel.attr(CLIENT_EXCHANGE).getAndSet(null);
+        if (exchange == null) {
+            return;
+        }
+        NettyHttpServiceDownstreamRequestEvent requestEvent = exchange.requestEvent;
+        HttpServiceDownstreamResponseEvent responseEvent = new HttpServiceDownstreamResponseEvent(requestEvent.getOrigin(), requestEvent.getService(), requestEvent.getOperation(), requestEvent);
+        responseEvent.withStatusCode(exchange.statusCode);
+        responseEvent.withDuration(System.nanoTime() - requestEvent.getStartNanos());
+        EventBus.publish(responseEvent);
+        channel.attr(NettyTransactions.TRANSACTION_CONTEXT).set(null);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.netty;
+
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http2.Http2DataFrame;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2HeadersFrame;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamFrame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recognizes the frames of Netty's HTTP/2 codec as they pass through the pipeline of an Http2StreamChannel, as created
+ * by an Http2MultiplexHandler for each stream of a connection. A stream carries a single request and response, so the
+ * Http2HeadersFrame of a request begins a transaction or downstream call, which ends with the frame which ends the
+ * stream in the other direction.
+ *
+ * Frames handled by a connection-level Http2FrameCodec without multiplexing are not recognized, since all the streams
+ * of the connection share its Channel.
+ */
+class NettyHttp2Frames {
+    /**
+     * Called before a message is delivered to a ChannelHandler's channelRead()
+     *
+     * @param channel the Channel from which the message is read
+     * @param msg the message
+     */
+    static void onRead(Channel channel, Object msg) {
+        if (!(msg instanceof Http2StreamFrame) || !(channel instanceof Http2StreamChannel)) {
+            return;
+        }
+        if (msg instanceof Http2HeadersFrame) {
+            Http2HeadersFrame frame = (Http2HeadersFrame) msg;
+            Http2Headers headers = frame.headers();
+            if (headers.method() != null) {
+                NettyServerExchange.begin(channel, frame, headers.method().toString(), buildUrl(headers),
+                        name -> toString(headers.get(name)), () -> headerMap(headers));
+            } else if (headers.status() != null) {
+                NettyClientExchange.respond(channel, parseStatus(headers.status()));
+            }
+            if (frame.isEndStream()) {
+                NettyClientExchange.end(channel);
+            }
+        } else if (msg instanceof Http2DataFrame && ((Http2DataFrame) msg).isEndStream()) {
+            NettyClientExchange.end(channel);
+        }
+    }
+
+    /**
+     * Called before a message is passed to a ChannelHandler's write()
+     *
+     * @param channel the Channel to which the message is written
+     * @param msg the message
+     */
+    static void onWrite(Channel channel, Object msg) {
+        if (!(msg instanceof Http2StreamFrame) || !(channel instanceof Http2StreamChannel)) {
+            return;
+        }
+        if (msg instanceof Http2HeadersFrame) {
+            Http2HeadersFrame frame = (Http2HeadersFrame) msg;
+            Http2Headers headers = frame.headers();
+            if (headers.status() != null) {
+                NettyServerExchange.respond(channel, frame, parseStatus(headers.status()), () -> headerMap(headers));
+            } else if (headers.method() != null) {
+                NettyClientExchange.begin(channel, frame, headers.method().toString(), toString(headers.path()),
+                        (name, value) -> headers.set(name.toLowerCase(), value));
+            }
+            if (frame.isEndStream()) {
+                NettyServerExchange.end(channel);
+            }
+        } else if (msg instanceof Http2DataFrame && ((Http2DataFrame) msg).isEndStream()) {
+            NettyServerExchange.end(channel);
+        }
+    }
+
+    /**
+     * Build the URL of a request from its pseudo-headers
+     *
+     * @param headers the request headers
+     * @return the absolute URL of the request if it has an authority, else its path
+     */
+    static String buildUrl(Http2Headers headers) {
+        String path = toString(headers.path());
+        if (headers.authority() == null) {
+            return path;
+        }
+        String scheme = headers.scheme() == null ? "https" : headers.scheme().toString();
+        return scheme + "://" + headers.authority() + (path == null ? "" : path);
+    }
+
+    /**
+     * Parse the :status pseudo-header of a response
+     *
+     * @param status the value of the pseudo-header
+     * @return the status code, or -1 if not numeric
+     */
+    private static int parseStatus(CharSequence status) {
+        try {
+            return Integer.parseInt(status.toString());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Copy HTTP/2 headers into a map of header name to values, excluding pseudo-headers
+     *
+     * @param headers the headers
+     * @return a map of each header name to all its values
+     */
+    static Map<String, List<String>> headerMap(Http2Headers headers) {
+        Map<String, List<String>> ret = new HashMap<>();
+        for (Map.Entry<CharSequence, CharSequence> entry : headers) {
+            String name = entry.getKey().toString();
+            if (!name.startsWith(":")) {
+                ret.computeIfAbsent(name, k -> new ArrayList<>()).add(toString(entry.getValue()));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Null-safe conversion of a CharSequence to a String
+     *
+     * @param value the value
+     * @return the value as a String, or null
+     */
+    private static String toString(CharSequence value) {
+        return value == null ? null : value.toString();
+    }
+}
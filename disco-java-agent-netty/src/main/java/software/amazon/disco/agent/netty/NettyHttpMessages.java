@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recognizes the messages of Netty's HTTP/1.x codec as they pass through a Channel's pipeline. An HttpRequest read
+ * from a server Channel begins a transaction, which ends when the LastHttpContent of the response is written. An
+ * HttpRequest written to a client Channel begins a downstream call, which ends when the LastHttpContent of its
+ * response is read.
+ *
+ * A FullHttpRequest or FullHttpResponse is both the start and the end of its message.
+ */
+class NettyHttpMessages {
+    private static final String SSL_HANDLER_CLASS = "io.netty.handler.ssl.SslHandler";
+
+    /**
+     * Called before a message is delivered to a ChannelHandler's channelRead()
+     *
+     * @param channel the Channel from which the message is read
+     * @param msg the message
+     */
+    static void onRead(Channel channel, Object msg) {
+        if (!(msg instanceof HttpObject)) {
+            return;
+        }
+        if (msg instanceof HttpRequest) {
+            HttpRequest request = (HttpRequest) msg;
+            HttpHeaders headers = request.headers();
+            NettyServerExchange.begin(channel, request, request.method().name(), buildUrl(channel, request),
+                    headers::get, () -> headerMap(headers));
+        } else if (msg instanceof HttpResponse) {
+            NettyClientExchange.respond(channel, ((HttpResponse) msg).status().code());
+        }
+        if (msg instanceof LastHttpContent) {
+            NettyClientExchange.end(channel);
+        }
+    }
+
+    /**
+     * Called before a message is passed to a ChannelHandler's write()
+     *
+     * @param channel the Channel to which the message is written
+     * @param msg the message
+     */
+    static void onWrite(Channel channel, Object msg) {
+        if (!(msg instanceof HttpObject)) {
+            return;
+        }
+        if (msg instanceof HttpResponse) {
+            HttpResponse response = (HttpResponse) msg;
+            HttpHeaders headers = response.headers();
+            NettyServerExchange.respond(channel, response, response.status().code(), () -> headerMap(headers));
+        } else if (msg instanceof HttpRequest) {
+            HttpRequest request = (HttpRequest) msg;
+            HttpHeaders headers = request.headers();
+            NettyClientExchange.begin(channel, request, request.method().name(), request.uri(), headers::set);
+        }
+        if (msg instanceof LastHttpContent) {
+            NettyServerExchange.end(channel);
+        }
+    }
+
+    /**
+     * Reconstruct the URL of a request read by a server. The request line usually only contains the path, so the
+     * scheme and authority are taken from the Channel's pipeline and the Host header respectively.
+     *
+     * @param channel the Channel from which the request was read
+     * @param request the request
+     * @return the absolute URL of the request if it can be determined, else the URI of the request line
+     */
+    static String buildUrl(Channel channel, HttpRequest request) {
+        String uri = request.uri();
+        String host = request.headers().get("host");
+        if (host == null || !uri.startsWith("/")) {
+            return uri;
+        }
+        return (isSecure(channel) ? "https://" : "http://") + host + uri;
+    }
+
+    /**
+     * Determine if a Channel's pipeline decrypts TLS. The handler class is compared by name, since Netty's handler
+     * module is optional.
+     *
+     * @param channel the Channel
+     * @return true if the pipeline contains an SslHandler
+     */
+    private static boolean isSecure(Channel channel) {
+        for (Map.Entry<String, ChannelHandler> entry : channel.pipeline()) {
+            for (Class<?> clazz = entry.getValue().getClass(); clazz != null; clazz = clazz.getSuperclass()) {
+                if (SSL_HANDLER_CLASS.equals(clazz.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copy HTTP headers into a map of lower-cased header name to values, since header names are case-insensitive
+     *
+     * @param headers the headers
+     * @return a map of each header name to all its values
+     */
+    static Map<String, List<String>> headerMap(HttpHeaders headers) {
+        Map<String, List<String>> ret = new HashMap<>();
+        for (String name : headers.names()) {
+            ret.put(name.toLowerCase(), headers.getAll(name));
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.netty;
+
+import software.amazon.disco.agent.event.HeaderReplaceable;
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Specialization allowing header replacement, for requests written to a Netty client Channel.
+ */
+class NettyHttpServiceDownstreamRequestEvent extends HttpServiceDownstreamRequestEvent implements HeaderReplaceable {
+    private final BiConsumer<String, String> headerSetter;
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Construct a new NettyHttpServiceDownstreamRequestEvent
+     * @param origin the origin of the downstream call e.g. 'Web' or 'gRPC'
+     * @param service the service name e.g. 'WeatherService'
+     * @param operation the operation name e.g. 'getWeather'
+     * @param headerSetter a function to set a header of the request, replacing any of the same name
+     */
+    NettyHttpServiceDownstreamRequestEvent(String origin, String service, String operation, BiConsumer<String, String> headerSetter) {
+        super(origin, service, operation);
+        this.headerSetter = headerSetter;
+    }
+
+    /**
+     * Get the time at which this request event was created, which precedes the request being written
+     * @return the value of System.nanoTime() when this event was created
+     */
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Replace all headers of the given name, with a new single header of the given value
+     * @param name the header name
+     * @param value the header value
+     * @return true if successful
+     */
+    @Override
+    public boolean replaceHeader(String name, String value) {
+        headerSetter.accept(name, value);
+        return true;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.netty;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import software.amazon.disco.agent.concurrent.MetadataItem;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServletNetworkRequestEvent;
+import software.amazon.disco.agent.event.HttpServletNetworkResponseEvent;
+import software.amazon.disco.agent.logging.LogManager;
+import software.amazon.disco.agent.logging.Logger;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An HTTP request being served by a Channel accepted by a Netty server, or by an HTTP/2 stream of one. The request
+ * begins a transaction, which is attached to the Channel until the end of the response is written.
+ *
+ * Only one request is served at a time per Channel, so further requests pipelined over HTTP/1.1 before the response is
+ * written are served within the transaction of the first.
+ */
+class NettyServerExchange {
+    private static final Logger log = LogManager.getLogger(NettyServerExchange.class);
+    private static final AttributeKey<NettyServerExchange> SERVER_EXCHANGE = AttributeKey.valueOf("software.amazon.disco.agent.netty.NettyServerExchange");
+    static final String EVENT_ORIGIN = "NettyHttpServer";
+
+    private static final String DATE_HEADER = "date";
+    private static final String HOST_HEADER = "host";
+    private static final String ORIGIN_HEADER = "origin";
+    private static final String REFERER_HEADER = "referer";
+    private static final String USER_AGENT_HEADER = "user-agent";
+
+    private final HttpServletNetworkRequestEvent requestEvent;
+    private final ConcurrentMap<String, MetadataItem> transactionContext;
+    private int statusCode = -1;
+    private Object response;
+    private Supplier<Map<String, List<String>>> responseHeaderSource;
+
+    /**
+     * Construct a new NettyServerExchange
+     * @param requestEvent the published request event
+     * @param transactionContext the transaction begun for the request
+     */
+    private NettyServerExchange(HttpServletNetworkRequestEvent requestEvent, ConcurrentMap<String, MetadataItem> transactionContext) {
+        this.requestEvent = requestEvent;
+        this.transactionContext = transactionContext;
+    }
+
+    /**
+     * Begin a transaction for a request read from a Channel, unless one is already in progress, and publish the request
+     * event within it. The transaction is left on this thread, for the remainder of the handler invocation.
+     *
+     * @param channel the Channel from which the request was read
+     * @param request the request object, e.g. an HttpRequest
+     * @param method the HTTP method
+     * @param url the URL of the request
+     * @param header a function to retrieve the first value of a request header
+     * @param headerSource a supplier of all the request headers, only called if a listener accesses them
+     */
+    static void begin(Channel channel, Object request, String method, String url,
+                      Function<String, String> header, Supplier<Map<String, List<String>>> headerSource) {
+        if (channel.attr(SERVER_EXCHANGE).get() != null) {
+            return;
+        }
+
+        //the event loop thread may hold the transaction of another Channel, or none
+        TransactionContext.clear();
+        TransactionContext.create();
+        ConcurrentMap<String, MetadataItem> transactionContext = TransactionContext.getPrivateMetadata();
+        channel.attr(NettyTransactions.TRANSACTION_CONTEXT).set(transactionContext);
+
+        try {
+            InetSocketAddress remote = asInetSocketAddress(channel.remoteAddress());
+            InetSocketAddress local = asInetSocketAddress(channel.localAddress());
+            HttpServletNetworkRequestEvent requestEvent = new HttpServletNetworkRequestEvent(EVENT_ORIGIN,
+                    remote == null ? -1 : remote.getPort(), local == null ? -1 : local.getPort(),
+                    remote == null ? null : remote.getAddress().getHostAddress(), local == null ? null : local.getAddress().getHostAddress())
+                    .withHeaderSource(headerSource)
+                    .withDate(header.apply(DATE_HEADER))
+                    .withHost(header.apply(HOST_HEADER))
+                    .withHTTPOrigin(header.apply(ORIGIN_HEADER))
+                    .withReferer(header.apply(REFERER_HEADER))
+                    .withUserAgent(header.apply(USER_AGENT_HEADER))
+                    .withMethod(method)
+                    .withRequest(request)
+                    .withURL(url);
+            channel.attr(SERVER_EXCHANGE).set(new NettyServerExchange(requestEvent, transactionContext));
+            EventBus.publish(requestEvent);
+        } catch (Throwable t) {
+            log.error("DiSCo(Netty) Failed to retrieve request data from Netty request.");
+        }
+    }
+
+    /**
+     * Record the status of a response being written to a Channel, if serving a request.
+     *
+     * @param channel the Channel to which the response is written
+     * @param response the response object, e.g. an HttpResponse
+     * @param statusCode the HTTP status code
+     * @param headerSource a supplier of all the response headers, only called if a listener accesses them
+     */
+    static void respond(Channel channel, Object response, int statusCode, Supplier<Map<String, List<String>>> headerSource) {
+        NettyServerExchange exchange = channel.attr(SERVER_EXCHANGE).get();
+        if (exchange != null) {
+            exchange.response = response;
+            exchange.statusCode = statusCode;
+            exchange.responseHeaderSource = headerSource;
+        }
+    }
+
+    /**
+     * Publish the response event and end the transaction, when the end of a response is written to a Channel, if
+     * serving a request. Afterwards, the header sources of both events are dropped, since the request and response
+     * objects may then be released or reused.
+     *
+     * @param channel the Channel to which the response is written
+     */
+    static void end(Channel channel) {
+        NettyServerExchange exchange = channel.attr(SERVER_EXCHANGE).getAndSet(null);
+        if (exchange == null) {
+            return;
+        }
+        channel.attr(NettyTransactions.TRANSACTION_CONTEXT).compareAndSet(exchange.transactionContext, null);
+
+        ConcurrentMap<String, MetadataItem> previous = TransactionContext.getPrivateMetadata();
+        TransactionContext.setPrivateMetadata(exchange.transactionContext);
+        try {
+            HttpServletNetworkResponseEvent responseEvent = new HttpServletNetworkResponseEvent(EVENT_ORIGIN, exchange.requestEvent)
+                    .withStatusCode(exchange.statusCode)
+                    .withResponse(exchange.response);
+            if (exchange.responseHeaderSource != null) {
+                responseEvent.withHeaderSource(exchange.responseHeaderSource);
+            }
+            EventBus.publish(responseEvent);
+            responseEvent.dropHeaderSource();
+        } finally {
+            exchange.requestEvent.dropHeaderSource();
+            //match the create() call made when the request began
+            TransactionContext.destroy();
+            if (previous != exchange.transactionContext) {
+                TransactionContext.setPrivateMetadata(previous);
+            }
+        }
+    }
+
+    /**
+     * Narrow a Channel's address to an InetSocketAddress, if it is one.
+     *
+     * @param address the address of a Channel
+     * @return the InetSocketAddress with a resolved address, or null
+     */
+    private static InetSocketAddress asInetSocketAddress(SocketAddress address) {
+        if (address instanceof InetSocketAddress && ((InetSocketAddress) address).getAddress() != null) {
+            return (InetSocketAddress) address;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.netty;
+
+import software.amazon.disco.agent.interception.Installable;
+import software.amazon.disco.agent.interception.Package;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Package definition for the disco-java-agent-netty package.
+ */
+public class NettySupport implements Package {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Installable> get() {
+        return Collections.singletonList(new ChannelHandlerContextInterceptor());
+    }
+}
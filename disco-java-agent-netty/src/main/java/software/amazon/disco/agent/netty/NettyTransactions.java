@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ServerChannel;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import software.amazon.disco.agent.concurrent.MetadataItem;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+import software.amazon.disco.agent.plugin.ResourcesClassInjector;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A Netty event loop thread multiplexes many Channels, so the TransactionContext of a request is attached to its Channel
+ * instead of to a thread, and swapped onto the event loop thread around each ChannelHandler invocation for that Channel.
+ *
+ * Handlers mostly invoke one another in a nested fashion, e.g. a decoder's channelRead() calling fireChannelRead(), so
+ * only the outermost invocation for an event finds the thread's TransactionContext differing from the Channel's and
+ * swaps it, and the others cost an attribute lookup and a comparison.
+ *
+ * This class and the other classes of this package which reference the Netty API are injected into the classloader
+ * which loaded Netty.
+ */
+public class NettyTransactions {
+    static final AttributeKey<ConcurrentMap<String, MetadataItem>> TRANSACTION_CONTEXT =
+            AttributeKey.valueOf("software.amazon.disco.agent.netty.TransactionContext");
+    static final boolean HTTP_PRESENT = isPresent("io.netty.handler.codec.http.HttpObject");
+    static final boolean HTTP2_PRESENT = isPresent("io.netty.handler.codec.http2.Http2StreamChannel");
+
+    /**
+     * Called before a ChannelHandler is invoked, to swap the TransactionContext of its Channel, if any, onto this thread.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param context the ChannelHandlerContext of the handler about to be invoked
+     * @return the TransactionContext to restore in {@link #exit}, or null if it was not swapped
+     */
+    public static Object enter(final Object context) {
+        ConcurrentMap<String, MetadataItem> channelTransactionContext = ((ChannelHandlerContext) context).channel().attr(TRANSACTION_CONTEXT).get();
+        if (channelTransactionContext == null) {
+            return null;
+        }
+        ConcurrentMap<String, MetadataItem> previous = TransactionContext.getPrivateMetadata();
+        if (previous == channelTransactionContext) {
+            return null;
+        }
+        TransactionContext.setPrivateMetadata(channelTransactionContext);
+        return previous;
+    }
+
+    /**
+     * Called before a message is delivered to a ChannelHandler's channelRead(). As well as swapping the Channel's
+     * TransactionContext onto this thread, an HTTP request may begin a transaction, or an HTTP response end one.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param context the ChannelHandlerContext of the handler about to be invoked
+     * @param msg the message being read
+     * @return the TransactionContext to restore in {@link #exit}
+     */
+    public static Object enterRead(final Object context, final Object msg) {
+        ConcurrentMap<String, MetadataItem> previous = TransactionContext.getPrivateMetadata();
+        Channel channel = ((ChannelHandlerContext) context).channel();
+        swapIn(channel, previous);
+        if (HTTP_PRESENT) {
+            NettyHttpMessages.onRead(channel, msg);
+        }
+        if (HTTP2_PRESENT) {
+            NettyHttp2Frames.onRead(channel, msg);
+        }
+        return previous;
+    }
+
+    /**
+     * Called before a message is passed to a ChannelHandler's write(). As well as swapping the Channel's
+     * TransactionContext onto this thread, an HTTP request may begin a downstream call, or an HTTP response end a
+     * transaction.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param context the ChannelHandlerContext of the handler about to be invoked
+     * @param msg the message being written
+     * @return the TransactionContext to restore in {@link #exit}
+     */
+    public static Object enterWrite(final Object context, final Object msg) {
+        ConcurrentMap<String, MetadataItem> previous = TransactionContext.getPrivateMetadata();
+        Channel channel = ((ChannelHandlerContext) context).channel();
+        swapIn(channel, previous);
+        if (HTTP_PRESENT) {
+            NettyHttpMessages.onWrite(channel, msg);
+        }
+        if (HTTP2_PRESENT) {
+            NettyHttp2Frames.onWrite(channel, msg);
+        }
+        return previous;
+    }
+
+    /**
+     * Called after a ChannelHandler has been invoked, to restore the TransactionContext which this thread had before.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param previous the value returned by {@link #enter}, {@link #enterRead} or {@link #enterWrite}
+     */
+    @SuppressWarnings("unchecked")
+    public static void exit(final Object previous) {
+        if (previous != null && TransactionContext.getPrivateMetadata() != previous) {
+            TransactionContext.setPrivateMetadata((ConcurrentMap<String, MetadataItem>) previous);
+        }
+    }
+
+    /**
+     * Called on the thread which creates a client Channel or writes to it, to attach that thread's transaction to the
+     * Channel, so that the response is handled within it. Server Channels are not attached
+     * to, since their transactions begin with each request read from them.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param context a ChannelHandlerContext of the Channel
+     */
+    public static void attach(final Object context) {
+        if (!TransactionContext.isWithinCreatedContext()) {
+            return;
+        }
+        ConcurrentMap<String, MetadataItem> current = TransactionContext.getPrivateMetadata();
+        Channel channel = ((ChannelHandlerContext) context).channel();
+        Attribute<ConcurrentMap<String, MetadataItem>> attribute = channel.attr(TRANSACTION_CONTEXT);
+        if (attribute.get() != current && isClientChannel(channel)) {
+            attribute.set(current);
+        }
+    }
+
+    /**
+     * Swap the TransactionContext of a Channel, if any, onto this thread.
+     *
+     * @param channel the Channel
+     * @param current the current TransactionContext of this thread
+     */
+    private static void swapIn(final Channel channel, final ConcurrentMap<String, MetadataItem> current) {
+        ConcurrentMap<String, MetadataItem> channelTransactionContext = channel.attr(TRANSACTION_CONTEXT).get();
+        if (channelTransactionContext != null && channelTransactionContext != current) {
+            TransactionContext.setPrivateMetadata(channelTransactionContext);
+        }
+    }
+
+    /**
+     * Determine if a Channel was opened by this process, rather than accepted by a server, such as an HTTP/2 stream
+     * of an accepted connection.
+     *
+     * @param channel the Channel
+     * @return true if no ancestor of the Channel is a ServerChannel
+     */
+    static boolean isClientChannel(final Channel channel) {
+        for (Channel ancestor = channel.parent(); ancestor != null; ancestor = ancestor.parent()) {
+            if (ancestor instanceof ServerChannel) {
+                return false;
+            }
+        }
+        return !(channel instanceof ServerChannel);
+    }
+
+    /**
+     * Determine if an optional Netty module is present alongside the transport.
+     *
+     * @param className a class of the module
+     * @return true if the class can be loaded by the classloader of this class
+     */
+    private static boolean isPresent(final String className) {
+        return ResourcesClassInjector.classExistsIn(className, NettyTransactions.class.getClassLoader());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.netty;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChannelHandlerContextInterceptorTests {
+    private static TypeDescription contextType;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        //the class is package-private
+        contextType = new TypeDescription.ForLoadedType(Class.forName("io.netty.channel.AbstractChannelHandlerContext"));
+    }
+
+    @Test
+    public void testInstallation() {
+        AgentBuilder agentBuilder = mock(AgentBuilder.class);
+        AgentBuilder.Identified.Extendable extendable = mock(AgentBuilder.Identified.Extendable.class);
+        AgentBuilder.Identified.Narrowable narrowable = mock(AgentBuilder.Identified.Narrowable.class);
+        when(agentBuilder.type(any(ElementMatcher.class))).thenReturn(narrowable);
+        when(narrowable.transform(any(AgentBuilder.Transformer.class))).thenReturn(extendable);
+        AgentBuilder result = new ChannelHandlerContextInterceptor().install(agentBuilder);
+        assertSame(extendable, result);
+    }
+
+    @Test
+    public void testIsDeferrable() {
+        assertTrue(new ChannelHandlerContextInterceptor().isDeferrable());
+    }
+
+    @Test
+    public void testClassMatcher() {
+        assertTrue(ChannelHandlerContextInterceptor.buildClassMatcher().matches(contextType));
+        assertFalse(ChannelHandlerContextInterceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(String.class)));
+    }
+
+    @Test
+    public void testInvokeMethodMatcher() {
+        Set<String> expected = new HashSet<>(Arrays.asList(
+                "invokeChannelRegistered()",
+                "invokeChannelUnregistered()",
+                "invokeChannelActive()",
+                "invokeChannelInactive()",
+                "invokeExceptionCaught(java.lang.Throwable)",
+                "invokeUserEventTriggered(java.lang.Object)",
+                "invokeChannelReadComplete()",
+                "invokeChannelWritabilityChanged()",
+                "invokeBind(java.net.SocketAddress,io.netty.channel.ChannelPromise)",
+                "invokeConnect(java.net.SocketAddress,java.net.SocketAddress,io.netty.channel.ChannelPromise)",
+                "invokeDisconnect(io.netty.channel.ChannelPromise)",
+                "invokeClose(io.netty.channel.ChannelPromise)",
+                "invokeDeregister(io.netty.channel.ChannelPromise)",
+                "invokeRead()",
+                "invokeFlush0()"));
+        assertEquals(expected, matchingMethods(ChannelHandlerContextInterceptor.buildInvokeMethodMatcher()));
+    }
+
+    @Test
+    public void testChannelReadMethodMatcher() {
+        assertEquals(new HashSet<>(Arrays.asList("invokeChannelRead(java.lang.Object)")),
+                matchingMethods(ChannelHandlerContextInterceptor.buildChannelReadMethodMatcher()));
+    }
+
+    @Test
+    public void testWriteMethodMatcher() {
+        assertEquals(new HashSet<>(Arrays.asList("invokeWrite0(java.lang.Object,io.netty.channel.ChannelPromise)")),
+                matchingMethods(ChannelHandlerContextInterceptor.buildWriteMethodMatcher()));
+    }
+
+    @Test
+    public void testAttachMethodMatcher() {
+        assertEquals(new HashSet<>(Arrays.asList("write(java.lang.Object,boolean,io.netty.channel.ChannelPromise)")),
+                matchingMethods(ChannelHandlerContextInterceptor.buildAttachMethodMatcher()));
+    }
+
+    private static Set<String> matchingMethods(ElementMatcher<? super MethodDescription> matcher) {
+        return contextType.getDeclaredMethods().stream()
+                .filter(matcher::matches)
+                .map(m -> m.getName() + m.getParameters().asTypeList().asErasures().stream()
+                        .map(TypeDescription::getName)
+                        .collect(Collectors.joining(",", "(", ")")))
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.netty;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http2.DefaultHttp2DataFrame;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersFrame;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2HeadersFrame;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.util.AttributeKey;
+import io.netty.util.DefaultAttributeMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.event.HttpServletNetworkRequestEvent;
+import software.amazon.disco.agent.event.HttpServletNetworkResponseEvent;
+import software.amazon.disco.agent.netty.source.MockEventBusListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NettyHttp2FramesTests {
+    private MockEventBusListener mockEventBusListener;
+    private Http2StreamChannel channel;
+
+    @Before
+    public void before() {
+        TransactionContext.clear();
+        mockEventBusListener = new MockEventBusListener();
+        EventBus.addListener(mockEventBusListener);
+        DefaultAttributeMap attributes = new DefaultAttributeMap();
+        channel = mock(Http2StreamChannel.class);
+        when(channel.attr(any(AttributeKey.class))).thenAnswer(invocation -> attributes.attr((AttributeKey<?>) invocation.getArguments()[0]));
+    }
+
+    @After
+    public void after() {
+        EventBus.removeListener(mockEventBusListener);
+        TransactionContext.clear();
+    }
+
+    @Test
+    public void testServerStream() {
+        Http2Headers requestHeaders = new DefaultHttp2Headers()
+                .method("POST").scheme("https").authority("example.com").path("/path")
+                .add("user-agent", "agent")
+                .add("x-multi", "a")
+                .add("x-multi", "b");
+        Http2HeadersFrame requestFrame = new DefaultHttp2HeadersFrame(requestHeaders, false);
+        NettyHttp2Frames.onRead(channel, requestFrame);
+        String transactionId = TransactionContext.get();
+        assertTrue(TransactionContext.isWithinCreatedContext());
+
+        List<HttpServletNetworkRequestEvent> requestEvents = received(HttpServletNetworkRequestEvent.class);
+        assertEquals(1, requestEvents.size());
+        HttpServletNetworkRequestEvent requestEvent = requestEvents.get(0);
+        assertEquals(NettyServerExchange.EVENT_ORIGIN, requestEvent.getOrigin());
+        assertEquals("POST", requestEvent.getMethod());
+        assertEquals("https://example.com/path", requestEvent.getURL());
+        assertEquals("agent", requestEvent.getUserAgent());
+        assertSame(requestFrame, requestEvent.getRequest());
+        assertEquals(2, requestEvent.getHeaders("x-multi").size());
+        assertNull(requestEvent.getHeaders(":path"));
+
+        NettyHttp2Frames.onRead(channel, new DefaultHttp2DataFrame(Unpooled.EMPTY_BUFFER, true));
+        NettyHttp2Frames.onWrite(channel, new DefaultHttp2HeadersFrame(new DefaultHttp2Headers().status("503").add("x-response", "value"), false));
+        assertTrue(received(HttpServletNetworkResponseEvent.class).isEmpty());
+        NettyHttp2Frames.onWrite(channel, new DefaultHttp2DataFrame(Unpooled.EMPTY_BUFFER, true));
+
+        List<HttpServletNetworkResponseEvent> responseEvents = received(HttpServletNetworkResponseEvent.class);
+        assertEquals(1, responseEvents.size());
+        assertEquals(503, responseEvents.get(0).getStatusCode());
+        assertEquals("value", responseEvents.get(0).getFirstHeader("x-response"));
+        assertEquals(transactionId, transactionIdOf(responseEvents.get(0)));
+        assertNull(channel.attr(NettyTransactions.TRANSACTION_CONTEXT).get());
+    }
+
+    @Test
+    public void testServerStreamEndedByHeaders() {
+        NettyHttp2Frames.onRead(channel, new DefaultHttp2HeadersFrame(new DefaultHttp2Headers().method("GET").path("/"), true));
+        NettyHttp2Frames.onWrite(channel, new DefaultHttp2HeadersFrame(new DefaultHttp2Headers().status("204"), true));
+        assertEquals("/", received(HttpServletNetworkRequestEvent.class).get(0).getURL());
+        assertEquals(204, received(HttpServletNetworkResponseEvent.class).get(0).getStatusCode());
+    }
+
+    @Test
+    public void testClientStream() {
+        TransactionContext.create();
+        String transactionId = TransactionContext.get();
+
+        Http2Headers requestHeaders = new DefaultHttp2Headers().method("GET").scheme("https").authority("example.com").path("/resource");
+        NettyHttp2Frames.onWrite(channel, new DefaultHttp2HeadersFrame(requestHeaders, true));
+
+        List<NettyHttpServiceDownstreamRequestEvent> requestEvents = received(NettyHttpServiceDownstreamRequestEvent.class);
+        assertEquals(1, requestEvents.size());
+        NettyHttpServiceDownstreamRequestEvent requestEvent = requestEvents.get(0);
+        assertEquals(NettyClientExchange.EVENT_ORIGIN, requestEvent.getOrigin());
+        assertEquals("GET", requestEvent.getMethod());
+        assertEquals("/resource", requestEvent.getUri());
+        assertTrue(requestEvent.replaceHeader("X-Trace", "trace"));
+        assertEquals("trace", requestHeaders.get("x-trace").toString());
+
+        NettyHttp2Frames.onRead(channel, new DefaultHttp2HeadersFrame(new DefaultHttp2Headers().status("200"), false));
+        assertTrue(received(HttpServiceDownstreamResponseEvent.class).isEmpty());
+        NettyHttp2Frames.onRead(channel, new DefaultHttp2DataFrame(Unpooled.EMPTY_BUFFER, true));
+
+        List<HttpServiceDownstreamResponseEvent> responseEvents = received(HttpServiceDownstreamResponseEvent.class);
+        assertEquals(1, responseEvents.size());
+        assertEquals(200, responseEvents.get(0).getStatusCode());
+        assertSame(requestEvent, responseEvents.get(0).getRequest());
+        assertEquals(transactionId, transactionIdOf(responseEvents.get(0)));
+    }
+
+    @Test
+    public void testConnectionLevelFramesIgnored() {
+        NettyHttp2Frames.onRead(new EmbeddedChannel(), new DefaultHttp2HeadersFrame(new DefaultHttp2Headers().method("GET").path("/"), true));
+        assertTrue(mockEventBusListener.getReceivedEvents().isEmpty());
+    }
+
+    @Test
+    public void testBuildUrl() {
+        assertEquals("/path", NettyHttp2Frames.buildUrl(new DefaultHttp2Headers().path("/path")));
+        assertEquals("http://example.com/path", NettyHttp2Frames.buildUrl(new DefaultHttp2Headers().scheme("http").authority("example.com").path("/path")));
+        assertEquals("https://example.com", NettyHttp2Frames.buildUrl(new DefaultHttp2Headers().authority("example.com")));
+    }
+
+    @Test
+    public void testHeaderMapExcludesPseudoHeaders() {
+        Map<String, List<String>> headers = NettyHttp2Frames.headerMap(new DefaultHttp2Headers().status("200").add("content-type", "text/plain"));
+        assertEquals(1, headers.size());
+        assertEquals("text/plain", headers.get("content-type").get(0));
+    }
+
+    private <T extends Event> List<T> received(Class<T> clazz) {
+        List<T> ret = new ArrayList<>();
+        for (Event event : mockEventBusListener.getReceivedEvents()) {
+            if (clazz.isInstance(event)) {
+                ret.add(clazz.cast(event));
+            }
+        }
+        return ret;
+    }
+
+    private String transactionIdOf(Event event) {
+        return mockEventBusListener.getTransactionIds().get(mockEventBusListener.getReceivedEvents().indexOf(event));
+    }
+}
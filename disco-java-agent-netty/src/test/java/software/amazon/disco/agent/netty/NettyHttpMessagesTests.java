@@ -0,0 +1,223 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.buffer.Unpooled;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.event.HttpServletNetworkRequestEvent;
+import software.amazon.disco.agent.event.HttpServletNetworkResponseEvent;
+import software.amazon.disco.agent.netty.source.MockEventBusListener;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NettyHttpMessagesTests {
+    private MockEventBusListener mockEventBusListener;
+    private EmbeddedChannel channel;
+    private ChannelHandlerContext context;
+
+    @Before
+    public void before() {
+        TransactionContext.clear();
+        mockEventBusListener = new MockEventBusListener();
+        EventBus.addListener(mockEventBusListener);
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        context = channel.pipeline().firstContext();
+    }
+
+    @After
+    public void after() {
+        EventBus.removeListener(mockEventBusListener);
+        channel.finishAndReleaseAll();
+        TransactionContext.clear();
+    }
+
+    @Test
+    public void testServerRequestBeginsTransaction() {
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/path?query");
+        request.headers().set("Host", "example.com");
+        request.headers().set("User-Agent", "agent");
+        request.headers().add("X-Multi", "a");
+        request.headers().add("X-Multi", "b");
+
+        Object previous = NettyTransactions.enterRead(context, request);
+        assertTrue(TransactionContext.isWithinCreatedContext());
+        String transactionId = TransactionContext.get();
+        NettyTransactions.exit(previous);
+        assertFalse(TransactionContext.isWithinCreatedContext());
+
+        List<HttpServletNetworkRequestEvent> events = received(HttpServletNetworkRequestEvent.class);
+        assertEquals(1, events.size());
+        HttpServletNetworkRequestEvent event = events.get(0);
+        assertEquals(NettyServerExchange.EVENT_ORIGIN, event.getOrigin());
+        assertEquals("GET", event.getMethod());
+        assertEquals("http://example.com/path?query", event.getURL());
+        assertEquals("agent", event.getUserAgent());
+        assertEquals("example.com", event.getHost());
+        assertSame(request, event.getRequest());
+        assertEquals(2, event.getHeaders("x-multi").size());
+        assertEquals(transactionId, transactionIdOf(event));
+        assertNotNull(channel.attr(NettyTransactions.TRANSACTION_CONTEXT).get());
+        request.release();
+    }
+
+    @Test
+    public void testServerResponseEndsTransaction() {
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/path");
+        NettyTransactions.exit(NettyTransactions.enterRead(context, request));
+        String transactionId = transactionIdOf(received(HttpServletNetworkRequestEvent.class).get(0));
+
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_FOUND);
+        response.headers().set("X-Response", "value");
+        NettyTransactions.exit(NettyTransactions.enterWrite(context, response));
+
+        List<HttpServletNetworkResponseEvent> events = received(HttpServletNetworkResponseEvent.class);
+        assertEquals(1, events.size());
+        HttpServletNetworkResponseEvent event = events.get(0);
+        assertEquals(NettyServerExchange.EVENT_ORIGIN, event.getOrigin());
+        assertEquals(404, event.getStatusCode());
+        assertSame(response, event.getResponse());
+        assertEquals("value", event.getFirstHeader("x-response"));
+        assertSame(received(HttpServletNetworkRequestEvent.class).get(0), event.getHttpRequestEvent());
+        assertEquals(transactionId, transactionIdOf(event));
+        assertNull(channel.attr(NettyTransactions.TRANSACTION_CONTEXT).get());
+        assertFalse(TransactionContext.isWithinCreatedContext());
+        request.release();
+        response.release();
+    }
+
+    @Test
+    public void testServerResponseEndsWithLastContent() {
+        NettyTransactions.exit(NettyTransactions.enterRead(context, new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/")));
+        NettyTransactions.exit(NettyTransactions.enterRead(context, LastHttpContent.EMPTY_LAST_CONTENT));
+
+        NettyTransactions.exit(NettyTransactions.enterWrite(context, new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK)));
+        NettyTransactions.exit(NettyTransactions.enterWrite(context, new DefaultHttpContent(Unpooled.EMPTY_BUFFER)));
+        assertTrue(received(HttpServletNetworkResponseEvent.class).isEmpty());
+
+        NettyTransactions.exit(NettyTransactions.enterWrite(context, LastHttpContent.EMPTY_LAST_CONTENT));
+        assertEquals(1, received(HttpServletNetworkResponseEvent.class).size());
+        assertEquals(200, received(HttpServletNetworkResponseEvent.class).get(0).getStatusCode());
+    }
+
+    @Test
+    public void testPipelinedRequestJoinsTransactionInProgress() {
+        NettyTransactions.exit(NettyTransactions.enterRead(context, new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/first")));
+        NettyTransactions.exit(NettyTransactions.enterRead(context, new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/second")));
+        assertEquals(1, received(HttpServletNetworkRequestEvent.class).size());
+        assertEquals("/first", received(HttpServletNetworkRequestEvent.class).get(0).getURL());
+    }
+
+    @Test
+    public void testClientRequestAndResponse() {
+        TransactionContext.create();
+        String transactionId = TransactionContext.get();
+        NettyTransactions.attach(context);
+        TransactionContext.clear();
+
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.PUT, "/resource");
+        NettyTransactions.exit(NettyTransactions.enterWrite(context, request));
+        //passing through a further outbound handler does not publish again
+        NettyTransactions.exit(NettyTransactions.enterWrite(context, request));
+
+        List<NettyHttpServiceDownstreamRequestEvent> requestEvents = received(NettyHttpServiceDownstreamRequestEvent.class);
+        assertEquals(1, requestEvents.size());
+        NettyHttpServiceDownstreamRequestEvent requestEvent = requestEvents.get(0);
+        assertEquals(NettyClientExchange.EVENT_ORIGIN, requestEvent.getOrigin());
+        assertEquals("PUT", requestEvent.getMethod());
+        assertEquals("/resource", requestEvent.getUri());
+        assertEquals(transactionId, transactionIdOf(requestEvent));
+        assertTrue(requestEvent.replaceHeader("X-Trace", "trace"));
+        assertEquals("trace", request.headers().get("x-trace"));
+
+        NettyTransactions.exit(NettyTransactions.enterRead(context, new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.CREATED)));
+        assertTrue(received(HttpServiceDownstreamResponseEvent.class).isEmpty());
+        NettyTransactions.exit(NettyTransactions.enterRead(context, LastHttpContent.EMPTY_LAST_CONTENT));
+
+        List<HttpServiceDownstreamResponseEvent> responseEvents = received(HttpServiceDownstreamResponseEvent.class);
+        assertEquals(1, responseEvents.size());
+        assertEquals(201, responseEvents.get(0).getStatusCode());
+        assertSame(requestEvent, responseEvents.get(0).getRequest());
+        assertTrue(responseEvents.get(0).getDuration() >= 0);
+        assertEquals(transactionId, transactionIdOf(responseEvents.get(0)));
+        assertNull(channel.attr(NettyTransactions.TRANSACTION_CONTEXT).get());
+    }
+
+    @Test
+    public void testNonHttpMessagesIgnored() {
+        NettyTransactions.exit(NettyTransactions.enterRead(context, "message"));
+        NettyTransactions.exit(NettyTransactions.enterWrite(context, Unpooled.EMPTY_BUFFER));
+        assertTrue(mockEventBusListener.getReceivedEvents().isEmpty());
+    }
+
+    @Test
+    public void testBuildUrl() throws Exception {
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/path");
+        assertEquals("/path", NettyHttpMessages.buildUrl(channel, request));
+        request.headers().set("Host", "example.com:8080");
+        assertEquals("http://example.com:8080/path", NettyHttpMessages.buildUrl(channel, request));
+
+        SSLEngine engine = SSLContext.getDefault().createSSLEngine();
+        engine.setUseClientMode(false);
+        EmbeddedChannel secureChannel = new EmbeddedChannel(new SslHandler(engine));
+        assertEquals("https://example.com:8080/path", NettyHttpMessages.buildUrl(secureChannel, request));
+        secureChannel.finishAndReleaseAll();
+
+        HttpRequest proxyRequest = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "http://other.com/path");
+        proxyRequest.headers().set("Host", "example.com");
+        assertEquals("http://other.com/path", NettyHttpMessages.buildUrl(channel, proxyRequest));
+    }
+
+    private <T extends Event> List<T> received(Class<T> clazz) {
+        List<T> ret = new ArrayList<>();
+        for (Event event : mockEventBusListener.getReceivedEvents()) {
+            if (clazz.isInstance(event)) {
+                ret.add(clazz.cast(event));
+            }
+        }
+        return ret;
+    }
+
+    private String transactionIdOf(Event event) {
+        return mockEventBusListener.getTransactionIds().get(mockEventBusListener.getReceivedEvents().indexOf(event));
+    }
+}
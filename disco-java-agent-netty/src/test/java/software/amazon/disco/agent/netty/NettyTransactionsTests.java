@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.DefaultChannelId;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.disco.agent.concurrent.MetadataItem;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class NettyTransactionsTests {
+    private EmbeddedChannel channel;
+    private ChannelHandlerContext context;
+
+    @Before
+    public void before() {
+        TransactionContext.clear();
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        context = channel.pipeline().firstContext();
+    }
+
+    @After
+    public void after() {
+        channel.finishAndReleaseAll();
+        TransactionContext.clear();
+    }
+
+    @Test
+    public void testOptionalModulesPresent() {
+        assertTrue(NettyTransactions.HTTP_PRESENT);
+        assertTrue(NettyTransactions.HTTP2_PRESENT);
+    }
+
+    @Test
+    public void testEnterWithoutChannelTransactionDoesNotSwap() {
+        ConcurrentMap<String, MetadataItem> original = TransactionContext.getPrivateMetadata();
+        assertNull(NettyTransactions.enter(context));
+        assertSame(original, TransactionContext.getPrivateMetadata());
+        NettyTransactions.exit(null);
+        assertSame(original, TransactionContext.getPrivateMetadata());
+    }
+
+    @Test
+    public void testEnterAndExitSwapChannelTransaction() {
+        ConcurrentMap<String, MetadataItem> original = TransactionContext.getPrivateMetadata();
+        ConcurrentMap<String, MetadataItem> channelTransaction = createTransaction();
+        channel.attr(NettyTransactions.TRANSACTION_CONTEXT).set(channelTransaction);
+
+        Object previous = NettyTransactions.enter(context);
+        assertSame(original, previous);
+        assertSame(channelTransaction, TransactionContext.getPrivateMetadata());
+
+        //a nested invocation finds the transaction already in place
+        assertNull(NettyTransactions.enter(context));
+        NettyTransactions.exit(null);
+        assertSame(channelTransaction, TransactionContext.getPrivateMetadata());
+
+        NettyTransactions.exit(previous);
+        assertSame(original, TransactionContext.getPrivateMetadata());
+    }
+
+    @Test
+    public void testEnterReadAndEnterWriteSwapChannelTransaction() {
+        ConcurrentMap<String, MetadataItem> original = TransactionContext.getPrivateMetadata();
+        ConcurrentMap<String, MetadataItem> channelTransaction = createTransaction();
+        channel.attr(NettyTransactions.TRANSACTION_CONTEXT).set(channelTransaction);
+
+        Object previous = NettyTransactions.enterRead(context, "message");
+        assertSame(original, previous);
+        assertSame(channelTransaction, TransactionContext.getPrivateMetadata());
+        NettyTransactions.exit(previous);
+        assertSame(original, TransactionContext.getPrivateMetadata());
+
+        previous = NettyTransactions.enterWrite(context, "message");
+        assertSame(original, previous);
+        assertSame(channelTransaction, TransactionContext.getPrivateMetadata());
+        NettyTransactions.exit(previous);
+        assertSame(original, TransactionContext.getPrivateMetadata());
+    }
+
+    @Test
+    public void testExitRestoresAfterThrowingHandlerChangedTransaction() {
+        ConcurrentMap<String, MetadataItem> original = TransactionContext.getPrivateMetadata();
+        channel.attr(NettyTransactions.TRANSACTION_CONTEXT).set(createTransaction());
+        Object previous = NettyTransactions.enter(context);
+        TransactionContext.clear();
+        NettyTransactions.exit(previous);
+        assertSame(original, TransactionContext.getPrivateMetadata());
+    }
+
+    @Test
+    public void testAttachOutsideTransactionDoesNothing() {
+        NettyTransactions.attach(context);
+        assertNull(channel.attr(NettyTransactions.TRANSACTION_CONTEXT).get());
+    }
+
+    @Test
+    public void testAttachToClientChannel() {
+        TransactionContext.create();
+        NettyTransactions.attach(context);
+        assertSame(TransactionContext.getPrivateMetadata(), channel.attr(NettyTransactions.TRANSACTION_CONTEXT).get());
+    }
+
+    @Test
+    public void testAttachToAcceptedChannelDoesNothing() {
+        EmbeddedChannel accepted = new EmbeddedChannel(mock(ServerChannel.class), DefaultChannelId.newInstance(), true, false, new ChannelInboundHandlerAdapter());
+        TransactionContext.create();
+        NettyTransactions.attach(accepted.pipeline().firstContext());
+        assertNull(accepted.attr(NettyTransactions.TRANSACTION_CONTEXT).get());
+        accepted.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testIsClientChannel() {
+        Channel connection = new EmbeddedChannel();
+        Channel accepted = new EmbeddedChannel(mock(ServerChannel.class), DefaultChannelId.newInstance(), true, false);
+        Channel acceptedStream = new EmbeddedChannel(accepted, DefaultChannelId.newInstance(), true, false);
+        assertTrue(NettyTransactions.isClientChannel(connection));
+        assertTrue(NettyTransactions.isClientChannel(new EmbeddedChannel(connection, DefaultChannelId.newInstance(), true, false)));
+        assertFalse(NettyTransactions.isClientChannel(accepted));
+        assertFalse(NettyTransactions.isClientChannel(acceptedStream));
+        assertFalse(NettyTransactions.isClientChannel(mock(ServerChannel.class)));
+    }
+
+    private static ConcurrentMap<String, MetadataItem> createTransaction() {
+        ConcurrentMap<String, MetadataItem> original = TransactionContext.getPrivateMetadata();
+        TransactionContext.clear();
+        TransactionContext.create();
+        ConcurrentMap<String, MetadataItem> created = TransactionContext.getPrivateMetadata();
+        TransactionContext.setPrivateMetadata(original);
+        return created;
+    }
+}
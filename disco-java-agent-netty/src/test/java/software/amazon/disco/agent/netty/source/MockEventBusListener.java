@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.netty.source;
+
+import software.amazon.disco.agent.concurrent.TransactionContext;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.HeaderRetrievable;
+import software.amazon.disco.agent.event.Listener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MockEventBusListener implements Listener {
+
+
+    public List<Event> getReceivedEvents() {
+        return receivedEvents;
+    }
+
+    public List<String> getTransactionIds() {
+        return transactionIds;
+    }
+
+    private List<Event> receivedEvents = new ArrayList<>();
+    private List<String> transactionIds = new ArrayList<>();
+
+    @Override
+    public int getPriority() {
+        return 0;
+    }
+
+    @Override
+    public void listen(Event event) {
+        receivedEvents.add(event);
+        transactionIds.add(TransactionContext.get());
+        //headers are only readable while the exchange is in progress, so read them as a retaining listener must
+        if (event instanceof HeaderRetrievable) {
+            ((HeaderRetrievable) event).getAllHeaders();
+        }
+    }
+}
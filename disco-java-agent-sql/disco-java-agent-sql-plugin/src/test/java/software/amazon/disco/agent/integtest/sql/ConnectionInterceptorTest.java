@@ -83,6 +83,17 @@ public class ConnectionInterceptorTest {
         }
     }
 
+    @Test
+    public void testSetCatalogChangesService() throws SQLException {
+        connection.prepareStatement(QUERY);
+        connection.setCatalog("OTHER_DB");
+        connection.prepareStatement(QUERY);
+
+        Assert.assertEquals(2, listener.requestEvents.size());
+        Assert.assertEquals(DB, listener.requestEvents.get(0).getService());
+        Assert.assertEquals("OTHER_DB", listener.requestEvents.get(1).getService());
+    }
+
     private void verifyRequestEvent() {
         Assert.assertEquals(1, listener.requestEvents.size());
         ServiceRequestEvent event = listener.requestEvents.get(0);
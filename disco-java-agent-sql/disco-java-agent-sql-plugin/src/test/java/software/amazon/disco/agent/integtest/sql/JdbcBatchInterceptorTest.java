@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.integtest.sql;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import software.amazon.disco.agent.event.BatchServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.Listener;
+import software.amazon.disco.agent.event.ServiceRequestEvent;
+import software.amazon.disco.agent.integtest.sql.source.MyPreparedStatementImpl;
+import software.amazon.disco.agent.integtest.sql.source.MyStatementImpl;
+import software.amazon.disco.agent.reflect.event.EventBus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JdbcBatchInterceptorTest {
+    private static final String DB = "MY_DB";
+
+    private TestListener listener;
+    private Statement statement;
+    private PreparedStatement preparedStatement;
+
+    @Mock
+    Connection mockConnection;
+
+    @Mock
+    ResultSet mockResultSet;
+
+    @Before
+    public void setup() throws SQLException {
+        listener = new TestListener();
+        EventBus.addListener(listener);
+
+        statement = new MyStatementImpl(mockConnection, mockResultSet);
+        preparedStatement = new MyPreparedStatementImpl(mockConnection, mockResultSet);
+
+        when(mockConnection.getCatalog()).thenReturn(DB);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        EventBus.removeAllListeners();
+    }
+
+    @Test
+    public void testExecuteBatchOnStatement() throws SQLException {
+        statement.addBatch("INSERT 1");
+        statement.addBatch("INSERT 2");
+        int[] res = statement.executeBatch();
+
+        verifyEvents(statement, null, res, 2);
+    }
+
+    @Test
+    public void testExecuteBatchOnPreparedStatement() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            preparedStatement.addBatch();
+        }
+        int[] res = preparedStatement.executeBatch();
+
+        verifyEvents(preparedStatement, MyStatementImpl.QUERY, res, 3);
+    }
+
+    private void verifyEvents(Statement statement, String operation, Object response, int statementCount) {
+        Assert.assertEquals(1, listener.requestEvents.size());
+        ServiceRequestEvent requestEvent = listener.requestEvents.get(0);
+        Assert.assertEquals(statement, requestEvent.getRequest());
+        Assert.assertEquals(operation, requestEvent.getOperation());
+        Assert.assertEquals(DB, requestEvent.getService());
+
+        Assert.assertEquals(1, listener.responseEvents.size());
+        BatchServiceDownstreamResponseEvent responseEvent = listener.responseEvents.get(0);
+        Assert.assertEquals(response, responseEvent.getResponse());
+        Assert.assertEquals(statementCount, responseEvent.getStatementCount());
+        Assert.assertTrue(responseEvent.getDuration() >= 0L);
+        Assert.assertNull(responseEvent.getThrown());
+    }
+
+    private static class TestListener implements Listener {
+        List<ServiceRequestEvent> requestEvents = new ArrayList<>();
+        List<BatchServiceDownstreamResponseEvent> responseEvents = new ArrayList<>();
+
+        @Override
+        public int getPriority() {
+            return 0;
+        }
+
+        @Override
+        public void listen(Event e) {
+            if (e instanceof ServiceRequestEvent) {
+                requestEvents.add((ServiceRequestEvent) e);
+            } else if (e instanceof BatchServiceDownstreamResponseEvent) {
+                responseEvents.add((BatchServiceDownstreamResponseEvent) e);
+            } else {
+                Assert.fail("Unexpected event");
+            }
+        }
+    }
+}
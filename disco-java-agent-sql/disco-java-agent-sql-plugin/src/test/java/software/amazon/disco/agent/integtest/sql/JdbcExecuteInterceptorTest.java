@@ -27,6 +27,7 @@ import software.amazon.disco.agent.event.Listener;
 import software.amazon.disco.agent.event.ServiceRequestEvent;
 import software.amazon.disco.agent.event.ServiceResponseEvent;
 import software.amazon.disco.agent.integtest.sql.source.MyCallableStatementImpl;
+import software.amazon.disco.agent.integtest.sql.source.MyConnectionImpl;
 import software.amazon.disco.agent.integtest.sql.source.MyPreparedStatementImpl;
 import software.amazon.disco.agent.integtest.sql.source.MyStatementImpl;
 import software.amazon.disco.agent.reflect.event.EventBus;
@@ -131,6 +132,19 @@ public class JdbcExecuteInterceptorTest {
         verifyResponseEvent(rs);
     }
 
+    @Test
+    public void testExecuteQueryOnPreparedStatementReportsPreparedQuery() throws SQLException {
+        String preparedQuery = "SELECT * FROM my_table WHERE id=?";
+        Connection connection = new MyConnectionImpl(preparedStatement, callableStatement);
+        PreparedStatement prepared = connection.prepareStatement(preparedQuery);
+        prepared.executeQuery();
+
+        // the events of prepareStatement, followed by those of executeQuery
+        Assert.assertEquals(2, listener.requestEvents.size());
+        Assert.assertEquals(preparedQuery, listener.requestEvents.get(1).getOperation());
+        Assert.assertEquals(prepared, listener.requestEvents.get(1).getRequest());
+    }
+
     @Test(expected = SQLException.class)
     public void testExceptionCaughtAndThrown() throws SQLException {
         try {
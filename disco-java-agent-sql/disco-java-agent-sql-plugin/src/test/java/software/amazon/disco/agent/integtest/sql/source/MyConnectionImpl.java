@@ -37,6 +37,7 @@ import java.util.concurrent.Executor;
 public class MyConnectionImpl implements Connection {
     private PreparedStatement preparedStatement;
     private CallableStatement callableStatement;
+    private String catalog = "MY_DB";
 
     public MyConnectionImpl(PreparedStatement ps, CallableStatement cs) {
         this.preparedStatement = ps;
@@ -110,12 +111,12 @@ public class MyConnectionImpl implements Connection {
 
     @Override
     public void setCatalog(String catalog) throws SQLException {
-        throw new UnsupportedOperationException();
+        this.catalog = catalog;
     }
 
     @Override
     public String getCatalog() throws SQLException {
-        return "MY_DB";
+        return catalog;
     }
 
     @Override
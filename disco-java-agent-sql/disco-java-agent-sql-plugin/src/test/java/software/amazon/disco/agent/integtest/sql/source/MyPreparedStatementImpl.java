@@ -159,7 +159,7 @@ public class MyPreparedStatementImpl extends MyStatementImpl implements Prepared
 
     @Override
     public void addBatch() throws SQLException {
-
+        batchSize++;
     }
 
     @Override
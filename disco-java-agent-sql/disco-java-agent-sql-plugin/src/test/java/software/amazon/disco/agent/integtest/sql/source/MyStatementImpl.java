@@ -25,6 +25,7 @@ public class MyStatementImpl implements Statement {
     public static final String QUERY = "SQL";
     private final Connection connection;
     protected final ResultSet rs;  //
+    protected int batchSize;
 
     public MyStatementImpl(Connection connection, ResultSet rs) {
         this.connection = connection;
@@ -153,17 +154,19 @@ public class MyStatementImpl implements Statement {
 
     @Override
     public void addBatch(String sql) throws SQLException {
-
+        batchSize++;
     }
 
     @Override
     public void clearBatch() throws SQLException {
-
+        batchSize = 0;
     }
 
     @Override
     public int[] executeBatch() throws SQLException {
-        return new int[0];
+        int[] updateCounts = new int[batchSize];
+        batchSize = 0;
+        return updateCounts;
     }
 
     @Override
@@ -20,6 +20,7 @@ import net.bytebuddy.asm.Advice;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
+import software.amazon.disco.agent.event.AbstractServiceRequestEvent;
 import software.amazon.disco.agent.event.EventBus;
 import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
 import software.amazon.disco.agent.event.ServiceDownstreamResponseEvent;
@@ -33,12 +34,14 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 
 import static net.bytebuddy.matcher.ElementMatchers.hasSuperType;
+import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
 import static net.bytebuddy.matcher.ElementMatchers.isInterface;
 import static net.bytebuddy.matcher.ElementMatchers.nameStartsWith;
 import static net.bytebuddy.matcher.ElementMatchers.named;
 import static net.bytebuddy.matcher.ElementMatchers.not;
 import static net.bytebuddy.matcher.ElementMatchers.returns;
 import static net.bytebuddy.matcher.ElementMatchers.takesArgument;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
 
 /**
  * A class for intercepting methods on the JDBC Connection class.
@@ -69,13 +72,14 @@ public class ConnectionInterceptor implements Installable {
         String db = null;
 
         try {
-            db = conn.getCatalog();
+            db = ConnectionMetadata.forConnection(Connection.class, conn).getCatalog();
         } catch (Exception e) {
             log.warn("Disco(Sql) failed to retrieve Database name for SQL Downstream Service event", e);
         }
 
-        ServiceRequestEvent requestEvent = new ServiceDownstreamRequestEvent(SQL_PREPARE_ORIGIN, db, queryString)
+        AbstractServiceRequestEvent requestEvent = new ServiceDownstreamRequestEvent(SQL_PREPARE_ORIGIN, db, queryString)
                 .withRequest(conn);
+        SqlFingerprint.attach(requestEvent, queryString);
         EventBus.publish(requestEvent);
         return requestEvent;
     }
@@ -83,6 +87,7 @@ public class ConnectionInterceptor implements Installable {
     /**
      * This method is inlined with a preparation method at the moment it would return or throw a {@link Throwable}.
      * It extracts the created statement and throwable if any and publishes a {@link ServiceDownstreamResponseEvent}.
+     * The query string is recorded against the created statement, to be reported when it is executed.
      *
      * @param requestEvent the disco event generated when this prepare request was made
      * @param response the {@code PreparedStatement} returned by the {@code Connection}
@@ -93,6 +98,7 @@ public class ConnectionInterceptor implements Installable {
     public static void exit(@Advice.Enter final ServiceRequestEvent requestEvent,
                             @Advice.Return final PreparedStatement response,
                             @Advice.Thrown final Throwable thrown) {
+        PreparedStatementQueries.record(response, requestEvent.getOperation());
 
         ServiceResponseEvent responseEvent = new ServiceDownstreamResponseEvent(
                 SQL_PREPARE_ORIGIN,
@@ -105,6 +111,24 @@ public class ConnectionInterceptor implements Installable {
         EventBus.publish(responseEvent);
     }
 
+    /**
+     * Advice for Connection.setCatalog(), which discards the Connection's cached {@link ConnectionMetadata}, so that
+     * subsequent events report the new catalog.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     */
+    public static class SetCatalogAdvice {
+        /**
+         * This method is inlined with setCatalog at the moment it would return or throw a {@link Throwable}.
+         *
+         * @param conn Connection object whose catalog is being set
+         */
+        @Advice.OnMethodExit(onThrowable = Throwable.class)
+        public static void exit(@Advice.This final Object conn) {
+            ConnectionMetadata.invalidate(conn);
+        }
+    }
+
     /**
      * Installs part of the Disco SQL interception library into a Java program. Intended to be invoked
      * during an agent's premain.
@@ -118,7 +142,16 @@ public class ConnectionInterceptor implements Installable {
                 .type(buildClassMatcher())
                 .transform(new AgentBuilder.Transformer.ForAdvice()
                         .include(this.getClass().getClassLoader())
-                        .advice(buildMethodMatcher(), ConnectionInterceptor.class.getName()));
+                        .advice(buildMethodMatcher(), ConnectionInterceptor.class.getName())
+                        .advice(buildSetCatalogMethodMatcher(), SetCatalogAdvice.class.getName()));
+    }
+
+    /**
+     * Deferrable, since statements prepared before installation still execute, just with their query taken from toString().
+     */
+    @Override
+    public boolean isDeferrable() {
+        return true;
     }
 
     /**
@@ -143,4 +176,16 @@ public class ConnectionInterceptor implements Installable {
                 .and(takesArgument(0, String.class))
                 .and(returns(hasSuperType(named("java.sql.PreparedStatement"))));
     }
+
+    /**
+     * Builds an ElementMatcher for the setCatalog method, which changes the database name of the Connection.
+     *
+     * @return - An ElementMatcher that can match the setCatalog method
+     */
+    static ElementMatcher<? super MethodDescription> buildSetCatalogMethodMatcher() {
+        return named("setCatalog")
+                .and(takesArguments(1))
+                .and(takesArgument(0, String.class))
+                .and(not(isAbstract()));
+    }
 }
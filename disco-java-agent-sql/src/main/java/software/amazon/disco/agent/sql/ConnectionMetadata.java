@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.sql;
+
+import software.amazon.disco.agent.concurrent.ConcurrentWeakIdentityHashMap;
+import software.amazon.disco.agent.logging.LogManager;
+import software.amazon.disco.agent.logging.Logger;
+
+/**
+ * The metadata of a JDBC Connection which the SQL interceptors report, retrieved once per Connection and cached. Some
+ * drivers make a round trip to the database for getCatalog(), which would otherwise be paid on every statement.
+ * Connections are held weakly and compared by identity, so that the cache does not outlive them, and statements on
+ * different Connections do not contend for it. The cached catalog is invalidated when Connection.setCatalog() is
+ * called, see {@link ConnectionInterceptor.SetCatalogAdvice}, but not when the catalog is changed by executing SQL such
+ * as 'USE db'.
+ *
+ * This class may be loaded by the bootstrap classloader, to which the java.sql types are not visible from Java 9
+ * onwards, so it is given the Connection interface by its callers, and invokes it reflectively.
+ */
+public class ConnectionMetadata {
+    private static final Logger log = LogManager.getLogger(ConnectionMetadata.class);
+    private static final ConcurrentWeakIdentityHashMap<Object, ConnectionMetadata> cache = new ConcurrentWeakIdentityHashMap<>();
+    private static final ConnectionMetadata UNKNOWN = new ConnectionMetadata(null);
+
+    private final String catalog;
+
+    /**
+     * Construct a new ConnectionMetadata
+     * @param catalog the Connection's catalog, i.e. the database name
+     */
+    ConnectionMetadata(String catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Get the metadata of a Connection, retrieving and caching it if this is the first time the Connection is seen.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param connectionClass must be literally 'Connection.class'. Necessary because this class may be loaded where
+     *                        the java.sql types are not visible, so it must be passed in
+     * @param connection the JDBC Connection, or null if the Statement had none
+     * @return the Connection's metadata, whose fields are null where they could not be retrieved
+     */
+    public static ConnectionMetadata forConnection(Class<?> connectionClass, Object connection) {
+        if (connection == null) {
+            return UNKNOWN;
+        }
+        ConnectionMetadata metadata = cache.get(connection);
+        if (metadata == null) {
+            metadata = retrieve(connectionClass, connection);
+            cache.put(connection, metadata);
+        }
+        return metadata;
+    }
+
+    /**
+     * Discard the cached metadata of a Connection, for example because its catalog has changed.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param connection the JDBC Connection
+     */
+    public static void invalidate(Object connection) {
+        cache.remove(connection);
+    }
+
+    /**
+     * Get the Connection's catalog, i.e. the database name
+     * @return the catalog, or null if not available
+     */
+    public String getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Retrieve the metadata of a Connection, on a best effort basis
+     * @param connectionClass the java.sql.Connection interface
+     * @param connection the JDBC Connection
+     * @return the Connection's metadata
+     */
+    private static ConnectionMetadata retrieve(Class<?> connectionClass, Object connection) {
+        String catalog = null;
+        try {
+            catalog = (String) connectionClass.getMethod("getCatalog").invoke(connection);
+        } catch (Exception e) {
+            log.warn("Disco(Sql) failed to retrieve Database name for SQL Downstream Service event", e);
+        }
+        return new ConnectionMetadata(catalog);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.sql;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import software.amazon.disco.agent.event.BatchServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.interception.Installable;
+import software.amazon.disco.agent.logging.LogManager;
+import software.amazon.disco.agent.logging.Logger;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
+import static net.bytebuddy.matcher.ElementMatchers.isDeclaredBy;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.not;
+import static net.bytebuddy.matcher.ElementMatchers.returns;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
+
+/**
+ * This class represents the Disco interception of JDBC batches, executed by executeBatch() or executeLargeBatch()
+ * after statements have been queued with addBatch(). One pair of events is published per batch, rather than per
+ * statement, and addBatch() itself is not intercepted, so that bulk loaders which queue many statements pay for the
+ * instrumentation once per round trip to the database. The number of statements in the batch is taken from the array
+ * of update counts which the driver returns, one per statement.
+ */
+public class JdbcBatchInterceptor implements Installable {
+    // Must be public for use in Advices
+    public static final Logger log = LogManager.getLogger(JdbcBatchInterceptor.class);
+
+    /**
+     * This method is inlined at the beginning of all batch methods matched by {@link #buildMethodMatcher}, and
+     * publishes a {@link ServiceDownstreamRequestEvent} modeled as for {@link JdbcExecuteInterceptor#enter}. For a
+     * PreparedStatement or CallableStatement the operation is its query string when available. A plain Statement's
+     * batch may contain many different query strings, so its operation is null.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param origin Identifier of the intercepted method, for debugging/logging
+     * @param stmt concrete statement class whose batch is being executed
+     * @param startNanos a local variable shared with {@link #exit}, to hold the time at which the batch was issued
+     * @return a ServiceDownstreamRequestEvent with fields populated on a best effort basis
+     */
+    @Advice.OnMethodEnter
+    public static ServiceDownstreamRequestEvent enter(@Advice.Origin final String origin,
+                                                      @Advice.This final Statement stmt,
+                                                      @Advice.Local("startNanos") long startNanos) {
+        if (LogManager.isDebugEnabled()) {
+            log.debug("DiSCo(Sql) interception of " + origin);
+        }
+
+        // see JdbcExecuteInterceptor.enter() for why these classes are passed in. The request event is never drawn from
+        // the pool, since exit() pairs it with a BatchServiceDownstreamResponseEvent and releases neither
+        ServiceDownstreamRequestEvent requestEvent = JdbcExecuteInterceptor.publishRequestEvent(PreparedStatement.class, Statement.class, Connection.class,
+                stmt, null, false);
+        startNanos = System.nanoTime();
+        return requestEvent;
+    }
+
+    /**
+     * This method is inlined with a batch method at the moment it would return or throw a {@link Throwable}, and
+     * publishes a {@link BatchServiceDownstreamResponseEvent} carrying the duration of the batch and the number of
+     * statements in it. If the batch failed with a {@link BatchUpdateException}, the statement count is the number of
+     * update counts it reports, which some drivers limit to the statements executed before the failure.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param requestEvent the returned value of {@link #enter} method, passed in using the Enter annotation
+     * @param response the array of update counts returned by the batch method, or null if an exception was thrown
+     * @param thrown the Throwable thrown by the batch, or null if the batch was successful
+     * @param startNanos the time at which the batch was issued, recorded by {@link #enter}
+     */
+    @Advice.OnMethodExit(onThrowable = Throwable.class)
+    public static void exit(@Advice.Enter final ServiceDownstreamRequestEvent requestEvent,
+                            @Advice.Return final Object response,
+                            @Advice.Thrown final Throwable thrown,
+                            @Advice.Local("startNanos") long startNanos) {
+        long duration = System.nanoTime() - startNanos;
+        int statementCount = -1;
+        if (response instanceof int[]) {
+            statementCount = ((int[]) response).length;
+        } else if (response instanceof long[]) {
+            statementCount = ((long[]) response).length;
+        } else if (thrown instanceof BatchUpdateException && ((BatchUpdateException) thrown).getUpdateCounts() != null) {
+            statementCount = ((BatchUpdateException) thrown).getUpdateCounts().length;
+        }
+
+        BatchServiceDownstreamResponseEvent responseEvent = new BatchServiceDownstreamResponseEvent(
+                JdbcExecuteInterceptor.SQL_ORIGIN,
+                requestEvent.getService(),
+                requestEvent.getOperation(),
+                requestEvent)
+                .withStatementCount(statementCount)
+                .withDuration(duration);
+        responseEvent.withResponse(response).withThrown(thrown);
+        EventBus.publish(responseEvent);
+    }
+
+    /**
+     * Installs the Disco SQL batch interception into a Java program. Intended to be invoked during an agent's premain.
+     *
+     * @param agentBuilder - an AgentBuilder to append instructions to
+     * @return - the {@code AgentBuilder} object for chaining
+     */
+    @Override
+    public AgentBuilder install(final AgentBuilder agentBuilder) {
+        return agentBuilder
+                .type(buildClassMatcher())
+                .transform(new AgentBuilder.Transformer.ForAdvice()
+                    .include(this.getClass().getClassLoader())
+                    .advice(buildMethodMatcher(), JdbcBatchInterceptor.class.getName()));
+    }
+
+    /**
+     * Deferrable, since the batch size is read from executeBatch()'s update counts rather than a field counted by addBatch().
+     */
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
+    /**
+     * Builds an element matcher that will match any implementation of the Statement classes, as for
+     * {@link JdbcExecuteInterceptor#buildClassMatcher()}.
+     * Exposed for testing.
+     *
+     * @return - An ElementMatcher suitable to pass to the type() method of an AgentBuilder
+     */
+    static ElementMatcher<? super TypeDescription> buildClassMatcher() {
+        return JdbcExecuteInterceptor.buildClassMatcher();
+    }
+
+    /**
+     * Builds an ElementMatcher for the 2 methods which execute the batch of a statement: executeBatch, and
+     * executeLargeBatch. Both take no arguments, in all Statement classes.
+     * Exposed for testing.
+     *
+     * @return - An ElementMatcher that can match one of the methods to execute a batch
+     */
+    static ElementMatcher<? super MethodDescription> buildMethodMatcher() {
+        ElementMatcher.Junction<MethodDescription> executeBatchMatcher = named("executeBatch").and(returns(int[].class));
+        ElementMatcher.Junction<MethodDescription> executeLargeBatchMatcher = named("executeLargeBatch").and(returns(long[].class));
+
+        return executeBatchMatcher.or(executeLargeBatchMatcher)
+                .and(takesArguments(0))
+                .and(isDeclaredBy(buildClassMatcher()))
+                .and(not(isAbstract()));
+    }
+}
@@ -21,6 +21,8 @@ import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.RecyclableServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.RecyclableServiceDownstreamResponseEvent;
 import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
 import software.amazon.disco.agent.event.ServiceDownstreamResponseEvent;
 import software.amazon.disco.agent.event.ServiceRequestEvent;
@@ -29,9 +31,13 @@ import software.amazon.disco.agent.interception.Installable;
 import software.amazon.disco.agent.logging.LogManager;
 import software.amazon.disco.agent.logging.Logger;
 
+import java.lang.reflect.Method;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 import static net.bytebuddy.matcher.ElementMatchers.hasSuperType;
 import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
@@ -59,6 +65,10 @@ public class JdbcExecuteInterceptor implements Installable {
     // Must be public for use in Advices
     public static final Logger log = LogManager.getLogger(JdbcExecuteInterceptor.class);
     public static final String SQL_ORIGIN = "SQL";
+    static final String RECYCLE_EVENTS_ARG = "recycleevents";
+
+    private static volatile boolean recycleEvents = false;
+    private static volatile Method getConnectionMethod;
 
     /**
      * This method is inlined at the beginning of all execute methods matched by {@link #buildMethodMatcher}. It
@@ -78,41 +88,29 @@ public class JdbcExecuteInterceptor implements Installable {
      * @return a ServiceDownstreamRequestEvent with fields populated on a best effort basis
      */
     @Advice.OnMethodEnter
-    public static ServiceRequestEvent enter(@Advice.Argument(value = 0, optional = true) String queryString,
-                                            @Advice.Origin final String origin,
-                                            @Advice.This final Statement stmt) {
+    public static ServiceDownstreamRequestEvent enter(@Advice.Argument(value = 0, optional = true) String queryString,
+                                                      @Advice.Origin final String origin,
+                                                      @Advice.This final Statement stmt) {
         if (LogManager.isDebugEnabled()) {
             log.debug("DiSCo(Sql) interception of " + origin);
         }
 
-        String query = null;
-        String db = null;
-        try {
-            // we pass in the classes PreparedStatement and Statement. These classes are visible from here at the interception site, but
-            // the parseQueryFromStatement method is loaded into a different classloader. Since it needs to perform instanceof checks on these
-            // classes, instead we pass them in so that the helper method may use the dynamic variants of instanceof instead, isInstance(), and isAssignableFrom().
-            query = parseQueryFromStatement(PreparedStatement.class, Statement.class, stmt, queryString);
-        } catch (Exception e) {
-            log.warn("Disco(Sql) failed to retrieve query string for SQL Downstream Service event", e);
-        }
-
-        try {
-            db = stmt.getConnection().getCatalog();
-        } catch (Exception e) {
-            log.warn("Disco(Sql) failed to retrieve Database name for SQL Downstream Service event", e);
-        }
-
-        // TODO: Consider replacing Statement Request object with a serializable object containing only relevant metadata
-        ServiceRequestEvent requestEvent = new ServiceDownstreamRequestEvent(SQL_ORIGIN, db, query)
-                .withRequest(stmt);
-        EventBus.publish(requestEvent);
+        // we pass in the classes PreparedStatement, Statement and Connection. These classes are visible from here at the interception site, but
+        // the publishRequestEvent method is loaded into a different classloader. Since it needs to perform instanceof checks and method calls on these
+        // classes, instead we pass them in so that the helper method may use the dynamic variants of instanceof instead, and reflection.
+        ServiceDownstreamRequestEvent requestEvent = publishRequestEvent(PreparedStatement.class, Statement.class, Connection.class,
+                stmt, queryString, isRecyclingEvents());
+        ResultSetStatistics.enterExecute();
         return requestEvent;
     }
 
     /**
      * This method is inlined with an execute method at the moment it would return or throw a {@link Throwable}.
      * It extracts the response and throwable if any and publishes a {@link ServiceDownstreamResponseEvent}.
-     * See {@link #enter} for Event model.
+     * See {@link #enter} for Event model. When event recycling is enabled, both events are returned to their pools
+     * once the response event has been published. When ResultSet interception is enabled, a ResultSet returned by the
+     * outermost execute method on the thread is associated with the query, to be reported when it is closed, see
+     * {@link ResultSetStatistics}.
      *
      * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
      *
@@ -126,16 +124,57 @@ public class JdbcExecuteInterceptor implements Installable {
     public static void exit(@Advice.Enter final ServiceRequestEvent requestEvent,
                             @Advice.Return final Object response,
                             @Advice.Thrown final Throwable thrown) {
+        if (ResultSetStatistics.isEnabled()) {
+            ResultSetStatistics.exitExecute(response instanceof ResultSet ? response : null,
+                    requestEvent.getService(), requestEvent.getOperation());
+        }
+
+        if (requestEvent instanceof RecyclableServiceDownstreamRequestEvent) {
+            RecyclableServiceDownstreamResponseEvent responseEvent = RecyclableServiceDownstreamResponseEvent.acquire(
+                    SQL_ORIGIN,
+                    requestEvent.getService(),
+                    requestEvent.getOperation(),
+                    requestEvent);
+            responseEvent.withResponse(response).withThrown(thrown);
 
-        ServiceResponseEvent responseEvent = new ServiceDownstreamResponseEvent(
-                SQL_ORIGIN,
-                requestEvent.getService(),
-                requestEvent.getOperation(),
-                requestEvent)
-                .withResponse(response)
-                .withThrown(thrown);
+            EventBus.publish(responseEvent);
+            responseEvent.release();
+            ((RecyclableServiceDownstreamRequestEvent) requestEvent).release();
+        } else {
+            ServiceResponseEvent responseEvent = new ServiceDownstreamResponseEvent(
+                    SQL_ORIGIN,
+                    requestEvent.getService(),
+                    requestEvent.getOperation(),
+                    requestEvent)
+                    .withResponse(response)
+                    .withThrown(thrown);
 
-        EventBus.publish(responseEvent);
+            EventBus.publish(responseEvent);
+        }
+    }
+
+    /**
+     * Whether events are drawn from per-thread pools and reused, rather than allocated per statement execution.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @return true if the agent was started with the 'recycleevents' argument
+     */
+    public static boolean isRecyclingEvents() {
+        return recycleEvents;
+    }
+
+    /**
+     * Enables event recycling if the 'recycleevents' argument is present. Listeners must then call
+     * {@link software.amazon.disco.agent.event.RecyclableEvent#retain()} to keep SQL events beyond their listen() call.
+     * Also configures query fingerprinting for all the SQL interceptors, see {@link SqlFingerprint}.
+     *
+     * @param args command line arguments
+     */
+    @Override
+    public void handleArguments(List<String> args) {
+        recycleEvents = args != null && args.stream().anyMatch(RECYCLE_EVENTS_ARG::equalsIgnoreCase);
+        SqlFingerprint.configure(args);
     }
 
     /**
@@ -155,12 +194,62 @@ public class JdbcExecuteInterceptor implements Installable {
     }
 
     /**
-     * This helper method attempts to get the query string in two ways before giving up and returning null. The first is
-     * just retrieving it from the arguments passed to the execute method being intercepted. If it is not present there,
-     * then we must be dealing with a Prepared or Callable statement that had its query string pre-loaded rather than
-     * passed as an argument. In this case, there is no way provided by the JDBC to extract the query. However many DB
-     * Drivers implement the {@code toString} method on their PreparedStatement class to return the pre-loaded SQL query
-     * string. So the second way is to check if the {@code toString} method is overridden, and if so we use it.
+     * Deferrable, since JDBC connection pools are opened by the application, not by anything which runs before premain.
+     */
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
+    /**
+     * Build and publish the request event of a statement execution, modeled as described for {@link #enter}, on a best
+     * effort basis. Shared by {@link #enter} and {@link JdbcBatchInterceptor#enter}.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param preparedStatementClass must be literally 'PreparedStatement.class', see {@link #parseQueryFromStatement}
+     * @param statementClass must be literally 'Statement.class', for the same reason
+     * @param connectionClass must be literally 'Connection.class', for the same reason
+     * @param stmt the JDBC Statement object being used to make the query
+     * @param queryString the query string passed to the intercepted method, or null if none
+     * @param recycle true to draw the event from the thread's pool, see {@link #isRecyclingEvents()}
+     * @return the published request event
+     */
+    public static ServiceDownstreamRequestEvent publishRequestEvent(Class<?> preparedStatementClass, Class<?> statementClass, Class<?> connectionClass,
+                                                                    Statement stmt, String queryString, boolean recycle) {
+        String query = null;
+        String db = null;
+        try {
+            query = parseQueryFromStatement(preparedStatementClass, statementClass, stmt, queryString);
+        } catch (Exception e) {
+            log.warn("Disco(Sql) failed to retrieve query string for SQL Downstream Service event", e);
+        }
+
+        try {
+            db = ConnectionMetadata.forConnection(connectionClass, getConnection(statementClass, stmt)).getCatalog();
+        } catch (Exception e) {
+            log.warn("Disco(Sql) failed to retrieve Database name for SQL Downstream Service event", e);
+        }
+
+        // TODO: Consider replacing Statement Request object with a serializable object containing only relevant metadata
+        ServiceDownstreamRequestEvent requestEvent = recycle
+                ? RecyclableServiceDownstreamRequestEvent.acquire(SQL_ORIGIN, db, query)
+                : new ServiceDownstreamRequestEvent(SQL_ORIGIN, db, query);
+        requestEvent.withRequest(stmt);
+        SqlFingerprint.attach(requestEvent, query);
+        EventBus.publish(requestEvent);
+        return requestEvent;
+    }
+
+    /**
+     * This helper method attempts to get the query string in three ways before giving up and returning null. The first
+     * is just retrieving it from the arguments passed to the execute method being intercepted. If it is not present
+     * there, then we must be dealing with a Prepared or Callable statement that had its query string pre-loaded rather
+     * than passed as an argument. In this case, there is no way provided by the JDBC to extract the query, so the second
+     * way is to look up the query string recorded when the statement was prepared, see {@link PreparedStatementQueries}.
+     * If the statement was prepared before interception was installed, then as a last resort we rely on many DB Drivers
+     * implementing the {@code toString} method on their PreparedStatement class to return the pre-loaded SQL query
+     * string, and check if the {@code toString} method is overridden, and if so we use it.
      *
      * See: https://stackoverflow.com/questions/2382532/how-can-i-get-the-sql-of-a-preparedstatement
      *
@@ -176,13 +265,34 @@ public class JdbcExecuteInterceptor implements Installable {
         String query = null;
         if (queryString != null && queryString.length() > 0) {
             query = queryString;
-        } else if (preparedStatementClass.isInstance(stmt) && statementClass.isAssignableFrom(stmt.getClass().getMethod("toString").getDeclaringClass())) {
-            query = stmt.toString();
+        } else if (preparedStatementClass.isInstance(stmt)) {
+            query = PreparedStatementQueries.get(stmt);
+            if (query == null && statementClass.isAssignableFrom(stmt.getClass().getMethod("toString").getDeclaringClass())) {
+                query = stmt.toString();
+            }
         }
 
         return query;
     }
 
+    /**
+     * Get the Connection of a Statement. Statement.getConnection() is called reflectively, since this method is loaded
+     * where the java.sql types may not be visible, and the Method is looked up once.
+     *
+     * @param statementClass the java.sql.Statement interface
+     * @param stmt the JDBC Statement
+     * @return the Statement's Connection
+     * @throws ReflectiveOperationException if getConnection() could not be called, or threw
+     */
+    private static Object getConnection(Class<?> statementClass, Statement stmt) throws ReflectiveOperationException {
+        Method method = getConnectionMethod;
+        if (method == null) {
+            method = statementClass.getMethod("getConnection");
+            getConnectionMethod = method;
+        }
+        return method.invoke(stmt);
+    }
+
     /**
      * Builds an element matcher that will match any implementation of the Statement classes:
      * Statement, PreparedStatement, and CallableStatement. Checking for the Statement class super type is sufficient
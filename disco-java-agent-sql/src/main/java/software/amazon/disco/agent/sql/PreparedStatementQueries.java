@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.sql;
+
+import software.amazon.disco.agent.concurrent.ConcurrentWeakIdentityHashMap;
+
+/**
+ * The query strings of PreparedStatements and CallableStatements, recorded when they are prepared by a Connection, see
+ * {@link ConnectionInterceptor#exit}, so that the query string can be reported each time the statement is executed
+ * without relying on the driver's toString(), which for some drivers renders every bound parameter into a new string.
+ *
+ * A field cannot be added to the statement classes, since the interceptors may be installed with retransformation, so
+ * statements are instead held weakly in a map, so that it does not outlive them. Statements are compared by identity,
+ * so that a driver's equals() and hashCode() are never called, and statements prepared and executed on different
+ * threads do not contend for the map.
+ */
+public class PreparedStatementQueries {
+    private static final ConcurrentWeakIdentityHashMap<Object, String> queries = new ConcurrentWeakIdentityHashMap<>();
+
+    /**
+     * Record the query string with which a statement was prepared.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param statement the PreparedStatement or CallableStatement returned by the Connection
+     * @param queryString the query string passed to the Connection
+     */
+    public static void record(Object statement, String queryString) {
+        if (statement != null && queryString != null) {
+            queries.put(statement, queryString);
+        }
+    }
+
+    /**
+     * Get the query string with which a statement was prepared.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param statement the PreparedStatement or CallableStatement
+     * @return the query string, or null if the statement's preparation was not intercepted
+     */
+    public static String get(Object statement) {
+        return queries.get(statement);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.sql;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import software.amazon.disco.agent.interception.Installable;
+
+import java.util.List;
+
+import static net.bytebuddy.matcher.ElementMatchers.hasSuperType;
+import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
+import static net.bytebuddy.matcher.ElementMatchers.isInterface;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.not;
+import static net.bytebuddy.matcher.ElementMatchers.returns;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
+
+/**
+ * An optional interception of JDBC ResultSets, enabled by the 'sqlresultsets' agent argument. The events of a query
+ * end when executeQuery() returns, but for a streaming ResultSet much of the time in the database is spent fetching
+ * rows in ResultSet.next(). This interceptor accumulates the rows read and the time spent in next(), without publishing
+ * an event per row, and publishes a single {@link ResultSetSummaryEvent} when the ResultSet is closed, see
+ * {@link ResultSetStatistics}.
+ */
+public class ResultSetInterceptor implements Installable {
+    static final String RESULT_SETS_ARG = "sqlresultsets";
+
+    /**
+     * Advice for ResultSet.next(), which records each call and its duration.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     */
+    public static class NextAdvice {
+        /**
+         * This method is inlined at the beginning of next().
+         *
+         * @return the time at which next() was called
+         */
+        @Advice.OnMethodEnter
+        public static long enter() {
+            return System.nanoTime();
+        }
+
+        /**
+         * This method is inlined with next() at the moment it would return or throw a {@link Throwable}.
+         *
+         * @param startNanos the time at which next() was called, passed in using the Enter annotation
+         * @param rs the ResultSet
+         * @param hasRow the value returned by next(), or false if it threw
+         */
+        @Advice.OnMethodExit(onThrowable = Throwable.class)
+        public static void exit(@Advice.Enter final long startNanos,
+                                @Advice.This final Object rs,
+                                @Advice.Return final boolean hasRow) {
+            ResultSetStatistics.recordNext(rs, hasRow, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Advice for ResultSet.close(), which publishes the ResultSet's summary.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     */
+    public static class CloseAdvice {
+        /**
+         * This method is inlined at the beginning of close().
+         *
+         * @param rs the ResultSet
+         */
+        @Advice.OnMethodEnter
+        public static void enter(@Advice.This final Object rs) {
+            ResultSetStatistics.close(rs);
+        }
+    }
+
+    /**
+     * Enables ResultSet interception if the 'sqlresultsets' argument is present.
+     *
+     * @param args command line arguments
+     */
+    @Override
+    public void handleArguments(List<String> args) {
+        ResultSetStatistics.setEnabled(args != null && args.stream().anyMatch(RESULT_SETS_ARG::equalsIgnoreCase));
+    }
+
+    /**
+     * Installs the Disco ResultSet interception into a Java program, if enabled. Intended to be invoked during an
+     * agent's premain.
+     *
+     * @param agentBuilder - an AgentBuilder to append instructions to
+     * @return - the {@code AgentBuilder} object for chaining
+     */
+    @Override
+    public AgentBuilder install(final AgentBuilder agentBuilder) {
+        if (!ResultSetStatistics.isEnabled()) {
+            return agentBuilder;
+        }
+        return agentBuilder
+                .type(buildClassMatcher())
+                .transform(new AgentBuilder.Transformer.ForAdvice()
+                        .include(this.getClass().getClassLoader())
+                        .advice(buildNextMethodMatcher(), NextAdvice.class.getName())
+                        .advice(buildCloseMethodMatcher(), CloseAdvice.class.getName()));
+    }
+
+    /**
+     * Deferrable, since row counts are held in a thread-local table rather than a field added to the ResultSet class.
+     */
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
+    /**
+     * Builds an element matcher that will match any implementation of the JDBC ResultSet interface
+     *
+     * @return - An ElementMatcher suitable to pass to the type() method of an AgentBuilder
+     */
+    static ElementMatcher<? super TypeDescription> buildClassMatcher() {
+        return hasSuperType(named("java.sql.ResultSet"))
+                .and(not(isInterface()));
+    }
+
+    /**
+     * Builds an ElementMatcher for the next method, which moves the cursor to the next row, fetching it if necessary.
+     *
+     * @return - An ElementMatcher that can match the next method
+     */
+    static ElementMatcher<? super MethodDescription> buildNextMethodMatcher() {
+        return named("next")
+                .and(takesArguments(0))
+                .and(returns(boolean.class))
+                .and(not(isAbstract()));
+    }
+
+    /**
+     * Builds an ElementMatcher for the close method.
+     *
+     * @return - An ElementMatcher that can match the close method
+     */
+    static ElementMatcher<? super MethodDescription> buildCloseMethodMatcher() {
+        return named("close")
+                .and(takesArguments(0))
+                .and(not(isAbstract()));
+    }
+}
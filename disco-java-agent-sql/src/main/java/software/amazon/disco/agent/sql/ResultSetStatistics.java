@@ -0,0 +1,226 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.sql;
+
+import software.amazon.disco.agent.event.EventBus;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * The rows read from a JDBC ResultSet, and the time spent in next() reading them, accumulated without publishing any
+ * event until the ResultSet is closed. Statistics are confined to the thread which reads the ResultSet, in a small
+ * per-thread table searched by identity, so that counting a row takes no lock and allocates nothing. Only the
+ * ResultSet returned by the outermost intercepted execute method on the thread is counted. A connection pool's
+ * Statement proxy executes the driver's Statement within its own execute method, so its ResultSet wrapper is
+ * summarized once, rather than once for the wrapper and again for the driver's ResultSet within it. A thread rarely
+ * has more than a few ResultSets open at once, so the table is bounded, and when it is full the ResultSet tracked
+ * longest is evicted, publishing the summary of the rows read from it so far. ResultSets are held weakly, so the table
+ * does not keep them alive.
+ */
+public class ResultSetStatistics {
+    static final int MAX_TRACKED = 16;
+
+    private static volatile boolean enabled = false;
+    private static final ThreadLocal<ResultSetStatistics[]> tracked = ThreadLocal.withInitial(() -> new ResultSetStatistics[MAX_TRACKED]);
+    private static final ThreadLocal<int[]> executeDepth = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final WeakReference<Object> resultSet;
+    private final String service;
+    private final String operation;
+    private final long begun = System.nanoTime();
+    private long rowCount;
+    private long fetchDuration;
+
+    /**
+     * Construct a new ResultSetStatistics
+     * @param resultSet the ResultSet
+     * @param service the database name, or null if not known
+     * @param operation the query string which produced the ResultSet, or null if not known
+     */
+    private ResultSetStatistics(Object resultSet, String service, String operation) {
+        this.resultSet = new WeakReference<>(resultSet);
+        this.service = service;
+        this.operation = operation;
+    }
+
+    /**
+     * Enable or disable the accumulation of statistics, see {@link ResultSetInterceptor#handleArguments}.
+     *
+     * @param enable true to enable
+     */
+    static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    /**
+     * Whether ResultSets are being instrumented.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @return true if the agent was started with the 'sqlresultsets' argument
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record entry to an intercepted execute method on the current thread, once its request event has been published.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     */
+    public static void enterExecute() {
+        if (enabled) {
+            executeDepth.get()[0]++;
+        }
+    }
+
+    /**
+     * Record exit from an intercepted execute method on the current thread, whether it returned or threw, and if it
+     * was the outermost one on the thread, {@link #begin} accumulating statistics for the ResultSet it returned.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param resultSet the ResultSet returned by the execute method, or null if none
+     * @param service the database name, or null if not known
+     * @param operation the query string, or null if not known
+     */
+    public static void exitExecute(Object resultSet, String service, String operation) {
+        if (!enabled) {
+            return;
+        }
+        int[] depth = executeDepth.get();
+        if (depth[0] > 0 && --depth[0] > 0) {
+            return;
+        }
+        begin(resultSet, service, operation);
+    }
+
+    /**
+     * Begin accumulating statistics for a ResultSet returned by an intercepted query, on the current thread, so that
+     * its summary reports the query which produced it.
+     *
+     * @param resultSet the ResultSet
+     * @param service the database name, or null if not known
+     * @param operation the query string, or null if not known
+     */
+    static void begin(Object resultSet, String service, String operation) {
+        if (!enabled || resultSet == null) {
+            return;
+        }
+        ResultSetStatistics[] table = tracked.get();
+        int slot = indexOf(table, resultSet);
+        if (slot < 0) {
+            slot = freeSlot(table);
+            if (table[slot] != null && table[slot].resultSet.get() != null) {
+                table[slot].publish();
+            }
+        }
+        table[slot] = new ResultSetStatistics(resultSet, service, operation);
+    }
+
+    /**
+     * Record a call to ResultSet.next(), if the ResultSet is tracked on the current thread. A ResultSet not registered
+     * by {@link #begin}, for example one obtained from Statement.getResultSet(), or a driver's ResultSet wrapped by
+     * one which was, is ignored.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param resultSet the ResultSet
+     * @param hasRow the value returned by next(), true if a row was read
+     * @param duration the time in nanoseconds spent in next()
+     */
+    public static void recordNext(Object resultSet, boolean hasRow, long duration) {
+        ResultSetStatistics[] table = tracked.get();
+        int slot = indexOf(table, resultSet);
+        if (slot < 0) {
+            return;
+        }
+        ResultSetStatistics statistics = table[slot];
+        if (hasRow) {
+            statistics.rowCount++;
+        }
+        statistics.fetchDuration += duration;
+    }
+
+    /**
+     * Stop tracking a ResultSet which is being closed, and publish a {@link ResultSetSummaryEvent} for it, if it was
+     * tracked on the current thread.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param resultSet the ResultSet
+     */
+    public static void close(Object resultSet) {
+        ResultSetStatistics[] table = tracked.get();
+        int slot = indexOf(table, resultSet);
+        if (slot < 0) {
+            return;
+        }
+        ResultSetStatistics statistics = table[slot];
+        table[slot] = null;
+        statistics.publish();
+    }
+
+    /**
+     * Publish a {@link ResultSetSummaryEvent} for the rows read from this ResultSet.
+     */
+    private void publish() {
+        EventBus.publish(new ResultSetSummaryEvent(service, operation, resultSet.get(), rowCount, fetchDuration));
+    }
+
+    /**
+     * Stop tracking every ResultSet on the current thread, without publishing. Package-private for tests.
+     */
+    static void clear() {
+        tracked.remove();
+        executeDepth.remove();
+    }
+
+    /**
+     * Find the slot of a ResultSet in the current thread's table
+     * @param table the current thread's table
+     * @param resultSet the ResultSet
+     * @return the index of its slot, or -1 if it is not tracked
+     */
+    private static int indexOf(ResultSetStatistics[] table, Object resultSet) {
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] != null && table[i].resultSet.get() == resultSet) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find a slot for a new ResultSet in the current thread's table, being an empty slot, or the slot of a ResultSet
+     * which has been garbage collected, or failing those the slot of the ResultSet tracked longest, which the caller
+     * must evict.
+     * @param table the current thread's table
+     * @return the index of the slot
+     */
+    private static int freeSlot(ResultSetStatistics[] table) {
+        int eldest = 0;
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] == null || table[i].resultSet.get() == null) {
+                return i;
+            }
+            if (table[i].begun - table[eldest].begun < 0) {
+                eldest = i;
+            }
+        }
+        return eldest;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.sql;
+
+import software.amazon.disco.agent.event.AbstractEvent;
+
+/**
+ * An event published once when a JDBC ResultSet is closed, or evicted from tracking while still open, summarizing the
+ * rows read from it by ResultSet.next(), and the time spent in next() fetching them, see {@link ResultSetInterceptor}. The attributes of this event may also be
+ * retrieved by name from getData(), so that Listeners need not depend on this class.
+ */
+public class ResultSetSummaryEvent extends AbstractEvent {
+    private final String service;
+    private final String operation;
+    private final Object resultSet;
+    private final long rowCount;
+    private final long fetchDuration;
+
+    /**
+     * Keys by which the attributes of this event may be retrieved from getData()
+     */
+    enum DataKey {
+        /**
+         * The database name
+         */
+        SERVICE,
+
+        /**
+         * The query string which produced the ResultSet
+         */
+        OPERATION,
+
+        /**
+         * The ResultSet
+         */
+        RESULT_SET,
+
+        /**
+         * The number of rows read
+         */
+        ROW_COUNT,
+
+        /**
+         * The time in nanoseconds spent in next()
+         */
+        FETCH_DURATION
+    }
+
+    /**
+     * Construct a new ResultSetSummaryEvent
+     * @param service the database name, or null if not known
+     * @param operation the query string which produced the ResultSet, or null if not known
+     * @param resultSet the ResultSet being closed
+     * @param rowCount the number of rows read, i.e. the number of calls to next() which returned true
+     * @param fetchDuration the total time in nanoseconds spent in next()
+     */
+    public ResultSetSummaryEvent(String service, String operation, Object resultSet, long rowCount, long fetchDuration) {
+        super(JdbcExecuteInterceptor.SQL_ORIGIN);
+        this.service = service;
+        this.operation = operation;
+        this.resultSet = resultSet;
+        this.rowCount = rowCount;
+        this.fetchDuration = fetchDuration;
+    }
+
+    /**
+     * Get the database name
+     * @return the database name, or null if not known
+     */
+    public String getService() {
+        return service;
+    }
+
+    /**
+     * Get the query string which produced the ResultSet
+     * @return the query string, or null if not known
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Get the ResultSet being closed
+     * @return the ResultSet
+     */
+    public Object getResultSet() {
+        return resultSet;
+    }
+
+    /**
+     * Get the number of rows read from the ResultSet
+     * @return the number of calls to next() which returned true
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Get the time spent fetching rows
+     * @return the total time in nanoseconds spent in next()
+     */
+    public long getFetchDuration() {
+        return fetchDuration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getData(String key) {
+        if (DataKey.SERVICE.name().equals(key)) {
+            return service;
+        }
+        if (DataKey.OPERATION.name().equals(key)) {
+            return operation;
+        }
+        if (DataKey.RESULT_SET.name().equals(key)) {
+            return resultSet;
+        }
+        if (DataKey.ROW_COUNT.name().equals(key)) {
+            return rowCount;
+        }
+        if (DataKey.FETCH_DURATION.name().equals(key)) {
+            return fetchDuration;
+        }
+        return super.getData(key);
+    }
+}
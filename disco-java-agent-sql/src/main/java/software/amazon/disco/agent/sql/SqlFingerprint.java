@@ -0,0 +1,441 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.sql;
+
+import software.amazon.disco.agent.event.AbstractEvent;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The normalized shape of a SQL query string, and a 64-bit hash of it, so that Listeners which aggregate metrics per
+ * query need not parse query strings themselves. Normalization lowercases the query outside of quoted identifiers,
+ * replaces string and numeric literals with '?', removes comments, collapses whitespace, and collapses lists of
+ * literals or placeholders such as 'IN (1, 2, 3)' to a single '?'. Double-quoted text is treated as an identifier, and
+ * quotes within string literals are escaped only by doubling, as in standard SQL. Dialects such as MySQL which also
+ * escape with a backslash are selected with the 'sqlfingerprintdialect=mysql' argument. The hash is the 64-bit FNV-1a
+ * hash of the normalized text, which is stable between JVMs.
+ *
+ * Fingerprinting is disabled by default, and enabled with the 'sqlfingerprint' agent argument, after which the SQL
+ * request events carry the normalized text and hash as data items named {@link #NORMALIZED_DATA_KEY} and
+ * {@link #HASH_DATA_KEY}. Each distinct query string is normalized once, and its fingerprint held in a bounded cache
+ * which approximates LRU eviction without locking, whose size may be given by the 'sqlfingerprintcachesize=N'
+ * argument. The query strings of prepared statements are usually the same String instance at every execution, so cache
+ * lookups rarely compare their characters.
+ */
+public class SqlFingerprint {
+    public static final String NORMALIZED_DATA_KEY = "SQL_NORMALIZED";
+    public static final String HASH_DATA_KEY = "SQL_FINGERPRINT";
+    static final String ENABLED_ARG = "sqlfingerprint";
+    static final String CACHE_SIZE_ARG = "sqlfingerprintcachesize";
+    static final String DIALECT_ARG = "sqlfingerprintdialect";
+    static final int DEFAULT_CACHE_SIZE = 1000;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static volatile boolean enabled = false;
+    private static volatile Dialect dialect = Dialect.STANDARD;
+    private static volatile FingerprintCache cache = new FingerprintCache(DEFAULT_CACHE_SIZE);
+
+    private final String normalized;
+    private final long hash;
+
+    /**
+     * Construct a new SqlFingerprint
+     * @param normalized the normalized query string
+     * @param hash the hash of the normalized query string
+     */
+    SqlFingerprint(String normalized, long hash) {
+        this.normalized = normalized;
+        this.hash = hash;
+    }
+
+    /**
+     * Configure fingerprinting from the agent's command line arguments, resetting anything not specified.
+     *
+     * @param args command line arguments in the form ["key1=value1", "value2"]
+     */
+    static void configure(List<String> args) {
+        boolean newEnabled = false;
+        int newCacheSize = DEFAULT_CACHE_SIZE;
+        Dialect newDialect = Dialect.STANDARD;
+        if (args != null) {
+            for (String arg : args) {
+                int split = arg.indexOf('=');
+                if (split < 0) {
+                    newEnabled |= ENABLED_ARG.equalsIgnoreCase(arg.trim());
+                } else if (CACHE_SIZE_ARG.equalsIgnoreCase(arg.substring(0, split).trim())) {
+                    try {
+                        newCacheSize = Math.max(1, Integer.parseInt(arg.substring(split + 1).trim()));
+                    } catch (NumberFormatException e) {
+                        //ignore, leaving the default size
+                    }
+                } else if (DIALECT_ARG.equalsIgnoreCase(arg.substring(0, split).trim())) {
+                    try {
+                        newDialect = Dialect.valueOf(arg.substring(split + 1).trim().toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        //ignore, leaving the standard dialect
+                    }
+                }
+            }
+        }
+        dialect = newDialect;
+        cache = new FingerprintCache(newCacheSize);
+        enabled = newEnabled;
+    }
+
+    /**
+     * Whether fingerprints are added to SQL request events.
+     *
+     * @return true if the agent was started with the 'sqlfingerprint' argument
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Add the fingerprint of a query string to an event, if fingerprinting is enabled.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param event the SQL request event
+     * @param query the query string reported by the event, or null if not known
+     */
+    public static void attach(AbstractEvent event, String query) {
+        if (!enabled || query == null) {
+            return;
+        }
+        SqlFingerprint fingerprint = of(query);
+        event.withData(NORMALIZED_DATA_KEY, fingerprint.getNormalized());
+        event.withData(HASH_DATA_KEY, fingerprint.getHash());
+    }
+
+    /**
+     * Get the fingerprint of a query string, computing it if it is not cached.
+     *
+     * @param query the query string
+     * @return the fingerprint
+     */
+    public static SqlFingerprint of(String query) {
+        FingerprintCache current = cache;
+        SqlFingerprint fingerprint = current.get(query);
+        if (fingerprint == null) {
+            String normalized = normalize(query, dialect.backslashEscapes);
+            fingerprint = new SqlFingerprint(normalized, hash(normalized));
+            current.put(query, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Get the normalized query string
+     * @return the normalized query string
+     */
+    public String getNormalized() {
+        return normalized;
+    }
+
+    /**
+     * Get the 64-bit hash of the normalized query string
+     * @return the hash
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Normalize a query string, in a single pass.
+     *
+     * @param query the query string
+     * @param backslashEscapes true if a backslash escapes the next character of a string literal, as in MySQL
+     * @return the normalized query string
+     */
+    static String normalize(String query, boolean backslashEscapes) {
+        StringBuilder out = new StringBuilder(query.length());
+        boolean pendingSpace = false;
+        int length = query.length();
+        int i = 0;
+        while (i < length) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+            } else if (c == '-' && i + 1 < length && query.charAt(i + 1) == '-') {
+                //line comment
+                while (i < length && query.charAt(i) != '\n') {
+                    i++;
+                }
+                pendingSpace = true;
+            } else if (c == '/' && i + 1 < length && query.charAt(i + 1) == '*') {
+                //block comment
+                int end = query.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                pendingSpace = true;
+            } else if (c == '\'') {
+                //string literal, in which quotes are escaped by doubling, or in some dialects by a backslash
+                i++;
+                while (i < length) {
+                    char s = query.charAt(i);
+                    if (s == '\\' && backslashEscapes) {
+                        i += 2;
+                    } else if (s == '\'' && i + 1 < length && query.charAt(i + 1) == '\'') {
+                        i += 2;
+                    } else if (s == '\'') {
+                        i++;
+                        break;
+                    } else {
+                        i++;
+                    }
+                }
+                pendingSpace = appendPlaceholder(out, pendingSpace);
+            } else if (c == '"' || c == '`' || c == '[') {
+                //quoted identifier, copied verbatim
+                char close = c == '[' ? ']' : c;
+                int end = query.indexOf(close, i + 1);
+                end = end < 0 ? length : end + 1;
+                separate(out, c, pendingSpace);
+                out.append(query, i, end);
+                pendingSpace = false;
+                i = end;
+            } else if (isNumberStart(query, i) && !endsWithIdentifier(out, pendingSpace)) {
+                //numeric literal, including decimals, exponents and hexadecimal
+                i++;
+                while (i < length) {
+                    char n = query.charAt(i);
+                    if (Character.isLetterOrDigit(n) || n == '.') {
+                        i++;
+                    } else if ((n == '+' || n == '-') && (query.charAt(i - 1) == 'e' || query.charAt(i - 1) == 'E')) {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                pendingSpace = appendPlaceholder(out, pendingSpace);
+            } else if (c == '?') {
+                pendingSpace = appendPlaceholder(out, pendingSpace);
+                i++;
+            } else {
+                separate(out, c, pendingSpace);
+                out.append(Character.toLowerCase(c));
+                pendingSpace = c == ',';
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Compute the 64-bit FNV-1a hash of a string's characters
+     *
+     * @param text the string
+     * @return the hash
+     */
+    static long hash(String text) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Append a single space to the normalized query if whitespace preceded the next token, unless the space would
+     * follow an opening parenthesis or precede a comma or closing parenthesis.
+     *
+     * @param out the normalized query
+     * @param first the first character of the next token
+     * @param pendingSpace whether whitespace preceded the next token
+     */
+    private static void separate(StringBuilder out, char first, boolean pendingSpace) {
+        if (pendingSpace && out.length() > 0 && out.charAt(out.length() - 1) != '(' && first != ',' && first != ')') {
+            out.append(' ');
+        }
+    }
+
+    /**
+     * Append a '?' in place of a literal or placeholder, unless it continues a list of them, which is collapsed to one.
+     *
+     * @param out the normalized query
+     * @param pendingSpace whether whitespace preceded the literal
+     * @return false, since no whitespace is pending after the placeholder
+     */
+    private static boolean appendPlaceholder(StringBuilder out, boolean pendingSpace) {
+        int end = out.length();
+        if (end >= 2 && out.charAt(end - 1) == ',' && out.charAt(end - 2) == '?') {
+            out.setLength(end - 1);
+            return false;
+        }
+        separate(out, '?', pendingSpace);
+        out.append('?');
+        return false;
+    }
+
+    /**
+     * Whether a numeric literal starts at the given index, being a digit, or a point followed by a digit
+     *
+     * @param query the query string
+     * @param i the index
+     * @return true if a numeric literal starts at the index
+     */
+    private static boolean isNumberStart(String query, int i) {
+        char c = query.charAt(i);
+        return Character.isDigit(c) || (c == '.' && i + 1 < query.length() && Character.isDigit(query.charAt(i + 1)));
+    }
+
+    /**
+     * Whether the normalized query ends with part of an identifier, which a following digit continues
+     *
+     * @param out the normalized query
+     * @param pendingSpace whether whitespace separates the following character from the normalized query
+     * @return true if the following digit is part of an identifier
+     */
+    private static boolean endsWithIdentifier(StringBuilder out, boolean pendingSpace) {
+        if (pendingSpace || out.length() == 0) {
+            return false;
+        }
+        char last = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
+    /**
+     * The SQL dialects whose string literals are normalized differently, named by the 'sqlfingerprintdialect' argument.
+     */
+    enum Dialect {
+        STANDARD(false),
+        MYSQL(true),
+        MARIADB(true);
+
+        private final boolean backslashEscapes;
+
+        /**
+         * Construct a new Dialect
+         * @param backslashEscapes true if a backslash escapes the next character of a string literal
+         */
+        Dialect(boolean backslashEscapes) {
+            this.backslashEscapes = backslashEscapes;
+        }
+    }
+
+    /**
+     * A cache of fingerprints holding at most a fixed number of entries, which approximates LRU eviction with a
+     * 'second chance' for each entry: a lookup marks the entry as used, and eviction takes entries in insertion order,
+     * sparing and requeueing those marked since they were last considered. Neither lookups nor insertions take a lock.
+     */
+    static class FingerprintCache {
+        private final int maximumSize;
+        private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+        private final Queue<String> evictionOrder = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        /**
+         * Construct a new FingerprintCache
+         * @param maximumSize the maximum number of fingerprints to hold
+         */
+        FingerprintCache(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        /**
+         * Get the fingerprint of a query string, marking it as used.
+         *
+         * @param query the query string
+         * @return the fingerprint, or null if not cached
+         */
+        SqlFingerprint get(String query) {
+            Entry entry = entries.get(query);
+            if (entry == null) {
+                return null;
+            }
+            if (!entry.used) {
+                entry.used = true;
+            }
+            return entry.fingerprint;
+        }
+
+        /**
+         * Cache the fingerprint of a query string, unless another thread has already done so, evicting others if the
+         * cache is full.
+         *
+         * @param query the query string
+         * @param fingerprint the fingerprint
+         */
+        void put(String query, SqlFingerprint fingerprint) {
+            if (entries.putIfAbsent(query, new Entry(fingerprint)) != null) {
+                return;
+            }
+            evictionOrder.add(query);
+            if (size.incrementAndGet() > maximumSize) {
+                evict();
+            }
+        }
+
+        /**
+         * Get the number of cached fingerprints. Package-private for tests.
+         *
+         * @return the number of cached fingerprints
+         */
+        int size() {
+            return size.get();
+        }
+
+        /**
+         * Remove entries until the cache is back within its maximum size. Each call spares at most as many entries as
+         * the cache holds, so that it terminates however often other threads mark entries as used.
+         */
+        private void evict() {
+            int spared = 0;
+            while (size.get() > maximumSize) {
+                String eldest = evictionOrder.poll();
+                if (eldest == null) {
+                    return;
+                }
+                Entry entry = entries.get(eldest);
+                if (entry == null) {
+                    continue;
+                }
+                if (entry.used && spared++ < maximumSize) {
+                    entry.used = false;
+                    evictionOrder.add(eldest);
+                } else if (entries.remove(eldest, entry)) {
+                    size.decrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * A cached fingerprint, and whether it has been used since eviction last considered it.
+         */
+        private static class Entry {
+            private final SqlFingerprint fingerprint;
+            private volatile boolean used;
+
+            /**
+             * Construct a new Entry
+             * @param fingerprint the fingerprint
+             */
+            Entry(SqlFingerprint fingerprint) {
+                this.fingerprint = fingerprint;
+            }
+        }
+    }
+}
@@ -31,6 +31,6 @@ public class SqlSupport implements Package {
      */
     @Override
     public Collection<Installable> get() {
-        return Arrays.asList(new JdbcExecuteInterceptor(), new ConnectionInterceptor());
+        return Arrays.asList(new JdbcExecuteInterceptor(), new JdbcBatchInterceptor(), new ConnectionInterceptor(), new ResultSetInterceptor());
     }
 }
@@ -72,6 +72,11 @@ public class ConnectionInterceptorTest {
         when(mockConnection.getCatalog()).thenReturn(DB_NAME);
     }
 
+    @Test
+    public void testIsDeferrable() {
+        assertTrue(interceptor.isDeferrable());
+    }
+
     @Test
     public void testInstallation() {
         AgentBuilder agentBuilder = mock(AgentBuilder.class);
@@ -98,6 +103,26 @@ public class ConnectionInterceptorTest {
         assertEquals(0, methodMatchedCount("createStatement", Connection.class));
     }
 
+    @Test
+    public void testSetCatalogMatches() throws NoSuchMethodException {
+        assertTrue(ConnectionInterceptor.buildSetCatalogMethodMatcher().matches(
+                new MethodDescription.ForLoadedMethod(ConnectionImpl.class.getDeclaredMethod("setCatalog", String.class))));
+        assertFalse(ConnectionInterceptor.buildSetCatalogMethodMatcher().matches(
+                new MethodDescription.ForLoadedMethod(ConnectionImpl.class.getDeclaredMethod("getCatalog"))));
+        assertFalse(ConnectionInterceptor.buildSetCatalogMethodMatcher().matches(
+                new MethodDescription.ForLoadedMethod(Connection.class.getDeclaredMethod("setCatalog", String.class))));
+    }
+
+    @Test
+    public void testSetCatalogInvalidatesMetadata() throws SQLException {
+        ConnectionInterceptor.enter(SQL, ConnectionInterceptor.SQL_PREPARE_ORIGIN, mockConnection);
+        when(mockConnection.getCatalog()).thenReturn("otherDb");
+        ConnectionInterceptor.SetCatalogAdvice.exit(mockConnection);
+
+        ServiceRequestEvent requestEvent = ConnectionInterceptor.enter(SQL, ConnectionInterceptor.SQL_PREPARE_ORIGIN, mockConnection);
+        assertEquals("otherDb", requestEvent.getService());
+    }
+
     @Test
     public void testRequestEventPublished() {
         ServiceRequestEvent requestEvent = ConnectionInterceptor.enter(SQL, ConnectionInterceptor.SQL_PREPARE_ORIGIN, mockConnection);
@@ -125,6 +150,14 @@ public class ConnectionInterceptorTest {
         assertNull(responseEvent.getThrown());
     }
 
+    @Test
+    public void testQueryStringRecordedForStatement() {
+        ServiceRequestEvent requestEvent = ConnectionInterceptor.enter(SQL, ConnectionInterceptor.SQL_PREPARE_ORIGIN, mockConnection);
+        ConnectionInterceptor.exit(requestEvent, mockPreparedStatement, null);
+
+        assertEquals(SQL, PreparedStatementQueries.get(mockPreparedStatement));
+    }
+
     @Test
     public void testResponseEventCapturesException() {
         SQLException ex = new SQLException("some error");
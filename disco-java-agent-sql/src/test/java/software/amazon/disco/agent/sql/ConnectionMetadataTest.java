@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.sql;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConnectionMetadataTest {
+    private static final String DB_NAME = "myDb";
+
+    @Mock
+    Connection mockConnection;
+
+    @Before
+    public void setup() throws SQLException {
+        when(mockConnection.getCatalog()).thenReturn(DB_NAME);
+    }
+
+    @Test
+    public void testMetadataRetrieved() throws SQLException {
+        ConnectionMetadata metadata = ConnectionMetadata.forConnection(Connection.class, mockConnection);
+
+        assertEquals(DB_NAME, metadata.getCatalog());
+        //the DatabaseMetaData is not reported, so is never retrieved
+        verify(mockConnection, never()).getMetaData();
+    }
+
+    @Test
+    public void testMetadataRetrievedOncePerConnection() throws SQLException {
+        ConnectionMetadata first = ConnectionMetadata.forConnection(Connection.class, mockConnection);
+        ConnectionMetadata second = ConnectionMetadata.forConnection(Connection.class, mockConnection);
+
+        assertSame(first, second);
+        verify(mockConnection, times(1)).getCatalog();
+    }
+
+    @Test
+    public void testInvalidateRetrievesAgain() throws SQLException {
+        ConnectionMetadata first = ConnectionMetadata.forConnection(Connection.class, mockConnection);
+        ConnectionMetadata.invalidate(mockConnection);
+        when(mockConnection.getCatalog()).thenReturn("otherDb");
+        ConnectionMetadata second = ConnectionMetadata.forConnection(Connection.class, mockConnection);
+
+        assertNotSame(first, second);
+        assertEquals("otherDb", second.getCatalog());
+    }
+
+    @Test
+    public void testFailuresAreCached() throws SQLException {
+        when(mockConnection.getCatalog()).thenThrow(new SQLException());
+        ConnectionMetadata metadata = ConnectionMetadata.forConnection(Connection.class, mockConnection);
+        ConnectionMetadata.forConnection(Connection.class, mockConnection);
+
+        assertNull(metadata.getCatalog());
+        verify(mockConnection, times(1)).getCatalog();
+    }
+
+    @Test
+    public void testNullConnection() {
+        ConnectionMetadata metadata = ConnectionMetadata.forConnection(Connection.class, null);
+
+        assertNull(metadata.getCatalog());
+    }
+}
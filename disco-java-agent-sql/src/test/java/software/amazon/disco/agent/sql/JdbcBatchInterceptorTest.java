@@ -0,0 +1,237 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.sql;
+
+import com.mysql.cj.jdbc.ClientPreparedStatement;
+import com.mysql.cj.jdbc.ConnectionImpl;
+import com.mysql.cj.jdbc.StatementImpl;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import software.amazon.disco.agent.event.BatchServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.Listener;
+import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.sql.source.MyPreparedStatementImpl;
+import software.amazon.disco.agent.sql.source.MyStatementImpl;
+
+import java.lang.reflect.Method;
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JdbcBatchInterceptorTest {
+    private static final String DB_NAME = "My db";
+
+    private JdbcBatchInterceptor interceptor;
+    private TestListener listener;
+
+    @Mock
+    ConnectionImpl mockConnection;
+
+    @Mock
+    StatementImpl mockStatement;
+
+    @Before
+    public void setup() throws SQLException {
+        interceptor = new JdbcBatchInterceptor();
+        listener = new TestListener();
+        EventBus.addListener(listener);
+
+        when(mockStatement.getConnection()).thenReturn(mockConnection);
+        when(mockConnection.getCatalog()).thenReturn(DB_NAME);
+    }
+
+    @After
+    public void cleanup() {
+        EventBus.removeListener(listener);
+    }
+
+    @Test
+    public void testIsDeferrable() {
+        assertTrue(interceptor.isDeferrable());
+    }
+
+    @Test
+    public void testInstallation() {
+        AgentBuilder agentBuilder = mock(AgentBuilder.class);
+        AgentBuilder.Identified.Extendable extendable = mock(AgentBuilder.Identified.Extendable.class);
+        AgentBuilder.Identified.Narrowable narrowable = mock(AgentBuilder.Identified.Narrowable.class);
+        when(agentBuilder.type(any(ElementMatcher.class))).thenReturn(narrowable);
+        when(narrowable.transform(any(AgentBuilder.Transformer.class))).thenReturn(extendable);
+        AgentBuilder result = interceptor.install(agentBuilder);
+        assertSame(extendable, result);
+    }
+
+    @Test
+    public void testRealBatchMethodsMatch() {
+        assertEquals(1, methodMatchedCount("executeBatch", StatementImpl.class));
+        assertEquals(1, methodMatchedCount("executeLargeBatch", StatementImpl.class));
+    }
+
+    @Test
+    public void testConcreteBatchMethodMatches() {
+        assertEquals(1, methodMatchedCount("executeBatch", MyStatementImpl.class));
+    }
+
+    @Test
+    public void testAddBatchAndExecuteDoNotMatch() {
+        assertEquals(0, methodMatchedCount("addBatch", StatementImpl.class));
+        assertEquals(0, methodMatchedCount("addBatch", ClientPreparedStatement.class));
+        assertEquals(0, methodMatchedCount("execute", StatementImpl.class));
+        assertEquals(0, methodMatchedCount("executeBatchInternal", StatementImpl.class));
+    }
+
+    @Test
+    public void testRequestEventCreation() {
+        ServiceDownstreamRequestEvent event = JdbcBatchInterceptor.enter(null, mockStatement, 0L);
+
+        assertSame(event, listener.events.get(0));
+        assertEquals(JdbcExecuteInterceptor.SQL_ORIGIN, event.getOrigin());
+        assertEquals(DB_NAME, event.getService());
+        assertNull(event.getOperation());
+        assertSame(mockStatement, event.getRequest());
+    }
+
+    @Test
+    public void testRequestEventOperationIsPreparedQuery() {
+        Statement statement = new MyPreparedStatementImpl() {
+            @Override
+            public String toString() {
+                return "prepared sql";
+            }
+        };
+        ServiceDownstreamRequestEvent event = JdbcBatchInterceptor.enter(null, statement, 0L);
+
+        assertEquals("prepared sql", event.getOperation());
+    }
+
+    @Test
+    public void testResponseEventCountsStatements() {
+        ServiceDownstreamRequestEvent requestEvent = JdbcBatchInterceptor.enter(null, mockStatement, 0L);
+        int[] updateCounts = new int[]{1, 1, 1};
+        JdbcBatchInterceptor.exit(requestEvent, updateCounts, null, System.nanoTime());
+
+        BatchServiceDownstreamResponseEvent received = (BatchServiceDownstreamResponseEvent) listener.events.get(1);
+        assertSame(requestEvent, received.getRequest());
+        assertEquals(DB_NAME, received.getService());
+        assertSame(updateCounts, received.getResponse());
+        assertEquals(3, received.getStatementCount());
+        assertTrue(received.getDuration() >= 0L);
+        assertNull(received.getThrown());
+    }
+
+    @Test
+    public void testResponseEventCountsLargeBatchStatements() {
+        JdbcBatchInterceptor.exit(JdbcBatchInterceptor.enter(null, mockStatement, 0L), new long[]{1L, 2L}, null, System.nanoTime());
+
+        assertEquals(2, ((BatchServiceDownstreamResponseEvent) listener.events.get(1)).getStatementCount());
+    }
+
+    @Test
+    public void testResponseEventWithBatchUpdateException() {
+        BatchUpdateException ex = new BatchUpdateException(new int[]{1, Statement.EXECUTE_FAILED});
+        JdbcBatchInterceptor.exit(JdbcBatchInterceptor.enter(null, mockStatement, 0L), null, ex, System.nanoTime());
+
+        BatchServiceDownstreamResponseEvent received = (BatchServiceDownstreamResponseEvent) listener.events.get(1);
+        assertSame(ex, received.getThrown());
+        assertNull(received.getResponse());
+        assertEquals(2, received.getStatementCount());
+    }
+
+    @Test
+    public void testResponseEventWithOtherException() {
+        SQLException ex = new SQLException();
+        JdbcBatchInterceptor.exit(JdbcBatchInterceptor.enter(null, mockStatement, 0L), null, ex, System.nanoTime());
+
+        BatchServiceDownstreamResponseEvent received = (BatchServiceDownstreamResponseEvent) listener.events.get(1);
+        assertSame(ex, received.getThrown());
+        assertEquals(-1, received.getStatementCount());
+    }
+
+    @Test
+    public void testAdvisedExecuteBatchPublishesOnePairOfEvents() throws Exception {
+        Class<?> advised = new ByteBuddy()
+                .redefine(MyStatementImpl.class)
+                .visit(Advice.to(JdbcBatchInterceptor.class).on(JdbcBatchInterceptor.buildMethodMatcher()))
+                .make()
+                .load(JdbcBatchInterceptorTest.class.getClassLoader(), ClassLoadingStrategy.Default.CHILD_FIRST)
+                .getLoaded();
+        Statement statement = (Statement) advised.getDeclaredConstructor().newInstance();
+        statement.addBatch("sql 1");
+        statement.addBatch("sql 2");
+        int[] result = statement.executeBatch();
+
+        assertEquals(2, listener.events.size());
+        assertTrue(listener.events.get(0) instanceof ServiceDownstreamRequestEvent);
+        BatchServiceDownstreamResponseEvent received = (BatchServiceDownstreamResponseEvent) listener.events.get(1);
+        assertSame(result, received.getResponse());
+        assertEquals(result.length, received.getStatementCount());
+        assertTrue(received.getDuration() >= 0L);
+    }
+
+    /**
+     * Helper method to test the method matcher against an input class
+     *
+     * @param methodName name of method
+     * @param clazz class we are verifying contains the method
+     * @return Matched methods count
+     */
+    private int methodMatchedCount(String methodName, Class<?> clazz) {
+        int matchedCount = 0;
+        for (Method m : clazz.getDeclaredMethods()) {
+            if (m.getName().equals(methodName) && JdbcBatchInterceptor.buildMethodMatcher().matches(new MethodDescription.ForLoadedMethod(m))) {
+                matchedCount++;
+            }
+        }
+        return matchedCount;
+    }
+
+    private static class TestListener implements Listener {
+        List<Event> events = new ArrayList<>();
+
+        @Override
+        public int getPriority() {
+            return 0;
+        }
+
+        @Override
+        public void listen(Event e) {
+            events.add(e);
+        }
+    }
+}
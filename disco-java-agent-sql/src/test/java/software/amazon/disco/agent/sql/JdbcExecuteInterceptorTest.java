@@ -31,6 +31,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import software.amazon.disco.agent.event.Event;
 import software.amazon.disco.agent.event.EventBus;
 import software.amazon.disco.agent.event.Listener;
+import software.amazon.disco.agent.event.RecyclableEvent;
 import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
 import software.amazon.disco.agent.event.ServiceRequestEvent;
 import software.amazon.disco.agent.event.ServiceResponseEvent;
@@ -40,9 +41,11 @@ import software.amazon.disco.agent.sql.source.MyStatementImpl;
 
 import java.lang.reflect.Method;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -87,6 +90,7 @@ public class JdbcExecuteInterceptorTest {
         myCallableStatement = new MyCallableStatementImpl();
         requestEvent = new ServiceDownstreamRequestEvent(JdbcExecuteInterceptor.SQL_ORIGIN, DB_NAME, QUERY)
                 .withRequest(mockStatement);
+        interceptor.handleArguments(Collections.emptyList());
         mockListener = new MockEventBusListener();
         EventBus.addListener(mockListener);
 
@@ -97,6 +101,11 @@ public class JdbcExecuteInterceptorTest {
         when(mockConnection.prepareCall(anyString())).thenReturn(mockCallableStatement);
     }
 
+    @Test
+    public void testIsDeferrable() {
+        assertTrue(interceptor.isDeferrable());
+    }
+
     @Test
     public void testInstallation() {
         AgentBuilder agentBuilder = mock(AgentBuilder.class);
@@ -182,6 +191,15 @@ public class JdbcExecuteInterceptorTest {
         assertEquals(myCallableStatement.toString(), parsed);
     }
 
+    @Test
+    public void testQueryStringExtractedFromPreparation() throws NoSuchMethodException {
+        PreparedStatementQueries.record(myCallableStatement, QUERY);
+        String parsed = JdbcExecuteInterceptor.parseQueryFromStatement(PreparedStatement.class, Statement.class, myCallableStatement, null);
+
+        // preferred to MyCallableStatement's overloaded toString()
+        assertEquals(QUERY, parsed);
+    }
+
     @Test
     public void testQueryStringNotExtracted() throws NoSuchMethodException {
         String query = "";
@@ -201,6 +219,17 @@ public class JdbcExecuteInterceptorTest {
         assertEquals(mockStatement, event.getRequest());
     }
 
+    @Test
+    public void testRequestEventCreationWithoutConnection() throws SQLException {
+        StatementImpl statement = mock(StatementImpl.class);
+        when(statement.getConnection()).thenThrow(new SQLException());
+        ServiceRequestEvent event = JdbcExecuteInterceptor.enter(QUERY, null, statement);
+
+        assertNull(event.getService());
+        assertEquals(QUERY, event.getOperation());
+        assertEquals(event, mockListener.getReceivedEvents().get(0));
+    }
+
     @Test
     public void testRequestEventPublish() {
         ServiceRequestEvent event = JdbcExecuteInterceptor.enter(QUERY,null, mockStatement);
@@ -234,6 +263,115 @@ public class JdbcExecuteInterceptorTest {
         assertNull(received.getResponse());
     }
 
+    @Test
+    public void testRequestEventFingerprinted() {
+        interceptor.handleArguments(Collections.singletonList("sqlfingerprint"));
+        ServiceRequestEvent event = JdbcExecuteInterceptor.enter("SELECT * FROM t WHERE id = 42", null, mockStatement);
+
+        assertEquals("select * from t where id = ?", event.getData(SqlFingerprint.NORMALIZED_DATA_KEY));
+        assertEquals(SqlFingerprint.hash("select * from t where id = ?"), event.getData(SqlFingerprint.HASH_DATA_KEY));
+        interceptor.handleArguments(Collections.emptyList());
+    }
+
+    @Test
+    public void testResultSetAssociatedWithQuery() {
+        ResultSetStatistics.setEnabled(true);
+        try {
+            ResultSet resultSet = mock(ResultSet.class);
+            JdbcExecuteInterceptor.exit(requestEvent, resultSet, null);
+            ResultSetStatistics.close(resultSet);
+
+            ResultSetSummaryEvent summary = (ResultSetSummaryEvent) mockListener.getReceivedEvents().get(1);
+            assertEquals(DB_NAME, summary.getService());
+            assertEquals(QUERY, summary.getOperation());
+        } finally {
+            ResultSetStatistics.setEnabled(false);
+        }
+    }
+
+    @Test
+    public void testOnlyOutermostResultSetAssociatedWithQuery() {
+        ResultSetStatistics.setEnabled(true);
+        try {
+            ResultSet wrapper = mock(ResultSet.class);
+            ResultSet driverResultSet = mock(ResultSet.class);
+            ServiceRequestEvent outer = JdbcExecuteInterceptor.enter(QUERY, null, mockStatement);
+            ServiceRequestEvent inner = JdbcExecuteInterceptor.enter(QUERY, null, mockStatement);
+            JdbcExecuteInterceptor.exit(inner, driverResultSet, null);
+            JdbcExecuteInterceptor.exit(outer, wrapper, null);
+            mockListener.getReceivedEvents().clear();
+            ResultSetStatistics.close(driverResultSet);
+            ResultSetStatistics.close(wrapper);
+
+            assertEquals(1, mockListener.getReceivedEvents().size());
+            assertSame(wrapper, ((ResultSetSummaryEvent) mockListener.getReceivedEvents().get(0)).getResultSet());
+        } finally {
+            ResultSetStatistics.setEnabled(false);
+        }
+    }
+
+    @Test
+    public void testRecyclingDisabledByDefault() {
+        assertFalse(JdbcExecuteInterceptor.isRecyclingEvents());
+        ServiceRequestEvent event = JdbcExecuteInterceptor.enter(QUERY, null, mockStatement);
+        assertFalse(event instanceof RecyclableEvent);
+    }
+
+    @Test
+    public void testRecycledEventsReusedAcrossExecutions() {
+        interceptor.handleArguments(Collections.singletonList("recycleevents"));
+        assertTrue(JdbcExecuteInterceptor.isRecyclingEvents());
+
+        ServiceRequestEvent first = JdbcExecuteInterceptor.enter(QUERY, null, mockStatement);
+        JdbcExecuteInterceptor.exit(first, 1, null);
+        ServiceResponseEvent firstResponse = (ServiceResponseEvent) mockListener.getReceivedEvents().get(1);
+        assertTrue(first instanceof RecyclableEvent);
+
+        ServiceRequestEvent second = JdbcExecuteInterceptor.enter("other sql", null, mockStatement);
+        JdbcExecuteInterceptor.exit(second, 2, null);
+
+        assertSame(first, second);
+        assertSame(firstResponse, mockListener.getReceivedEvents().get(3));
+        assertEquals("other sql", mockListener.getReceivedOperations().get(2));
+        assertEquals(2, mockListener.getReceivedResponses().get(3));
+    }
+
+    @Test
+    public void testNestedRecycledEventsAreDistinct() {
+        interceptor.handleArguments(Collections.singletonList("recycleevents"));
+
+        ServiceRequestEvent outer = JdbcExecuteInterceptor.enter(QUERY, null, mockStatement);
+        ServiceRequestEvent inner = JdbcExecuteInterceptor.enter("inner sql", null, mockStatement);
+        assertEquals(QUERY, outer.getOperation());
+        assertEquals("inner sql", inner.getOperation());
+
+        JdbcExecuteInterceptor.exit(inner, 1, null);
+        JdbcExecuteInterceptor.exit(outer, 2, null);
+        ServiceResponseEvent outerResponse = (ServiceResponseEvent) mockListener.getReceivedEvents().get(3);
+        assertEquals(QUERY, mockListener.getReceivedOperations().get(3));
+        assertEquals(2, mockListener.getReceivedResponses().get(3));
+        assertNull(outerResponse.getRequest());
+    }
+
+    @Test
+    public void testRetainedEventSurvivesRecycling() {
+        interceptor.handleArguments(Collections.singletonList("recycleevents"));
+        mockListener.retain = true;
+
+        ServiceRequestEvent event = JdbcExecuteInterceptor.enter(QUERY, null, mockStatement);
+        JdbcExecuteInterceptor.exit(event, 1, null);
+        JdbcExecuteInterceptor.exit(JdbcExecuteInterceptor.enter("other sql", null, mockStatement), 2, null);
+
+        ServiceRequestEvent retainedRequest = (ServiceRequestEvent) mockListener.getReceivedEvents().get(0);
+        ServiceResponseEvent retainedResponse = (ServiceResponseEvent) mockListener.getReceivedEvents().get(1);
+        assertFalse(retainedRequest instanceof RecyclableEvent);
+        assertEquals(QUERY, retainedRequest.getOperation());
+        assertEquals(DB_NAME, retainedRequest.getService());
+        assertEquals(mockStatement, retainedRequest.getRequest());
+        assertEquals(1, retainedResponse.getResponse());
+        assertEquals(QUERY, retainedResponse.getRequest().getOperation());
+    }
+
     private boolean classMatches(Class clazz) {
         return JdbcExecuteInterceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(clazz));
     }
@@ -274,6 +412,17 @@ public class JdbcExecuteInterceptorTest {
         }
 
         private List<Event> receivedEvents = new ArrayList<>();
+        private List<String> receivedOperations = new ArrayList<>();
+        private List<Object> receivedResponses = new ArrayList<>();
+        private boolean retain = false;
+
+        public List<String> getReceivedOperations() {
+            return receivedOperations;
+        }
+
+        public List<Object> getReceivedResponses() {
+            return receivedResponses;
+        }
 
         @Override
         public int getPriority() {
@@ -282,7 +431,14 @@ public class JdbcExecuteInterceptorTest {
 
         @Override
         public void listen(Event event) {
-            receivedEvents.add(event);
+            if (event instanceof ServiceRequestEvent) {
+                receivedOperations.add(((ServiceRequestEvent) event).getOperation());
+                receivedResponses.add(null);
+            } else if (event instanceof ServiceResponseEvent) {
+                receivedOperations.add(((ServiceResponseEvent) event).getOperation());
+                receivedResponses.add(((ServiceResponseEvent) event).getResponse());
+            }
+            receivedEvents.add(retain && event instanceof RecyclableEvent ? ((RecyclableEvent) event).retain() : event);
         }
     }
 }
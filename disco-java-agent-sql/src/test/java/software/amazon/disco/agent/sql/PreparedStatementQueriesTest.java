@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.sql;
+
+import org.junit.Test;
+import software.amazon.disco.agent.sql.source.MyPreparedStatementImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PreparedStatementQueriesTest {
+    @Test
+    public void testRecordedQueryRetrieved() {
+        Object statement = new MyPreparedStatementImpl();
+        PreparedStatementQueries.record(statement, "some sql");
+
+        assertEquals("some sql", PreparedStatementQueries.get(statement));
+    }
+
+    @Test
+    public void testUnrecordedStatement() {
+        assertNull(PreparedStatementQueries.get(new MyPreparedStatementImpl()));
+    }
+
+    @Test
+    public void testStatementsComparedByIdentity() {
+        Object first = new EqualPreparedStatement();
+        Object second = new EqualPreparedStatement();
+        PreparedStatementQueries.record(first, "first sql");
+        PreparedStatementQueries.record(second, "second sql");
+
+        assertEquals("first sql", PreparedStatementQueries.get(first));
+        assertEquals("second sql", PreparedStatementQueries.get(second));
+    }
+
+    @Test
+    public void testNullsNotRecorded() {
+        Object statement = new MyPreparedStatementImpl();
+        PreparedStatementQueries.record(statement, null);
+        PreparedStatementQueries.record(null, "some sql");
+
+        assertNull(PreparedStatementQueries.get(statement));
+        assertNull(PreparedStatementQueries.get(null));
+    }
+
+    /**
+     * A statement which, as some driver wrappers do, reports itself equal to any other of its class
+     */
+    private static class EqualPreparedStatement extends MyPreparedStatementImpl {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof EqualPreparedStatement;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+}
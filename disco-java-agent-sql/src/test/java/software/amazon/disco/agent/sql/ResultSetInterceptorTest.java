@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.sql;
+
+import com.mysql.cj.jdbc.result.ResultSetImpl;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.Listener;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class ResultSetInterceptorTest {
+    private ResultSetInterceptor interceptor;
+    private TestListener listener;
+
+    @Before
+    public void setup() {
+        interceptor = new ResultSetInterceptor();
+        interceptor.handleArguments(Collections.singletonList("sqlresultsets"));
+        listener = new TestListener();
+        EventBus.addListener(listener);
+    }
+
+    @After
+    public void cleanup() {
+        interceptor.handleArguments(Collections.emptyList());
+        EventBus.removeListener(listener);
+    }
+
+    @Test
+    public void testIsDeferrable() {
+        assertTrue(interceptor.isDeferrable());
+    }
+
+    @Test
+    public void testInstallation() {
+        AgentBuilder agentBuilder = mock(AgentBuilder.class);
+        AgentBuilder.Identified.Extendable extendable = mock(AgentBuilder.Identified.Extendable.class);
+        AgentBuilder.Identified.Narrowable narrowable = mock(AgentBuilder.Identified.Narrowable.class);
+        when(agentBuilder.type(any(ElementMatcher.class))).thenReturn(narrowable);
+        when(narrowable.transform(any(AgentBuilder.Transformer.class))).thenReturn(extendable);
+        AgentBuilder result = interceptor.install(agentBuilder);
+        assertSame(extendable, result);
+    }
+
+    @Test
+    public void testNotInstalledByDefault() {
+        interceptor.handleArguments(Collections.emptyList());
+        AgentBuilder agentBuilder = mock(AgentBuilder.class);
+
+        assertFalse(ResultSetStatistics.isEnabled());
+        assertSame(agentBuilder, interceptor.install(agentBuilder));
+        verifyNoInteractions(agentBuilder);
+    }
+
+    @Test
+    public void testClassMatcher() {
+        assertTrue(ResultSetInterceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(ResultSetImpl.class)));
+        assertFalse(ResultSetInterceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(ResultSet.class)));
+        assertFalse(ResultSetInterceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(String.class)));
+    }
+
+    @Test
+    public void testMethodMatchers() throws NoSuchMethodException {
+        assertTrue(ResultSetInterceptor.buildNextMethodMatcher().matches(new MethodDescription.ForLoadedMethod(ResultSetImpl.class.getDeclaredMethod("next"))));
+        assertFalse(ResultSetInterceptor.buildNextMethodMatcher().matches(new MethodDescription.ForLoadedMethod(ResultSetImpl.class.getDeclaredMethod("previous"))));
+        assertFalse(ResultSetInterceptor.buildNextMethodMatcher().matches(new MethodDescription.ForLoadedMethod(ResultSet.class.getDeclaredMethod("next"))));
+        assertTrue(ResultSetInterceptor.buildCloseMethodMatcher().matches(new MethodDescription.ForLoadedMethod(ResultSetImpl.class.getDeclaredMethod("close"))));
+        assertFalse(ResultSetInterceptor.buildCloseMethodMatcher().matches(new MethodDescription.ForLoadedMethod(ResultSet.class.getDeclaredMethod("close"))));
+    }
+
+    @Test
+    public void testAdvisedResultSetPublishesSummaryOnClose() throws Exception {
+        Class<?> advised = new ByteBuddy()
+                .redefine(FakeResultSet.class)
+                .visit(Advice.to(ResultSetInterceptor.NextAdvice.class).on(ResultSetInterceptor.buildNextMethodMatcher()))
+                .visit(Advice.to(ResultSetInterceptor.CloseAdvice.class).on(ResultSetInterceptor.buildCloseMethodMatcher()))
+                .make()
+                .load(ResultSetInterceptorTest.class.getClassLoader(), ClassLoadingStrategy.Default.CHILD_FIRST)
+                .getLoaded();
+        Object rs = advised.getConstructor(int.class).newInstance(3);
+        ResultSetStatistics.begin(rs, "db", "select 1");
+        while ((Boolean) advised.getMethod("next").invoke(rs)) {
+            assertTrue(listener.events.isEmpty());
+        }
+        advised.getMethod("close").invoke(rs);
+        advised.getMethod("close").invoke(rs);
+
+        assertEquals(1, listener.events.size());
+        ResultSetSummaryEvent event = (ResultSetSummaryEvent) listener.events.get(0);
+        assertEquals("db", event.getService());
+        assertEquals("select 1", event.getOperation());
+        assertSame(rs, event.getResultSet());
+        assertEquals(3L, event.getRowCount());
+        assertTrue(event.getFetchDuration() >= 0L);
+    }
+
+    /**
+     * A ResultSet-like class with the next() and close() methods of a ResultSet, which has the given number of rows
+     */
+    public static class FakeResultSet {
+        private int rows;
+
+        public FakeResultSet(int rows) {
+            this.rows = rows;
+        }
+
+        public boolean next() {
+            return rows-- > 0;
+        }
+
+        public void close() {
+        }
+    }
+
+    private static class TestListener implements Listener {
+        List<Event> events = new ArrayList<>();
+
+        @Override
+        public int getPriority() {
+            return 0;
+        }
+
+        @Override
+        public void listen(Event e) {
+            events.add(e);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.sql;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.Listener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResultSetStatisticsTest {
+    private TestListener listener;
+
+    @Before
+    public void setup() {
+        ResultSetStatistics.setEnabled(true);
+        ResultSetStatistics.clear();
+        listener = new TestListener();
+        EventBus.addListener(listener);
+    }
+
+    @After
+    public void cleanup() {
+        ResultSetStatistics.setEnabled(false);
+        ResultSetStatistics.clear();
+        EventBus.removeListener(listener);
+    }
+
+    @Test
+    public void testRowsAndDurationAccumulated() {
+        Object rs = new Object();
+        ResultSetStatistics.begin(rs, "db", "select 1");
+        ResultSetStatistics.recordNext(rs, true, 10L);
+        ResultSetStatistics.recordNext(rs, true, 20L);
+        ResultSetStatistics.recordNext(rs, false, 5L);
+        ResultSetStatistics.close(rs);
+
+        assertEquals(1, listener.events.size());
+        ResultSetSummaryEvent event = (ResultSetSummaryEvent) listener.events.get(0);
+        assertEquals(JdbcExecuteInterceptor.SQL_ORIGIN, event.getOrigin());
+        assertEquals("db", event.getService());
+        assertEquals("select 1", event.getOperation());
+        assertSame(rs, event.getResultSet());
+        assertEquals(2L, event.getRowCount());
+        assertEquals(35L, event.getFetchDuration());
+        assertEquals(2L, event.getData("ROW_COUNT"));
+        assertEquals(35L, event.getData("FETCH_DURATION"));
+        assertEquals("select 1", event.getData("OPERATION"));
+    }
+
+    @Test
+    public void testResultSetsTrackedSeparately() {
+        Object outer = new Object();
+        Object inner = new Object();
+        ResultSetStatistics.begin(outer, "db", "select outer");
+        ResultSetStatistics.recordNext(outer, true, 1L);
+        ResultSetStatistics.begin(inner, "db", "select inner");
+        ResultSetStatistics.recordNext(inner, true, 1L);
+        ResultSetStatistics.recordNext(inner, true, 1L);
+        ResultSetStatistics.close(inner);
+        ResultSetStatistics.recordNext(outer, false, 1L);
+        ResultSetStatistics.close(outer);
+
+        assertEquals(2, listener.events.size());
+        assertEquals(2L, ((ResultSetSummaryEvent) listener.events.get(0)).getRowCount());
+        assertEquals(1L, ((ResultSetSummaryEvent) listener.events.get(1)).getRowCount());
+        assertEquals("select outer", ((ResultSetSummaryEvent) listener.events.get(1)).getOperation());
+    }
+
+    @Test
+    public void testUnknownResultSetIgnored() {
+        Object rs = new Object();
+        ResultSetStatistics.recordNext(rs, true, 1L);
+        ResultSetStatistics.close(rs);
+
+        assertTrue(listener.events.isEmpty());
+    }
+
+    @Test
+    public void testWrappedResultSetSummarizedOnce() {
+        Object wrapper = new Object();
+        Object driverResultSet = new Object();
+        // a pool's Statement proxy executes the driver's Statement within its own execute method
+        ResultSetStatistics.enterExecute();
+        ResultSetStatistics.enterExecute();
+        ResultSetStatistics.exitExecute(driverResultSet, "db", "select 1");
+        ResultSetStatistics.exitExecute(wrapper, "db", "select 1");
+        ResultSetStatistics.recordNext(driverResultSet, true, 1L);
+        ResultSetStatistics.recordNext(wrapper, true, 2L);
+        ResultSetStatistics.close(driverResultSet);
+        ResultSetStatistics.close(wrapper);
+
+        assertEquals(1, listener.events.size());
+        ResultSetSummaryEvent event = (ResultSetSummaryEvent) listener.events.get(0);
+        assertSame(wrapper, event.getResultSet());
+        assertEquals(1L, event.getRowCount());
+        assertEquals(2L, event.getFetchDuration());
+    }
+
+    @Test
+    public void testSequentialExecutesEachTracked() {
+        Object first = new Object();
+        Object second = new Object();
+        ResultSetStatistics.enterExecute();
+        ResultSetStatistics.exitExecute(first, "db", "select 1");
+        ResultSetStatistics.enterExecute();
+        ResultSetStatistics.exitExecute(second, "db", "select 2");
+        ResultSetStatistics.close(first);
+        ResultSetStatistics.close(second);
+
+        assertEquals(2, listener.events.size());
+    }
+
+    @Test
+    public void testFailedInnerExecuteLeavesOuterTracked() {
+        Object rs = new Object();
+        ResultSetStatistics.enterExecute();
+        ResultSetStatistics.enterExecute();
+        ResultSetStatistics.exitExecute(null, "db", "select 1");
+        ResultSetStatistics.exitExecute(rs, "db", "select 1");
+        ResultSetStatistics.close(rs);
+
+        assertEquals(1, listener.events.size());
+    }
+
+    @Test
+    public void testUntrackedCloseIgnored() {
+        ResultSetStatistics.close(new Object());
+
+        assertTrue(listener.events.isEmpty());
+    }
+
+    @Test
+    public void testBeginIgnoredWhenDisabled() {
+        ResultSetStatistics.setEnabled(false);
+        Object rs = new Object();
+        ResultSetStatistics.begin(rs, "db", "select 1");
+        ResultSetStatistics.close(rs);
+
+        assertTrue(listener.events.isEmpty());
+    }
+
+    @Test
+    public void testTableBoundedWhenResultSetsNotClosed() {
+        List<Object> unclosed = new ArrayList<>();
+        for (int i = 0; i < ResultSetStatistics.MAX_TRACKED + 1; i++) {
+            Object rs = new Object();
+            unclosed.add(rs);
+            ResultSetStatistics.begin(rs, "db", "select " + i);
+        }
+
+        // the first was evicted to make room for the last, publishing its summary
+        assertEquals(1, listener.events.size());
+        assertSame(unclosed.get(0), ((ResultSetSummaryEvent) listener.events.get(0)).getResultSet());
+        assertEquals("select 0", ((ResultSetSummaryEvent) listener.events.get(0)).getOperation());
+        ResultSetStatistics.close(unclosed.get(0));
+        assertEquals(1, listener.events.size());
+        for (int i = 1; i < unclosed.size(); i++) {
+            ResultSetStatistics.close(unclosed.get(i));
+        }
+        assertEquals(ResultSetStatistics.MAX_TRACKED + 1, listener.events.size());
+    }
+
+    @Test
+    public void testResultSetTrackedLongestEvicted() {
+        List<Object> unclosed = new ArrayList<>();
+        for (int i = 0; i < ResultSetStatistics.MAX_TRACKED; i++) {
+            Object rs = new Object();
+            unclosed.add(rs);
+            ResultSetStatistics.begin(rs, "db", "select " + i);
+        }
+        ResultSetStatistics.close(unclosed.get(0));
+        ResultSetStatistics.begin(new Object(), "db", "reuses the closed slot");
+        listener.events.clear();
+        ResultSetStatistics.begin(new Object(), "db", "evicts the eldest");
+
+        assertEquals(1, listener.events.size());
+        assertSame(unclosed.get(1), ((ResultSetSummaryEvent) listener.events.get(0)).getResultSet());
+        for (Object rs : unclosed) {
+            ResultSetStatistics.close(rs);
+        }
+    }
+
+    @Test
+    public void testResultSetConfinedToThread() throws Exception {
+        Object rs = new Object();
+        ResultSetStatistics.begin(rs, "db", "select 1");
+        Thread other = new Thread(() -> ResultSetStatistics.close(rs));
+        other.start();
+        other.join();
+
+        assertTrue(listener.events.isEmpty());
+        ResultSetStatistics.close(rs);
+        assertEquals(1, listener.events.size());
+    }
+
+    private static class TestListener implements Listener {
+        List<Event> events = new ArrayList<>();
+
+        @Override
+        public int getPriority() {
+            return 0;
+        }
+
+        @Override
+        public void listen(Event e) {
+            events.add(e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.sql;
+
+import org.junit.After;
+import org.junit.Test;
+import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SqlFingerprintTest {
+    @After
+    public void after() {
+        SqlFingerprint.configure(null);
+    }
+
+    @Test
+    public void testLiteralsReplaced() {
+        assertEquals("select * from t where a = ? and b = ? and c = -?",
+                SqlFingerprint.normalize("SELECT * FROM t WHERE a = 42 AND b = 'it''s' AND c = -1.5e+3", false));
+        assertEquals("select * from t where a = ? and b=?",
+                SqlFingerprint.normalize("select * from t where a = 0x1F and b='x\\'y'", true));
+    }
+
+    @Test
+    public void testBackslashNotEscapeInStandardSql() {
+        assertEquals("select * from t where path = ? and id = ?",
+                SqlFingerprint.normalize("SELECT * FROM t WHERE path = 'C:\\' AND id = 7", false));
+    }
+
+    @Test
+    public void testBackslashEscapeWithDialect() {
+        SqlFingerprint.configure(Collections.singletonList("sqlfingerprintdialect=MySQL"));
+        assertEquals("select * from t where b = ?", SqlFingerprint.of("SELECT * FROM t WHERE b = 'x\\'y'").getNormalized());
+    }
+
+    @Test
+    public void testUnknownDialectIsStandard() {
+        SqlFingerprint.configure(Collections.singletonList("sqlfingerprintdialect=cobol"));
+        assertEquals("select * from t where path = ? and id = ?",
+                SqlFingerprint.of("SELECT * FROM t WHERE path = 'C:\\' AND id = 7").getNormalized());
+    }
+
+    @Test
+    public void testIdentifiersPreserved() {
+        assertEquals("select t1.col_2, \"Quoted 3\" from `Tbl 4` t1", SqlFingerprint.normalize("SELECT t1.col_2, \"Quoted 3\" FROM `Tbl 4` t1", false));
+    }
+
+    @Test
+    public void testListsCollapsed() {
+        assertEquals("select * from t where id in (?)", SqlFingerprint.normalize("SELECT * FROM t WHERE id IN (1, 2, 3)", false));
+        assertEquals("select * from t where id in (?)", SqlFingerprint.normalize("SELECT * FROM t WHERE id IN ( ?,?, ? )", false));
+        assertEquals("insert into t (a, b) values (?)", SqlFingerprint.normalize("INSERT INTO t (a,b) VALUES ('x', 2)", false));
+    }
+
+    @Test
+    public void testWhitespaceAndCommentsCollapsed() {
+        assertEquals("select a from t where b = ?",
+                SqlFingerprint.normalize("  SELECT a -- the column\n\tFROM /* the table */ t\r\n WHERE b = 1  ", false));
+    }
+
+    @Test
+    public void testEquivalentQueriesShareFingerprint() {
+        SqlFingerprint first = SqlFingerprint.of("SELECT * FROM t WHERE id IN (1, 2)");
+        SqlFingerprint second = SqlFingerprint.of("select *   from t where id in (3,4,5,6)");
+        SqlFingerprint other = SqlFingerprint.of("select * from u where id in (3)");
+
+        assertEquals(first.getNormalized(), second.getNormalized());
+        assertEquals(first.getHash(), second.getHash());
+        assertNotEquals(first.getHash(), other.getHash());
+    }
+
+    @Test
+    public void testHashIsFnv1a() {
+        assertEquals(0xcbf29ce484222325L, SqlFingerprint.hash(""));
+        assertEquals(0xaf63dc4c8601ec8cL, SqlFingerprint.hash("a"));
+    }
+
+    @Test
+    public void testFingerprintCached() {
+        String query = "select 1";
+        assertSame(SqlFingerprint.of(query), SqlFingerprint.of(query));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        SqlFingerprint.configure(Collections.singletonList("sqlfingerprintcachesize=2"));
+        SqlFingerprint first = SqlFingerprint.of("select 1");
+        SqlFingerprint second = SqlFingerprint.of("select 2");
+        assertSame(first, SqlFingerprint.of("select 1"));
+        SqlFingerprint.of("select 3");
+
+        assertSame(first, SqlFingerprint.of("select 1"));
+        assertNotSame(second, SqlFingerprint.of("select 2"));
+    }
+
+    @Test
+    public void testCacheSizeBounded() {
+        SqlFingerprint.FingerprintCache cache = new SqlFingerprint.FingerprintCache(3);
+        for (int i = 0; i < 10; i++) {
+            String query = "select " + i;
+            cache.put(query, SqlFingerprint.of(query));
+            cache.get("select 0");
+        }
+
+        assertEquals(3, cache.size());
+        assertNotNull(cache.get("select 0"));
+        assertNotNull(cache.get("select 9"));
+        assertNull(cache.get("select 1"));
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        assertFalse(SqlFingerprint.isEnabled());
+        ServiceDownstreamRequestEvent event = new ServiceDownstreamRequestEvent("SQL", "db", "select 1");
+        SqlFingerprint.attach(event, "select 1");
+
+        assertNull(event.getData(SqlFingerprint.NORMALIZED_DATA_KEY));
+        assertNull(event.getData(SqlFingerprint.HASH_DATA_KEY));
+    }
+
+    @Test
+    public void testAttachWhenEnabled() {
+        SqlFingerprint.configure(Arrays.asList("recycleevents", "SqlFingerprint"));
+        assertTrue(SqlFingerprint.isEnabled());
+        ServiceDownstreamRequestEvent event = new ServiceDownstreamRequestEvent("SQL", "db", "SELECT 1");
+        SqlFingerprint.attach(event, "SELECT 1");
+
+        assertEquals("select ?", event.getData(SqlFingerprint.NORMALIZED_DATA_KEY));
+        assertEquals(SqlFingerprint.hash("select ?"), event.getData(SqlFingerprint.HASH_DATA_KEY));
+    }
+
+    @Test
+    public void testAttachWithoutQuery() {
+        SqlFingerprint.configure(Collections.singletonList("sqlfingerprint"));
+        ServiceDownstreamRequestEvent event = new ServiceDownstreamRequestEvent("SQL", "db", null);
+        SqlFingerprint.attach(event, null);
+
+        assertNull(event.getData(SqlFingerprint.HASH_DATA_KEY));
+    }
+}
@@ -154,7 +154,7 @@ public class MyPreparedStatementImpl extends MyStatementImpl implements Prepared
 
     @Override
     public void addBatch() throws SQLException {
-
+        batchSize++;
     }
 
     @Override
@@ -22,6 +22,7 @@ import java.sql.SQLWarning;
 import java.sql.Statement;
 
 public class MyStatementImpl implements Statement {
+    protected int batchSize;
 
     @Override
     public ResultSet executeQuery(String sql) throws SQLException {
@@ -145,17 +146,19 @@ public class MyStatementImpl implements Statement {
 
     @Override
     public void addBatch(String sql) throws SQLException {
-
+        batchSize++;
     }
 
     @Override
     public void clearBatch() throws SQLException {
-
+        batchSize = 0;
     }
 
     @Override
     public int[] executeBatch() throws SQLException {
-        return new int[0];
+        int[] updateCounts = new int[batchSize];
+        batchSize = 0;
+        return updateCounts;
     }
 
     @Override
@@ -28,15 +28,30 @@ dependencies {
     implementation(project(":disco-java-agent:disco-java-agent-core"))
     testImplementation("org.mockito", "mockito-core", "1.+")
     pluginImplementation("javax.servlet", "javax.servlet-api", "3.0.1")
+    pluginImplementation("jakarta.servlet", "jakarta.servlet-api", "5.0.0")
     pluginImplementation("org.apache.httpcomponents", "httpclient", "4.5.10")
+    pluginImplementation("org.apache.httpcomponents", "httpasyncclient", "4.1.4")
+    pluginImplementation("org.apache.httpcomponents.client5", "httpclient5", "5.1.3")
+    pluginImplementation("com.squareup.okhttp3", "okhttp", "3.14.9")
 }
 
 // For classes which need to be accessed in the context of the application code's classloader, they need to be injected/forced
 // into that classloader. They cannot be placed in the bootstrap classloader, nor any isolated/orphaned classloader, since they
 // either inherit from, or use, classes from the AWS SDK, which are assumed not to be present on the bootstrap classloader
 ext.set("classesToMove", arrayOf(
-        "software.amazon.disco.agent.web.servlet.HttpServletServiceMethodDelegation",
+        "software.amazon.disco.agent.web.servlet.HttpServletAsyncListener",
+        "software.amazon.disco.agent.web.servlet.JavaxHttpServletAccessor",
+        "software.amazon.disco.agent.web.servlet.JakartaHttpServletAsyncListener",
+        "software.amazon.disco.agent.web.servlet.JakartaHttpServletAccessor",
         "software.amazon.disco.agent.web.apache.event.ApacheEventFactory",
         "software.amazon.disco.agent.web.apache.event.ApacheHttpServiceDownstreamRequestEvent",
-        "software.amazon.disco.agent.web.apache.httpclient.ApacheHttpClientMethodDelegation"
+        "software.amazon.disco.agent.web.apache.httpclient.ApacheHttpClientAccessor",
+        "software.amazon.disco.agent.web.apache.httpasyncclient.ApacheFutureCallback",
+        "software.amazon.disco.agent.web.apache.event.Apache5EventFactory",
+        "software.amazon.disco.agent.web.apache.event.Apache5HttpServiceDownstreamRequestEvent",
+        "software.amazon.disco.agent.web.apache.httpclient5.ApacheHttpClient5Accessor",
+        "software.amazon.disco.agent.web.apache.httpclient5.Apache5FutureCallback",
+        "software.amazon.disco.agent.web.okhttp.DiscoOkHttpInterceptor",
+        "software.amazon.disco.agent.web.okhttp.DiscoOkHttpCallback",
+        "software.amazon.disco.agent.web.okhttp.OkHttpServiceDownstreamRequestEvent"
 ))
\ No newline at end of file
@@ -17,8 +17,18 @@ package software.amazon.disco.agent.web;
 
 import software.amazon.disco.agent.interception.Installable;
 import software.amazon.disco.agent.interception.Package;
+import software.amazon.disco.agent.web.apache.httpasyncclient.ApacheHttpAsyncClientInterceptor;
 import software.amazon.disco.agent.web.apache.httpclient.ApacheHttpClientInterceptor;
+import software.amazon.disco.agent.web.apache.httpclient5.ApacheHttpAsyncClient5Interceptor;
+import software.amazon.disco.agent.web.apache.httpclient5.ApacheHttpClient5Interceptor;
+import software.amazon.disco.agent.web.jdkhttpclient.JdkHttpClientInterceptor;
+import software.amazon.disco.agent.web.okhttp.OkHttpCallInterceptor;
+import software.amazon.disco.agent.web.okhttp.OkHttpClientBuilderInterceptor;
+import software.amazon.disco.agent.web.servlet.HttpServletAsyncContextInterceptor;
+import software.amazon.disco.agent.web.servlet.HttpServletFilterInterceptor;
 import software.amazon.disco.agent.web.servlet.HttpServletServiceInterceptor;
+import software.amazon.disco.agent.web.servlet.JakartaHttpServletFilterInterceptor;
+import software.amazon.disco.agent.web.servlet.JakartaHttpServletServiceInterceptor;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -34,7 +44,17 @@ public class WebSupport implements Package {
     public Collection<Installable> get() {
         return Arrays.asList(
             new HttpServletServiceInterceptor(),
-            new ApacheHttpClientInterceptor()
+            new JakartaHttpServletServiceInterceptor(),
+            new HttpServletFilterInterceptor(),
+            new JakartaHttpServletFilterInterceptor(),
+            new HttpServletAsyncContextInterceptor(),
+            new ApacheHttpClientInterceptor(),
+            new ApacheHttpAsyncClientInterceptor(),
+            new ApacheHttpClient5Interceptor(),
+            new ApacheHttpAsyncClient5Interceptor(),
+            new JdkHttpClientInterceptor(),
+            new OkHttpClientBuilderInterceptor(),
+            new OkHttpCallInterceptor()
         );
     }
 }
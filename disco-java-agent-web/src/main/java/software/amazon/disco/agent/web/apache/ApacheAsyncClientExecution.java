@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.apache;
+
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The state of one call to an Apache HTTP async client, for the Advice of the 4.x and 5.x async client interceptors.
+ * The FutureCallback passed to the intercepted execute() call is replaced with one which, when the request completes,
+ * on whichever I/O thread that happens, restores the transaction of the caller, completes this execution to publish the
+ * response event, and then calls the caller's own callback, if any, within the same transaction.
+ */
+public class ApacheAsyncClientExecution {
+    private final ApacheClientAccessor accessor;
+    private final ServiceDownstreamRequestEvent requestEvent;
+    private final AtomicBoolean responded = new AtomicBoolean(false);
+
+    /**
+     * Construct a new ApacheAsyncClientExecution
+     * @param accessor the accessor for the version of the client being intercepted
+     * @param requestEvent the previously published request event
+     */
+    private ApacheAsyncClientExecution(ApacheClientAccessor accessor, ServiceDownstreamRequestEvent requestEvent) {
+        this.accessor = accessor;
+        this.requestEvent = requestEvent;
+    }
+
+    /**
+     * Called on entry to an intercepted execute() method, whose last argument is a FutureCallback. Unless the callback
+     * has already been decorated by an enclosing execute() call, publish the request event and decorate the callback.
+     *
+     * Must be public for use in Advice methods.
+     *
+     * @param args the arguments of the execute() call
+     * @param accessor the accessor for the version of the client being intercepted
+     * @return the arguments to continue the execute() call with
+     */
+    public static Object[] decorateArguments(Object[] args, ApacheClientAccessor accessor) {
+        int last = args.length - 1;
+        if (last < 0 || accessor.getDecoratedExecution(args[last]) != null) {
+            //a nested execute() call, which the outermost call is already recording
+            return args;
+        }
+
+        Object request = null;
+        for (Object arg : args) {
+            if (accessor.isRequest(arg)) {
+                request = arg;
+                break;
+            }
+        }
+        if (request == null || (args[last] != null && !accessor.isFutureCallback(args[last]))) {
+            return args;
+        }
+
+        HttpServiceDownstreamRequestEvent requestEvent = accessor.createRequestEvent(accessor.getAsyncClientOrigin(), request);
+        EventBus.publish(requestEvent);
+
+        Object[] decoratedArgs = args.clone();
+        decoratedArgs[last] = accessor.decorateFutureCallback(args[last], new ApacheAsyncClientExecution(accessor, requestEvent));
+        return decoratedArgs;
+    }
+
+    /**
+     * Called on exit from an intercepted execute() method which threw, in which case the callback may never be called.
+     *
+     * Must be public for use in Advice methods.
+     *
+     * @param args the arguments of the execute() call, as decorated on entry
+     * @param thrown the Throwable thrown by the execute() call
+     * @param accessor the accessor for the version of the client being intercepted
+     */
+    public static void failedToExecute(Object[] args, Throwable thrown, ApacheClientAccessor accessor) {
+        if (args.length > 0) {
+            ApacheAsyncClientExecution execution = accessor.getDecoratedExecution(args[args.length - 1]);
+            if (execution != null) {
+                execution.complete(null, thrown);
+            }
+        }
+    }
+
+    /**
+     * Publish the response event, only once however the request ended. Called by the decorated FutureCallback.
+     *
+     * @param result the value the request completed with, or null if none
+     * @param thrown the Throwable if the request failed, or null
+     */
+    public void complete(Object result, Throwable thrown) {
+        if (responded.compareAndSet(false, true)) {
+            EventBus.publish(accessor.createResponseEvent(accessor.isResponse(result) ? result : null, requestEvent, thrown));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.apache;
+
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.ServiceDownstreamResponseEvent;
+
+/**
+ * Access to the types of one major version of the Apache HTTP client libraries, which live in different packages in
+ * 4.x (org.apache.http) and 5.x (org.apache.hc), so that {@link ApacheClientExecution} and
+ * {@link ApacheAsyncClientExecution} can hold the interception logic for both versions once. Implementations are
+ * singletons which cast to the concrete Apache types and call them directly.
+ *
+ * This interface deliberately has no dependency on the Apache libraries, so that it is loaded once alongside the shared
+ * logic, and only its implementations are injected into each application classloader.
+ */
+public interface ApacheClientAccessor {
+    /**
+     * @return the origin of the events published for calls made by the blocking client
+     */
+    String getClientOrigin();
+
+    /**
+     * @return the origin of the events published for calls made by the async client
+     */
+    String getAsyncClientOrigin();
+
+    /**
+     * @return the execution state of blocking client calls made on the current thread, kept apart from that of other
+     * versions of the client
+     */
+    ApacheClientExecution getCurrentExecution();
+
+    /**
+     * @param arg an argument of an intercepted method
+     * @return true if the argument is an HttpRequest
+     */
+    boolean isRequest(Object arg);
+
+    /**
+     * @param result the value returned by an intercepted method, or passed to a callback
+     * @return true if the value is an HttpResponse
+     */
+    boolean isResponse(Object result);
+
+    /**
+     * @param arg an argument of an intercepted method
+     * @return true if the argument is a FutureCallback
+     */
+    boolean isFutureCallback(Object arg);
+
+    /**
+     * @param origin the origin of the event
+     * @param request the HttpRequest
+     * @return a request event for the HttpRequest, allowing header propagation
+     */
+    HttpServiceDownstreamRequestEvent createRequestEvent(String origin, Object request);
+
+    /**
+     * @param response the HttpResponse, or null if none
+     * @param requestEvent the previously published request event
+     * @param thrown the Throwable if the request failed, or null
+     * @return a response event for the HttpResponse
+     */
+    ServiceDownstreamResponseEvent createResponseEvent(Object response, ServiceDownstreamRequestEvent requestEvent, Throwable thrown);
+
+    /**
+     * @param callback the FutureCallback passed by the caller, or null if none
+     * @param execution the state of the async call which the callback completes
+     * @return a FutureCallback which completes the execution within the caller's transaction, before calling the
+     * caller's callback
+     */
+    Object decorateFutureCallback(Object callback, ApacheAsyncClientExecution execution);
+
+    /**
+     * @param callback an argument of an intercepted method
+     * @return the execution completed by the callback, if it was returned by {@link #decorateFutureCallback}, else null
+     */
+    ApacheAsyncClientExecution getDecoratedExecution(Object callback);
+}
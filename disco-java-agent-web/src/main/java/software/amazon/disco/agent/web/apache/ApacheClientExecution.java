@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.apache;
+
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.logging.LogManager;
+import software.amazon.disco.agent.logging.Logger;
+
+/**
+ * The state of the calls to a blocking Apache HTTP client made on a thread, for the Advice of the 4.x and 5.x client
+ * interceptors. The execute() overloads chain into one another, and in 5.x into doExecute(), so only the outermost call
+ * on the thread publishes events. One instance is kept per thread for each version of the client, by its
+ * {@link ApacheClientAccessor}, and handed from the enter Advice to the exit Advice, so that an intercepted call costs a
+ * single ThreadLocal lookup and no allocations beyond the events themselves.
+ */
+public class ApacheClientExecution {
+    private static final Logger log = LogManager.getLogger(ApacheClientExecution.class);
+
+    private int depth;
+    private ServiceDownstreamRequestEvent requestEvent;
+    // The response of the nested call made by an outermost execute() which takes a response handler
+    private Object nestedResponse;
+
+    /**
+     * Called on entry to an intercepted method. If this is the outermost call on the thread, the request event is
+     * published.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param arg0     the first argument of the intercepted method, or null if none
+     * @param arg1     the second argument of the intercepted method, or null if none. The HttpRequest is always one of
+     *                 the first two arguments
+     * @param origin   identifier of the intercepted method, for debugging/logging
+     * @param accessor the accessor for the version of the client being intercepted
+     * @return the execution state of the current thread, to be passed to {@link #exit}
+     */
+    public static Object enter(final Object arg0, final Object arg1, final String origin, final ApacheClientAccessor accessor) {
+        ApacheClientExecution execution = accessor.getCurrentExecution();
+        if (execution.depth == 0) {
+            if (LogManager.isDebugEnabled()) {
+                log.debug("DiSCo(Web) interception of " + origin);
+            }
+            Object httpRequest = accessor.isRequest(arg0) ? arg0
+                    : accessor.isRequest(arg1) ? arg1
+                    : null;
+            execution.requestEvent = accessor.createRequestEvent(accessor.getClientOrigin(), httpRequest);
+            EventBus.publish(execution.requestEvent);
+        }
+        execution.depth++;
+        return execution;
+    }
+
+    /**
+     * Called on exit from an intercepted method, whether it returned or threw. If this is the outermost call on the
+     * thread, the response event is published.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param state    the value returned by {@link #enter}
+     * @param response the object returned by the intercepted method, or null if it threw
+     * @param thrown   the Throwable thrown by the intercepted method, or null if it returned
+     * @param accessor the accessor for the version of the client being intercepted
+     */
+    public static void exit(final Object state, final Object response, final Throwable thrown, final ApacheClientAccessor accessor) {
+        ApacheClientExecution execution = (ApacheClientExecution) state;
+        if (--execution.depth > 0) {
+            if (accessor.isResponse(response)) {
+                //record it for an enclosing execute() which takes a response handler and returns the handler's T.
+                execution.nestedResponse = response;
+            }
+            return;
+        }
+
+        //the flavors of execute() which take a response handler return the handler's T, but obtain the HttpResponse
+        //from a nested call.
+        Object httpResponse = accessor.isResponse(response) ? response : execution.nestedResponse;
+        ServiceDownstreamRequestEvent requestEvent = execution.requestEvent;
+        execution.requestEvent = null;
+        execution.nestedResponse = null;
+        EventBus.publish(accessor.createResponseEvent(httpResponse, requestEvent, thrown));
+    }
+}
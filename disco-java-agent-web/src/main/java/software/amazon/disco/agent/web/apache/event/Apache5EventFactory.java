@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.apache.event;
+
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.ServiceDownstreamResponseEvent;
+
+import java.net.URI;
+
+/**
+ * Create our private events for Apache HttpClient 5, so that listeners do not have public access to them
+ */
+public class Apache5EventFactory {
+    /**
+     * Create our private events, so that listeners do not have public access to them
+     * @param origin the origin of the downstream call e.g. 'Web'
+     * @param request a HttpRequest to get uri and HTTP method
+     * @return a {@link Apache5HttpServiceDownstreamRequestEvent}
+     */
+    public static HttpServiceDownstreamRequestEvent createDownstreamRequestEvent(String origin, HttpRequest request) {
+        String uri;
+        try {
+            URI requestUri = request.getUri();
+            uri = requestUri == null ? null : requestUri.toString();
+        } catch (Exception e) {
+            uri = request.getRequestUri();
+        }
+        String method = request.getMethod();
+        Apache5HttpServiceDownstreamRequestEvent requestEvent = new Apache5HttpServiceDownstreamRequestEvent(origin, uri, method, request);
+        requestEvent.withMethod(method);
+        requestEvent.withUri(uri);
+        return requestEvent;
+    }
+
+    /**
+     * Create response event with HttpResponse for apache client 5 downstream call
+     * @param response a HttpResponse to get status code etc.
+     * @param requestEvent Previously published ServiceDownstreamRequestEvent
+     * @param throwable The throwable if the request fails
+     * @return  a {@link HttpServiceDownstreamResponseEvent}.
+     */
+    public static ServiceDownstreamResponseEvent createServiceResponseEvent(final HttpResponse response, final ServiceDownstreamRequestEvent requestEvent, final Throwable throwable) {
+        HttpServiceDownstreamResponseEvent responseEvent = new HttpServiceDownstreamResponseEvent(requestEvent.getOrigin(), requestEvent.getService(), requestEvent.getOperation(), requestEvent);
+        if (requestEvent instanceof Apache5HttpServiceDownstreamRequestEvent) {
+            responseEvent.withDuration(System.nanoTime() - ((Apache5HttpServiceDownstreamRequestEvent) requestEvent).getStartNanos());
+        }
+        if (throwable != null) {
+            responseEvent.withThrown(throwable);
+        }
+        if (response != null) {
+            responseEvent.withStatusCode(response.getCode());
+            if (response instanceof ClassicHttpResponse && ((ClassicHttpResponse) response).getEntity() != null) {
+                responseEvent.withContentLength(((ClassicHttpResponse) response).getEntity().getContentLength());
+            }
+        }
+        return responseEvent;
+    }
+}
@@ -66,6 +66,9 @@ public class ApacheEventFactory {
      */
     public static ServiceDownstreamResponseEvent createServiceResponseEvent(final HttpResponse response, final ServiceDownstreamRequestEvent requestEvent, final Throwable throwable) {
         HttpServiceDownstreamResponseEvent responseEvent = new HttpServiceDownstreamResponseEvent(requestEvent.getOrigin(), requestEvent.getService(), requestEvent.getOperation(), requestEvent);
+        if (requestEvent instanceof ApacheHttpServiceDownstreamRequestEvent) {
+            responseEvent.withDuration(System.nanoTime() - ((ApacheHttpServiceDownstreamRequestEvent) requestEvent).getStartNanos());
+        }
         if (throwable != null) {
             responseEvent.withThrown(throwable);
         }
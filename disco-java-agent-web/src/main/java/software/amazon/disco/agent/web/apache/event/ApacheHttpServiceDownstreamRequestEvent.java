@@ -24,6 +24,7 @@ import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
  */
 class ApacheHttpServiceDownstreamRequestEvent extends HttpServiceDownstreamRequestEvent implements HeaderReplaceable {
     private final HttpRequest request;
+    private final long startNanos = System.nanoTime();
     /**
      * Construct a new ApacheHttpServiceDownstreamRequestEvent
      * @param origin the origin of the downstream call e.g. 'Web' or 'gRPC'
@@ -36,6 +37,14 @@ class ApacheHttpServiceDownstreamRequestEvent extends HttpServiceDownstreamReque
         this.request = request;
     }
 
+    /**
+     * Get the time at which this request event was created, which precedes the request being issued
+     * @return the value of System.nanoTime() when this event was created
+     */
+    long getStartNanos() {
+        return startNanos;
+    }
+
     /**
      * Replace all headers of the given name, with a new single header of the given value
      * @param name the header name
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.apache.httpasyncclient;
+
+import org.apache.http.concurrent.FutureCallback;
+import software.amazon.disco.agent.concurrent.decorate.Decorated;
+import software.amazon.disco.agent.web.apache.ApacheAsyncClientExecution;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Replaces the FutureCallback passed to an intercepted HttpAsyncClient 4.x execute() call, restoring the caller's
+ * transaction on whichever I/O thread the request completes, to complete the {@link ApacheAsyncClientExecution} and then
+ * call the caller's own callback, if any, within the same transaction.
+ */
+public class ApacheFutureCallback extends Decorated implements FutureCallback<Object> {
+    private final FutureCallback<Object> target;
+    private final ApacheAsyncClientExecution execution;
+
+    /**
+     * Construct a new ApacheFutureCallback, capturing the transaction of the calling thread
+     * @param target the callback passed by the caller, or null if none
+     * @param execution the state of the async call which this callback completes
+     */
+    public ApacheFutureCallback(FutureCallback<Object> target, ApacheAsyncClientExecution execution) {
+        super();
+        this.target = target;
+        this.execution = execution;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void completed(Object result) {
+        before();
+        try {
+            execution.complete(result, null);
+            if (target != null) {
+                target.completed(result);
+            }
+        } finally {
+            after();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void failed(Exception ex) {
+        before();
+        try {
+            execution.complete(null, ex);
+            if (target != null) {
+                target.failed(ex);
+            }
+        } finally {
+            after();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cancelled() {
+        before();
+        try {
+            execution.complete(null, new CancellationException());
+            if (target != null) {
+                target.cancelled();
+            }
+        } finally {
+            after();
+        }
+    }
+
+    /**
+     * Get the execution which this callback completes.
+     *
+     * @return the state of the async call
+     */
+    public ApacheAsyncClientExecution getExecution() {
+        return execution;
+    }
+
+    /**
+     * Get the callback which this callback decorates. Package-private for tests.
+     *
+     * @return the callback passed by the caller, or null if none
+     */
+    FutureCallback<Object> getTarget() {
+        return target;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.apache.httpasyncclient;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
+import software.amazon.disco.agent.interception.Installable;
+import software.amazon.disco.agent.plugin.ResourcesClassInjector;
+import software.amazon.disco.agent.web.apache.ApacheAsyncClientExecution;
+import software.amazon.disco.agent.web.apache.httpclient.ApacheHttpClientAccessor;
+
+/**
+ * When making a HTTP call using the Apache HttpAsyncClient, the execute() methods of
+ * org.apache.http.nio.client.HttpAsyncClient which take an HttpRequest and a FutureCallback are intercepted, to record
+ * the call, allow header propagation, and carry the caller's transaction into the callback. The response event is
+ * published when the request really completes, rather than when execute() returns its Future.
+ *
+ * The execute() variants taking only an HttpAsyncRequestProducer and HttpAsyncResponseConsumer are not intercepted,
+ * since the request cannot be inspected without generating it.
+ *
+ * IMPORTANT NOTE:
+ *
+ * This interceptor has been tested on org.apache.httpcomponents:httpasyncclient 4.1.4 only.
+ */
+public class ApacheHttpAsyncClientInterceptor implements Installable {
+    private final String asyncClientTypeName;
+    private final String requestTypeName;
+    private final String futureCallbackTypeName;
+    private final Class<?> adviceClass;
+    private final String[] injectedClassNames;
+
+    /**
+     * Construct an interceptor for HttpAsyncClient 4.x.
+     */
+    public ApacheHttpAsyncClientInterceptor() {
+        this("org.apache.http.nio.client.HttpAsyncClient",
+                "org.apache.http.HttpRequest",
+                "org.apache.http.concurrent.FutureCallback",
+                ExecuteAdvice.class,
+                "software.amazon.disco.agent.web.apache.httpclient.ApacheHttpClientAccessor",
+                "software.amazon.disco.agent.web.apache.httpasyncclient.ApacheFutureCallback",
+                "software.amazon.disco.agent.web.apache.event.ApacheEventFactory",
+                "software.amazon.disco.agent.web.apache.event.ApacheHttpServiceDownstreamRequestEvent");
+    }
+
+    /**
+     * Construct an interceptor for the given version of the Apache async client.
+     *
+     * @param asyncClientTypeName the name of the HttpAsyncClient interface
+     * @param requestTypeName the name of the HttpRequest interface
+     * @param futureCallbackTypeName the name of the FutureCallback interface
+     * @param adviceClass the Advice to inline into execute() methods
+     * @param injectedClassNames the names of classes referenced by the Advice which must be injected into the
+     *                           application classloader, because they reference the Apache libraries
+     */
+    protected ApacheHttpAsyncClientInterceptor(String asyncClientTypeName, String requestTypeName, String futureCallbackTypeName,
+                                               Class<?> adviceClass, String... injectedClassNames) {
+        this.asyncClientTypeName = asyncClientTypeName;
+        this.requestTypeName = requestTypeName;
+        this.futureCallbackTypeName = futureCallbackTypeName;
+        this.adviceClass = adviceClass;
+        this.injectedClassNames = injectedClassNames;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AgentBuilder install(final AgentBuilder agentBuilder) {
+        return agentBuilder
+                .type(buildClassMatcher())
+                .transform((builder, typeDescription, classLoader, module) -> {
+                    ResourcesClassInjector.injectAllClasses(
+                            classLoader,
+                            ApacheHttpAsyncClientInterceptor.class.getClassLoader(),
+                            injectedClassNames
+                    );
+                    return builder.visit(Advice.to(adviceClass).on(buildMethodMatcher()));
+                });
+    }
+
+    /**
+     * Deferrable, since completion is observed by wrapping the FutureCallback argument rather than by adding fields.
+     */
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
+    /**
+     * Build an ElementMatcher which defines the kind of class which will be intercepted. Public for the tests of
+     * each version of the client.
+     *
+     * @return An ElementMatcher suitable to pass to the type() method of an AgentBuilder
+     */
+    public ElementMatcher<? super TypeDescription> buildClassMatcher() {
+        return ElementMatchers.hasSuperType(ElementMatchers.named(asyncClientTypeName))
+                .and(ElementMatchers.not(ElementMatchers.isInterface()));
+    }
+
+    /**
+     * Build an ElementMatcher which will match against the execute() methods taking an argument having a super type of
+     * HttpRequest, and a FutureCallback. Public for the tests of each version of the client.
+     *
+     * @return An ElementMatcher suitable for passing to an Advice
+     */
+    public ElementMatcher<? super MethodDescription> buildMethodMatcher() {
+        ElementMatcher.Junction<TypeDescription> superTypeIsHttpRequest = ElementMatchers.hasSuperType(ElementMatchers.named(requestTypeName));
+        ElementMatcher.Junction<TypeDescription> isFutureCallback = ElementMatchers.named(futureCallbackTypeName);
+        return ElementMatchers.named("execute")
+                .and(ElementMatchers.hasParameters(ElementMatchers.whereAny(ElementMatchers.hasType(superTypeIsHttpRequest))))
+                .and(ElementMatchers.hasParameters(ElementMatchers.whereAny(ElementMatchers.hasType(isFutureCallback))))
+                .and(ElementMatchers.not(ElementMatchers.isAbstract()));
+    }
+
+    /**
+     * Advice applied to HttpAsyncClient 4.x execute() methods
+     */
+    public static class ExecuteAdvice {
+        /**
+         * Publish the request event, and replace the FutureCallback with one which publishes the response event
+         * within the caller's transaction.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param args the arguments of the execute() call
+         */
+        @Advice.OnMethodEnter
+        public static void onMethodEnter(@Advice.AllArguments(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object[] args) {
+            args = ApacheAsyncClientExecution.decorateArguments(args, ApacheHttpClientAccessor.INSTANCE);
+        }
+
+        /**
+         * Publish the response event if execute() threw, since the callback may never be called.
+         *
+         * @param args the arguments of the execute() call
+         * @param thrown the Throwable thrown by execute(), or null
+         */
+        @Advice.OnMethodExit(onThrowable = Throwable.class)
+        public static void onMethodExit(@Advice.AllArguments Object[] args,
+                                        @Advice.Thrown Throwable thrown) {
+            if (thrown != null) {
+                ApacheAsyncClientExecution.failedToExecute(args, thrown, ApacheHttpClientAccessor.INSTANCE);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.apache.httpclient;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.FutureCallback;
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.ServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.web.apache.ApacheAsyncClientExecution;
+import software.amazon.disco.agent.web.apache.ApacheClientAccessor;
+import software.amazon.disco.agent.web.apache.ApacheClientExecution;
+import software.amazon.disco.agent.web.apache.event.ApacheEventFactory;
+import software.amazon.disco.agent.web.apache.httpasyncclient.ApacheFutureCallback;
+
+/**
+ * The {@link ApacheClientAccessor} for the org.apache.http packages of HttpClient 4.x and HttpAsyncClient 4.x.
+ */
+public class ApacheHttpClientAccessor implements ApacheClientAccessor {
+    // Must be public for use in Advice methods, which are inlined into clients of any package
+    public static final ApacheHttpClientAccessor INSTANCE = new ApacheHttpClientAccessor();
+
+    static final String APACHE_HTTP_CLIENT_ORIGIN = "ApacheHttpClient";
+    static final String APACHE_HTTP_ASYNC_CLIENT_ORIGIN = "ApacheHttpAsyncClient";
+
+    private final ThreadLocal<ApacheClientExecution> currentExecution = ThreadLocal.withInitial(ApacheClientExecution::new);
+
+    /**
+     * Private constructor for singleton
+     */
+    private ApacheHttpClientAccessor() {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getClientOrigin() {
+        return APACHE_HTTP_CLIENT_ORIGIN;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getAsyncClientOrigin() {
+        return APACHE_HTTP_ASYNC_CLIENT_ORIGIN;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ApacheClientExecution getCurrentExecution() {
+        return currentExecution.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRequest(Object arg) {
+        return arg instanceof HttpRequest;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isResponse(Object result) {
+        return result instanceof HttpResponse;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFutureCallback(Object arg) {
+        return arg instanceof FutureCallback;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HttpServiceDownstreamRequestEvent createRequestEvent(String origin, Object request) {
+        return ApacheEventFactory.createDownstreamRequestEvent(origin, (HttpRequest) request);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ServiceDownstreamResponseEvent createResponseEvent(Object response, ServiceDownstreamRequestEvent requestEvent, Throwable thrown) {
+        return ApacheEventFactory.createServiceResponseEvent((HttpResponse) response, requestEvent, thrown);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object decorateFutureCallback(Object callback, ApacheAsyncClientExecution execution) {
+        return new ApacheFutureCallback((FutureCallback<Object>) callback, execution);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ApacheAsyncClientExecution getDecoratedExecution(Object callback) {
+        return callback instanceof ApacheFutureCallback ? ((ApacheFutureCallback) callback).getExecution() : null;
+    }
+}
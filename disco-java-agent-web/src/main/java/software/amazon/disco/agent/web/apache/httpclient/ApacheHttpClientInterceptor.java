@@ -15,15 +15,15 @@
 package software.amazon.disco.agent.web.apache.httpclient;
 
 import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
-import net.bytebuddy.implementation.MethodDelegation;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
 import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.ElementMatchers;
 import software.amazon.disco.agent.interception.Installable;
-import software.amazon.disco.agent.logging.LogManager;
-import software.amazon.disco.agent.logging.Logger;
 import software.amazon.disco.agent.plugin.ResourcesClassInjector;
+import software.amazon.disco.agent.web.apache.ApacheClientExecution;
 
 
 /**
@@ -35,7 +35,6 @@ import software.amazon.disco.agent.plugin.ResourcesClassInjector;
  * This interceptor has been tested on org.apache.httpcomponents:httpclient 4.5.10 only.
  */
 public class ApacheHttpClientInterceptor implements Installable {
-    private static final Logger log = LogManager.getLogger(ApacheHttpClientInterceptor.class);
     /**
      * {@inheritDoc}
      */
@@ -47,23 +46,22 @@ public class ApacheHttpClientInterceptor implements Installable {
                     ResourcesClassInjector.injectAllClasses(
                             classLoader,
                             ApacheHttpClientInterceptor.class.getClassLoader(),
-                            "software.amazon.disco.agent.web.apache.httpclient.ApacheHttpClientMethodDelegation",
+                            "software.amazon.disco.agent.web.apache.httpclient.ApacheHttpClientAccessor",
                             "software.amazon.disco.agent.web.apache.event.ApacheEventFactory",
                             "software.amazon.disco.agent.web.apache.event.ApacheHttpServiceDownstreamRequestEvent"
                     );
-
-                    try {
-                        Class<?> methodDelegation = Class.forName("software.amazon.disco.agent.web.apache.httpclient.ApacheHttpClientMethodDelegation", true, classLoader);
-                        return builder
-                                .method(buildMethodMatcher(typeDescription))
-                                .intercept(MethodDelegation.to(methodDelegation));
-                    } catch (Exception e) {
-                        log.error("Disco(Web) could not install ApacheHttpClientMethodDelegation");
-                        return builder;
-                    }
+                    return builder.visit(Advice.to(ExecuteAdvice.class).on(buildMethodMatcher(typeDescription)));
                 });
     }
 
+    /**
+     * Deferrable, since the execution depth used to skip nested execute() calls is thread-local rather than a field.
+     */
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
     /**
      * Build an ElementMatcher which defines the kind of class which will be intercepted. Package-private for tests.
      *
@@ -81,7 +79,7 @@ public class ApacheHttpClientInterceptor implements Installable {
      * Package-private for tests.
      * @param typeDescription a description of the class which has been matched for interception, passed in to
      *                        prevent bytebuddy from aggressively matching superclass methods
-     * @return An ElementMatcher suitable for passing to the method() method of a DynamicType.Builder
+     * @return An ElementMatcher suitable for passing to an Advice
      */
     static ElementMatcher<? super MethodDescription> buildMethodMatcher(TypeDescription typeDescription) {
         ElementMatcher.Junction<TypeDescription> superTypeIsHttpRequestMatches = ElementMatchers.hasSuperType(ElementMatchers.named("org.apache.http.HttpRequest"));
@@ -91,4 +89,42 @@ public class ApacheHttpClientInterceptor implements Installable {
         return methodMatches.and(declaredByClass).and(ElementMatchers.not(ElementMatchers.isAbstract()));
     }
 
+    /**
+     * Advice inlined into ApacheHttpClient execute() methods, in place of a method delegation, so that no auxiliary
+     * class, Callable or argument array is generated or allocated per call.
+     */
+    public static class ExecuteAdvice {
+        /**
+         * Publish the request event, if this is the outermost execute() call on the thread.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param arg0 the first argument of the execute() call
+         * @param arg1 the second argument of the execute() call, if any
+         * @param origin identifier of the intercepted method, for debugging/logging
+         * @return the execution state of the current thread, passed to the exit Advice
+         */
+        @Advice.OnMethodEnter
+        public static Object onMethodEnter(@Advice.Argument(value = 0, optional = true) final Object arg0,
+                                           @Advice.Argument(value = 1, optional = true) final Object arg1,
+                                           @Advice.Origin final String origin) {
+            return ApacheClientExecution.enter(arg0, arg1, origin, ApacheHttpClientAccessor.INSTANCE);
+        }
+
+        /**
+         * Publish the response event, if this is the outermost execute() call on the thread.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param state the value returned by the enter Advice
+         * @param response the object returned by execute(), or null if it threw
+         * @param thrown the Throwable thrown by execute(), or null
+         */
+        @Advice.OnMethodExit(onThrowable = Throwable.class)
+        public static void onMethodExit(@Advice.Enter final Object state,
+                                        @Advice.Return(typing = Assigner.Typing.DYNAMIC) final Object response,
+                                        @Advice.Thrown final Throwable thrown) {
+            ApacheClientExecution.exit(state, response, thrown, ApacheHttpClientAccessor.INSTANCE);
+        }
+    }
 }
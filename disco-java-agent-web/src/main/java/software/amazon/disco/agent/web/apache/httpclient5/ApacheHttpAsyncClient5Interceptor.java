@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.apache.httpclient5;
+
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import software.amazon.disco.agent.web.apache.ApacheAsyncClientExecution;
+import software.amazon.disco.agent.web.apache.httpasyncclient.ApacheHttpAsyncClientInterceptor;
+
+/**
+ * When making a HTTP call using the Apache HttpClient 5 async client, the execute() methods of
+ * org.apache.hc.client5.http.async.HttpAsyncClient which take an HttpRequest, such as a SimpleHttpRequest, and a
+ * FutureCallback are intercepted, to record the call, allow header propagation, and carry the caller's transaction into
+ * the callback. The response event is published when the request really completes, in exactly the same way as for
+ * HttpAsyncClient 4.x.
+ *
+ * The execute() variants taking only an AsyncRequestProducer and AsyncResponseConsumer are not intercepted, since the
+ * request cannot be inspected without producing it.
+ *
+ * IMPORTANT NOTE:
+ *
+ * This interceptor has been tested on org.apache.httpcomponents.client5:httpclient5 5.1.3 only.
+ */
+public class ApacheHttpAsyncClient5Interceptor extends ApacheHttpAsyncClientInterceptor {
+    /**
+     * Construct an interceptor for the HttpClient 5 async client.
+     */
+    public ApacheHttpAsyncClient5Interceptor() {
+        super("org.apache.hc.client5.http.async.HttpAsyncClient",
+                "org.apache.hc.core5.http.HttpRequest",
+                "org.apache.hc.core5.concurrent.FutureCallback",
+                ExecuteAdvice.class,
+                "software.amazon.disco.agent.web.apache.httpclient5.ApacheHttpClient5Accessor",
+                "software.amazon.disco.agent.web.apache.httpclient5.Apache5FutureCallback",
+                "software.amazon.disco.agent.web.apache.event.Apache5EventFactory",
+                "software.amazon.disco.agent.web.apache.event.Apache5HttpServiceDownstreamRequestEvent");
+    }
+
+    /**
+     * Advice applied to HttpClient 5 HttpAsyncClient execute() methods
+     */
+    public static class ExecuteAdvice {
+        /**
+         * Publish the request event, and replace the FutureCallback with one which publishes the response event
+         * within the caller's transaction.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param args the arguments of the execute() call
+         */
+        @Advice.OnMethodEnter
+        public static void onMethodEnter(@Advice.AllArguments(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object[] args) {
+            args = ApacheAsyncClientExecution.decorateArguments(args, ApacheHttpClient5Accessor.INSTANCE);
+        }
+
+        /**
+         * Publish the response event if execute() threw, since the callback may never be called.
+         *
+         * @param args the arguments of the execute() call
+         * @param thrown the Throwable thrown by execute(), or null
+         */
+        @Advice.OnMethodExit(onThrowable = Throwable.class)
+        public static void onMethodExit(@Advice.AllArguments Object[] args,
+                                        @Advice.Thrown Throwable thrown) {
+            if (thrown != null) {
+                ApacheAsyncClientExecution.failedToExecute(args, thrown, ApacheHttpClient5Accessor.INSTANCE);
+            }
+        }
+    }
+}
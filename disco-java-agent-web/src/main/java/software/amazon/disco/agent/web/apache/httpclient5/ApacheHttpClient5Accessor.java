@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.apache.httpclient5;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.ServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.web.apache.ApacheAsyncClientExecution;
+import software.amazon.disco.agent.web.apache.ApacheClientAccessor;
+import software.amazon.disco.agent.web.apache.ApacheClientExecution;
+import software.amazon.disco.agent.web.apache.event.Apache5EventFactory;
+
+/**
+ * The {@link ApacheClientAccessor} for the org.apache.hc packages of HttpClient 5, for both its classic and async clients.
+ */
+public class ApacheHttpClient5Accessor implements ApacheClientAccessor {
+    // Must be public for use in Advice methods, which are inlined into clients of any package
+    public static final ApacheHttpClient5Accessor INSTANCE = new ApacheHttpClient5Accessor();
+
+    static final String APACHE_HTTP_CLIENT_5_ORIGIN = "ApacheHttpClient5";
+    static final String APACHE_HTTP_ASYNC_CLIENT_5_ORIGIN = "ApacheHttpAsyncClient5";
+
+    private final ThreadLocal<ApacheClientExecution> currentExecution = ThreadLocal.withInitial(ApacheClientExecution::new);
+
+    /**
+     * Private constructor for singleton
+     */
+    private ApacheHttpClient5Accessor() {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getClientOrigin() {
+        return APACHE_HTTP_CLIENT_5_ORIGIN;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getAsyncClientOrigin() {
+        return APACHE_HTTP_ASYNC_CLIENT_5_ORIGIN;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ApacheClientExecution getCurrentExecution() {
+        return currentExecution.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRequest(Object arg) {
+        return arg instanceof HttpRequest;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isResponse(Object result) {
+        return result instanceof HttpResponse;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFutureCallback(Object arg) {
+        return arg instanceof FutureCallback;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HttpServiceDownstreamRequestEvent createRequestEvent(String origin, Object request) {
+        return Apache5EventFactory.createDownstreamRequestEvent(origin, (HttpRequest) request);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ServiceDownstreamResponseEvent createResponseEvent(Object response, ServiceDownstreamRequestEvent requestEvent, Throwable thrown) {
+        return Apache5EventFactory.createServiceResponseEvent((HttpResponse) response, requestEvent, thrown);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object decorateFutureCallback(Object callback, ApacheAsyncClientExecution execution) {
+        return new Apache5FutureCallback((FutureCallback<Object>) callback, execution);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ApacheAsyncClientExecution getDecoratedExecution(Object callback) {
+        return callback instanceof Apache5FutureCallback ? ((Apache5FutureCallback) callback).getExecution() : null;
+    }
+}
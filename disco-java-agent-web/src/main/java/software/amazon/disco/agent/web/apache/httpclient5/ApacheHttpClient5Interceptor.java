@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.apache.httpclient5;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
+import software.amazon.disco.agent.interception.Installable;
+import software.amazon.disco.agent.plugin.ResourcesClassInjector;
+import software.amazon.disco.agent.web.apache.ApacheClientExecution;
+
+/**
+ * When making a HTTP call using the classic Apache HttpClient 5, the execute() and doExecute() methods of
+ * org.apache.hc.client5.http.classic.HttpClient are intercepted, to allow recording of the call and header propagation.
+ *
+ * IMPORTANT NOTE:
+ *
+ * This interceptor has been tested on org.apache.httpcomponents.client5:httpclient5 5.1.3 only.
+ */
+public class ApacheHttpClient5Interceptor implements Installable {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AgentBuilder install(final AgentBuilder agentBuilder) {
+        return agentBuilder
+                .type(buildClassMatcher())
+                .transform((builder, typeDescription, classLoader, module) -> {
+                    ResourcesClassInjector.injectAllClasses(
+                            classLoader,
+                            ApacheHttpClient5Interceptor.class.getClassLoader(),
+                            "software.amazon.disco.agent.web.apache.httpclient5.ApacheHttpClient5Accessor",
+                            "software.amazon.disco.agent.web.apache.event.Apache5EventFactory",
+                            "software.amazon.disco.agent.web.apache.event.Apache5HttpServiceDownstreamRequestEvent"
+                    );
+                    return builder.visit(Advice.to(ExecuteAdvice.class).on(buildMethodMatcher(typeDescription)));
+                });
+    }
+
+    /**
+     * Deferrable, since the execution depth used to skip execute() delegating to doExecute() is thread-local.
+     */
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
+    /**
+     * Build an ElementMatcher which defines the kind of class which will be intercepted. Package-private for tests.
+     *
+     * @return An ElementMatcher suitable to pass to the type() method of an AgentBuilder
+     */
+    static ElementMatcher<? super TypeDescription> buildClassMatcher() {
+        return ElementMatchers.hasSuperType(ElementMatchers.named("org.apache.hc.client5.http.classic.HttpClient"))
+                .and(ElementMatchers.not(ElementMatchers.isInterface()));
+    }
+
+    /**
+     * Build an ElementMatcher which will match against the execute() and doExecute() methods with at least one
+     * argument having a super type of HttpRequest. The execute() flavors which take an HttpClientResponseHandler call
+     * doExecute() directly, so both are needed. Package-private for tests.
+     *
+     * @param typeDescription a description of the class which has been matched for interception, passed in to
+     *                        prevent bytebuddy from aggressively matching superclass methods
+     * @return An ElementMatcher suitable for passing to an Advice
+     */
+    static ElementMatcher<? super MethodDescription> buildMethodMatcher(TypeDescription typeDescription) {
+        ElementMatcher.Junction<TypeDescription> superTypeIsHttpRequest = ElementMatchers.hasSuperType(ElementMatchers.named("org.apache.hc.core5.http.HttpRequest"));
+        return ElementMatchers.named("execute").or(ElementMatchers.named("doExecute"))
+                .and(ElementMatchers.hasParameters(ElementMatchers.whereAny(ElementMatchers.hasType(superTypeIsHttpRequest))))
+                .and(ElementMatchers.isDeclaredBy(typeDescription))
+                .and(ElementMatchers.not(ElementMatchers.isAbstract()));
+    }
+
+    /**
+     * Advice inlined into HttpClient 5 execute() and doExecute() methods.
+     */
+    public static class ExecuteAdvice {
+        /**
+         * Publish the request event, if this is the outermost intercepted call on the thread.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param arg0 the first argument of the intercepted call
+         * @param arg1 the second argument of the intercepted call, if any
+         * @param origin identifier of the intercepted method, for debugging/logging
+         * @return the execution state of the current thread, passed to the exit Advice
+         */
+        @Advice.OnMethodEnter
+        public static Object onMethodEnter(@Advice.Argument(value = 0, optional = true) final Object arg0,
+                                           @Advice.Argument(value = 1, optional = true) final Object arg1,
+                                           @Advice.Origin final String origin) {
+            return ApacheClientExecution.enter(arg0, arg1, origin, ApacheHttpClient5Accessor.INSTANCE);
+        }
+
+        /**
+         * Publish the response event, if this is the outermost intercepted call on the thread.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param state the value returned by the enter Advice
+         * @param response the object returned by the intercepted method, or null if it threw
+         * @param thrown the Throwable thrown by the intercepted method, or null
+         */
+        @Advice.OnMethodExit(onThrowable = Throwable.class)
+        public static void onMethodExit(@Advice.Enter final Object state,
+                                        @Advice.Return(typing = Assigner.Typing.DYNAMIC) final Object response,
+                                        @Advice.Thrown final Throwable thrown) {
+            ApacheClientExecution.exit(state, response, thrown, ApacheHttpClient5Accessor.INSTANCE);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.jdkhttpclient;
+
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.logging.LogManager;
+import software.amazon.disco.agent.logging.Logger;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The state of the sendAsync() calls of the JDK HttpClient made on a thread, for the Advice of
+ * {@link JdkHttpClientInterceptor}. The sendAsync() overloads chain into one another, and send() calls sendAsync(), so
+ * only the outermost call on the thread publishes events. One instance is kept per thread, and handed from the enter
+ * Advice to the exit Advice, so that an intercepted call costs a single ThreadLocal lookup.
+ */
+public class JdkHttpClientExecution {
+    private static final Logger log = LogManager.getLogger(JdkHttpClientInterceptor.class);
+    private static final ThreadLocal<JdkHttpClientExecution> CURRENT = ThreadLocal.withInitial(JdkHttpClientExecution::new);
+    static final String JDK_HTTP_CLIENT_ORIGIN = "JdkHttpClient";
+
+    private int depth;
+    private Object request;
+    private JdkHttpServiceDownstreamRequestEvent requestEvent;
+
+    /**
+     * Called on entry to an intercepted sendAsync() method. If this is the outermost call on the thread, the request
+     * event is published, and if any listener replaced a header, the request is rebuilt with it.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param request the java.net.http.HttpRequest passed to sendAsync()
+     * @param origin  identifier of the intercepted method, for debugging/logging
+     * @return the execution state of the current thread, from which the Advice takes the request to send, and which
+     * is to be passed to {@link #exit}
+     */
+    public static JdkHttpClientExecution enter(final Object request, final String origin) {
+        JdkHttpClientExecution execution = CURRENT.get();
+        execution.request = request;
+        if (execution.depth == 0) {
+            if (LogManager.isDebugEnabled()) {
+                log.debug("DiSCo(Web) interception of " + origin);
+            }
+            JdkHttpServiceDownstreamRequestEvent requestEvent = JdkHttpEventFactory.createDownstreamRequestEvent(JDK_HTTP_CLIENT_ORIGIN, request);
+            EventBus.publish(requestEvent);
+            Map<String, String> replacedHeaders = requestEvent.takeReplacedHeaders();
+            if (replacedHeaders != null) {
+                execution.request = JdkHttpEventFactory.withReplacedHeaders(request, replacedHeaders);
+            }
+            execution.requestEvent = requestEvent;
+        }
+        //only once the request event is published, so that if anything above throws, the exit Advice is not run and
+        //the next call on the thread is still treated as the outermost
+        execution.depth++;
+        return execution;
+    }
+
+    /**
+     * Get the request which the intercepted sendAsync() method should send, after {@link #enter}.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @return the request passed to sendAsync(), or a copy of it with replaced headers
+     */
+    public Object getRequest() {
+        return request;
+    }
+
+    /**
+     * Called on exit from an intercepted sendAsync() method, whether it returned or threw. If this is the outermost
+     * call on the thread, the returned future is replaced by one which is completed once the response event has been
+     * published, or if sendAsync() threw, the response event is published immediately.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param state  the value returned by {@link #enter}
+     * @param future the CompletableFuture returned by the sendAsync() method, or null if it threw
+     * @param thrown the Throwable thrown by the sendAsync() method, or null if it returned
+     * @return the future to return from the sendAsync() method
+     */
+    public static Object exit(final Object state, final Object future, final Throwable thrown) {
+        JdkHttpClientExecution execution = (JdkHttpClientExecution) state;
+        execution.request = null;
+        if (--execution.depth > 0) {
+            return future;
+        }
+
+        JdkHttpServiceDownstreamRequestEvent requestEvent = execution.requestEvent;
+        execution.requestEvent = null;
+        if (thrown != null) {
+            EventBus.publish(JdkHttpEventFactory.createServiceResponseEvent(null, requestEvent, thrown));
+            return future;
+        }
+        if (future instanceof CompletableFuture) {
+            return JdkHttpResponseCompletion.decorate((CompletableFuture<?>) future, requestEvent);
+        }
+        return future;
+    }
+}
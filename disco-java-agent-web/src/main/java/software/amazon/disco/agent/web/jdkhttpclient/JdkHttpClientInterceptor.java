@@ -0,0 +1,123 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.jdkhttpclient;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
+import software.amazon.disco.agent.interception.Installable;
+
+/**
+ * When making a HTTP call using the JDK's java.net.http.HttpClient, available from Java 11, the sendAsync() methods of
+ * its implementation are intercepted, to record the call, allow header propagation, and carry the caller's
+ * transaction into the completion of the returned CompletableFuture. HttpClient.send() is implemented with
+ * sendAsync(), so synchronous calls are recorded too.
+ *
+ * Every HttpClient built by HttpClient.newBuilder() or HttpClient.newHttpClient() is a facade over the JDK-internal
+ * HttpClientImpl, so only that class is intercepted. Since the 'jdk.' namespace is ignored by default, this
+ * Installable replaces the ignore rules of its AgentBuilder, as the ForkJoinPool interceptor does.
+ *
+ * No classes need injecting, since the java.net.http module's classes can see those on the bootstrap classloader,
+ * and the java.net.http API is only accessed reflectively, so that this library remains buildable for Java 8.
+ */
+public class JdkHttpClientInterceptor implements Installable {
+    static final String HTTP_CLIENT_IMPL = "jdk.internal.net.http.HttpClientImpl";
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AgentBuilder install(final AgentBuilder agentBuilder) {
+        return agentBuilder
+                .ignore(ElementMatchers.not(ElementMatchers.named(HTTP_CLIENT_IMPL)))
+                .type(buildClassMatcher())
+                .transform((builder, typeDescription, classLoader, module) ->
+                        builder.visit(Advice.to(SendAsyncAdvice.class).on(buildMethodMatcher())));
+    }
+
+    /**
+     * Deferrable, since HttpClients are created by the application itself, and are not used by the JDK during startup.
+     */
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
+    /**
+     * Build an ElementMatcher which defines the kind of class which will be intercepted. Package-private for tests.
+     *
+     * @return An ElementMatcher suitable to pass to the type() method of an AgentBuilder
+     */
+    static ElementMatcher<? super TypeDescription> buildClassMatcher() {
+        return ElementMatchers.named(HTTP_CLIENT_IMPL);
+    }
+
+    /**
+     * Build an ElementMatcher which will match against the sendAsync() methods taking a java.net.http.HttpRequest as
+     * their first argument. Package-private for tests.
+     *
+     * @return An ElementMatcher suitable for passing to an Advice
+     */
+    static ElementMatcher<? super MethodDescription> buildMethodMatcher() {
+        return ElementMatchers.named("sendAsync")
+                .and(ElementMatchers.takesArgument(0, ElementMatchers.named("java.net.http.HttpRequest")))
+                .and(ElementMatchers.not(ElementMatchers.isAbstract()));
+    }
+
+    /**
+     * Advice applied to HttpClientImpl sendAsync() methods
+     */
+    public static class SendAsyncAdvice {
+        /**
+         * Publish the request event, replacing the HttpRequest if listeners replaced any of its headers.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param request the HttpRequest passed to sendAsync()
+         * @param origin  identifier of the intercepted method, for debugging/logging
+         * @return the execution state of the current thread, to be passed to the exit Advice
+         */
+        @Advice.OnMethodEnter
+        public static JdkHttpClientExecution onMethodEnter(@Advice.Argument(value = 0, readOnly = false, typing = Assigner.Typing.DYNAMIC) Object request,
+                                                           @Advice.Origin String origin) {
+            JdkHttpClientExecution execution = JdkHttpClientExecution.enter(request, origin);
+            request = execution.getRequest();
+            return execution;
+        }
+
+        /**
+         * Replace the returned CompletableFuture with one completed within the caller's transaction, once the
+         * response event is published.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param execution the execution state returned by the enter Advice
+         * @param future    the CompletableFuture returned by sendAsync(), or null if it threw
+         * @param thrown    the Throwable thrown by sendAsync(), or null
+         */
+        @Advice.OnMethodExit(onThrowable = Throwable.class)
+        public static void onMethodExit(@Advice.Enter JdkHttpClientExecution execution,
+                                        @Advice.Return(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object future,
+                                        @Advice.Thrown Throwable thrown) {
+            future = JdkHttpClientExecution.exit(execution, future, thrown);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.jdkhttpclient;
+
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.ServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.logging.LogManager;
+import software.amazon.disco.agent.logging.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Create our private events for the JDK HttpClient, so that listeners do not have public access to them.
+ *
+ * The java.net.http API only exists from Java 11, whereas this library is built for Java 8, so it is accessed
+ * reflectively, via Methods of its public interfaces which are looked up once.
+ */
+class JdkHttpEventFactory {
+    private static final Logger log = LogManager.getLogger(JdkHttpClientInterceptor.class);
+    private static final Api API = Api.resolve();
+
+    /**
+     * Create our private events, so that listeners do not have public access to them
+     * @param origin the origin of the downstream call e.g. 'Web'
+     * @param request a java.net.http.HttpRequest to get uri and HTTP method
+     * @return a {@link JdkHttpServiceDownstreamRequestEvent}
+     */
+    static JdkHttpServiceDownstreamRequestEvent createDownstreamRequestEvent(String origin, Object request) {
+        String uri = null;
+        String method = null;
+        if (API != null && API.httpRequest.isInstance(request)) {
+            try {
+                Object requestUri = API.requestUri.invoke(request);
+                uri = requestUri == null ? null : requestUri.toString();
+                method = (String) API.requestMethod.invoke(request);
+            } catch (ReflectiveOperationException e) {
+                log.warn("DiSCo(Web) failed to retrieve uri and method from HttpRequest", e);
+            }
+        }
+        JdkHttpServiceDownstreamRequestEvent requestEvent = new JdkHttpServiceDownstreamRequestEvent(origin, uri, method);
+        requestEvent.withMethod(method);
+        requestEvent.withUri(uri);
+        return requestEvent;
+    }
+
+    /**
+     * Create response event with a java.net.http.HttpResponse for a JDK HttpClient downstream call
+     * @param response a HttpResponse to get status code etc, or null if none
+     * @param requestEvent Previously published ServiceDownstreamRequestEvent
+     * @param throwable The throwable if the request fails
+     * @return a {@link HttpServiceDownstreamResponseEvent}.
+     */
+    static ServiceDownstreamResponseEvent createServiceResponseEvent(final Object response, final ServiceDownstreamRequestEvent requestEvent, final Throwable throwable) {
+        HttpServiceDownstreamResponseEvent responseEvent = new HttpServiceDownstreamResponseEvent(requestEvent.getOrigin(), requestEvent.getService(), requestEvent.getOperation(), requestEvent);
+        if (requestEvent instanceof JdkHttpServiceDownstreamRequestEvent) {
+            responseEvent.withDuration(System.nanoTime() - ((JdkHttpServiceDownstreamRequestEvent) requestEvent).getStartNanos());
+        }
+        if (throwable != null) {
+            responseEvent.withThrown(throwable);
+        }
+        if (API != null && API.httpResponse.isInstance(response)) {
+            try {
+                responseEvent.withStatusCode((Integer) API.responseStatusCode.invoke(response));
+                OptionalLong contentLength = (OptionalLong) API.headersFirstValueAsLong.invoke(API.responseHeaders.invoke(response), "content-length");
+                if (contentLength.isPresent()) {
+                    responseEvent.withContentLength(contentLength.getAsLong());
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                log.warn("DiSCo(Web) failed to retrieve status code and content length from HttpResponse", e);
+            }
+        }
+        return responseEvent;
+    }
+
+    /**
+     * Since a java.net.http.HttpRequest is immutable, build a copy of it with the headers which listeners replaced.
+     * @param request the HttpRequest passed to the HttpClient
+     * @param replacedHeaders the replaced headers, as a case-insensitive map of name to value
+     * @return the rebuilt HttpRequest, or the given request if it could not be rebuilt
+     */
+    static Object withReplacedHeaders(final Object request, final Map<String, String> replacedHeaders) {
+        if (API == null || !API.httpRequest.isInstance(request)) {
+            return request;
+        }
+        try {
+            Object builder = API.newBuilder.invoke(null, API.requestUri.invoke(request));
+            Optional<?> bodyPublisher = (Optional<?>) API.requestBodyPublisher.invoke(request);
+            builder = API.builderMethod.invoke(builder, API.requestMethod.invoke(request),
+                    bodyPublisher.isPresent() ? bodyPublisher.get() : API.noBody.invoke(null));
+            builder = API.builderExpectContinue.invoke(builder, API.requestExpectContinue.invoke(request));
+            Optional<?> timeout = (Optional<?>) API.requestTimeout.invoke(request);
+            if (timeout.isPresent()) {
+                builder = API.builderTimeout.invoke(builder, timeout.get());
+            }
+            Optional<?> version = (Optional<?>) API.requestVersion.invoke(request);
+            if (version.isPresent()) {
+                builder = API.builderVersion.invoke(builder, version.get());
+            }
+
+            @SuppressWarnings("unchecked")
+            Map<String, List<String>> headers = (Map<String, List<String>>) API.headersMap.invoke(API.requestHeaders.invoke(request));
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (!replacedHeaders.containsKey(header.getKey())) {
+                    for (String value : header.getValue()) {
+                        builder = API.builderHeader.invoke(builder, header.getKey(), value);
+                    }
+                }
+            }
+            for (Map.Entry<String, String> header : replacedHeaders.entrySet()) {
+                builder = API.builderSetHeader.invoke(builder, header.getKey(), header.getValue());
+            }
+            return API.builderBuild.invoke(builder);
+        } catch (InvocationTargetException e) {
+            //e.g. a listener replaced a header which the HttpClient restricts, such as 'Host'
+            log.warn("DiSCo(Web) failed to replace headers of HttpRequest", e.getCause());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("DiSCo(Web) failed to replace headers of HttpRequest", e);
+        }
+        return request;
+    }
+
+    /**
+     * The Methods of the java.net.http API which the events use, if present in this runtime.
+     */
+    private static class Api {
+        final Class<?> httpRequest;
+        final Class<?> httpResponse;
+        final Method requestUri;
+        final Method requestMethod;
+        final Method requestHeaders;
+        final Method requestBodyPublisher;
+        final Method requestExpectContinue;
+        final Method requestTimeout;
+        final Method requestVersion;
+        final Method newBuilder;
+        final Method noBody;
+        final Method builderMethod;
+        final Method builderExpectContinue;
+        final Method builderTimeout;
+        final Method builderVersion;
+        final Method builderHeader;
+        final Method builderSetHeader;
+        final Method builderBuild;
+        final Method headersMap;
+        final Method headersFirstValueAsLong;
+        final Method responseStatusCode;
+        final Method responseHeaders;
+
+        /**
+         * Look up the java.net.http API
+         * @throws ReflectiveOperationException if the API is not present
+         */
+        private Api() throws ReflectiveOperationException {
+            //the java.net.http module is defined to the platform classloader, which the bootstrap classloader, and so
+            //this class, cannot see
+            ClassLoader loader = ClassLoader.getSystemClassLoader();
+            httpRequest = Class.forName("java.net.http.HttpRequest", false, loader);
+            httpResponse = Class.forName("java.net.http.HttpResponse", false, loader);
+            Class<?> builder = Class.forName("java.net.http.HttpRequest$Builder", false, loader);
+            Class<?> bodyPublisher = Class.forName("java.net.http.HttpRequest$BodyPublisher", false, loader);
+            Class<?> bodyPublishers = Class.forName("java.net.http.HttpRequest$BodyPublishers", false, loader);
+            Class<?> version = Class.forName("java.net.http.HttpClient$Version", false, loader);
+            Class<?> headers = Class.forName("java.net.http.HttpHeaders", false, loader);
+
+            requestUri = httpRequest.getMethod("uri");
+            requestMethod = httpRequest.getMethod("method");
+            requestHeaders = httpRequest.getMethod("headers");
+            requestBodyPublisher = httpRequest.getMethod("bodyPublisher");
+            requestExpectContinue = httpRequest.getMethod("expectContinue");
+            requestTimeout = httpRequest.getMethod("timeout");
+            requestVersion = httpRequest.getMethod("version");
+            newBuilder = httpRequest.getMethod("newBuilder", URI.class);
+            noBody = bodyPublishers.getMethod("noBody");
+            builderMethod = builder.getMethod("method", String.class, bodyPublisher);
+            builderExpectContinue = builder.getMethod("expectContinue", boolean.class);
+            builderTimeout = builder.getMethod("timeout", Duration.class);
+            builderVersion = builder.getMethod("version", version);
+            builderHeader = builder.getMethod("header", String.class, String.class);
+            builderSetHeader = builder.getMethod("setHeader", String.class, String.class);
+            builderBuild = builder.getMethod("build");
+            headersMap = headers.getMethod("map");
+            headersFirstValueAsLong = headers.getMethod("firstValueAsLong", String.class);
+            responseStatusCode = httpResponse.getMethod("statusCode");
+            responseHeaders = httpResponse.getMethod("headers");
+        }
+
+        /**
+         * Look up the java.net.http API, if present
+         * @return the Api, or null if this runtime predates Java 11
+         */
+        static Api resolve() {
+            try {
+                return new Api();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+    }
+}
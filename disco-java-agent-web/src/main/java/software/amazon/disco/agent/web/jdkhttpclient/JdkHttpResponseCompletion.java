@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.jdkhttpclient;
+
+import software.amazon.disco.agent.concurrent.decorate.Decorated;
+import software.amazon.disco.agent.event.EventBus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+
+/**
+ * The single completion stage which DiSCo adds to the CompletableFuture of an intercepted sendAsync() call. It runs
+ * within the caller's transaction, on whichever thread the exchange completes, to publish the response event and then
+ * complete the future which was returned to the caller in place of the HttpClient's own.
+ *
+ * Any dependent stages which the caller adds to that future without an Executor, e.g. thenApply() rather than
+ * thenApplyAsync(), are run by that completion, so they too run within the caller's transaction without each of them
+ * having to be decorated.
+ */
+class JdkHttpResponseCompletion extends Decorated implements BiConsumer<Object, Throwable> {
+    private final JdkHttpServiceDownstreamRequestEvent requestEvent;
+    private final ResponseFuture future;
+
+    /**
+     * Construct a new JdkHttpResponseCompletion, capturing the transaction of the calling thread
+     * @param requestEvent the previously published request event
+     * @param future the future to complete once the response event is published
+     */
+    private JdkHttpResponseCompletion(JdkHttpServiceDownstreamRequestEvent requestEvent, ResponseFuture future) {
+        super();
+        this.requestEvent = requestEvent;
+        this.future = future;
+    }
+
+    /**
+     * Add a completion stage to the future returned by the HttpClient, which publishes the response event within the
+     * caller's transaction.
+     * @param source the future returned by the HttpClient
+     * @param requestEvent the previously published request event
+     * @return a future to return to the caller instead, completed once the response event has been published
+     */
+    static CompletableFuture<Object> decorate(CompletableFuture<?> source, JdkHttpServiceDownstreamRequestEvent requestEvent) {
+        ResponseFuture future = new ResponseFuture(source);
+        source.whenComplete(new JdkHttpResponseCompletion(requestEvent, future));
+        return future;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void accept(Object response, Throwable thrown) {
+        before();
+        try {
+            Throwable cause = thrown instanceof CompletionException && thrown.getCause() != null ? thrown.getCause() : thrown;
+            EventBus.publish(JdkHttpEventFactory.createServiceResponseEvent(response, requestEvent, cause));
+            if (thrown == null) {
+                future.complete(response);
+            } else {
+                future.completeExceptionally(thrown);
+            }
+        } finally {
+            after();
+        }
+    }
+
+    /**
+     * The future returned to the caller of sendAsync(). Cancelling it cancels the HttpClient's own future, which
+     * aborts the exchange, as HttpClient.send() does when its thread is interrupted.
+     */
+    static class ResponseFuture extends CompletableFuture<Object> {
+        private final CompletableFuture<?> source;
+
+        /**
+         * Construct a new ResponseFuture
+         * @param source the future returned by the HttpClient
+         */
+        ResponseFuture(CompletableFuture<?> source) {
+            this.source = source;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            source.cancel(mayInterruptIfRunning);
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.jdkhttpclient;
+
+import software.amazon.disco.agent.event.HeaderReplaceable;
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Specialization allowing header replacement, for JDK HttpClient requests. A java.net.http.HttpRequest is immutable,
+ * so replaced headers are recorded while the event is being published, and the request is then rebuilt with them
+ * before being sent.
+ */
+class JdkHttpServiceDownstreamRequestEvent extends HttpServiceDownstreamRequestEvent implements HeaderReplaceable {
+    private final long startNanos = System.nanoTime();
+    private Map<String, String> replacedHeaders;
+    private boolean sent;
+
+    /**
+     * Construct a new JdkHttpServiceDownstreamRequestEvent
+     * @param origin the origin of the downstream call e.g. 'Web' or 'gRPC'
+     * @param service the service name e.g. 'WeatherService'
+     * @param operation the operation name e.g. 'getWeather'
+     */
+    JdkHttpServiceDownstreamRequestEvent(String origin, String service, String operation) {
+        super(origin, service, operation);
+    }
+
+    /**
+     * Get the time at which this request event was created, which precedes the request being issued
+     * @return the value of System.nanoTime() when this event was created
+     */
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Take the headers replaced by listeners, after which no further headers may be replaced, since the request is
+     * about to be sent.
+     * @return a case-insensitive map of header name to value, or null if no headers were replaced
+     */
+    Map<String, String> takeReplacedHeaders() {
+        sent = true;
+        Map<String, String> headers = replacedHeaders;
+        replacedHeaders = null;
+        return headers;
+    }
+
+    /**
+     * Replace all headers of the given name, with a new single header of the given value
+     * @param name the header name
+     * @param value the header value
+     * @return true if successful, or false if the request has already been sent
+     */
+    @Override
+    public boolean replaceHeader(String name, String value) {
+        if (sent) {
+            return false;
+        }
+        if (replacedHeaders == null) {
+            replacedHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        }
+        replacedHeaders.put(name, value);
+        return true;
+    }
+}
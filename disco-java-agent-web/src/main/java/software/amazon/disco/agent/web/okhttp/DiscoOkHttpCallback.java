@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.okhttp;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import software.amazon.disco.agent.concurrent.ConcurrentWeakIdentityHashMap;
+import software.amazon.disco.agent.concurrent.decorate.Decorated;
+
+import java.io.IOException;
+
+/**
+ * Replaces the Callback passed to an intercepted Call.enqueue(), so that the Callback runs within the transaction of
+ * the thread which enqueued the call, on whichever Dispatcher thread the call completes.
+ *
+ * The Callback is also recorded against its Call until the call executes, so that {@link DiscoOkHttpInterceptor} can
+ * publish the request and response events within the same transaction. Calls are weakly referenced, so a call which
+ * never executes is not retained, and compared by identity, so that enqueueing on one Dispatcher thread does not
+ * contend with calls executing on others.
+ */
+public class DiscoOkHttpCallback extends Decorated implements Callback {
+    private static final ConcurrentWeakIdentityHashMap<Call, DiscoOkHttpCallback> enqueued = new ConcurrentWeakIdentityHashMap<>();
+
+    private final Callback target;
+
+    /**
+     * Construct a new DiscoOkHttpCallback, capturing the transaction of the calling thread
+     * @param target the callback passed by the caller
+     */
+    DiscoOkHttpCallback(Callback target) {
+        super();
+        this.target = target;
+    }
+
+    /**
+     * Called on entry to an intercepted enqueue() method. Unless the callback has already been decorated by a Call
+     * which delegates to this one, decorate the callback.
+     *
+     * Must be public for use in Advice methods.
+     *
+     * @param call the Call being enqueued
+     * @param callback the Callback passed to enqueue()
+     * @return the Callback to continue the enqueue() call with
+     */
+    public static Object decorate(Object call, Object callback) {
+        if (!(callback instanceof Callback)) {
+            return callback;
+        }
+        DiscoOkHttpCallback decorated = callback instanceof DiscoOkHttpCallback
+                ? (DiscoOkHttpCallback) callback
+                : new DiscoOkHttpCallback((Callback) callback);
+        enqueued.put((Call) call, decorated);
+        return decorated;
+    }
+
+    /**
+     * Remove the decorated Callback of an enqueued Call, as the call executes.
+     *
+     * @param call the executing Call
+     * @return the decorated Callback, or null if the Call was not enqueued, e.g. it is executing synchronously
+     */
+    static DiscoOkHttpCallback forCall(Call call) {
+        return call == null ? null : enqueued.remove(call);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onFailure(Call call, IOException e) {
+        before();
+        try {
+            target.onFailure(call, e);
+        } finally {
+            after();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onResponse(Call call, Response response) throws IOException {
+        before();
+        try {
+            target.onResponse(call, response);
+        } finally {
+            after();
+        }
+    }
+
+    /**
+     * Get the callback which this callback decorates. Package-private for tests.
+     *
+     * @return the callback passed by the caller
+     */
+    Callback getTarget() {
+        return target;
+    }
+}
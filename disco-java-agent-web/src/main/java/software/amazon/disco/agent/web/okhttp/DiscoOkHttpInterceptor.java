@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.okhttp;
+
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An OkHttp application Interceptor, added to every OkHttpClient as it is built, which publishes the request and
+ * response events of each call, and rebuilds the request with any headers which listeners replace. As an application
+ * interceptor it sees each call once, regardless of retries and redirects, after any interceptors added by the
+ * application itself.
+ *
+ * For a call made with enqueue(), the interceptor runs on a thread of the OkHttp Dispatcher, and restores the
+ * transaction of the thread which enqueued the call, see {@link DiscoOkHttpCallback}.
+ */
+public class DiscoOkHttpInterceptor implements Interceptor {
+    static final String OKHTTP_ORIGIN = "OkHttpClient";
+
+    /**
+     * Called on entry to OkHttpClient.Builder.build(), to add this interceptor to the builder, unless already present
+     * because the builder is being reused, or was created from an existing client by newBuilder().
+     *
+     * Must be public for use in Advice methods.
+     *
+     * @param builder the OkHttpClient.Builder
+     */
+    public static void addTo(Object builder) {
+        List<Interceptor> interceptors = ((OkHttpClient.Builder) builder).interceptors();
+        for (Interceptor interceptor : interceptors) {
+            if (interceptor instanceof DiscoOkHttpInterceptor) {
+                return;
+            }
+        }
+        interceptors.add(new DiscoOkHttpInterceptor());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        DiscoOkHttpCallback callback = DiscoOkHttpCallback.forCall(chain.call());
+        if (callback != null) {
+            callback.before();
+        }
+        try {
+            return proceed(chain);
+        } finally {
+            if (callback != null) {
+                callback.after();
+            }
+        }
+    }
+
+    /**
+     * Publish the request event, proceed with the call, and publish the response event.
+     *
+     * @param chain the interceptor chain
+     * @return the response
+     * @throws IOException if the call failed
+     */
+    private static Response proceed(Chain chain) throws IOException {
+        Request request = chain.request();
+        String uri = request.url().toString();
+        String method = request.method();
+        OkHttpServiceDownstreamRequestEvent requestEvent = new OkHttpServiceDownstreamRequestEvent(OKHTTP_ORIGIN, uri, method);
+        requestEvent.withMethod(method);
+        requestEvent.withUri(uri);
+        requestEvent.withRequest(request);
+        EventBus.publish(requestEvent);
+
+        Map<String, String> replacedHeaders = requestEvent.takeReplacedHeaders();
+        if (replacedHeaders != null) {
+            Request.Builder builder = request.newBuilder();
+            for (Map.Entry<String, String> header : replacedHeaders.entrySet()) {
+                builder.header(header.getKey(), header.getValue());
+            }
+            request = builder.build();
+        }
+
+        Response response = null;
+        Throwable thrown = null;
+        try {
+            response = chain.proceed(request);
+            return response;
+        } catch (IOException | RuntimeException | Error t) {
+            thrown = t;
+            throw t;
+        } finally {
+            EventBus.publish(createServiceResponseEvent(response, requestEvent, thrown));
+        }
+    }
+
+    /**
+     * Create the response event for a call.
+     *
+     * @param response the response, or null if the call failed
+     * @param requestEvent the previously published request event
+     * @param thrown the Throwable if the call failed, or null
+     * @return the response event
+     */
+    static HttpServiceDownstreamResponseEvent createServiceResponseEvent(Response response, OkHttpServiceDownstreamRequestEvent requestEvent, Throwable thrown) {
+        HttpServiceDownstreamResponseEvent responseEvent = new HttpServiceDownstreamResponseEvent(requestEvent.getOrigin(), requestEvent.getService(), requestEvent.getOperation(), requestEvent);
+        responseEvent.withDuration(System.nanoTime() - requestEvent.getStartNanos());
+        if (thrown != null) {
+            responseEvent.withThrown(thrown);
+        }
+        if (response != null) {
+            responseEvent.withResponse(response);
+            responseEvent.withStatusCode(response.code());
+            ResponseBody body = response.body();
+            if (body != null) {
+                responseEvent.withContentLength(body.contentLength());
+            }
+        }
+        return responseEvent;
+    }
+}
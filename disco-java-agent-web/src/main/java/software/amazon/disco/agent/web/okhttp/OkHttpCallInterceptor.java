@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.okhttp;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
+import software.amazon.disco.agent.interception.Installable;
+import software.amazon.disco.agent.plugin.ResourcesClassInjector;
+
+/**
+ * When making an asynchronous call with OkHttp, the enqueue() method of each okhttp3.Call implementation is
+ * intercepted, to replace the Callback with a {@link DiscoOkHttpCallback}, which runs the caller's Callback within the
+ * caller's transaction on the Dispatcher's thread, without relying on the Dispatcher's ExecutorService having been
+ * intercepted.
+ *
+ * IMPORTANT NOTE:
+ *
+ * This interceptor has been tested on com.squareup.okhttp3:okhttp 3.14.9 only.
+ */
+public class OkHttpCallInterceptor implements Installable {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AgentBuilder install(final AgentBuilder agentBuilder) {
+        return agentBuilder
+                .type(buildClassMatcher())
+                .transform((builder, typeDescription, classLoader, module) -> {
+                    ResourcesClassInjector.injectAllClasses(
+                            classLoader,
+                            OkHttpCallInterceptor.class.getClassLoader(),
+                            "software.amazon.disco.agent.web.okhttp.DiscoOkHttpInterceptor",
+                            "software.amazon.disco.agent.web.okhttp.DiscoOkHttpCallback",
+                            "software.amazon.disco.agent.web.okhttp.OkHttpServiceDownstreamRequestEvent"
+                    );
+                    return builder.visit(Advice.to(EnqueueAdvice.class).on(buildMethodMatcher()));
+                });
+    }
+
+    /**
+     * Deferrable, since the Callback passed to enqueue() is replaced by rewriting the argument, which adds no fields.
+     */
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
+    /**
+     * Build an ElementMatcher which defines the kind of class which will be intercepted. Package-private for tests.
+     *
+     * @return An ElementMatcher suitable to pass to the type() method of an AgentBuilder
+     */
+    static ElementMatcher<? super TypeDescription> buildClassMatcher() {
+        return ElementMatchers.hasSuperType(ElementMatchers.named("okhttp3.Call"))
+                .and(ElementMatchers.not(ElementMatchers.isInterface()));
+    }
+
+    /**
+     * Build an ElementMatcher which will match against the enqueue(Callback) method of a Call. Package-private for tests.
+     *
+     * @return An ElementMatcher suitable for passing to an Advice
+     */
+    static ElementMatcher<? super MethodDescription> buildMethodMatcher() {
+        return ElementMatchers.named("enqueue")
+                .and(ElementMatchers.takesArguments(1))
+                .and(ElementMatchers.takesArgument(0, ElementMatchers.named("okhttp3.Callback")))
+                .and(ElementMatchers.not(ElementMatchers.isAbstract()));
+    }
+
+    /**
+     * Advice applied to Call enqueue()
+     */
+    public static class EnqueueAdvice {
+        /**
+         * Replace the Callback with one which runs within the caller's transaction.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param call the Call being enqueued
+         * @param callback the Callback passed to enqueue()
+         */
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        public static void onMethodEnter(@Advice.This Object call,
+                                         @Advice.Argument(value = 0, readOnly = false, typing = Assigner.Typing.DYNAMIC) Object callback) {
+            callback = DiscoOkHttpCallback.decorate(call, callback);
+        }
+    }
+}
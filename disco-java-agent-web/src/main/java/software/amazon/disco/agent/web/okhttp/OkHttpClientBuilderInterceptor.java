@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.okhttp;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
+import software.amazon.disco.agent.interception.Installable;
+import software.amazon.disco.agent.plugin.ResourcesClassInjector;
+
+/**
+ * When an OkHttpClient is built, the build() method of okhttp3.OkHttpClient.Builder is intercepted, to add a
+ * {@link DiscoOkHttpInterceptor} to the client's application interceptors. This occurs once per client, rather than
+ * once per call, and the interceptor then records each call made with the client, and allows header propagation.
+ *
+ * Not deferrable, since clients are commonly built once during application startup, and a client built before this
+ * Installable is installed would carry no Disco Interceptor for the life of the JVM.
+ *
+ * IMPORTANT NOTE:
+ *
+ * This interceptor has been tested on com.squareup.okhttp3:okhttp 3.14.9 only.
+ */
+public class OkHttpClientBuilderInterceptor implements Installable {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AgentBuilder install(final AgentBuilder agentBuilder) {
+        return agentBuilder
+                .type(buildClassMatcher())
+                .transform((builder, typeDescription, classLoader, module) -> {
+                    ResourcesClassInjector.injectAllClasses(
+                            classLoader,
+                            OkHttpClientBuilderInterceptor.class.getClassLoader(),
+                            "software.amazon.disco.agent.web.okhttp.DiscoOkHttpInterceptor",
+                            "software.amazon.disco.agent.web.okhttp.DiscoOkHttpCallback",
+                            "software.amazon.disco.agent.web.okhttp.OkHttpServiceDownstreamRequestEvent"
+                    );
+                    return builder.visit(Advice.to(BuildAdvice.class).on(buildMethodMatcher()));
+                });
+    }
+
+    /**
+     * Build an ElementMatcher which defines the kind of class which will be intercepted. Package-private for tests.
+     *
+     * @return An ElementMatcher suitable to pass to the type() method of an AgentBuilder
+     */
+    static ElementMatcher<? super TypeDescription> buildClassMatcher() {
+        return ElementMatchers.named("okhttp3.OkHttpClient$Builder");
+    }
+
+    /**
+     * Build an ElementMatcher which will match against the build() method of an OkHttpClient.Builder.
+     * Package-private for tests.
+     *
+     * @return An ElementMatcher suitable for passing to an Advice
+     */
+    static ElementMatcher<? super MethodDescription> buildMethodMatcher() {
+        return ElementMatchers.named("build")
+                .and(ElementMatchers.takesArguments(0))
+                .and(ElementMatchers.not(ElementMatchers.isAbstract()));
+    }
+
+    /**
+     * Advice applied to OkHttpClient.Builder build()
+     */
+    public static class BuildAdvice {
+        /**
+         * Add the DiscoOkHttpInterceptor to the builder, before it builds the client.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param builder the OkHttpClient.Builder
+         */
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        public static void onMethodEnter(@Advice.This Object builder) {
+            DiscoOkHttpInterceptor.addTo(builder);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.servlet;
+
+/**
+ * Access to the parts of an HttpServletRequest and HttpServletResponse which DiSCo reads, independent of whether the
+ * application uses the javax.servlet or jakarta.servlet namespace. Implementations are singletons which cast to the
+ * concrete Servlet API types and call them directly, so that {@link HttpServletServiceHandler} can hold all of the
+ * request handling logic once, without resorting to reflection.
+ *
+ * This interface deliberately has no dependency on the Servlet API, so that it is loaded once alongside the handler,
+ * and only its implementations are injected into each application classloader.
+ */
+public interface HttpServletAccessor {
+    /**
+     * @param request a ServletRequest
+     * @param response a ServletResponse
+     * @return true if the request and response are an HttpServletRequest and HttpServletResponse
+     */
+    boolean isHttpExchange(Object request, Object response);
+
+    /**
+     * @param request the HttpServletRequest
+     * @return the port of the client which sent the request
+     */
+    int getRemotePort(Object request);
+
+    /**
+     * @param request the HttpServletRequest
+     * @return the port on which the request was received
+     */
+    int getLocalPort(Object request);
+
+    /**
+     * @param request the HttpServletRequest
+     * @return the IP address of the client which sent the request
+     */
+    String getRemoteAddr(Object request);
+
+    /**
+     * @param request the HttpServletRequest
+     * @return the IP address on which the request was received
+     */
+    String getLocalAddr(Object request);
+
+    /**
+     * @param request the HttpServletRequest
+     * @return the HTTP method of the request
+     */
+    String getMethod(Object request);
+
+    /**
+     * @param request the HttpServletRequest
+     * @return the URL of the request, without any query string
+     */
+    String getRequestURL(Object request);
+
+    /**
+     * @param request the HttpServletRequest
+     * @param name the name of a header
+     * @return the first value of the named request header, or null if absent
+     */
+    String getRequestHeader(Object request, String name);
+
+    /**
+     * @param request the HttpServletRequest
+     * @return the names of all request headers, or null if the container does not allow access to them
+     */
+    Iterable<String> getRequestHeaderNames(Object request);
+
+    /**
+     * @param response the HttpServletResponse
+     * @return the status code of the response
+     */
+    int getStatus(Object response);
+
+    /**
+     * @param response the HttpServletResponse
+     * @param name the name of a header
+     * @return the first value of the named response header, or null if absent
+     */
+    String getResponseHeader(Object response, String name);
+
+    /**
+     * @param response the HttpServletResponse
+     * @return the names of all response headers
+     */
+    Iterable<String> getResponseHeaderNames(Object response);
+
+    /**
+     * @param request the HttpServletRequest
+     * @param name the name of an attribute
+     * @return the value of the named request attribute, or null if absent
+     */
+    Object getAttribute(Object request, String name);
+
+    /**
+     * @param request the HttpServletRequest
+     * @param name the name of an attribute
+     * @param value the value to give the named request attribute
+     */
+    void setAttribute(Object request, String name, Object value);
+
+    /**
+     * @param request the HttpServletRequest
+     * @return true if the request has been put into asynchronous mode
+     */
+    boolean isAsyncStarted(Object request);
+
+    /**
+     * Register a listener on the AsyncContext of a request in asynchronous mode, which runs the given Runnable when
+     * the async request completes, including after any restart of async processing.
+     *
+     * @param request the HttpServletRequest, in asynchronous mode
+     * @param onComplete the action to run when the async request completes
+     */
+    void addAsyncCompletionListener(Object request, Runnable onComplete);
+}
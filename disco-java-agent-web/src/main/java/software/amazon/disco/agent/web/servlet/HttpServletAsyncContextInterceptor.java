@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.servlet;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import software.amazon.disco.agent.concurrent.decorate.DecoratedRunnable;
+import software.amazon.disco.agent.interception.Installable;
+
+import static net.bytebuddy.matcher.ElementMatchers.hasSuperType;
+import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
+import static net.bytebuddy.matcher.ElementMatchers.isInterface;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.not;
+import static net.bytebuddy.matcher.ElementMatchers.takesArgument;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
+
+/**
+ * Servlet 3.0 applications may hand the work of an async request to the container with AsyncContext.start(Runnable),
+ * which runs it on a container-managed thread. This interceptor decorates the Runnable, so that the request's
+ * transaction is propagated to that thread, whatever kind of thread pool the container uses.
+ */
+public class HttpServletAsyncContextInterceptor implements Installable {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AgentBuilder install(AgentBuilder agentBuilder) {
+        return agentBuilder
+                .type(buildClassMatcher())
+                .transform(new AgentBuilder.Transformer.ForAdvice()
+                        .include(this.getClass().getClassLoader())
+                        .advice(buildMethodMatcher(), StartAdvice.class.getName()));
+    }
+
+    /**
+     * Deferrable, since async servlet requests can only begin once the container is running and serving requests.
+     */
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
+    /**
+     * Build an ElementMatcher which matches concrete implementations of AsyncContext, in either the javax.servlet or
+     * jakarta.servlet namespace. Package-private for tests.
+     *
+     * @return an ElementMatcher suitable to pass to the type() method of an AgentBuilder
+     */
+    ElementMatcher<? super TypeDescription> buildClassMatcher() {
+        return hasSuperType(named("javax.servlet.AsyncContext").or(named("jakarta.servlet.AsyncContext"))).and(not(isInterface()));
+    }
+
+    /**
+     * Build an ElementMatcher which matches the start(Runnable) method of an AsyncContext. Package-private for tests.
+     *
+     * @return an ElementMatcher suitable to pass to the method() method of a DynamicType.Builder
+     */
+    ElementMatcher<? super MethodDescription> buildMethodMatcher() {
+        return named("start")
+                .and(takesArguments(1))
+                .and(takesArgument(0, Runnable.class))
+                .and(not(isAbstract()));
+    }
+
+    /**
+     * Advice applied to AsyncContext.start(Runnable)
+     */
+    public static class StartAdvice {
+        /**
+         * Replace the Runnable with one which carries the current transaction to the thread which runs it.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param runnable the Runnable passed to start(), to be decorated
+         */
+        @Advice.OnMethodEnter
+        public static void onMethodEnter(@Advice.Argument(value = 0, readOnly = false) Runnable runnable) {
+            runnable = DecoratedRunnable.maybeCreate(runnable);
+        }
+    }
+}
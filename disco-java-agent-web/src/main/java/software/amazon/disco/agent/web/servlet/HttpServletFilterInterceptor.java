@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.servlet;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
+
+import java.util.List;
+
+/**
+ * When the agent is started with the 'servletfilters' argument, the doFilter() methods of Filters and FilterChains are
+ * intercepted as well as HttpServlet service(), so that the transaction of a request begins at the outermost entry to
+ * the filter chain, and filters such as authentication or compression run within it. The servlet, and any filters
+ * further down the chain, then run nested within that outermost call, and are passed straight through.
+ */
+public class HttpServletFilterInterceptor extends HttpServletServiceInterceptor {
+    static final String FILTERS_ARG = "servletfilters";
+
+    private boolean enabled = false;
+
+    /**
+     * Construct an interceptor for the javax.servlet namespace.
+     */
+    public HttpServletFilterInterceptor() {
+        this("javax.servlet",
+                HttpServletServiceInterceptor.ServiceAdvice.class,
+                "software.amazon.disco.agent.web.servlet.HttpServletAsyncListener",
+                "software.amazon.disco.agent.web.servlet.JavaxHttpServletAccessor");
+    }
+
+    /**
+     * Construct an interceptor for the given Servlet API namespace.
+     *
+     * @param servletPackage the root package of the Servlet API, e.g. "javax.servlet"
+     * @param adviceClass the Advice to inline into doFilter() methods
+     * @param injectedClassNames the names of classes referenced by the Advice which must be injected
+     */
+    HttpServletFilterInterceptor(String servletPackage, Class<?> adviceClass, String... injectedClassNames) {
+        super(servletPackage, adviceClass, injectedClassNames);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AgentBuilder install(AgentBuilder agentBuilder) {
+        return enabled ? super.install(agentBuilder) : agentBuilder;
+    }
+
+    /**
+     * Enables filter interception if the 'servletfilters' argument is present.
+     *
+     * @param args command line arguments
+     */
+    @Override
+    public void handleArguments(List<String> args) {
+        super.handleArguments(args);
+        enabled = args != null && args.stream().anyMatch(FILTERS_ARG::equalsIgnoreCase);
+    }
+
+    /**
+     * Query whether this interceptor was enabled by the 'servletfilters' argument. Package-private for tests.
+     *
+     * @return true if filters are to be intercepted
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Build an ElementMatcher which matches concrete Filters and FilterChains. Package-private for tests.
+     *
+     * @return An ElementMatcher suitable to pass to the type() method of an AgentBuilder
+     */
+    @Override
+    ElementMatcher<? super TypeDescription> buildClassMatcher() {
+        return ElementMatchers.hasSuperType(ElementMatchers.named(servletPackage + ".Filter")
+                        .or(ElementMatchers.named(servletPackage + ".FilterChain")))
+                .and(ElementMatchers.not(ElementMatchers.isInterface()));
+    }
+
+    /**
+     * Build an ElementMatcher which matches Filter.doFilter(ServletRequest, ServletResponse, FilterChain) and
+     * FilterChain.doFilter(ServletRequest, ServletResponse). Package-private for tests.
+     *
+     * @return An ElementMatcher suitable for passing to an Advice
+     */
+    @Override
+    ElementMatcher<? super MethodDescription> buildMethodMatcher() {
+        ElementMatcher.Junction<MethodDescription> requestAndResponse = ElementMatchers.named("doFilter")
+                .and(ElementMatchers.takesArgument(0, ElementMatchers.named(servletPackage + ".ServletRequest")))
+                .and(ElementMatchers.takesArgument(1, ElementMatchers.named(servletPackage + ".ServletResponse")));
+        ElementMatcher.Junction<MethodDescription> filterDoFilter = requestAndResponse
+                .and(ElementMatchers.takesArguments(3))
+                .and(ElementMatchers.takesArgument(2, ElementMatchers.named(servletPackage + ".FilterChain")));
+        ElementMatcher.Junction<MethodDescription> chainDoFilter = requestAndResponse
+                .and(ElementMatchers.takesArguments(2));
+        return filterDoFilter.or(chainDoFilter).and(ElementMatchers.not(ElementMatchers.isAbstract()));
+    }
+}
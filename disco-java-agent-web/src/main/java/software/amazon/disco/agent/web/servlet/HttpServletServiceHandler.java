@@ -0,0 +1,277 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.servlet;
+
+import software.amazon.disco.agent.concurrent.MetadataItem;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServletNetworkRequestEvent;
+import software.amazon.disco.agent.event.HttpServletNetworkResponseEvent;
+import software.amazon.disco.agent.logging.LogManager;
+import software.amazon.disco.agent.logging.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The handling of an intercepted HttpServlet service() call, shared by the javax.servlet and jakarta.servlet Advice,
+ * which differ only in the {@link HttpServletAccessor} they pass.
+ *
+ * This class deliberately has no dependency on the Servlet API, so that it is loaded once, alongside the Installables,
+ * rather than being injected into each application classloader.
+ */
+public class HttpServletServiceHandler {
+    private final static Logger log = LogManager.getLogger(HttpServletServiceInterceptor.class);
+
+    // How deeply the current thread is nested in intercepted service() and doFilter() calls
+    private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+    private static final String EVENT_ORIGIN = "httpServlet";
+    // Request attribute holding the TransactionContext of a request which has gone async, for adoption on async dispatch
+    static final String ASYNC_TRANSACTION_CONTEXT_ATTRIBUTE = "software.amazon.disco.agent.web.servlet.asyncTransactionContext";
+    // Common HTTP Header keys
+    private static final String DATE_HEADER = "date";
+    private static final String HOST_HEADER = "host";
+    private static final String ORIGIN_HEADER = "origin";
+    private static final String REFERER_HEADER = "referer";
+    private static final String USER_AGENT_HEADER = "user-agent";
+    // The state returned by enter() when the transaction began, but the request event could not be created
+    private static final Object NO_REQUEST_EVENT = new Object();
+
+    /**
+     * The original request and response objects are sifted through to retrieve useful header information that is
+     * stored in the HttpNetworkProtocol(Request/Response)Events and published to the event bus. This is called on
+     * entry to an intercepted service() or doFilter() call, and begins the transaction and publishes the request event.
+     *
+     * If the request is put into asynchronous mode (Servlet 3.0 and above), the transaction is not ended when service()
+     * returns. Instead it is detached from the servicing thread, and an AsyncListener publishes the response event and
+     * ends the transaction, on the completing thread, when the async request completes. Any async dispatch of the
+     * request back into a servlet runs within the same transaction.
+     *
+     * Only the outermost intercepted call on a thread is handled, since service() calls in subclasses may call their
+     * parents, and when filters are intercepted too, the servlet is called from within the filter chain.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param request  the request passed to service() or doFilter()
+     * @param response the response passed to service() or doFilter()
+     * @param accessor the accessor for the Servlet API namespace of the request and response
+     * @return the state to pass to {@link #exit}, or null if the call is not the outermost, and is passed through
+     */
+    public static Object enter(Object request, Object response, HttpServletAccessor accessor) {
+        int[] currentDepth = depth.get();
+        if (currentDepth[0] > 0 || !accessor.isHttpExchange(request, response)) {
+            //only perform event publication if we were the first call to take place
+            return null;
+        }
+        currentDepth[0]++;
+
+        ConcurrentMap<String, MetadataItem> asyncTransactionContext = retrieveAsyncTransactionContext(request, accessor);
+        if (asyncTransactionContext != null) {
+            //an async dispatch of a request whose transaction is already underway. Adopt it for the dispatch's duration.
+            AdoptedTransaction adopted = new AdoptedTransaction(TransactionContext.getPrivateMetadata());
+            TransactionContext.setPrivateMetadata(asyncTransactionContext);
+            return adopted;
+        }
+
+        TransactionContext.create();
+
+        try {
+            // Obtain the metadata information from the host.
+            // If they are null, they are't stored, so retrieval would be null as well.
+            int srcPort = accessor.getRemotePort(request);
+            int dstPort = accessor.getLocalPort(request);
+            String srcIP = accessor.getRemoteAddr(request);
+            String dstIP = accessor.getLocalAddr(request);
+            HttpServletNetworkRequestEvent requestEvent = new HttpServletNetworkRequestEvent(EVENT_ORIGIN, srcPort, dstPort, srcIP, dstIP)
+                    .withHeaderSource(() -> retrieveRequestHeaderMap(request, accessor))
+                    .withDate(accessor.getRequestHeader(request, DATE_HEADER))
+                    .withHost(accessor.getRequestHeader(request, HOST_HEADER))
+                    .withHTTPOrigin(accessor.getRequestHeader(request, ORIGIN_HEADER))
+                    .withReferer(accessor.getRequestHeader(request, REFERER_HEADER))
+                    .withUserAgent(accessor.getRequestHeader(request, USER_AGENT_HEADER))
+                    .withMethod(accessor.getMethod(request))
+                    .withRequest(request)
+                    .withURL(accessor.getRequestURL(request));
+            EventBus.publish(requestEvent);
+            return requestEvent;
+        } catch (Throwable e) {
+            log.error("DiSCo(Web) Failed to retrieve request data from servlet service.");
+            return NO_REQUEST_EVENT;
+        }
+    }
+
+    /**
+     * Called on exit from an intercepted service() or doFilter() call, whether it returned or threw, to publish the
+     * response event and end the transaction begun by {@link #enter}, unless the request went async.
+     *
+     * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+     *
+     * @param state    the value returned by {@link #enter}
+     * @param request  the request passed to service() or doFilter()
+     * @param response the response passed to service() or doFilter()
+     * @param accessor the accessor for the Servlet API namespace of the request and response
+     */
+    public static void exit(Object state, Object request, Object response, HttpServletAccessor accessor) {
+        if (state == null) {
+            return;
+        }
+        depth.get()[0]--;
+
+        if (state instanceof AdoptedTransaction) {
+            TransactionContext.setPrivateMetadata(((AdoptedTransaction) state).previous);
+            return;
+        }
+
+        HttpServletNetworkRequestEvent requestEvent = state instanceof HttpServletNetworkRequestEvent
+                ? (HttpServletNetworkRequestEvent) state
+                : null;
+        if (!deferToAsyncListener(request, response, requestEvent, accessor)) {
+            publishResponseEvent(requestEvent, response, accessor);
+            //match the create() call with a destroy() in all cases
+            TransactionContext.destroy();
+        }
+    }
+
+    /**
+     * Publish the response event for a request, once the response is complete. Afterwards, the header sources of both
+     * events are dropped, since the container may then recycle the request and response objects for another exchange,
+     * so any headers which Listeners have not read by now are no longer available.
+     *
+     * @param requestEvent the previously published request event
+     * @param response the HttpServletResponse
+     * @param accessor the accessor for the Servlet API namespace of the response
+     */
+    static void publishResponseEvent(HttpServletNetworkRequestEvent requestEvent, Object response, HttpServletAccessor accessor) {
+        try {
+            int statusCode = accessor.getStatus(response);
+            HttpServletNetworkResponseEvent responseEvent = new HttpServletNetworkResponseEvent(EVENT_ORIGIN, requestEvent)
+                    .withHeaderSource(() -> retrieveResponseHeaderMap(response, accessor))
+                    .withStatusCode(statusCode)
+                    .withResponse(response);
+            EventBus.publish(responseEvent);
+            responseEvent.dropHeaderSource();
+        } catch (Throwable t) {
+            log.error("DiSCo(Web) Failed to retrieve response data from service.");
+        } finally {
+            if (requestEvent != null) {
+                requestEvent.dropHeaderSource();
+            }
+        }
+    }
+
+    /**
+     * If the request has been put into asynchronous mode, hand the current transaction over to an AsyncListener which
+     * completes it when the async request completes, and detach it from the current thread.
+     *
+     * @param request the HttpServletRequest
+     * @param response the HttpServletResponse
+     * @param requestEvent the previously published request event
+     * @param accessor the accessor for the Servlet API namespace of the request and response
+     * @return true if the transaction was handed over, false if the request is synchronous and should be completed now
+     */
+    static boolean deferToAsyncListener(Object request, Object response, HttpServletNetworkRequestEvent requestEvent, HttpServletAccessor accessor) {
+        try {
+            if (!accessor.isAsyncStarted(request)) {
+                return false;
+            }
+            ConcurrentMap<String, MetadataItem> transactionContext = TransactionContext.getPrivateMetadata();
+            accessor.addAsyncCompletionListener(request, () -> completeAsync(requestEvent, response, transactionContext, accessor));
+            accessor.setAttribute(request, ASYNC_TRANSACTION_CONTEXT_ATTRIBUTE, transactionContext);
+        } catch (Throwable t) {
+            //Servlet 2.x containers do not support async requests. Also if already completed, complete synchronously
+            return false;
+        }
+        //the container thread must not carry the transaction into its next unrelated request
+        TransactionContext.clear();
+        return true;
+    }
+
+    /**
+     * Publish the response event and end the transaction of an async request, within the transaction, on the
+     * completing thread.
+     *
+     * @param requestEvent the previously published request event
+     * @param response the HttpServletResponse
+     * @param transactionContext the TransactionContext of the request
+     * @param accessor the accessor for the Servlet API namespace of the response
+     */
+    static void completeAsync(HttpServletNetworkRequestEvent requestEvent, Object response,
+                              ConcurrentMap<String, MetadataItem> transactionContext, HttpServletAccessor accessor) {
+        ConcurrentMap<String, MetadataItem> previous = TransactionContext.getPrivateMetadata();
+        TransactionContext.setPrivateMetadata(transactionContext);
+        try {
+            publishResponseEvent(requestEvent, response, accessor);
+        } finally {
+            //match the create() call made when the request was first serviced
+            TransactionContext.destroy();
+            TransactionContext.setPrivateMetadata(previous);
+        }
+    }
+
+    /**
+     * Retrieve the TransactionContext of a request which went async, if this is an async dispatch of it.
+     *
+     * @param request the HttpServletRequest
+     * @param accessor the accessor for the Servlet API namespace of the request
+     * @return the TransactionContext to adopt, or null if none
+     */
+    @SuppressWarnings("unchecked")
+    static ConcurrentMap<String, MetadataItem> retrieveAsyncTransactionContext(Object request, HttpServletAccessor accessor) {
+        try {
+            Object attribute = accessor.getAttribute(request, ASYNC_TRANSACTION_CONTEXT_ATTRIBUTE);
+            return attribute instanceof ConcurrentMap ? (ConcurrentMap<String, MetadataItem>) attribute : null;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * Copy the headers of the given request, only called if a Listener accesses the headers of the request event.
+     *
+     * @param request the intercepted request
+     * @param accessor the accessor for the Servlet API namespace of the request
+     * @return a map of header name to header value
+     */
+    static Map<String, List<String>> retrieveRequestHeaderMap(Object request, HttpServletAccessor accessor) {
+        return ServletHeaderCapture.capture(name -> accessor.getRequestHeader(request, name),
+                () -> accessor.getRequestHeaderNames(request));
+    }
+
+    /**
+     * Copy the headers of the given response, only called if a Listener accesses the headers of the response event.
+     *
+     * @param response the intercepted response
+     * @param accessor the accessor for the Servlet API namespace of the response
+     * @return a map of header name to header value
+     */
+    static Map<String, List<String>> retrieveResponseHeaderMap(Object response, HttpServletAccessor accessor) {
+        return ServletHeaderCapture.capture(name -> accessor.getResponseHeader(response, name),
+                () -> accessor.getResponseHeaderNames(response));
+    }
+
+    /**
+     * The state returned by {@link #enter} for an async dispatch, which adopts the transaction of its request.
+     */
+    private static class AdoptedTransaction {
+        final ConcurrentMap<String, MetadataItem> previous;
+
+        AdoptedTransaction(ConcurrentMap<String, MetadataItem> previous) {
+            this.previous = previous;
+        }
+    }
+}
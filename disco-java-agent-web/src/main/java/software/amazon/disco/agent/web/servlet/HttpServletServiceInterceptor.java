@@ -15,22 +15,48 @@
 package software.amazon.disco.agent.web.servlet;
 
 import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
-import net.bytebuddy.implementation.MethodDelegation;
 import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.ElementMatchers;
 import software.amazon.disco.agent.interception.Installable;
-import software.amazon.disco.agent.logging.LogManager;
-import software.amazon.disco.agent.logging.Logger;
 import software.amazon.disco.agent.plugin.ResourcesClassInjector;
 
+import java.util.List;
+
 /**
  * When the service() method of HttpServlet or subclass of it is called,
  * the method is intercepted to generate HttpNetworkProtocol(Request/Response)Events.
  */
 public class HttpServletServiceInterceptor implements Installable {
-    private static final Logger log = LogManager.getLogger(HttpServletServiceInterceptor.class);
+    final String servletPackage;
+    private final Class<?> adviceClass;
+    private final String[] injectedClassNames;
+
+    /**
+     * Construct an interceptor for the javax.servlet namespace.
+     */
+    public HttpServletServiceInterceptor() {
+        this("javax.servlet",
+                ServiceAdvice.class,
+                "software.amazon.disco.agent.web.servlet.HttpServletAsyncListener",
+                "software.amazon.disco.agent.web.servlet.JavaxHttpServletAccessor");
+    }
+
+    /**
+     * Construct an interceptor for the given Servlet API namespace.
+     *
+     * @param servletPackage the root package of the Servlet API, e.g. "javax.servlet"
+     * @param adviceClass the Advice to inline into service() methods
+     * @param injectedClassNames the names of classes referenced by the Advice which must be injected into the
+     *                           application classloader, because they reference the Servlet API
+     */
+    HttpServletServiceInterceptor(String servletPackage, Class<?> adviceClass, String... injectedClassNames) {
+        this.servletPackage = servletPackage;
+        this.adviceClass = adviceClass;
+        this.injectedClassNames = injectedClassNames;
+    }
     /**
      * {@inheritDoc}
      */
@@ -39,42 +65,44 @@ public class HttpServletServiceInterceptor implements Installable {
         return agentBuilder
                 .type(buildClassMatcher())
                 .transform((builder, typeDescription, classLoader, module) -> {
-                    ResourcesClassInjector.injectClass(
+                    ResourcesClassInjector.injectAllClasses(
                             classLoader,
                             HttpServletServiceInterceptor.class.getClassLoader(),
-                            "software.amazon.disco.agent.web.servlet.HttpServletServiceMethodDelegation"
+                            injectedClassNames
                     );
-
-                    try {
-                        Class<?> methodDelegation = Class.forName("software.amazon.disco.agent.web.servlet.HttpServletServiceMethodDelegation", true, classLoader);
-                        return builder
-                                .method(buildMethodMatcher())
-                                .intercept(MethodDelegation.to(methodDelegation));
-                    } catch (Exception e) {
-                        log.error("Disco(Web) could not install HttpServletServiceMethodDelegation", e);
-                        return builder;
-                    }
+                    return builder.visit(Advice.to(adviceClass).on(buildMethodMatcher()));
                 });
     }
 
+    /**
+     * Configures which request and response headers are captured into events, from the 'servletheaders' and
+     * 'servletheadermaxbytes' arguments. See {@link ServletHeaderCapture}.
+     *
+     * @param args command line arguments
+     */
+    @Override
+    public void handleArguments(List<String> args) {
+        ServletHeaderCapture.configure(args);
+    }
+
     /**
      * Build a ElementMatcher which defines the kind of class which will be intercepted. Package-private for tests.
      *
      * @return A ElementMatcher suitable to pass to the type() method of an AgentBuilder
      */
     ElementMatcher<? super TypeDescription> buildClassMatcher() {
-        return ElementMatchers.hasSuperType(ElementMatchers.named("javax.servlet.http.HttpServlet"));
+        return ElementMatchers.hasSuperType(ElementMatchers.named(servletPackage + ".http.HttpServlet"));
     }
 
     /**
      * Build an ElementMatcher which will match against the service() method of an HttpServlet.
      * Package-private for tests
      *
-     * @return An ElementMatcher suitable for passing to the method() method of a DynamicType.Builder
+     * @return An ElementMatcher suitable for passing to an Advice
      */
     ElementMatcher<? super MethodDescription> buildMethodMatcher() {
-        ElementMatcher<? super TypeDescription> requestTypeName = ElementMatchers.named("javax.servlet.http.HttpServletRequest");
-        ElementMatcher<? super TypeDescription> responseTypeName = ElementMatchers.named("javax.servlet.http.HttpServletResponse");
+        ElementMatcher<? super TypeDescription> requestTypeName = ElementMatchers.named(servletPackage + ".http.HttpServletRequest");
+        ElementMatcher<? super TypeDescription> responseTypeName = ElementMatchers.named(servletPackage + ".http.HttpServletResponse");
         ElementMatcher.Junction<? super MethodDescription> hasTwoArgs = ElementMatchers.takesArguments(2);
         ElementMatcher.Junction<? super MethodDescription> firstArgMatches = ElementMatchers.takesArgument(0, requestTypeName);
         ElementMatcher.Junction<? super MethodDescription> secondArgMatches = ElementMatchers.takesArgument(1, responseTypeName);
@@ -82,4 +110,39 @@ public class HttpServletServiceInterceptor implements Installable {
         return methodMatches.and(ElementMatchers.not(ElementMatchers.isAbstract()));
     }
 
+    /**
+     * Advice inlined into javax.servlet service() methods, and doFilter() methods when filters are intercepted.
+     */
+    public static class ServiceAdvice {
+        /**
+         * Begin the transaction and publish the request event, if this is the outermost intercepted call.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param request the HttpServletRequest
+         * @param response the HttpServletResponse
+         * @return the state to pass to the exit Advice
+         */
+        @Advice.OnMethodEnter
+        public static Object onMethodEnter(@Advice.Argument(0) Object request,
+                                           @Advice.Argument(1) Object response) {
+            return HttpServletServiceHandler.enter(request, response, JavaxHttpServletAccessor.INSTANCE);
+        }
+
+        /**
+         * Publish the response event and end the transaction, if this is the outermost intercepted call.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param state the value returned by the enter Advice
+         * @param request the HttpServletRequest
+         * @param response the HttpServletResponse
+         */
+        @Advice.OnMethodExit(onThrowable = Throwable.class)
+        public static void onMethodExit(@Advice.Enter Object state,
+                                        @Advice.Argument(0) Object request,
+                                        @Advice.Argument(1) Object response) {
+            HttpServletServiceHandler.exit(state, request, response, JavaxHttpServletAccessor.INSTANCE);
+        }
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.servlet;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+
+/**
+ * The jakarta.servlet counterpart of {@link HttpServletAsyncListener}, registered on the AsyncContext of a request which
+ * was put into asynchronous mode, to carry its transaction across the real lifetime of the request.
+ */
+public class JakartaHttpServletAsyncListener implements AsyncListener {
+    private final Runnable onComplete;
+
+    /**
+     * Construct a new JakartaHttpServletAsyncListener
+     * @param onComplete the action to run when the async request completes
+     */
+    JakartaHttpServletAsyncListener(Runnable onComplete) {
+        this.onComplete = onComplete;
+    }
+
+    /**
+     * The container calls this after any timeout or error handling has finished too.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public void onComplete(AsyncEvent event) {
+        onComplete.run();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        //onComplete follows, once the application or container has handled the timeout
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onError(AsyncEvent event) {
+        //onComplete follows, once the application or container has handled the error
+    }
+
+    /**
+     * Listeners are discarded when an async request is restarted, so register again on the new AsyncContext.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+        event.getAsyncContext().addListener(this);
+    }
+}
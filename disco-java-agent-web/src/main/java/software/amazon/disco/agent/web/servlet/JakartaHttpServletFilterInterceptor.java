@@ -0,0 +1,33 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.servlet;
+
+/**
+ * The jakarta.servlet counterpart of {@link HttpServletFilterInterceptor}, enabled by the same 'servletfilters'
+ * argument.
+ */
+public class JakartaHttpServletFilterInterceptor extends HttpServletFilterInterceptor {
+    /**
+     * Construct an interceptor for the jakarta.servlet namespace.
+     */
+    public JakartaHttpServletFilterInterceptor() {
+        super("jakarta.servlet",
+                JakartaHttpServletServiceInterceptor.ServiceAdvice.class,
+                "software.amazon.disco.agent.web.servlet.JakartaHttpServletAsyncListener",
+                "software.amazon.disco.agent.web.servlet.JakartaHttpServletAccessor");
+    }
+}
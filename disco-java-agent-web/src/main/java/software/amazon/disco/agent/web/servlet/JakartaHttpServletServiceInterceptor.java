@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.servlet;
+
+import net.bytebuddy.asm.Advice;
+
+/**
+ * When the service() method of a jakarta.servlet HttpServlet or subclass of it is called, as in Servlet 5.0 and later
+ * containers such as Tomcat 10 and Jetty 11, the method is intercepted to generate
+ * HttpNetworkProtocol(Request/Response)Events, in exactly the same way as for the javax.servlet namespace.
+ */
+public class JakartaHttpServletServiceInterceptor extends HttpServletServiceInterceptor {
+    /**
+     * Construct an interceptor for the jakarta.servlet namespace.
+     */
+    public JakartaHttpServletServiceInterceptor() {
+        super("jakarta.servlet",
+                ServiceAdvice.class,
+                "software.amazon.disco.agent.web.servlet.JakartaHttpServletAsyncListener",
+                "software.amazon.disco.agent.web.servlet.JakartaHttpServletAccessor");
+    }
+
+    /**
+     * Advice inlined into jakarta.servlet service() methods, and doFilter() methods when filters are intercepted.
+     */
+    public static class ServiceAdvice {
+        /**
+         * Begin the transaction and publish the request event, if this is the outermost intercepted call.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param request the HttpServletRequest
+         * @param response the HttpServletResponse
+         * @return the state to pass to the exit Advice
+         */
+        @Advice.OnMethodEnter
+        public static Object onMethodEnter(@Advice.Argument(0) Object request,
+                                           @Advice.Argument(1) Object response) {
+            return HttpServletServiceHandler.enter(request, response, JakartaHttpServletAccessor.INSTANCE);
+        }
+
+        /**
+         * Publish the response event and end the transaction, if this is the outermost intercepted call.
+         *
+         * Must be public for use in Advice methods https://github.com/raphw/byte-buddy/issues/761
+         *
+         * @param state the value returned by the enter Advice
+         * @param request the HttpServletRequest
+         * @param response the HttpServletResponse
+         */
+        @Advice.OnMethodExit(onThrowable = Throwable.class)
+        public static void onMethodExit(@Advice.Enter Object state,
+                                        @Advice.Argument(0) Object request,
+                                        @Advice.Argument(1) Object response) {
+            HttpServletServiceHandler.exit(state, request, response, JakartaHttpServletAccessor.INSTANCE);
+        }
+    }
+}
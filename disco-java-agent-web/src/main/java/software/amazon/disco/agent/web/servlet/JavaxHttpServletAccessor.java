@@ -0,0 +1,165 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.servlet;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+import java.util.Enumeration;
+
+/**
+ * The {@link HttpServletAccessor} for the javax.servlet namespace, used by Servlet 4.0 and earlier containers.
+ */
+public class JavaxHttpServletAccessor implements HttpServletAccessor {
+    // Must be public for use in Advice methods, which are inlined into servlets of any package
+    public static final JavaxHttpServletAccessor INSTANCE = new JavaxHttpServletAccessor();
+
+    /**
+     * Private constructor for singleton
+     */
+    private JavaxHttpServletAccessor() {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isHttpExchange(Object request, Object response) {
+        return request instanceof HttpServletRequest && response instanceof HttpServletResponse;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRemotePort(Object request) {
+        return ((HttpServletRequest) request).getRemotePort();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLocalPort(Object request) {
+        return ((HttpServletRequest) request).getLocalPort();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getRemoteAddr(Object request) {
+        return ((HttpServletRequest) request).getRemoteAddr();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getLocalAddr(Object request) {
+        return ((HttpServletRequest) request).getLocalAddr();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getMethod(Object request) {
+        return ((HttpServletRequest) request).getMethod();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getRequestURL(Object request) {
+        return ((HttpServletRequest) request).getRequestURL().toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getRequestHeader(Object request, String name) {
+        return ((HttpServletRequest) request).getHeader(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<String> getRequestHeaderNames(Object request) {
+        Enumeration<String> headerNames = ((HttpServletRequest) request).getHeaderNames();
+        return headerNames == null ? null : Collections.list(headerNames);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getStatus(Object response) {
+        return ((HttpServletResponse) response).getStatus();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getResponseHeader(Object response, String name) {
+        return ((HttpServletResponse) response).getHeader(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<String> getResponseHeaderNames(Object response) {
+        return ((HttpServletResponse) response).getHeaderNames();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getAttribute(Object request, String name) {
+        return ((HttpServletRequest) request).getAttribute(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setAttribute(Object request, String name, Object value) {
+        ((HttpServletRequest) request).setAttribute(name, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAsyncStarted(Object request) {
+        return ((HttpServletRequest) request).isAsyncStarted();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addAsyncCompletionListener(Object request, Runnable onComplete) {
+        ((HttpServletRequest) request).getAsyncContext().addListener(new HttpServletAsyncListener(onComplete));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.servlet;
+
+import software.amazon.disco.agent.metrics.DiscoAgentMetrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Copies the headers of an intercepted servlet request or response into the header map of an event. By default every
+ * header is copied, under the name reported by the container. With the 'servletheaders=name1,name2,...' agent argument,
+ * only the named headers are looked up, and the header names of the request are never enumerated, so each captured
+ * header is keyed by its name as spelled in the argument. The 'servletheadermaxbytes=N' argument caps the UTF-8 encoded
+ * size of the header names and values copied from a single request or response.
+ *
+ * Capture is not allocation-free: the returned map and its value lists are allocated per capture. It is however only
+ * performed when a Listener first reads the headers of an event, so requests whose headers are never read allocate
+ * nothing here.
+ *
+ * This class deliberately has no dependency on the Servlet API, so that it is loaded once, alongside the Installable
+ * which configures it, rather than being injected into each application classloader.
+ */
+public class ServletHeaderCapture {
+    static final String ALLOWLIST_ARG = "servletheaders";
+    static final String MAX_BYTES_ARG = "servletheadermaxbytes";
+    static final int UNLIMITED = -1;
+
+    private static volatile String[] allowlist = null;
+    private static volatile int maxBytes = UNLIMITED;
+
+    /**
+     * Configure header capture from the agent's command line arguments, resetting anything not specified.
+     *
+     * @param args command line arguments in the form ["key1=value1", "key2=value2,value3", "value4"]
+     */
+    static void configure(List<String> args) {
+        String[] newAllowlist = null;
+        int newMaxBytes = UNLIMITED;
+        if (args != null) {
+            for (String arg : args) {
+                int split = arg.indexOf('=');
+                if (split < 0) {
+                    continue;
+                }
+                String key = arg.substring(0, split).trim().toLowerCase();
+                String value = arg.substring(split + 1).trim();
+                if (ALLOWLIST_ARG.equals(key)) {
+                    List<String> names = new ArrayList<>();
+                    for (String name : value.split(",")) {
+                        if (!name.trim().isEmpty()) {
+                            names.add(name.trim());
+                        }
+                    }
+                    newAllowlist = names.toArray(new String[0]);
+                } else if (MAX_BYTES_ARG.equals(key)) {
+                    try {
+                        newMaxBytes = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        //ignore, leaving capture uncapped
+                    }
+                }
+            }
+        }
+        allowlist = newAllowlist;
+        maxBytes = newMaxBytes;
+    }
+
+    /**
+     * Copy headers from a request or response, honouring any configured allowlist and size cap, and record the number
+     * of bytes copied in the agent's metrics, if any header was copied.
+     *
+     * @param headerLookup a function returning the first value of the named header, or null if absent
+     * @param headerNames a supplier of all header names, only used when no allowlist is configured
+     * @return a map of header name to header value
+     */
+    public static Map<String, List<String>> capture(Function<String, String> headerLookup, Supplier<? extends Iterable<String>> headerNames) {
+        String[] names = allowlist;
+        int max = maxBytes;
+        Map<String, List<String>> ret = new HashMap<>();
+        long bytes = 0;
+        try {
+            if (names != null) {
+                for (String name : names) {
+                    bytes += captureHeader(ret, name, headerLookup.apply(name), bytes, max);
+                }
+            } else {
+                Iterable<String> allNames = headerNames.get();
+                if (allNames != null) {
+                    for (String name : allNames) {
+                        bytes += captureHeader(ret, name, headerLookup.apply(name), bytes, max);
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            //do nothing
+        }
+        if (!ret.isEmpty()) {
+            DiscoAgentMetrics.recordHeaderCapture(bytes);
+        }
+        return ret;
+    }
+
+    /**
+     * Add a header to the map, unless absent or it would take the captured size over the cap.
+     *
+     * @param headers the map of captured headers
+     * @param name the header name
+     * @param value the header value, or null if absent
+     * @param bytesSoFar the bytes already captured from this request or response
+     * @param max the maximum bytes to capture, or UNLIMITED
+     * @return the number of bytes captured, 0 if the header was not added
+     */
+    private static int captureHeader(Map<String, List<String>> headers, String name, String value, long bytesSoFar, int max) {
+        if (value == null) {
+            return 0;
+        }
+        int size = encodedLength(name) + encodedLength(value);
+        if (max != UNLIMITED && bytesSoFar + size > max) {
+            return 0;
+        }
+        headers.put(name, Collections.singletonList(value));
+        return size;
+    }
+
+    /**
+     * Compute the UTF-8 encoded length of a String without encoding it. For the ISO-8859-1 text which HTTP headers are
+     * normally limited to, this is the number of characters, plus one for each character outside of ASCII.
+     *
+     * @param s the String to measure
+     * @return the number of bytes in the UTF-8 encoding of s
+     */
+    static int encodedLength(String s) {
+        int length = s.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x800) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    //a surrogate pair of two chars encodes to four bytes
+                    bytes += 2;
+                    i++;
+                } else {
+                    bytes += 2;
+                }
+            } else if (c >= 0x80) {
+                bytes += 1;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.apache.event;
+
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import software.amazon.disco.agent.event.HeaderReplaceable;
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import static org.junit.Assert.*;
+
+public class Apache5EventFactoryTests {
+    private HttpRequest request;
+
+    @Before
+    public void before() throws Exception {
+        request = Mockito.mock(HttpRequest.class);
+        Mockito.when(request.getMethod()).thenReturn("GET");
+        Mockito.when(request.getUri()).thenReturn(new URI("http://amazon.com/explore/something"));
+    }
+
+    @Test
+    public void testRequestEventCreation() {
+        HttpServiceDownstreamRequestEvent event = Apache5EventFactory.createDownstreamRequestEvent("origin", request);
+        assertEquals("origin", event.getOrigin());
+        assertEquals("http://amazon.com/explore/something", event.getService());
+        assertEquals("GET", event.getOperation());
+        assertEquals("http://amazon.com/explore/something", event.getUri());
+        assertEquals("GET", event.getMethod());
+    }
+
+    @Test
+    public void testRequestEventCreationWithUnparseableUri() throws Exception {
+        Mockito.when(request.getUri()).thenThrow(new URISyntaxException("bad uri", "reason"));
+        Mockito.when(request.getRequestUri()).thenReturn("bad uri");
+        HttpServiceDownstreamRequestEvent event = Apache5EventFactory.createDownstreamRequestEvent("origin", request);
+        assertEquals("bad uri", event.getUri());
+    }
+
+    @Test
+    public void testHeaderReplacement() {
+        HttpServiceDownstreamRequestEvent event = Apache5EventFactory.createDownstreamRequestEvent("origin", request);
+        assertTrue(((HeaderReplaceable) event).replaceHeader("foo", "bar"));
+        Mockito.verify(request).setHeader("foo", "bar");
+    }
+
+    @Test
+    public void testResponseEventCreationForClassicResponse() {
+        HttpEntity entity = Mockito.mock(HttpEntity.class);
+        Mockito.when(entity.getContentLength()).thenReturn(42L);
+        ClassicHttpResponse response = Mockito.mock(ClassicHttpResponse.class);
+        Mockito.when(response.getCode()).thenReturn(200);
+        Mockito.when(response.getEntity()).thenReturn(entity);
+
+        HttpServiceDownstreamRequestEvent requestEvent = Apache5EventFactory.createDownstreamRequestEvent("origin", request);
+        HttpServiceDownstreamResponseEvent event = (HttpServiceDownstreamResponseEvent) Apache5EventFactory.createServiceResponseEvent(response, requestEvent, null);
+        assertSame(requestEvent, event.getRequest());
+        assertEquals(200, event.getStatusCode());
+        assertEquals(42L, event.getContentLength());
+        assertTrue(event.getDuration() >= 0);
+        assertNull(event.getThrown());
+    }
+
+    @Test
+    public void testResponseEventCreationForAsyncResponse() {
+        HttpResponse response = Mockito.mock(HttpResponse.class);
+        Mockito.when(response.getCode()).thenReturn(503);
+
+        HttpServiceDownstreamRequestEvent requestEvent = Apache5EventFactory.createDownstreamRequestEvent("origin", request);
+        HttpServiceDownstreamResponseEvent event = (HttpServiceDownstreamResponseEvent) Apache5EventFactory.createServiceResponseEvent(response, requestEvent, null);
+        assertEquals(503, event.getStatusCode());
+        assertEquals(-1L, event.getContentLength());
+    }
+
+    @Test
+    public void testResponseEventCreationForFailure() {
+        IOException failure = new IOException();
+        HttpServiceDownstreamRequestEvent requestEvent = Apache5EventFactory.createDownstreamRequestEvent("origin", request);
+        HttpServiceDownstreamResponseEvent event = (HttpServiceDownstreamResponseEvent) Apache5EventFactory.createServiceResponseEvent(null, requestEvent, failure);
+        assertSame(failure, event.getThrown());
+        assertEquals(-1, event.getStatusCode());
+    }
+}
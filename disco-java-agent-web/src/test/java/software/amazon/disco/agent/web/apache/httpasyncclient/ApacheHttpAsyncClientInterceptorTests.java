@@ -0,0 +1,245 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.apache.httpasyncclient;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.protocol.HttpContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.web.apache.ApacheAsyncClientExecution;
+import software.amazon.disco.agent.web.apache.httpclient.ApacheHttpClientAccessor;
+import software.amazon.disco.agent.web.apache.source.InterceptedBasicHttpResponse;
+import software.amazon.disco.agent.web.apache.source.InterceptedHttpRequestBase;
+import software.amazon.disco.agent.web.apache.source.MockEventBusListener;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ApacheHttpAsyncClientInterceptorTests {
+    private MockEventBusListener mockEventBusListener;
+
+    @Before
+    public void before() {
+        mockEventBusListener = new MockEventBusListener();
+        TransactionContext.create();
+        EventBus.addListener(mockEventBusListener);
+    }
+
+    @After
+    public void after() {
+        TransactionContext.destroy();
+        EventBus.removeListener(mockEventBusListener);
+    }
+
+    @Test
+    public void testInstallation() {
+        AgentBuilder agentBuilder = mock(AgentBuilder.class);
+        AgentBuilder.Identified.Extendable extendable = mock(AgentBuilder.Identified.Extendable.class);
+        AgentBuilder.Identified.Narrowable narrowable = mock(AgentBuilder.Identified.Narrowable.class);
+        when(agentBuilder.type(any(ElementMatcher.class))).thenReturn(narrowable);
+        when(narrowable.transform(any(AgentBuilder.Transformer.class))).thenReturn(extendable);
+        AgentBuilder result = new ApacheHttpAsyncClientInterceptor().install(agentBuilder);
+        assertSame(extendable, result);
+    }
+
+    @Test
+    public void testClassMatcherSucceedsOnImplementation() {
+        TypeDescription asyncClient = new ByteBuddy().makeInterface().name("org.apache.http.nio.client.HttpAsyncClient").make().getTypeDescription();
+        TypeDescription implementation = new ByteBuddy().subclass(Object.class).implement(asyncClient).name("test.SomeHttpAsyncClient").make().getTypeDescription();
+        assertTrue(new ApacheHttpAsyncClientInterceptor().buildClassMatcher().matches(implementation));
+        assertFalse(new ApacheHttpAsyncClientInterceptor().buildClassMatcher().matches(asyncClient));
+    }
+
+    @Test
+    public void testClassMatcherFailsOnUnrelatedClass() {
+        assertFalse(new ApacheHttpAsyncClientInterceptor().buildClassMatcher().matches(new TypeDescription.ForLoadedType(String.class)));
+    }
+
+    @Test
+    public void testMethodMatcher() throws Exception {
+        assertTrue(methodMatches(FakeHttpAsyncClient.class.getDeclaredMethod("execute", HttpHost.class, HttpRequest.class, HttpContext.class, FutureCallback.class)));
+        assertTrue(methodMatches(FakeHttpAsyncClient.class.getDeclaredMethod("execute", HttpUriRequest.class, FutureCallback.class)));
+        assertFalse(methodMatches(FakeHttpAsyncClient.class.getDeclaredMethod("execute", HttpUriRequest.class)));
+        assertFalse(methodMatches(FakeHttpAsyncClient.class.getDeclaredMethod("get")));
+    }
+
+    @Test
+    public void testCallbackPublishesResponseWithinCallerTransaction() throws Exception {
+        Supplier<Object> client = adviseFakeClient();
+        String callerTransactionId = TransactionContext.get();
+        AtomicReference<String> callbackTransactionId = new AtomicReference<>();
+        FutureCallback<HttpResponse> callback = mock(FutureCallback.class);
+        Mockito.doAnswer(invocation -> {
+            callbackTransactionId.set(TransactionContext.get());
+            return null;
+        }).when(callback).completed(any());
+
+        HttpUriRequest request = new InterceptedHttpRequestBase();
+        client.getClass().getMethod("execute", HttpUriRequest.class, FutureCallback.class).invoke(client, request, callback);
+
+        //the request is issued, but has not completed
+        List<Event> events = mockEventBusListener.getReceivedEvents();
+        assertEquals(1, events.size());
+        assertTrue(events.get(0) instanceof HttpServiceDownstreamRequestEvent);
+        FutureCallback<Object> decorated = (FutureCallback<Object>) client.get();
+        assertTrue(decorated instanceof ApacheFutureCallback);
+        assertSame(callback, ((ApacheFutureCallback) decorated).getTarget());
+
+        //complete on an I/O thread
+        HttpResponse response = new InterceptedBasicHttpResponse(new ProtocolVersion("protocol", 1, 1), 200, "");
+        Thread ioThread = new Thread(() -> decorated.completed(response));
+        ioThread.start();
+        ioThread.join();
+
+        Mockito.verify(callback).completed(response);
+        assertEquals(callerTransactionId, callbackTransactionId.get());
+        HttpServiceDownstreamResponseEvent responseEvent = (HttpServiceDownstreamResponseEvent) events.stream()
+                .filter(e -> e instanceof HttpServiceDownstreamResponseEvent).findFirst().get();
+        assertEquals(200, responseEvent.getStatusCode());
+        assertTrue(responseEvent.getDuration() >= 0);
+        assertSame(events.get(0), responseEvent.getRequest());
+    }
+
+    @Test
+    public void testNullCallbackStillPublishesResponse() throws Exception {
+        Supplier<Object> client = adviseFakeClient();
+        client.getClass().getMethod("execute", HttpUriRequest.class, FutureCallback.class).invoke(client, new InterceptedHttpRequestBase(), null);
+
+        FutureCallback<Object> decorated = (FutureCallback<Object>) client.get();
+        IOException failure = new IOException();
+        decorated.failed(failure);
+
+        List<Event> events = mockEventBusListener.getReceivedEvents();
+        assertEquals(2, events.size());
+        assertSame(failure, ((HttpServiceDownstreamResponseEvent) events.get(1)).getThrown());
+    }
+
+    @Test
+    public void testResponsePublishedOnce() {
+        Object[] args = ApacheAsyncClientExecution.decorateArguments(new Object[]{new InterceptedHttpRequestBase(), null}, ApacheHttpClientAccessor.INSTANCE);
+        ApacheFutureCallback decorated = (ApacheFutureCallback) args[1];
+        decorated.cancelled();
+        decorated.failed(new IOException());
+        ApacheAsyncClientExecution.failedToExecute(args, new IllegalStateException(), ApacheHttpClientAccessor.INSTANCE);
+
+        List<Event> events = mockEventBusListener.getReceivedEvents();
+        assertEquals(2, events.size());
+        assertTrue(((HttpServiceDownstreamResponseEvent) events.get(1)).getThrown() instanceof CancellationException);
+    }
+
+    @Test
+    public void testDecorateArgumentsIgnoresNestedCall() {
+        Object[] args = ApacheAsyncClientExecution.decorateArguments(new Object[]{new InterceptedHttpRequestBase(), null}, ApacheHttpClientAccessor.INSTANCE);
+        Object[] nestedArgs = new Object[]{null, args[0], null, args[1]};
+        assertSame(nestedArgs, ApacheAsyncClientExecution.decorateArguments(nestedArgs, ApacheHttpClientAccessor.INSTANCE));
+        assertEquals(1, mockEventBusListener.getReceivedEvents().size());
+    }
+
+    @Test
+    public void testExecuteThrowingPublishesResponse() throws Exception {
+        Supplier<Object> client = adviseFakeClient();
+        try {
+            client.getClass().getMethod("execute", HttpHost.class, HttpRequest.class, HttpContext.class, FutureCallback.class)
+                    .invoke(client, null, new InterceptedHttpRequestBase(), mock(HttpContext.class), null);
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        List<Event> events = mockEventBusListener.getReceivedEvents();
+        assertEquals(2, events.size());
+        assertTrue(((HttpServiceDownstreamResponseEvent) events.get(1)).getThrown() instanceof IllegalStateException);
+    }
+
+    private static boolean methodMatches(Method method) {
+        return new ApacheHttpAsyncClientInterceptor().buildMethodMatcher().matches(new MethodDescription.ForLoadedMethod(method));
+    }
+
+    /**
+     * Apply the interceptor's Advice to the FakeHttpAsyncClient, defining it afresh in a child classloader
+     *
+     * @return an instance of the advised client
+     */
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> adviseFakeClient() throws Exception {
+        Class<?> advised = new ByteBuddy()
+                .redefine(FakeHttpAsyncClient.class)
+                .visit(Advice.to(ApacheHttpAsyncClientInterceptor.ExecuteAdvice.class).on(new ApacheHttpAsyncClientInterceptor().buildMethodMatcher()))
+                .make()
+                .load(ApacheHttpAsyncClientInterceptorTests.class.getClassLoader(), ClassLoadingStrategy.Default.CHILD_FIRST)
+                .getLoaded();
+        return (Supplier<Object>) advised.getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * A client with execute() methods like those of CloseableHttpAsyncClient, which records the callback it is given,
+     * and throws if given an HttpContext
+     */
+    public static class FakeHttpAsyncClient implements Supplier<Object> {
+        private Object callback;
+
+        public Object execute(HttpHost target, HttpRequest request, HttpContext context, FutureCallback<HttpResponse> callback) {
+            this.callback = callback;
+            if (context != null) {
+                throw new IllegalStateException();
+            }
+            return null;
+        }
+
+        public Object execute(HttpUriRequest request, FutureCallback<HttpResponse> callback) {
+            return execute(null, request, null, callback);
+        }
+
+        public Object execute(HttpUriRequest request) {
+            return execute(request, null);
+        }
+
+        @Override
+        public Object get() {
+            return callback;
+        }
+    }
+}
@@ -15,9 +15,12 @@
 
 package software.amazon.disco.agent.web.apache.httpclient;
 
+import net.bytebuddy.ByteBuddy;
 import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
 import net.bytebuddy.matcher.ElementMatcher;
 import org.apache.http.HttpResponse;
 import org.apache.http.ProtocolVersion;
@@ -44,6 +47,7 @@ import software.amazon.disco.agent.web.apache.source.MockEventBusListener;
 import software.amazon.disco.agent.web.apache.source.SomeChainedExecuteMethodsHttpClient;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
@@ -183,9 +187,8 @@ public class ApacheHttpClientInterceptorTests {
         get.addHeader("foo", "bar");
         get.addHeader("foo", "bar2");
 
-        SomeChainedExecuteMethodsHttpClient someHttpClient = new SomeChainedExecuteMethodsHttpClient();
-        someHttpClient.setExpectedResponse(expectedResponse);
-        ApacheHttpClientMethodDelegation.intercept(new Object[] {get}, "origin", () -> someHttpClient.execute(get));
+        HttpClient someHttpClient = adviseChainedClient();
+        someHttpClient.execute(get);
 
         List<Event> events = mockEventBusListener.getReceivedEvents();
         HeaderReplaceable event = (HeaderReplaceable)events.get(0);
@@ -203,10 +206,10 @@ public class ApacheHttpClientInterceptorTests {
         HttpUriRequest request = new InterceptedHttpRequestBase();
 
         // Set up victim http client
-        SomeChainedExecuteMethodsHttpClient someHttpClient = new SomeChainedExecuteMethodsHttpClient();
+        HttpClient someHttpClient = adviseChainedClient();
         expectedResponse = new InterceptedBasicHttpResponse(new ProtocolVersion("protocol", 1, 1), 200, "");
-        someHttpClient.setExpectedResponse(expectedResponse);
-        ApacheHttpClientMethodDelegation.intercept(new Object[] {request}, "origin", () -> someHttpClient.execute(request));
+        invoke(someHttpClient, "setExpectedResponse", expectedResponse);
+        someHttpClient.execute(request);
 
         List<Event> events = mockEventBusListener.getReceivedEvents();
         // Verify only one of interceptions does the interceptor business logic even if there is a method chaining,
@@ -222,7 +225,7 @@ public class ApacheHttpClientInterceptorTests {
         assertNull(serviceDownstreamResponseEvent.getResponse());
         assertNull(serviceDownstreamResponseEvent.getThrown());
         assertEquals(200, serviceDownstreamResponseEvent.getStatusCode());
-        assertEquals(3, someHttpClient.getExecuteMethodChainingDepth());
+        assertEquals(3, invoke(someHttpClient, "getExecuteMethodChainingDepth"));
     }
 
     /**
@@ -233,10 +236,12 @@ public class ApacheHttpClientInterceptorTests {
         // Set up victim http client
         expectedIOException = new IOException();
         InterceptedHttpRequestBase request = new InterceptedHttpRequestBase();
-        SomeChainedExecuteMethodsHttpClient someHttpClient = new SomeChainedExecuteMethodsHttpClient();
-        someHttpClient.setExpectedIOException(expectedIOException);
+        HttpClient someHttpClient = adviseChainedClient();
+        invoke(someHttpClient, "setExpectedIOException", expectedIOException);
         try {
-            ApacheHttpClientMethodDelegation.intercept(new Object[]{request}, "origin", () -> someHttpClient.execute(request));
+            someHttpClient.getClass().getMethod("execute", InterceptedHttpRequestBase.class).invoke(someHttpClient, request);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
         } finally {
             List<Event> events = mockEventBusListener.getReceivedEvents();
             // Verify only one of interceptions does the interceptor business logic even if there is a method chaining,
@@ -252,7 +257,7 @@ public class ApacheHttpClientInterceptorTests {
             assertNull(serviceDownstreamResponseEvent.getResponse());
             assertEquals(expectedIOException, serviceDownstreamResponseEvent.getThrown());
 
-            assertEquals(1, someHttpClient.getExecuteMethodChainingDepth());
+            assertEquals(1, invoke(someHttpClient, "getExecuteMethodChainingDepth"));
         }
     }
 
@@ -260,10 +265,10 @@ public class ApacheHttpClientInterceptorTests {
     public void testInterceptorSucceedsOnResponseHandlerExecute() throws Throwable {
         HttpUriRequest get = new InterceptedHttpRequestBase();
 
-        SomeChainedExecuteMethodsHttpClient someHttpClient = new SomeChainedExecuteMethodsHttpClient();
+        HttpClient someHttpClient = adviseChainedClient();
         ResponseHandler<Object> responseHandler = Mockito.mock(ResponseHandler.class);
         Mockito.when(responseHandler.handleResponse(Mockito.any())).thenReturn(new Object());
-        ApacheHttpClientMethodDelegation.intercept(new Object[] {get}, "origin", () -> someHttpClient.execute(get, responseHandler));
+        someHttpClient.execute(get, responseHandler);
 
         List<Event> events = mockEventBusListener.getReceivedEvents();
 
@@ -278,4 +283,62 @@ public class ApacheHttpClientInterceptorTests {
         ServiceDownstreamResponseEvent serviceDownstreamResponseEvent = (ServiceDownstreamResponseEvent) events.get(1);
         ApacheClientTestUtil.verifyServiceResponseEvent(serviceDownstreamResponseEvent);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testInterceptorRecordsNestedResponseOfResponseHandlerExecute() throws Throwable {
+        HttpUriRequest get = new InterceptedHttpRequestBase();
+        HttpResponse response = new InterceptedBasicHttpResponse(new ProtocolVersion("protocol", 1, 1), 404, "");
+        Object handled = new Object();
+        ResponseHandler<Object> responseHandler = Mockito.mock(ResponseHandler.class);
+        Mockito.when(responseHandler.handleResponse(Mockito.any())).thenReturn(handled);
+
+        //as CloseableHttpClient does, the ResponseHandler flavor calls a nested execute(), then the handler
+        HttpClient someHttpClient = adviseChainedClient();
+        invoke(someHttpClient, "setExpectedResponse", response);
+        Object result = someHttpClient.execute(get, responseHandler);
+
+        assertSame(handled, result);
+        Mockito.verify(responseHandler).handleResponse(response);
+        List<Event> events = mockEventBusListener.getReceivedEvents();
+        assertEquals(2, events.size());
+        HttpServiceDownstreamResponseEvent responseEvent = (HttpServiceDownstreamResponseEvent) events.get(1);
+        assertEquals(404, responseEvent.getStatusCode());
+        assertTrue(responseEvent.getDuration() >= 0);
+
+        //the nested response is not carried over to the next request
+        invoke(someHttpClient, "setExpectedResponse", new Object[]{null});
+        someHttpClient.execute(get, responseHandler);
+        assertEquals(4, events.size());
+        assertEquals(-1, ((HttpServiceDownstreamResponseEvent) events.get(3)).getStatusCode());
+    }
+
+    /**
+     * Inline the interceptor's Advice into the methods of {@link SomeChainedExecuteMethodsHttpClient} which it
+     * matches, defining the class afresh in a child classloader.
+     *
+     * @return an instance of the advised client
+     */
+    private static HttpClient adviseChainedClient() throws Exception {
+        return (HttpClient) new ByteBuddy()
+                .redefine(SomeChainedExecuteMethodsHttpClient.class)
+                .visit(Advice.to(ApacheHttpClientInterceptor.ExecuteAdvice.class)
+                        .on(ApacheHttpClientInterceptor.buildMethodMatcher(new TypeDescription.ForLoadedType(SomeChainedExecuteMethodsHttpClient.class))))
+                .make()
+                .load(ApacheHttpClientInterceptorTests.class.getClassLoader(), ClassLoadingStrategy.Default.CHILD_FIRST)
+                .getLoaded()
+                .getDeclaredConstructor()
+                .newInstance();
+    }
+
+    /**
+     * Reflectively call a single-overload method of the advised client, which is not visible to this class by type.
+     */
+    private static Object invoke(Object target, String methodName, Object... args) throws Exception {
+        for (Method m : target.getClass().getMethods()) {
+            if (m.getName().equals(methodName) && m.getParameterCount() == args.length) {
+                return m.invoke(target, args);
+            }
+        }
+        throw new NoSuchMethodException(methodName);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.apache.httpclient5;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.web.apache.ApacheAsyncClientExecution;
+import software.amazon.disco.agent.web.apache.source.MockEventBusListener;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ApacheHttpAsyncClient5InterceptorTests {
+    private MockEventBusListener mockEventBusListener;
+    private HttpRequest request;
+
+    @Before
+    public void before() throws Exception {
+        mockEventBusListener = new MockEventBusListener();
+        TransactionContext.create();
+        EventBus.addListener(mockEventBusListener);
+        request = mock(HttpRequest.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getUri()).thenReturn(new URI("http://amazon.com/explore/something"));
+    }
+
+    @After
+    public void after() {
+        TransactionContext.destroy();
+        EventBus.removeListener(mockEventBusListener);
+    }
+
+    @Test
+    public void testInstallation() {
+        AgentBuilder agentBuilder = mock(AgentBuilder.class);
+        AgentBuilder.Identified.Extendable extendable = mock(AgentBuilder.Identified.Extendable.class);
+        AgentBuilder.Identified.Narrowable narrowable = mock(AgentBuilder.Identified.Narrowable.class);
+        when(agentBuilder.type(any(ElementMatcher.class))).thenReturn(narrowable);
+        when(narrowable.transform(any(AgentBuilder.Transformer.class))).thenReturn(extendable);
+        AgentBuilder result = new ApacheHttpAsyncClient5Interceptor().install(agentBuilder);
+        assertSame(extendable, result);
+    }
+
+    @Test
+    public void testClassMatcherSucceedsOnImplementation() {
+        TypeDescription asyncClient = new ByteBuddy().makeInterface().name("org.apache.hc.client5.http.async.HttpAsyncClient").make().getTypeDescription();
+        TypeDescription implementation = new ByteBuddy().subclass(Object.class).implement(asyncClient).name("test.SomeHttpAsyncClient5").make().getTypeDescription();
+        assertTrue(new ApacheHttpAsyncClient5Interceptor().buildClassMatcher().matches(implementation));
+        assertFalse(new ApacheHttpAsyncClient5Interceptor().buildClassMatcher().matches(asyncClient));
+        assertFalse(new ApacheHttpAsyncClient5Interceptor().buildClassMatcher().matches(new TypeDescription.ForLoadedType(String.class)));
+    }
+
+    @Test
+    public void testMethodMatcher() throws Exception {
+        assertTrue(methodMatches(FakeHttpAsyncClient5.class.getDeclaredMethod("execute", HttpRequest.class, Object.class, FutureCallback.class)));
+        assertTrue(methodMatches(FakeHttpAsyncClient5.class.getDeclaredMethod("execute", HttpRequest.class, FutureCallback.class)));
+        assertFalse(methodMatches(FakeHttpAsyncClient5.class.getDeclaredMethod("execute", Object.class, Object.class, FutureCallback.class)));
+        assertFalse(methodMatches(FakeHttpAsyncClient5.class.getDeclaredMethod("get")));
+    }
+
+    @Test
+    public void testCallbackPublishesResponseWithinCallerTransaction() throws Exception {
+        Supplier<Object> client = adviseFakeClient();
+        String callerTransactionId = TransactionContext.get();
+        AtomicReference<String> callbackTransactionId = new AtomicReference<>();
+        FutureCallback<HttpResponse> callback = mock(FutureCallback.class);
+        Mockito.doAnswer(invocation -> {
+            callbackTransactionId.set(TransactionContext.get());
+            return null;
+        }).when(callback).completed(any());
+
+        client.getClass().getMethod("execute", HttpRequest.class, FutureCallback.class).invoke(client, request, callback);
+
+        //the request is issued, but has not completed
+        List<Event> events = mockEventBusListener.getReceivedEvents();
+        assertEquals(1, events.size());
+        assertTrue(events.get(0) instanceof HttpServiceDownstreamRequestEvent);
+        assertEquals(ApacheHttpClient5Accessor.APACHE_HTTP_ASYNC_CLIENT_5_ORIGIN, events.get(0).getOrigin());
+        FutureCallback<Object> decorated = (FutureCallback<Object>) client.get();
+        assertTrue(decorated instanceof Apache5FutureCallback);
+
+        //complete on an I/O thread
+        HttpResponse response = mock(HttpResponse.class);
+        when(response.getCode()).thenReturn(200);
+        Thread ioThread = new Thread(() -> decorated.completed(response));
+        ioThread.start();
+        ioThread.join();
+
+        Mockito.verify(callback).completed(response);
+        assertEquals(callerTransactionId, callbackTransactionId.get());
+        HttpServiceDownstreamResponseEvent responseEvent = (HttpServiceDownstreamResponseEvent) events.stream()
+                .filter(e -> e instanceof HttpServiceDownstreamResponseEvent).findFirst().get();
+        assertEquals(200, responseEvent.getStatusCode());
+        assertSame(events.get(0), responseEvent.getRequest());
+    }
+
+    @Test
+    public void testResponsePublishedOnce() {
+        Object[] args = ApacheAsyncClientExecution.decorateArguments(new Object[]{request, null}, ApacheHttpClient5Accessor.INSTANCE);
+        Apache5FutureCallback decorated = (Apache5FutureCallback) args[1];
+        decorated.cancelled();
+        decorated.failed(new IOException());
+        ApacheAsyncClientExecution.failedToExecute(args, new IllegalStateException(), ApacheHttpClient5Accessor.INSTANCE);
+
+        List<Event> events = mockEventBusListener.getReceivedEvents();
+        assertEquals(2, events.size());
+        assertTrue(((HttpServiceDownstreamResponseEvent) events.get(1)).getThrown() instanceof CancellationException);
+    }
+
+    @Test
+    public void testDecorateArgumentsIgnoresNestedCall() {
+        Object[] args = ApacheAsyncClientExecution.decorateArguments(new Object[]{request, null}, ApacheHttpClient5Accessor.INSTANCE);
+        Object[] nestedArgs = new Object[]{args[0], null, args[1]};
+        assertSame(nestedArgs, ApacheAsyncClientExecution.decorateArguments(nestedArgs, ApacheHttpClient5Accessor.INSTANCE));
+        assertEquals(1, mockEventBusListener.getReceivedEvents().size());
+    }
+
+    @Test
+    public void testExecuteThrowingPublishesResponse() throws Exception {
+        Supplier<Object> client = adviseFakeClient();
+        try {
+            client.getClass().getMethod("execute", HttpRequest.class, Object.class, FutureCallback.class)
+                    .invoke(client, request, new Object(), null);
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        List<Event> events = mockEventBusListener.getReceivedEvents();
+        assertEquals(2, events.size());
+        assertTrue(((HttpServiceDownstreamResponseEvent) events.get(1)).getThrown() instanceof IllegalStateException);
+    }
+
+    private static boolean methodMatches(Method method) {
+        return new ApacheHttpAsyncClient5Interceptor().buildMethodMatcher().matches(new MethodDescription.ForLoadedMethod(method));
+    }
+
+    /**
+     * Apply the interceptor's Advice to the FakeHttpAsyncClient5, defining it afresh in a child classloader
+     *
+     * @return an instance of the advised client
+     */
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> adviseFakeClient() throws Exception {
+        Class<?> advised = new ByteBuddy()
+                .redefine(FakeHttpAsyncClient5.class)
+                .visit(Advice.to(ApacheHttpAsyncClient5Interceptor.ExecuteAdvice.class).on(new ApacheHttpAsyncClient5Interceptor().buildMethodMatcher()))
+                .make()
+                .load(ApacheHttpAsyncClient5InterceptorTests.class.getClassLoader(), ClassLoadingStrategy.Default.CHILD_FIRST)
+                .getLoaded();
+        return (Supplier<Object>) advised.getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * A client with execute() methods shaped like those of CloseableHttpAsyncClient, which records the callback it is
+     * given, and throws if given a context
+     */
+    public static class FakeHttpAsyncClient5 implements Supplier<Object> {
+        private Object callback;
+
+        public Object execute(HttpRequest request, Object context, FutureCallback<HttpResponse> callback) {
+            this.callback = callback;
+            if (context != null) {
+                throw new IllegalStateException();
+            }
+            return null;
+        }
+
+        public Object execute(HttpRequest request, FutureCallback<HttpResponse> callback) {
+            return execute(request, null, callback);
+        }
+
+        public Object execute(Object requestProducer, Object responseConsumer, FutureCallback<HttpResponse> callback) {
+            return null;
+        }
+
+        @Override
+        public Object get() {
+            return callback;
+        }
+    }
+}
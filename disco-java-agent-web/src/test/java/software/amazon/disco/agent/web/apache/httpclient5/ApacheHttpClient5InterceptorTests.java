@@ -0,0 +1,199 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.apache.httpclient5;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.web.apache.source.MockEventBusListener;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ApacheHttpClient5InterceptorTests {
+    private MockEventBusListener mockEventBusListener;
+    private ClassicHttpRequest request;
+    private ClassicHttpResponse response;
+
+    @Before
+    public void before() throws Exception {
+        mockEventBusListener = new MockEventBusListener();
+        TransactionContext.create();
+        EventBus.addListener(mockEventBusListener);
+        request = mock(ClassicHttpRequest.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getUri()).thenReturn(new URI("http://amazon.com/explore/something"));
+        response = mock(ClassicHttpResponse.class);
+        when(response.getCode()).thenReturn(200);
+    }
+
+    @After
+    public void after() {
+        TransactionContext.destroy();
+        EventBus.removeListener(mockEventBusListener);
+    }
+
+    @Test
+    public void testInstallation() {
+        AgentBuilder agentBuilder = mock(AgentBuilder.class);
+        AgentBuilder.Identified.Extendable extendable = mock(AgentBuilder.Identified.Extendable.class);
+        AgentBuilder.Identified.Narrowable narrowable = mock(AgentBuilder.Identified.Narrowable.class);
+        when(agentBuilder.type(any(ElementMatcher.class))).thenReturn(narrowable);
+        when(narrowable.transform(any(AgentBuilder.Transformer.class))).thenReturn(extendable);
+        AgentBuilder result = new ApacheHttpClient5Interceptor().install(agentBuilder);
+        assertSame(extendable, result);
+    }
+
+    @Test
+    public void testClassMatcherSucceedsOnImplementation() {
+        TypeDescription httpClient = new ByteBuddy().makeInterface().name("org.apache.hc.client5.http.classic.HttpClient").make().getTypeDescription();
+        TypeDescription implementation = new ByteBuddy().subclass(Object.class).implement(httpClient).name("test.SomeHttpClient5").make().getTypeDescription();
+        assertTrue(ApacheHttpClient5Interceptor.buildClassMatcher().matches(implementation));
+        assertFalse(ApacheHttpClient5Interceptor.buildClassMatcher().matches(httpClient));
+        assertFalse(ApacheHttpClient5Interceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(String.class)));
+    }
+
+    @Test
+    public void testMethodMatcher() throws Exception {
+        assertTrue(methodMatches(FakeHttpClient5.class.getDeclaredMethod("execute", ClassicHttpRequest.class)));
+        assertTrue(methodMatches(FakeHttpClient5.class.getDeclaredMethod("doExecute", Object.class, ClassicHttpRequest.class, Object.class)));
+        assertFalse(methodMatches(FakeHttpClient5.class.getDeclaredMethod("execute", String.class)));
+        assertFalse(methodMatches(FakeHttpClient5.class.getDeclaredMethod("close")));
+    }
+
+    @Test
+    public void testAdvicePublishesEventsOnceForChainedMethods() throws Throwable {
+        Object client = adviseFakeClient();
+        client.getClass().getField("response").set(client, response);
+        Object result = client.getClass().getMethod("execute", ClassicHttpRequest.class).invoke(client, request);
+
+        assertSame(response, result);
+        List<Event> events = mockEventBusListener.getReceivedEvents();
+        assertEquals(2, events.size());
+        HttpServiceDownstreamRequestEvent requestEvent = (HttpServiceDownstreamRequestEvent) events.get(0);
+        assertEquals(ApacheHttpClient5Accessor.APACHE_HTTP_CLIENT_5_ORIGIN, requestEvent.getOrigin());
+        assertEquals("GET", requestEvent.getMethod());
+        HttpServiceDownstreamResponseEvent responseEvent = (HttpServiceDownstreamResponseEvent) events.get(1);
+        assertEquals(200, responseEvent.getStatusCode());
+        assertSame(requestEvent, responseEvent.getRequest());
+    }
+
+    @Test
+    public void testAdviceRecordsNestedResponseOfResponseHandlerExecute() throws Throwable {
+        Object client = adviseFakeClient();
+        client.getClass().getField("response").set(client, response);
+        Object handled = new Object();
+        Function<ClassicHttpResponse, Object> handler = r -> handled;
+        Object result = client.getClass().getMethod("execute", ClassicHttpRequest.class, Function.class).invoke(client, request, handler);
+
+        assertSame(handled, result);
+        List<Event> events = mockEventBusListener.getReceivedEvents();
+        assertEquals(2, events.size());
+        assertEquals(200, ((HttpServiceDownstreamResponseEvent) events.get(1)).getStatusCode());
+    }
+
+    @Test(expected = IOException.class)
+    public void testAdviceRethrows() throws Throwable {
+        Object client = adviseFakeClient();
+        IOException failure = new IOException();
+        client.getClass().getField("failure").set(client, failure);
+        try {
+            client.getClass().getMethod("execute", ClassicHttpRequest.class).invoke(client, request);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            List<Event> events = mockEventBusListener.getReceivedEvents();
+            assertEquals(2, events.size());
+            assertSame(failure, ((HttpServiceDownstreamResponseEvent) events.get(1)).getThrown());
+        }
+    }
+
+    private static boolean methodMatches(Method method) {
+        return ApacheHttpClient5Interceptor.buildMethodMatcher(new TypeDescription.ForLoadedType(FakeHttpClient5.class))
+                .matches(new MethodDescription.ForLoadedMethod(method));
+    }
+
+    /**
+     * Inline the interceptor's Advice into the FakeHttpClient5, defining it afresh in a child classloader
+     *
+     * @return an instance of the advised client
+     */
+    private static Object adviseFakeClient() throws Exception {
+        return new ByteBuddy()
+                .redefine(FakeHttpClient5.class)
+                .visit(Advice.to(ApacheHttpClient5Interceptor.ExecuteAdvice.class)
+                        .on(ApacheHttpClient5Interceptor.buildMethodMatcher(new TypeDescription.ForLoadedType(FakeHttpClient5.class))))
+                .make()
+                .load(ApacheHttpClient5InterceptorTests.class.getClassLoader(), ClassLoadingStrategy.Default.CHILD_FIRST)
+                .getLoaded()
+                .getDeclaredConstructor()
+                .newInstance();
+    }
+
+    /**
+     * A client with methods shaped like those of CloseableHttpClient, whose execute() methods chain into doExecute()
+     */
+    public static class FakeHttpClient5 {
+        public ClassicHttpResponse response;
+        public IOException failure;
+
+        public ClassicHttpResponse execute(ClassicHttpRequest request) throws IOException {
+            return doExecute(null, request, null);
+        }
+
+        public Object execute(ClassicHttpRequest request, Function<ClassicHttpResponse, Object> responseHandler) throws IOException {
+            return responseHandler.apply(doExecute(null, request, null));
+        }
+
+        protected ClassicHttpResponse doExecute(Object target, ClassicHttpRequest request, Object context) throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            return response;
+        }
+
+        public Object execute(String notARequest) {
+            return null;
+        }
+
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.jdkhttpclient;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.StubMethod;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.event.Listener;
+import software.amazon.disco.agent.web.apache.source.MockEventBusListener;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JdkHttpClientInterceptorTests {
+    private MockEventBusListener mockEventBusListener;
+
+    @Before
+    public void before() {
+        mockEventBusListener = new MockEventBusListener();
+        TransactionContext.create();
+        EventBus.addListener(mockEventBusListener);
+    }
+
+    @After
+    public void after() {
+        TransactionContext.destroy();
+        EventBus.removeListener(mockEventBusListener);
+    }
+
+    @Test
+    public void testInstallation() {
+        AgentBuilder agentBuilder = mock(AgentBuilder.class);
+        AgentBuilder.Ignored ignored = mock(AgentBuilder.Ignored.class);
+        AgentBuilder.Identified.Extendable extendable = mock(AgentBuilder.Identified.Extendable.class);
+        AgentBuilder.Identified.Narrowable narrowable = mock(AgentBuilder.Identified.Narrowable.class);
+        when(agentBuilder.ignore(any(ElementMatcher.class))).thenReturn(ignored);
+        when(ignored.type(any(ElementMatcher.class))).thenReturn(narrowable);
+        when(narrowable.transform(any(AgentBuilder.Transformer.class))).thenReturn(extendable);
+        AgentBuilder result = new JdkHttpClientInterceptor().install(agentBuilder);
+        assertSame(extendable, result);
+    }
+
+    @Test
+    public void testIsDeferrable() {
+        assertTrue(new JdkHttpClientInterceptor().isDeferrable());
+    }
+
+    @Test
+    public void testClassMatcher() {
+        TypeDescription implementation = new ByteBuddy().subclass(Object.class).name(JdkHttpClientInterceptor.HTTP_CLIENT_IMPL).make().getTypeDescription();
+        assertTrue(JdkHttpClientInterceptor.buildClassMatcher().matches(implementation));
+        assertFalse(JdkHttpClientInterceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(String.class)));
+    }
+
+    @Test
+    public void testMethodMatcher() {
+        TypeDescription httpRequest = new ByteBuddy().makeInterface().name("java.net.http.HttpRequest").make().getTypeDescription();
+        TypeDescription object = TypeDescription.OBJECT;
+        TypeDescription client = new ByteBuddy().subclass(Object.class).name("test.SomeHttpClient")
+                .defineMethod("sendAsync", CompletableFuture.class, Visibility.PUBLIC).withParameters(httpRequest, object).intercept(StubMethod.INSTANCE)
+                .defineMethod("sendAsync", CompletableFuture.class, Visibility.PRIVATE).withParameters(httpRequest, object, object, object).intercept(StubMethod.INSTANCE)
+                .defineMethod("sendAsync", CompletableFuture.class, Visibility.PUBLIC).withParameters(object, httpRequest).intercept(StubMethod.INSTANCE)
+                .defineMethod("send", Object.class, Visibility.PUBLIC).withParameters(httpRequest, object).intercept(StubMethod.INSTANCE)
+                .make().getTypeDescription();
+
+        List<Integer> matchingParameterCounts = client.getDeclaredMethods().stream()
+                .filter(m -> JdkHttpClientInterceptor.buildMethodMatcher().matches(m))
+                .map(MethodDescription::getParameters)
+                .map(List::size)
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(2, matchingParameterCounts.size());
+        assertEquals(2, (int) matchingParameterCounts.get(0));
+        assertEquals(4, (int) matchingParameterCounts.get(1));
+    }
+
+    @Test
+    public void testCompletionStagesRunWithinCallerTransaction() throws Exception {
+        Object client = adviseFakeClient();
+        String callerTransactionId = TransactionContext.get();
+        Object request = new Object();
+
+        CompletableFuture<?> future = sendAsync(client, request);
+        AtomicReference<String> stageTransactionId = new AtomicReference<>();
+        CompletableFuture<Object> dependent = future.thenApply(response -> {
+            stageTransactionId.set(TransactionContext.get());
+            return response;
+        });
+
+        //the request is issued, but has not completed
+        List<Event> events = mockEventBusListener.getReceivedEvents();
+        assertEquals(1, events.size());
+        assertTrue(events.get(0) instanceof HttpServiceDownstreamRequestEvent);
+        assertEquals(JdkHttpClientExecution.JDK_HTTP_CLIENT_ORIGIN, events.get(0).getOrigin());
+        assertSame(request, getField(client, "sentRequest"));
+        assertFalse(future.isDone());
+
+        //complete on a selector thread
+        Object response = new Object();
+        CompletableFuture<Object> source = getField(client, "source");
+        Thread selectorThread = new Thread(() -> source.complete(response));
+        selectorThread.start();
+        selectorThread.join();
+
+        assertSame(response, dependent.get());
+        assertEquals(callerTransactionId, stageTransactionId.get());
+        List<HttpServiceDownstreamResponseEvent> responseEvents = responseEvents();
+        assertEquals(1, responseEvents.size());
+        assertSame(events.get(0), responseEvents.get(0).getRequest());
+        assertNull(responseEvents.get(0).getThrown());
+    }
+
+    @Test
+    public void testNestedSendAsyncPublishesOnce() throws Exception {
+        Object client = adviseFakeClient();
+        CompletableFuture<?> future = (CompletableFuture<?>) client.getClass().getMethod("sendAsync", Object.class).invoke(client, new Object());
+        CompletableFuture<Object> source = getField(client, "source");
+        source.complete(new Object());
+
+        assertTrue(future.isDone());
+        assertEquals(1, mockEventBusListener.getReceivedEvents().stream().filter(e -> e instanceof HttpServiceDownstreamRequestEvent).count());
+        assertEquals(1, responseEvents().size());
+    }
+
+    @Test
+    public void testFailedExchangePublishesCause() throws Exception {
+        Object client = adviseFakeClient();
+        CompletableFuture<?> future = sendAsync(client, new Object());
+        CompletableFuture<Object> source = getField(client, "source");
+        IOException ioe = new IOException();
+        source.completeExceptionally(new CompletionException(ioe));
+
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(ioe, e.getCause());
+        }
+        assertSame(ioe, responseEvents().get(0).getThrown());
+    }
+
+    @Test
+    public void testCancelPropagatesToSource() throws Exception {
+        Object client = adviseFakeClient();
+        CompletableFuture<?> future = sendAsync(client, new Object());
+        CompletableFuture<Object> source = getField(client, "source");
+
+        assertTrue(future.cancel(true));
+        assertTrue(source.isCancelled());
+        assertEquals(1, responseEvents().size());
+    }
+
+    @Test
+    public void testSendAsyncThrowingPublishesResponse() throws Exception {
+        Object client = adviseFakeClient();
+        client.getClass().getField("failure").set(client, new IllegalArgumentException());
+        try {
+            sendAsync(client, new Object());
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+
+        List<Event> events = mockEventBusListener.getReceivedEvents();
+        assertEquals(2, events.size());
+        assertTrue(((HttpServiceDownstreamResponseEvent) events.get(1)).getThrown() instanceof IllegalArgumentException);
+
+        //and the thread's state was unwound
+        client.getClass().getField("failure").set(client, null);
+        sendAsync(client, new Object());
+        assertEquals(3, events.size());
+    }
+
+    @Test
+    public void testFailedRequestPublishingLeavesNextCallOutermost() throws Exception {
+        Object client = adviseFakeClient();
+        Listener failingListener = new Listener() {
+            @Override
+            public int getPriority() {
+                return 0;
+            }
+
+            @Override
+            public void listen(Event e) {
+                throw new AssertionError();
+            }
+        };
+        EventBus.addListener(failingListener);
+        try {
+            sendAsync(client, new Object());
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof AssertionError);
+        } finally {
+            EventBus.removeListener(failingListener);
+        }
+
+        mockEventBusListener.getReceivedEvents().clear();
+        sendAsync(client, new Object());
+        assertEquals(1, mockEventBusListener.getReceivedEvents().stream().filter(e -> e instanceof HttpServiceDownstreamRequestEvent).count());
+    }
+
+    @Test
+    public void testReplacedHeaderRefusedOnceSent() throws Exception {
+        sendAsync(adviseFakeClient(), new Object());
+        JdkHttpServiceDownstreamRequestEvent requestEvent = (JdkHttpServiceDownstreamRequestEvent) mockEventBusListener.getReceivedEvents().get(0);
+        assertFalse(requestEvent.replaceHeader("X-Late", "value"));
+    }
+
+    private List<HttpServiceDownstreamResponseEvent> responseEvents() {
+        return mockEventBusListener.getReceivedEvents().stream()
+                .filter(e -> e instanceof HttpServiceDownstreamResponseEvent)
+                .map(e -> (HttpServiceDownstreamResponseEvent) e)
+                .collect(Collectors.toList());
+    }
+
+    private static CompletableFuture<?> sendAsync(Object client, Object request) throws Exception {
+        return (CompletableFuture<?>) client.getClass().getMethod("sendAsync", Object.class, Object.class).invoke(client, request, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T getField(Object client, String name) throws Exception {
+        return (T) client.getClass().getField(name).get(client);
+    }
+
+    /**
+     * Apply the interceptor's Advice to the FakeHttpClient, defining it afresh in a child classloader
+     *
+     * @return an instance of the advised client
+     */
+    private static Object adviseFakeClient() throws Exception {
+        Class<?> advised = new ByteBuddy()
+                .redefine(FakeHttpClient.class)
+                .visit(Advice.to(JdkHttpClientInterceptor.SendAsyncAdvice.class).on(ElementMatchers.named("sendAsync")))
+                .make()
+                .load(JdkHttpClientInterceptorTests.class.getClassLoader(), ClassLoadingStrategy.Default.CHILD_FIRST)
+                .getLoaded();
+        return advised.getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * A client with sendAsync() methods shaped like those of HttpClientImpl, with Object in place of the java.net.http
+     * types, which returns an incomplete future, or throws if given a failure
+     */
+    public static class FakeHttpClient {
+        public CompletableFuture<Object> source;
+        public Object sentRequest;
+        public RuntimeException failure;
+
+        public CompletableFuture<Object> sendAsync(Object request) {
+            return sendAsync(request, null);
+        }
+
+        public CompletableFuture<Object> sendAsync(Object request, Object responseHandler) {
+            if (failure != null) {
+                throw failure;
+            }
+            sentRequest = request;
+            source = new CompletableFuture<>();
+            return source;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.jdkhttpclient;
+
+import org.junit.Assume;
+import org.junit.Test;
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.event.ServiceDownstreamRequestEvent;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiPredicate;
+
+import static org.junit.Assert.*;
+
+/**
+ * The java.net.http API only exists from Java 11, so tests which need real requests and responses are skipped on
+ * older runtimes, and use the API reflectively.
+ */
+public class JdkHttpEventFactoryTests {
+    private static final String URI_STRING = "http://amazon.com/explore/something";
+
+    @Test
+    public void testCreateRequestEventFromOtherObject() {
+        JdkHttpServiceDownstreamRequestEvent event = JdkHttpEventFactory.createDownstreamRequestEvent("Origin", new Object());
+        assertEquals("Origin", event.getOrigin());
+        assertNull(event.getUri());
+        assertNull(event.getMethod());
+    }
+
+    @Test
+    public void testWithReplacedHeadersIgnoresOtherObject() {
+        Object request = new Object();
+        assertSame(request, JdkHttpEventFactory.withReplacedHeaders(request, Collections.singletonMap("X-Trace", "value")));
+    }
+
+    @Test
+    public void testCreateResponseEventWhenThrown() {
+        ServiceDownstreamRequestEvent requestEvent = JdkHttpEventFactory.createDownstreamRequestEvent("Origin", new Object());
+        IOException ioe = new IOException();
+        HttpServiceDownstreamResponseEvent event = (HttpServiceDownstreamResponseEvent) JdkHttpEventFactory.createServiceResponseEvent(null, requestEvent, ioe);
+        assertSame(requestEvent, event.getRequest());
+        assertSame(ioe, event.getThrown());
+        assertTrue(event.getDuration() >= 0);
+    }
+
+    @Test
+    public void testCreateRequestEvent() throws Exception {
+        Object request = buildRequest();
+        JdkHttpServiceDownstreamRequestEvent event = JdkHttpEventFactory.createDownstreamRequestEvent("Origin", request);
+        assertEquals(URI_STRING, event.getUri());
+        assertEquals(URI_STRING, event.getService());
+        assertEquals("POST", event.getMethod());
+        assertEquals("POST", event.getOperation());
+    }
+
+    @Test
+    public void testWithReplacedHeaders() throws Exception {
+        Object request = buildRequest();
+        Map<String, String> replacedHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        replacedHeaders.put("x-trace", "new");
+        replacedHeaders.put("X-New", "value");
+
+        Object rebuilt = JdkHttpEventFactory.withReplacedHeaders(request, replacedHeaders);
+        assertNotSame(request, rebuilt);
+        assertEquals(URI.create(URI_STRING), invoke(rebuilt, "uri"));
+        assertEquals("POST", invoke(rebuilt, "method"));
+        assertEquals(Optional.of(Duration.ofSeconds(5)), invoke(rebuilt, "timeout"));
+        assertTrue(((Optional<?>) invoke(rebuilt, "bodyPublisher")).isPresent());
+
+        Map<String, List<String>> headers = headers(rebuilt);
+        assertEquals(Collections.singletonList("new"), headers.get("X-Trace"));
+        assertEquals(Collections.singletonList("value"), headers.get("X-New"));
+        assertEquals(Arrays.asList("text/plain", "application/json"), headers.get("Accept"));
+        assertEquals(3, headers.size());
+    }
+
+    @Test
+    public void testWithRestrictedReplacedHeaderKeepsRequest() throws Exception {
+        Object request = buildRequest();
+        assertSame(request, JdkHttpEventFactory.withReplacedHeaders(request, Collections.singletonMap("Host", "example.com")));
+    }
+
+    @Test
+    public void testCreateResponseEvent() throws Exception {
+        Class<?> httpResponse = jdkHttpClass("java.net.http.HttpResponse");
+        Class<?> httpHeaders = jdkHttpClass("java.net.http.HttpHeaders");
+        Object headers = httpHeaders.getMethod("of", Map.class, BiPredicate.class).invoke(null,
+                Collections.singletonMap("content-length", Collections.singletonList("42")),
+                (BiPredicate<String, String>) (name, value) -> true);
+        Object response = Proxy.newProxyInstance(httpResponse.getClassLoader(), new Class<?>[]{httpResponse}, (proxy, method, args) ->
+                method.getName().equals("statusCode") ? 201
+                : method.getName().equals("headers") ? headers
+                : null);
+
+        ServiceDownstreamRequestEvent requestEvent = JdkHttpEventFactory.createDownstreamRequestEvent("Origin", buildRequest());
+        HttpServiceDownstreamResponseEvent event = (HttpServiceDownstreamResponseEvent) JdkHttpEventFactory.createServiceResponseEvent(response, requestEvent, null);
+        assertEquals(201, event.getStatusCode());
+        assertEquals(42, event.getContentLength());
+        assertNull(event.getThrown());
+    }
+
+    /**
+     * Build a POST request with a body, timeout and headers, if the java.net.http API is present
+     * @return the HttpRequest
+     */
+    private static Object buildRequest() throws Exception {
+        Class<?> httpRequest = jdkHttpClass("java.net.http.HttpRequest");
+        Class<?> builderClass = Class.forName("java.net.http.HttpRequest$Builder");
+        Class<?> bodyPublisher = Class.forName("java.net.http.HttpRequest$BodyPublisher");
+        Object body = Class.forName("java.net.http.HttpRequest$BodyPublishers").getMethod("ofString", String.class).invoke(null, "body");
+
+        Object builder = httpRequest.getMethod("newBuilder", URI.class).invoke(null, URI.create(URI_STRING));
+        Method header = builderClass.getMethod("header", String.class, String.class);
+        header.invoke(builder, "X-Trace", "old");
+        header.invoke(builder, "Accept", "text/plain");
+        header.invoke(builder, "Accept", "application/json");
+        builderClass.getMethod("timeout", Duration.class).invoke(builder, Duration.ofSeconds(5));
+        builderClass.getMethod("method", String.class, bodyPublisher).invoke(builder, "POST", body);
+        return builderClass.getMethod("build").invoke(builder);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, List<String>> headers(Object request) throws Exception {
+        Object headers = invoke(request, "headers");
+        return (Map<String, List<String>>) jdkHttpClass("java.net.http.HttpHeaders").getMethod("map").invoke(headers);
+    }
+
+    private static Object invoke(Object request, String methodName) throws Exception {
+        return jdkHttpClass("java.net.http.HttpRequest").getMethod(methodName).invoke(request);
+    }
+
+    /**
+     * Load a class of the java.net.http API, skipping the test if it is absent
+     * @param name the class name
+     * @return the class
+     */
+    private static Class<?> jdkHttpClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            Assume.assumeNoException("java.net.http requires Java 11", e);
+            return null;
+        }
+    }
+}
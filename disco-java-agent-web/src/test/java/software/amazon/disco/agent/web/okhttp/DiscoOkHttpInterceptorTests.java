@@ -0,0 +1,225 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.okhttp;
+
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServiceDownstreamRequestEvent;
+import software.amazon.disco.agent.event.HttpServiceDownstreamResponseEvent;
+import software.amazon.disco.agent.event.Listener;
+import software.amazon.disco.agent.event.ServiceEvent;
+import software.amazon.disco.agent.web.apache.source.MockEventBusListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class DiscoOkHttpInterceptorTests {
+    private static final byte[] BODY = "hello".getBytes();
+
+    private MockEventBusListener mockEventBusListener;
+    private HttpServer server;
+    private AtomicReference<String> receivedHeader;
+    private OkHttpClient client;
+
+    @Before
+    public void before() throws Exception {
+        mockEventBusListener = new MockEventBusListener();
+        TransactionContext.create();
+        EventBus.addListener(mockEventBusListener);
+
+        receivedHeader = new AtomicReference<>();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            receivedHeader.set(exchange.getRequestHeaders().getFirst("X-Disco"));
+            exchange.sendResponseHeaders(202, BODY.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(BODY);
+            }
+        });
+        server.start();
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        DiscoOkHttpInterceptor.addTo(builder);
+        client = builder.build();
+    }
+
+    @After
+    public void after() {
+        TransactionContext.destroy();
+        EventBus.removeListener(mockEventBusListener);
+        server.stop(0);
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    @Test
+    public void testAddToIsIdempotent() {
+        OkHttpClient.Builder builder = client.newBuilder();
+        DiscoOkHttpInterceptor.addTo(builder);
+        List<Interceptor> interceptors = builder.build().interceptors();
+        assertEquals(1, interceptors.size());
+        assertTrue(interceptors.get(0) instanceof DiscoOkHttpInterceptor);
+    }
+
+    @Test
+    public void testExecutePublishesEvents() throws Exception {
+        Request request = new Request.Builder().url(url()).build();
+        try (Response response = client.newCall(request).execute()) {
+            assertEquals(202, response.code());
+        }
+
+        List<Event> events = receivedServiceEvents();
+        assertEquals(2, events.size());
+        HttpServiceDownstreamRequestEvent requestEvent = (HttpServiceDownstreamRequestEvent) events.get(0);
+        assertEquals(DiscoOkHttpInterceptor.OKHTTP_ORIGIN, requestEvent.getOrigin());
+        assertEquals(url(), requestEvent.getUri());
+        assertEquals("GET", requestEvent.getMethod());
+        assertSame(request, requestEvent.getRequest());
+
+        HttpServiceDownstreamResponseEvent responseEvent = (HttpServiceDownstreamResponseEvent) events.get(1);
+        assertSame(requestEvent, responseEvent.getRequest());
+        assertEquals(202, responseEvent.getStatusCode());
+        assertEquals(BODY.length, responseEvent.getContentLength());
+        assertTrue(responseEvent.getResponse() instanceof Response);
+        assertNull(responseEvent.getThrown());
+    }
+
+    @Test
+    public void testReplacedHeaderIsSent() throws Exception {
+        Listener headerListener = new Listener() {
+            @Override
+            public int getPriority() {
+                return 0;
+            }
+
+            @Override
+            public void listen(Event event) {
+                if (event instanceof OkHttpServiceDownstreamRequestEvent) {
+                    ((OkHttpServiceDownstreamRequestEvent) event).replaceHeader("X-Disco", "value");
+                }
+            }
+        };
+        EventBus.addListener(headerListener);
+        try {
+            client.newCall(new Request.Builder().url(url()).header("x-disco", "original").build()).execute().close();
+        } finally {
+            EventBus.removeListener(headerListener);
+        }
+        assertEquals("value", receivedHeader.get());
+
+        //and no further headers may be replaced
+        OkHttpServiceDownstreamRequestEvent requestEvent = (OkHttpServiceDownstreamRequestEvent) receivedServiceEvents().get(0);
+        assertFalse(requestEvent.replaceHeader("X-Late", "value"));
+    }
+
+    @Test
+    public void testFailedCallPublishesThrown() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        try {
+            client.newCall(new Request.Builder().url("http://127.0.0.1:" + port + "/").build()).execute();
+            fail();
+        } catch (IOException e) {
+            HttpServiceDownstreamResponseEvent responseEvent = (HttpServiceDownstreamResponseEvent) receivedServiceEvents().get(1);
+            assertSame(e, responseEvent.getThrown());
+            assertNull(responseEvent.getResponse());
+        }
+    }
+
+    @Test
+    public void testEnqueuedCallRunsWithinCallerTransaction() throws Exception {
+        String callerTransactionId = TransactionContext.get();
+        AtomicReference<String> listenerTransactionId = new AtomicReference<>();
+        AtomicReference<String> callbackTransactionId = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        Listener transactionListener = new Listener() {
+            @Override
+            public int getPriority() {
+                return 0;
+            }
+
+            @Override
+            public void listen(Event event) {
+                if (event instanceof OkHttpServiceDownstreamRequestEvent) {
+                    listenerTransactionId.set(TransactionContext.get());
+                }
+            }
+        };
+
+        Call call = client.newCall(new Request.Builder().url(url()).build());
+        Callback callback = new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+                callbackTransactionId.set(TransactionContext.get());
+                latch.countDown();
+            }
+        };
+
+        EventBus.addListener(transactionListener);
+        try {
+            //as the OkHttpCallInterceptor's Advice would on entry to enqueue()
+            call.enqueue((Callback) DiscoOkHttpCallback.decorate(call, callback));
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            EventBus.removeListener(transactionListener);
+        }
+
+        assertEquals(callerTransactionId, listenerTransactionId.get());
+        assertEquals(callerTransactionId, callbackTransactionId.get());
+    }
+
+    /**
+     * Get the service events received, ignoring any other events, such as those published by exiting dispatcher
+     * threads of earlier tests.
+     */
+    private List<Event> receivedServiceEvents() {
+        return mockEventBusListener.getReceivedEvents().stream()
+                .filter(ServiceEvent.class::isInstance)
+                .collect(Collectors.toList());
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/path";
+    }
+}
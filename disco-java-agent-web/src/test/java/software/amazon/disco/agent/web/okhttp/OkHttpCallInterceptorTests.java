@@ -0,0 +1,185 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.okhttp;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.matcher.ElementMatcher;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Timeout;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OkHttpCallInterceptorTests {
+    @Before
+    public void before() {
+        TransactionContext.create();
+    }
+
+    @After
+    public void after() {
+        TransactionContext.destroy();
+    }
+
+    @Test
+    public void testInstallation() {
+        AgentBuilder agentBuilder = mock(AgentBuilder.class);
+        AgentBuilder.Identified.Extendable extendable = mock(AgentBuilder.Identified.Extendable.class);
+        AgentBuilder.Identified.Narrowable narrowable = mock(AgentBuilder.Identified.Narrowable.class);
+        when(agentBuilder.type(any(ElementMatcher.class))).thenReturn(narrowable);
+        when(narrowable.transform(any(AgentBuilder.Transformer.class))).thenReturn(extendable);
+        AgentBuilder result = new OkHttpCallInterceptor().install(agentBuilder);
+        assertSame(extendable, result);
+    }
+
+    @Test
+    public void testIsDeferrable() {
+        assertTrue(new OkHttpCallInterceptor().isDeferrable());
+    }
+
+    @Test
+    public void testClassMatcher() throws Exception {
+        assertTrue(OkHttpCallInterceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(Class.forName("okhttp3.RealCall"))));
+        assertTrue(OkHttpCallInterceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(FakeCall.class)));
+        assertFalse(OkHttpCallInterceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(Call.class)));
+        assertFalse(OkHttpCallInterceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(String.class)));
+    }
+
+    @Test
+    public void testMethodMatcher() throws Exception {
+        assertTrue(methodMatches(FakeCall.class.getDeclaredMethod("enqueue", Callback.class)));
+        assertFalse(methodMatches(FakeCall.class.getDeclaredMethod("execute")));
+        assertFalse(methodMatches(Call.class.getDeclaredMethod("enqueue", Callback.class)));
+    }
+
+    @Test
+    public void testEnqueueRunsCallbackWithinCallerTransaction() throws Exception {
+        Supplier<Object> call = adviseFakeCall();
+        String callerTransactionId = TransactionContext.get();
+        AtomicReference<String> callbackTransactionId = new AtomicReference<>();
+        Callback callback = new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                callbackTransactionId.set(TransactionContext.get());
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+            }
+        };
+
+        call.getClass().getMethod("enqueue", Callback.class).invoke(call, callback);
+        Callback decorated = (Callback) call.get();
+        assertTrue(decorated instanceof DiscoOkHttpCallback);
+        assertSame(callback, ((DiscoOkHttpCallback) decorated).getTarget());
+
+        //fail on a dispatcher thread
+        Thread dispatcherThread = new Thread(() -> decorated.onFailure((Call) call, new IOException()));
+        dispatcherThread.start();
+        dispatcherThread.join();
+        assertEquals(callerTransactionId, callbackTransactionId.get());
+    }
+
+    private static boolean methodMatches(Method method) {
+        return OkHttpCallInterceptor.buildMethodMatcher().matches(new MethodDescription.ForLoadedMethod(method));
+    }
+
+    /**
+     * Apply the interceptor's Advice to the FakeCall, defining it afresh in a child classloader
+     *
+     * @return an instance of the advised call
+     */
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> adviseFakeCall() throws Exception {
+        Class<?> advised = new ByteBuddy()
+                .redefine(FakeCall.class)
+                .visit(Advice.to(OkHttpCallInterceptor.EnqueueAdvice.class).on(OkHttpCallInterceptor.buildMethodMatcher()))
+                .make()
+                .load(OkHttpCallInterceptorTests.class.getClassLoader(), ClassLoadingStrategy.Default.CHILD_FIRST)
+                .getLoaded();
+        return (Supplier<Object>) advised.getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * A Call which records the callback it is given
+     */
+    public static class FakeCall implements Call, Supplier<Object> {
+        private Object callback;
+
+        @Override
+        public Request request() {
+            return null;
+        }
+
+        @Override
+        public Response execute() {
+            return null;
+        }
+
+        @Override
+        public void enqueue(Callback responseCallback) {
+            this.callback = responseCallback;
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return false;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return false;
+        }
+
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+
+        @Override
+        public Call clone() {
+            return this;
+        }
+
+        @Override
+        public Object get() {
+            return callback;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.okhttp;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import okhttp3.OkHttpClient;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OkHttpClientBuilderInterceptorTests {
+    @Test
+    public void testInstallation() {
+        AgentBuilder agentBuilder = mock(AgentBuilder.class);
+        AgentBuilder.Identified.Extendable extendable = mock(AgentBuilder.Identified.Extendable.class);
+        AgentBuilder.Identified.Narrowable narrowable = mock(AgentBuilder.Identified.Narrowable.class);
+        when(agentBuilder.type(any(ElementMatcher.class))).thenReturn(narrowable);
+        when(narrowable.transform(any(AgentBuilder.Transformer.class))).thenReturn(extendable);
+        AgentBuilder result = new OkHttpClientBuilderInterceptor().install(agentBuilder);
+        assertSame(extendable, result);
+    }
+
+    @Test
+    public void testIsNotDeferrable() {
+        assertFalse(new OkHttpClientBuilderInterceptor().isDeferrable());
+    }
+
+    @Test
+    public void testClassMatcher() {
+        assertTrue(OkHttpClientBuilderInterceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(OkHttpClient.Builder.class)));
+        assertFalse(OkHttpClientBuilderInterceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(OkHttpClient.class)));
+    }
+
+    @Test
+    public void testMethodMatcher() throws Exception {
+        assertTrue(methodMatches(OkHttpClient.Builder.class.getDeclaredMethod("build")));
+        assertFalse(methodMatches(OkHttpClient.Builder.class.getDeclaredMethod("retryOnConnectionFailure", boolean.class)));
+    }
+
+    private static boolean methodMatches(Method method) {
+        return OkHttpClientBuilderInterceptor.buildMethodMatcher().matches(new MethodDescription.ForLoadedMethod(method));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.servlet;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.lang.reflect.Method;
+
+public class HttpServletAsyncContextInterceptorTests {
+    private HttpServletAsyncContextInterceptor interceptor;
+
+    @Before
+    public void before() {
+        interceptor = new HttpServletAsyncContextInterceptor();
+    }
+
+    @Test
+    public void testClassMatcherSucceedsOnImplementation() {
+        Assert.assertTrue(classMatches(FakeAsyncContext.class));
+    }
+
+    @Test
+    public void testClassMatcherSucceedsOnJakartaImplementation() {
+        jakarta.servlet.AsyncContext asyncContext = Mockito.mock(jakarta.servlet.AsyncContext.class);
+        Assert.assertTrue(classMatches(asyncContext.getClass()));
+    }
+
+    @Test
+    public void testClassMatcherFailsOnInterface() {
+        Assert.assertFalse(classMatches(AsyncContext.class));
+    }
+
+    @Test
+    public void testClassMatcherFailsOnUnrelatedClass() {
+        Assert.assertFalse(classMatches(String.class));
+    }
+
+    @Test
+    public void testMethodMatcherSucceedsOnStart() throws Exception {
+        Assert.assertTrue(methodMatches(FakeAsyncContext.class.getDeclaredMethod("start", Runnable.class)));
+    }
+
+    @Test
+    public void testMethodMatcherFailsOnAbstractStart() throws Exception {
+        Assert.assertFalse(methodMatches(AsyncContext.class.getDeclaredMethod("start", Runnable.class)));
+    }
+
+    @Test
+    public void testMethodMatcherFailsOnOtherMethods() throws Exception {
+        Assert.assertFalse(methodMatches(FakeAsyncContext.class.getDeclaredMethod("complete")));
+        Assert.assertFalse(methodMatches(FakeAsyncContext.class.getDeclaredMethod("dispatch", String.class)));
+    }
+
+    @Test
+    public void testIsDeferrable() {
+        Assert.assertTrue(interceptor.isDeferrable());
+    }
+
+    @Test
+    public void testInstall() {
+        AgentBuilder agentBuilder = Mockito.mock(AgentBuilder.class);
+        AgentBuilder.Identified.Extendable extendable = Mockito.mock(AgentBuilder.Identified.Extendable.class);
+        AgentBuilder.Identified.Narrowable narrowable = Mockito.mock(AgentBuilder.Identified.Narrowable.class);
+        Mockito.when(agentBuilder.type(Mockito.any(ElementMatcher.class))).thenReturn(narrowable);
+        Mockito.when(narrowable.transform(Mockito.any(AgentBuilder.Transformer.class))).thenReturn(extendable);
+        AgentBuilder result = interceptor.install(agentBuilder);
+        Assert.assertSame(extendable, result);
+    }
+
+    private boolean classMatches(Class<?> clazz) {
+        return interceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(clazz));
+    }
+
+    private boolean methodMatches(Method method) {
+        return interceptor.buildMethodMatcher().matches(new MethodDescription.ForLoadedMethod(method));
+    }
+
+    public static class FakeAsyncContext implements AsyncContext {
+        @Override public ServletRequest getRequest() { return null; }
+        @Override public ServletResponse getResponse() { return null; }
+        @Override public boolean hasOriginalRequestAndResponse() { return false; }
+        @Override public void dispatch() {}
+        @Override public void dispatch(String path) {}
+        @Override public void dispatch(ServletContext context, String path) {}
+        @Override public void complete() {}
+        @Override public void start(Runnable run) {}
+        @Override public void addListener(AsyncListener listener) {}
+        @Override public void addListener(AsyncListener listener, ServletRequest servletRequest, ServletResponse servletResponse) {}
+        @Override public <T extends AsyncListener> T createListener(Class<T> clazz) { return null; }
+        @Override public void setTimeout(long timeout) {}
+        @Override public long getTimeout() { return 0; }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.servlet;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServletNetworkRequestEvent;
+import software.amazon.disco.agent.event.Listener;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class HttpServletFilterInterceptorTests {
+    private HttpServletFilterInterceptor interceptor;
+    private TestListener testListener;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+
+    @Before
+    public void before() {
+        interceptor = new HttpServletFilterInterceptor();
+        EventBus.addListener(testListener = new TestListener());
+        request = Mockito.mock(HttpServletRequest.class);
+        response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(request.getRequestURL()).thenReturn(new StringBuffer("URI"));
+    }
+
+    @After
+    public void after() {
+        EventBus.removeListener(testListener);
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        interceptor.handleArguments(Collections.emptyList());
+        Assert.assertFalse(interceptor.isEnabled());
+        AgentBuilder agentBuilder = Mockito.mock(AgentBuilder.class);
+        Assert.assertSame(agentBuilder, interceptor.install(agentBuilder));
+        Mockito.verifyNoInteractions(agentBuilder);
+    }
+
+    @Test
+    public void testEnabledByArgument() {
+        interceptor.handleArguments(Arrays.asList("verbose", "servletfilters"));
+        Assert.assertTrue(interceptor.isEnabled());
+        AgentBuilder agentBuilder = Mockito.mock(AgentBuilder.class);
+        AgentBuilder.Identified.Extendable extendable = Mockito.mock(AgentBuilder.Identified.Extendable.class);
+        AgentBuilder.Identified.Narrowable narrowable = Mockito.mock(AgentBuilder.Identified.Narrowable.class);
+        Mockito.when(agentBuilder.type(Mockito.any(ElementMatcher.class))).thenReturn(narrowable);
+        Mockito.when(narrowable.transform(Mockito.any(AgentBuilder.Transformer.class))).thenReturn(extendable);
+        Assert.assertSame(extendable, interceptor.install(agentBuilder));
+    }
+
+    @Test
+    public void testClassMatcherSucceedsOnFilterAndFilterChain() {
+        Assert.assertTrue(classMatches(TestFilter.class));
+        Assert.assertTrue(classMatches(TestFilterChain.class));
+    }
+
+    @Test
+    public void testClassMatcherFailsOnInterfacesAndOthers() {
+        Assert.assertFalse(classMatches(Filter.class));
+        Assert.assertFalse(classMatches(FilterChain.class));
+        Assert.assertFalse(classMatches(String.class));
+    }
+
+    @Test
+    public void testClassMatcherJakarta() {
+        Assert.assertFalse(new JakartaHttpServletFilterInterceptor().buildClassMatcher().matches(new TypeDescription.ForLoadedType(TestFilter.class)));
+        Assert.assertTrue(new JakartaHttpServletFilterInterceptor().buildClassMatcher().matches(new TypeDescription.ForLoadedType(
+                Mockito.mock(jakarta.servlet.Filter.class).getClass())));
+    }
+
+    @Test
+    public void testMethodMatcherSucceedsOnDoFilter() throws Exception {
+        Assert.assertTrue(methodMatches(TestFilter.class.getDeclaredMethod("doFilter", ServletRequest.class, ServletResponse.class, FilterChain.class)));
+        Assert.assertTrue(methodMatches(TestFilterChain.class.getDeclaredMethod("doFilter", ServletRequest.class, ServletResponse.class)));
+    }
+
+    @Test
+    public void testMethodMatcherFailsOnOtherMethods() throws Exception {
+        Assert.assertFalse(methodMatches(TestFilter.class.getDeclaredMethod("init", FilterConfig.class)));
+        Assert.assertFalse(methodMatches(TestFilter.class.getDeclaredMethod("doFilter", ServletRequest.class)));
+        Assert.assertFalse(methodMatches(FilterChain.class.getDeclaredMethod("doFilter", ServletRequest.class, ServletResponse.class)));
+    }
+
+    @Test
+    public void testNestedCallsCreateOneTransaction() throws Exception {
+        AtomicReference<String> servletTransactionId = new AtomicReference<>();
+        //a filter, calling the chain, calling the servlet
+        intercept(new Object[]{request, response, null}, () -> {
+            intercept(new Object[]{request, response}, () -> {
+                intercept(new Object[]{request, response}, () -> {
+                    servletTransactionId.set(TransactionContext.get());
+                    return null;
+                });
+                return null;
+            });
+            return null;
+        });
+
+        Assert.assertEquals(1, testListener.requestCount);
+        Assert.assertEquals(testListener.transactionId, servletTransactionId.get());
+        Assert.assertFalse(TransactionContext.isWithinCreatedContext());
+    }
+
+    @Test
+    public void testNonHttpRequestPassesThrough() throws Exception {
+        ServletRequest plainRequest = Mockito.mock(ServletRequest.class);
+        ServletResponse plainResponse = Mockito.mock(ServletResponse.class);
+        intercept(new Object[]{plainRequest, plainResponse, null}, () -> {
+            //the HttpServlet reached through the chain still begins the transaction
+            intercept(new Object[]{request, response}, () -> null);
+            return null;
+        });
+
+        Assert.assertEquals(1, testListener.requestCount);
+        Mockito.verifyNoInteractions(plainRequest, plainResponse);
+    }
+
+    @Test
+    public void testSequentialRequestsAreEachHandled() throws Exception {
+        intercept(new Object[]{request, response}, () -> null);
+        try {
+            intercept(new Object[]{request, response}, () -> {
+                throw new IllegalStateException();
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            //expected
+        }
+        intercept(new Object[]{request, response}, () -> null);
+
+        Assert.assertEquals(3, testListener.requestCount);
+    }
+
+    /**
+     * Call the Advice as an intercepted doFilter() or service() would, around the given method body.
+     */
+    private static void intercept(Object[] args, Callable<Object> body) throws Exception {
+        Object state = HttpServletServiceInterceptor.ServiceAdvice.onMethodEnter(args[0], args[1]);
+        try {
+            body.call();
+        } finally {
+            HttpServletServiceInterceptor.ServiceAdvice.onMethodExit(state, args[0], args[1]);
+        }
+    }
+
+    private boolean classMatches(Class<?> clazz) {
+        return interceptor.buildClassMatcher().matches(new TypeDescription.ForLoadedType(clazz));
+    }
+
+    private boolean methodMatches(Method method) {
+        return interceptor.buildMethodMatcher().matches(new MethodDescription.ForLoadedMethod(method));
+    }
+
+    public static class TestFilter implements Filter {
+        @Override
+        public void init(FilterConfig filterConfig) {
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) {
+        }
+
+        public void doFilter(ServletRequest request) {
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    public static class TestFilterChain implements FilterChain {
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) {
+        }
+    }
+
+    static class TestListener implements Listener {
+        int requestCount;
+        String transactionId;
+
+        @Override
+        public int getPriority() {
+            return 0;
+        }
+
+        @Override
+        public void listen(Event e) {
+            if (e instanceof HttpServletNetworkRequestEvent) {
+                requestCount++;
+                transactionId = TransactionContext.get();
+            }
+        }
+    }
+}
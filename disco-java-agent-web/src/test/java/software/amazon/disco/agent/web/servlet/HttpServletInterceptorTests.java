@@ -15,20 +15,28 @@
 
 package software.amazon.disco.agent.web.servlet;
 
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.asm.Advice;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import software.amazon.disco.agent.concurrent.TransactionContext;
 import software.amazon.disco.agent.event.AbstractTransactionEvent;
 import software.amazon.disco.agent.event.Event;
 import software.amazon.disco.agent.event.EventBus;
 import software.amazon.disco.agent.event.HttpServletNetworkRequestEvent;
 import software.amazon.disco.agent.event.HttpServletNetworkResponseEvent;
 import software.amazon.disco.agent.event.Listener;
+import software.amazon.disco.agent.event.TransactionEndEvent;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
@@ -41,6 +49,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
 
@@ -225,12 +235,7 @@ public class HttpServletInterceptorTests {
     @Test
     public void testHTTPServletServiceInterceptor() throws Throwable {
         Callable<Object> zuper = () -> null;
-        Object[] args = new Object[2];
-        args[0] = request;
-        args[1] = response;
-        HttpServletServiceMethodDelegation.service(args, testServlet,
-                "FakeMethodName",
-                zuper);
+        service(request, response, zuper);
 
         Assert.assertNotNull(testListener.request);
         Assert.assertEquals(request, testListener.request.getRequest());
@@ -249,6 +254,144 @@ public class HttpServletInterceptorTests {
         Assert.assertEquals(testListener.request, testListener.response.getHttpRequestEvent());
     }
 
+    @Test
+    public void testHTTPServletServiceInterceptorReadsHeadersLazily() throws Throwable {
+        testListener.readHeaders = false;
+        Callable<Object> zuper = () -> null;
+        service(request, response, zuper);
+
+        Mockito.verify(request, Mockito.never()).getHeaderNames();
+        Mockito.verify(response, Mockito.never()).getHeaderNames();
+    }
+
+    @Test
+    public void testHTTPServletServiceInterceptorReadsHeadersOnce() throws Throwable {
+        Callable<Object> zuper = () -> null;
+        service(request, response, zuper);
+
+        Assert.assertEquals("somedata", testListener.request.getFirstHeader("someheader"));
+        Assert.assertEquals("somedata", testListener.request.getFirstHeader("someheader"));
+        Assert.assertEquals("somedata", testListener.response.getFirstHeader("someresponseheader"));
+        Mockito.verify(request, Mockito.times(1)).getHeaderNames();
+        Mockito.verify(response, Mockito.times(1)).getHeaderNames();
+    }
+
+    @Test
+    public void testHTTPServletServiceInterceptorDropsUnreadHeadersOnExit() throws Throwable {
+        testListener.readHeaders = false;
+        Callable<Object> zuper = () -> null;
+        service(request, response, zuper);
+
+        //the container may recycle the request and response once the exchange is complete, so they must not be read
+        Assert.assertNull(testListener.request.getFirstHeader("someheader"));
+        Assert.assertNull(testListener.response.getFirstHeader("someresponseheader"));
+        Mockito.verify(request, Mockito.never()).getHeaderNames();
+        Mockito.verify(response, Mockito.never()).getHeaderNames();
+    }
+
+    @Test
+    public void testHTTPServletServiceInterceptorWithHeaderAllowlist() throws Throwable {
+        new HttpServletServiceInterceptor().handleArguments(Collections.singletonList("servletheaders=someheader,someresponseheader"));
+        try {
+            service(request, response, () -> null);
+
+            Assert.assertEquals("somedata", testListener.request.getFirstHeader("someheader"));
+            Assert.assertEquals("somedata", testListener.response.getFirstHeader("someresponseheader"));
+            Mockito.verify(request, Mockito.never()).getHeaderNames();
+            Mockito.verify(response, Mockito.never()).getHeaderNames();
+        } finally {
+            new HttpServletServiceInterceptor().handleArguments(Collections.emptyList());
+        }
+    }
+
+    @Test
+    public void testHTTPServletServiceInterceptorAsyncRequest() throws Throwable {
+        AsyncContext asyncContext = Mockito.mock(AsyncContext.class);
+        Mockito.when(request.isAsyncStarted()).thenReturn(true);
+        Mockito.when(request.getAsyncContext()).thenReturn(asyncContext);
+
+        service(request, response, () -> null);
+
+        //the servicing thread has returned, but the request is not complete
+        Assert.assertNotNull(testListener.request);
+        Assert.assertNull(testListener.response);
+        Assert.assertEquals(0, testListener.transactionEnds);
+        Assert.assertFalse(TransactionContext.isWithinCreatedContext());
+
+        ArgumentCaptor<AsyncListener> listenerCaptor = ArgumentCaptor.forClass(AsyncListener.class);
+        Mockito.verify(asyncContext).addListener(listenerCaptor.capture());
+        ArgumentCaptor<Object> contextCaptor = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(request).setAttribute(Mockito.eq(HttpServletServiceHandler.ASYNC_TRANSACTION_CONTEXT_ATTRIBUTE), contextCaptor.capture());
+        Assert.assertTrue(contextCaptor.getValue() instanceof ConcurrentMap);
+
+        //the async request completes on another thread
+        Thread completer = new Thread(() -> {
+            try {
+                listenerCaptor.getValue().onComplete(null);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        completer.start();
+        completer.join();
+
+        Assert.assertNotNull(testListener.response);
+        Assert.assertEquals(200, testListener.response.getStatusCode());
+        Assert.assertEquals(testListener.requestTransactionId, testListener.responseTransactionId);
+        Assert.assertEquals(1, testListener.transactionEnds);
+    }
+
+    @Test
+    public void testHTTPServletServiceInterceptorAsyncRequestDropsUnreadHeadersOnCompletion() throws Throwable {
+        testListener.readHeaders = false;
+        AsyncContext asyncContext = Mockito.mock(AsyncContext.class);
+        Mockito.when(request.isAsyncStarted()).thenReturn(true);
+        Mockito.when(request.getAsyncContext()).thenReturn(asyncContext);
+
+        service(request, response, () -> null);
+        ArgumentCaptor<AsyncListener> listenerCaptor = ArgumentCaptor.forClass(AsyncListener.class);
+        Mockito.verify(asyncContext).addListener(listenerCaptor.capture());
+        listenerCaptor.getValue().onComplete(null);
+
+        Assert.assertNull(testListener.request.getFirstHeader("someheader"));
+        Assert.assertNull(testListener.response.getFirstHeader("someresponseheader"));
+        Mockito.verify(request, Mockito.never()).getHeaderNames();
+        Mockito.verify(response, Mockito.never()).getHeaderNames();
+    }
+
+    @Test
+    public void testHTTPServletServiceInterceptorAsyncDispatchAdoptsTransaction() throws Throwable {
+        AsyncContext asyncContext = Mockito.mock(AsyncContext.class);
+        Mockito.when(request.isAsyncStarted()).thenReturn(true);
+        Mockito.when(request.getAsyncContext()).thenReturn(asyncContext);
+        service(request, response, () -> null);
+        ArgumentCaptor<Object> contextCaptor = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(request).setAttribute(Mockito.eq(HttpServletServiceHandler.ASYNC_TRANSACTION_CONTEXT_ATTRIBUTE), contextCaptor.capture());
+        HttpServletNetworkRequestEvent requestEvent = testListener.request;
+
+        //the container dispatches the request back into a servlet, on another thread
+        Mockito.when(request.getAttribute(HttpServletServiceHandler.ASYNC_TRANSACTION_CONTEXT_ATTRIBUTE)).thenReturn(contextCaptor.getValue());
+        AtomicReference<String> dispatchTransactionId = new AtomicReference<>();
+        Thread dispatcher = new Thread(() -> {
+            try {
+                service(request, response, () -> {
+                    dispatchTransactionId.set(TransactionContext.get());
+                    return null;
+                });
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+            Assert.assertFalse(TransactionContext.isWithinCreatedContext());
+        });
+        dispatcher.start();
+        dispatcher.join();
+
+        Assert.assertSame(requestEvent, testListener.request);
+        Assert.assertEquals(testListener.requestTransactionId, dispatchTransactionId.get());
+        Assert.assertNull(testListener.response);
+        Assert.assertEquals(0, testListener.transactionEnds);
+    }
+
     @Test
     public void testHTTPServletServiceInterceptorExceptionHandling() {
         Callable<Object> zuper = () -> {
@@ -256,12 +399,9 @@ public class HttpServletInterceptorTests {
             throw new ClassCastException();
         };
 
-        Object[] args = new Object[2];
-        args[0] = request;
-        args[1] = response;
 
         try {
-            HttpServletServiceMethodDelegation.service(args, testServlet, "FakeMethodName", zuper);
+            service(request, response, zuper);
 
             //should throw exception and not run this line
             Assert.fail();
@@ -283,9 +423,61 @@ public class HttpServletInterceptorTests {
         }
     }
 
+    @Test
+    public void testAdviceInlinedIntoServlet() throws Exception {
+        HttpServlet servlet = (HttpServlet) new ByteBuddy()
+                .redefine(RecursingServlet.class)
+                .visit(Advice.to(HttpServletServiceInterceptor.ServiceAdvice.class).on(new HttpServletServiceInterceptor().buildMethodMatcher()))
+                .make()
+                .load(HttpServletInterceptorTests.class.getClassLoader(), ClassLoadingStrategy.Default.CHILD_FIRST)
+                .getLoaded()
+                .getDeclaredConstructor()
+                .newInstance();
+
+        servlet.service((ServletRequest) request, response);
+
+        //the nested service() calls are passed through
+        Assert.assertEquals(3, servlet.getClass().getField("calls").getInt(servlet));
+        Assert.assertNotNull(testListener.request);
+        Assert.assertNotNull(testListener.response);
+        Assert.assertEquals(1, testListener.transactionEnds);
+        Assert.assertFalse(TransactionContext.isWithinCreatedContext());
+    }
+
+    /**
+     * Call the Advice as an intercepted service() would, around the given method body.
+     */
+    private static void service(Object request, Object response, Callable<Object> body) throws Exception {
+        Object state = HttpServletServiceInterceptor.ServiceAdvice.onMethodEnter(request, response);
+        try {
+            body.call();
+        } finally {
+            HttpServletServiceInterceptor.ServiceAdvice.onMethodExit(state, request, response);
+        }
+    }
+
+    /**
+     * A servlet whose service() calls itself, as subclasses calling their parents' service() do
+     */
+    public static class RecursingServlet extends HttpServlet {
+        public int calls;
+
+        @Override
+        protected void service(HttpServletRequest req, HttpServletResponse res) throws ServletException, IOException {
+            if (++calls < 3) {
+                service(req, res);
+            }
+        }
+    }
+
     private static class TestListener implements Listener {
         HttpServletNetworkRequestEvent request;
         HttpServletNetworkResponseEvent response;
+        String requestTransactionId;
+        String responseTransactionId;
+        int transactionEnds;
+        //headers are only readable while the exchange is in progress, so are read as a retaining listener must
+        boolean readHeaders = true;
 
         @Override
         public int getPriority() {
@@ -296,8 +488,18 @@ public class HttpServletInterceptorTests {
         public void listen(Event e) {
             if (e instanceof HttpServletNetworkRequestEvent) {
                 request = (HttpServletNetworkRequestEvent) e;
+                requestTransactionId = TransactionContext.get();
+                if (readHeaders) {
+                    request.getAllHeaders();
+                }
             } else if (e instanceof HttpServletNetworkResponseEvent) {
                 response = (HttpServletNetworkResponseEvent) e;
+                responseTransactionId = TransactionContext.get();
+                if (readHeaders) {
+                    response.getAllHeaders();
+                }
+            } else if (e instanceof TransactionEndEvent) {
+                transactionEnds++;
             } else if (e instanceof AbstractTransactionEvent) {
                 //ignore
             } else {
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+
+package software.amazon.disco.agent.web.servlet;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import software.amazon.disco.agent.concurrent.TransactionContext;
+import software.amazon.disco.agent.event.Event;
+import software.amazon.disco.agent.event.EventBus;
+import software.amazon.disco.agent.event.HttpServletNetworkRequestEvent;
+import software.amazon.disco.agent.event.HttpServletNetworkResponseEvent;
+import software.amazon.disco.agent.event.Listener;
+
+import java.io.IOException;
+import java.util.Collections;
+
+public class JakartaHttpServletInterceptorTests {
+    private TestListener testListener;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+
+    public static class ImplementedServlet extends HttpServlet {
+        @Override
+        public void service(HttpServletRequest req, HttpServletResponse res) throws ServletException, IOException {
+            super.service(req, res);
+        }
+    }
+
+    @Before
+    public void before() {
+        EventBus.addListener(testListener = new TestListener());
+        request = Mockito.mock(HttpServletRequest.class);
+        response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(request.getRequestURL()).thenReturn(new StringBuffer("URI"));
+        Mockito.when(request.getHeaderNames()).thenReturn(Collections.enumeration(Collections.singletonList("someheader")));
+        Mockito.when(request.getHeader("someheader")).thenReturn("somedata");
+        Mockito.when(request.getHeader("host")).thenReturn("example.com");
+        Mockito.when(request.getMethod()).thenReturn("GET");
+        Mockito.when(request.getLocalAddr()).thenReturn("0.0.0.0");
+        Mockito.when(request.getRemoteAddr()).thenReturn("1.1.1.1");
+        Mockito.when(request.getLocalPort()).thenReturn(80);
+        Mockito.when(request.getRemotePort()).thenReturn(100);
+        Mockito.when(response.getHeaderNames()).thenReturn(Collections.singletonList("someresponseheader"));
+        Mockito.when(response.getHeader("someresponseheader")).thenReturn("someresponsedata");
+        Mockito.when(response.getStatus()).thenReturn(202);
+    }
+
+    @After
+    public void after() {
+        EventBus.removeListener(testListener);
+    }
+
+    @Test
+    public void testClassMatcherSucceedsOnJakartaServlet() {
+        Assert.assertTrue(new JakartaHttpServletServiceInterceptor().buildClassMatcher().matches(new TypeDescription.ForLoadedType(ImplementedServlet.class)));
+    }
+
+    @Test
+    public void testClassMatcherFailsOnJavaxServlet() {
+        Assert.assertFalse(new JakartaHttpServletServiceInterceptor().buildClassMatcher().matches(new TypeDescription.ForLoadedType(javax.servlet.http.HttpServlet.class)));
+        Assert.assertFalse(new HttpServletServiceInterceptor().buildClassMatcher().matches(new TypeDescription.ForLoadedType(ImplementedServlet.class)));
+    }
+
+    @Test
+    public void testMethodMatcherSucceedsOnJakartaService() throws Exception {
+        Assert.assertTrue(new JakartaHttpServletServiceInterceptor().buildMethodMatcher().matches(new MethodDescription.ForLoadedMethod(
+                ImplementedServlet.class.getDeclaredMethod("service", HttpServletRequest.class, HttpServletResponse.class))));
+        Assert.assertFalse(new HttpServletServiceInterceptor().buildMethodMatcher().matches(new MethodDescription.ForLoadedMethod(
+                ImplementedServlet.class.getDeclaredMethod("service", HttpServletRequest.class, HttpServletResponse.class))));
+    }
+
+    @Test
+    public void testJakartaServletServiceInterceptor() throws Throwable {
+        service(request, response);
+
+        Assert.assertNotNull(testListener.request);
+        Assert.assertEquals("GET", testListener.request.getMethod());
+        Assert.assertEquals("URI", testListener.request.getURL());
+        Assert.assertEquals("example.com", testListener.request.getHost());
+        Assert.assertEquals(100, testListener.request.getSourcePort());
+        Assert.assertEquals("somedata", testListener.request.getHeaderData("someheader"));
+        Assert.assertSame(request, testListener.request.getRequest());
+
+        Assert.assertNotNull(testListener.response);
+        Assert.assertEquals(202, testListener.response.getStatusCode());
+        Assert.assertEquals("someresponsedata", testListener.response.getHeaderData("someresponseheader"));
+        Assert.assertFalse(TransactionContext.isWithinCreatedContext());
+    }
+
+    @Test
+    public void testJakartaServletServiceInterceptorAsyncRequest() throws Throwable {
+        AsyncContext asyncContext = Mockito.mock(AsyncContext.class);
+        Mockito.when(request.isAsyncStarted()).thenReturn(true);
+        Mockito.when(request.getAsyncContext()).thenReturn(asyncContext);
+
+        service(request, response);
+
+        Assert.assertNotNull(testListener.request);
+        Assert.assertNull(testListener.response);
+        Assert.assertFalse(TransactionContext.isWithinCreatedContext());
+
+        ArgumentCaptor<AsyncListener> listenerCaptor = ArgumentCaptor.forClass(AsyncListener.class);
+        Mockito.verify(asyncContext).addListener(listenerCaptor.capture());
+        Assert.assertTrue(listenerCaptor.getValue() instanceof JakartaHttpServletAsyncListener);
+        listenerCaptor.getValue().onComplete(null);
+
+        Assert.assertNotNull(testListener.response);
+        Assert.assertEquals(202, testListener.response.getStatusCode());
+    }
+
+    static class TestListener implements Listener {
+        HttpServletNetworkRequestEvent request;
+        HttpServletNetworkResponseEvent response;
+
+        @Override
+        public int getPriority() {
+            return 0;
+        }
+
+        @Override
+        public void listen(Event e) {
+            //headers are only readable while the exchange is in progress, so are read as a retaining listener must
+            if (e instanceof HttpServletNetworkRequestEvent) {
+                request = (HttpServletNetworkRequestEvent) e;
+                request.getAllHeaders();
+            } else if (e instanceof HttpServletNetworkResponseEvent) {
+                response = (HttpServletNetworkResponseEvent) e;
+                response.getAllHeaders();
+            }
+        }
+    }
+
+    /**
+     * Call the Advice as an intercepted service() would, around an empty method body.
+     */
+    private static void service(Object request, Object response) {
+        Object state = JakartaHttpServletServiceInterceptor.ServiceAdvice.onMethodEnter(request, response);
+        JakartaHttpServletServiceInterceptor.ServiceAdvice.onMethodExit(state, request, response);
+    }
+}
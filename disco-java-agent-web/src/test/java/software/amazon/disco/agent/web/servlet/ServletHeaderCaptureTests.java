@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.web.servlet;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import software.amazon.disco.agent.metrics.DiscoAgentMetrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ServletHeaderCaptureTests {
+    private static final Map<String, String> HEADERS = new HashMap<>();
+    static {
+        HEADERS.put("host", "amazon.com");
+        HEADERS.put("user-agent", "curl");
+        HEADERS.put("x-custom", "0123456789");
+    }
+
+    @After
+    public void after() {
+        ServletHeaderCapture.configure(Collections.emptyList());
+    }
+
+    @Test
+    public void testCapturesAllHeadersByDefault() {
+        Map<String, List<String>> captured = ServletHeaderCapture.capture(HEADERS::get, HEADERS::keySet);
+        Assert.assertEquals(3, captured.size());
+        Assert.assertEquals(Collections.singletonList("curl"), captured.get("user-agent"));
+    }
+
+    @Test
+    public void testAllowlistDoesNotEnumerateHeaderNames() {
+        ServletHeaderCapture.configure(Arrays.asList("verbose", "servletheaders=Host, x-custom,absent"));
+        AtomicBoolean enumerated = new AtomicBoolean(false);
+        Map<String, List<String>> captured = ServletHeaderCapture.capture(ServletHeaderCaptureTests::getIgnoringCase, () -> {
+            enumerated.set(true);
+            return HEADERS.keySet();
+        });
+        Assert.assertFalse(enumerated.get());
+        Assert.assertEquals(2, captured.size());
+        //without enumeration, the name as configured is the only name known
+        Assert.assertEquals(Collections.singletonList("amazon.com"), captured.get("Host"));
+        Assert.assertEquals(Collections.singletonList("0123456789"), captured.get("x-custom"));
+    }
+
+    @Test
+    public void testMaxBytesCapsCapture() {
+        //"host" + "amazon.com" is 14 bytes, "x-custom" + "0123456789" is 18 bytes
+        ServletHeaderCapture.configure(Arrays.asList("servletheaders=host,x-custom", "servletheadermaxbytes=20"));
+        Map<String, List<String>> captured = ServletHeaderCapture.capture(HEADERS::get, HEADERS::keySet);
+        Assert.assertEquals(Collections.singleton("host"), captured.keySet());
+    }
+
+    @Test
+    public void testInvalidMaxBytesIgnored() {
+        ServletHeaderCapture.configure(Collections.singletonList("servletheadermaxbytes=lots"));
+        Assert.assertEquals(3, ServletHeaderCapture.capture(HEADERS::get, HEADERS::keySet).size());
+    }
+
+    @Test
+    public void testCapturedBytesRecorded() {
+        ServletHeaderCapture.configure(Collections.singletonList("servletheaders=host"));
+        long bytesBefore = DiscoAgentMetrics.getCapturedHeaderBytes();
+        long capturesBefore = DiscoAgentMetrics.getHeaderCaptureCount();
+        ServletHeaderCapture.capture(HEADERS::get, HEADERS::keySet);
+        Assert.assertEquals(14L, DiscoAgentMetrics.getCapturedHeaderBytes() - bytesBefore);
+        Assert.assertEquals(1L, DiscoAgentMetrics.getHeaderCaptureCount() - capturesBefore);
+    }
+
+    @Test
+    public void testEmptyCaptureNotRecorded() {
+        ServletHeaderCapture.configure(Collections.singletonList("servletheaders=absent"));
+        long capturesBefore = DiscoAgentMetrics.getHeaderCaptureCount();
+        Assert.assertTrue(ServletHeaderCapture.capture(HEADERS::get, HEADERS::keySet).isEmpty());
+        Assert.assertEquals(0L, DiscoAgentMetrics.getHeaderCaptureCount() - capturesBefore);
+    }
+
+    @Test
+    public void testMaxBytesCountsEncodedBytes() {
+        //"x-name" is 6 bytes, and "caf\u00e9" is 5 bytes when encoded, though only 4 characters
+        Map<String, String> headers = Collections.singletonMap("x-name", "caf\u00e9");
+        ServletHeaderCapture.configure(Collections.singletonList("servletheadermaxbytes=10"));
+        Assert.assertTrue(ServletHeaderCapture.capture(headers::get, headers::keySet).isEmpty());
+        ServletHeaderCapture.configure(Collections.singletonList("servletheadermaxbytes=11"));
+        Assert.assertEquals(1, ServletHeaderCapture.capture(headers::get, headers::keySet).size());
+    }
+
+    @Test
+    public void testEncodedLength() {
+        Assert.assertEquals(0, ServletHeaderCapture.encodedLength(""));
+        Assert.assertEquals(4, ServletHeaderCapture.encodedLength("host"));
+        Assert.assertEquals(2, ServletHeaderCapture.encodedLength("\u00e9"));
+        Assert.assertEquals(3, ServletHeaderCapture.encodedLength("\u20ac"));
+        Assert.assertEquals(4, ServletHeaderCapture.encodedLength("\ud83d\ude00"));
+    }
+
+    @Test
+    public void testThrowingHeaderSourceIsSafe() {
+        Map<String, List<String>> captured = ServletHeaderCapture.capture(HEADERS::get, () -> {
+            throw new IllegalStateException();
+        });
+        Assert.assertTrue(captured.isEmpty());
+    }
+
+    private static String getIgnoringCase(String name) {
+        for (Map.Entry<String, String> entry : HEADERS.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
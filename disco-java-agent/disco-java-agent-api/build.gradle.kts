@@ -16,4 +16,5 @@
 plugins {
     `java-library`
     `maven-publish`
+    id("me.champeau.jmh") version "0.6.6"
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.reflect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of calling a method through a MethodHandleWrapper, compared with a direct call and with the
+ * generic invokeWithArguments entry point which MethodHandleWrapper used to rely on.
+ *
+ * Run with: ./gradlew :disco-java-agent:disco-java-agent-api:jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+@SuppressWarnings("deprecation")
+public class MethodHandleWrapperBenchmark {
+    private static final MethodHandleWrapper WRAPPER = new MethodHandleWrapper(String.class.getName(),
+            ClassLoader.getSystemClassLoader(), "concat", String.class, String.class);
+    private static final MethodHandle HANDLE;
+
+    static {
+        try {
+            HANDLE = MethodHandles.publicLookup().findVirtual(String.class, "concat", MethodType.methodType(String.class, String.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private String receiver = "foo";
+    private String arg = "bar";
+
+    @Benchmark
+    public String directCall() {
+        return receiver.concat(arg);
+    }
+
+    @Benchmark
+    public Object invokeWithArguments() throws Throwable {
+        return HANDLE.invokeWithArguments(receiver, arg);
+    }
+
+    @Benchmark
+    public Object wrapperVarargsInvoke() {
+        return WRAPPER.invoke(receiver, new Object[]{arg});
+    }
+
+    @Benchmark
+    public Object wrapperExactInvoke() {
+        return WRAPPER.invoke(receiver, arg);
+    }
+}
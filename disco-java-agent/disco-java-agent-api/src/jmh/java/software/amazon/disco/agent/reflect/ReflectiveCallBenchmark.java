@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.reflect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.disco.agent.reflect.concurrent.TransactionContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of calling into the agent through the reflect API, compared with a direct call. Since no agent
+ * is loaded here, the 'agent present' benchmarks call a stand-in target method in this class.
+ *
+ * Run with: ./gradlew :disco-java-agent:disco-java-agent-api:jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReflectiveCallBenchmark {
+    private static final ReflectiveCall<String> PREBUILT = ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallBenchmark")
+            .ofMethod("target")
+            .withArgTypes(String.class);
+
+    private String value = "value";
+
+    @Setup
+    public void setup() {
+        ReflectiveCall.setDiscoTemplateClassFound(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ReflectiveCall.resetCache();
+    }
+
+    @Benchmark
+    public String directCall() {
+        return target(value);
+    }
+
+    @Benchmark
+    public String prebuiltReflectiveCall() {
+        return PREBUILT.call(value);
+    }
+
+    @Benchmark
+    public String newReflectiveCallPerInvocation() {
+        return ReflectiveCall.returning(String.class)
+                .ofClass(".reflect.ReflectiveCallBenchmark")
+                .ofMethod("target")
+                .withArgTypes(String.class)
+                .call(value);
+    }
+
+    @Benchmark
+    public String facadeWhenAgentNotPresent() {
+        ReflectiveCall.setDiscoTemplateClassFound(false);
+        try {
+            return TransactionContext.get();
+        } finally {
+            ReflectiveCall.setDiscoTemplateClassFound(true);
+        }
+    }
+
+    /**
+     * Stand-in for a static method inside the agent
+     * @param s an argument
+     * @return the argument
+     */
+    public static String target(String s) {
+        return s;
+    }
+}
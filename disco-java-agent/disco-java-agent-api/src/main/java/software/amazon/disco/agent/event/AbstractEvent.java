@@ -19,11 +19,13 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * All Events inherit from this base class. It contains a Map of data which can be inspected by Listeners
+ * All Events inherit from this base class. Built-in events hold their attributes in fields, and additionally answer
+ * getData() for the names of their attributes. A Map of ad-hoc data, which can be inspected by Listeners, is created on
+ * demand when withData() is first called.
  */
 public abstract class AbstractEvent implements Event {
     protected final String origin;
-    protected final Map<String, Object> data; //needed at all, or should model more concretely in subclasses?
+    protected Map<String, Object> data;
 
     /**
      * Construct a new AbstractEvent
@@ -32,7 +34,6 @@ public abstract class AbstractEvent implements Event {
      */
     public AbstractEvent(String origin) {
         this.origin = origin;
-        this.data = new HashMap<>();
     }
 
     /**
@@ -42,6 +43,9 @@ public abstract class AbstractEvent implements Event {
      * @return the 'this' of the Event, to allow method chaining
      */
     public AbstractEvent withData(String key, Object data) {
+        if (this.data == null) {
+            this.data = new HashMap<>();
+        }
         this.data.put(key, data);
         return this;
     }
@@ -59,6 +63,6 @@ public abstract class AbstractEvent implements Event {
      */
     @Override
     public Object getData(String key) {
-        return data.get(key);
+        return data == null ? null : data.get(key);
     }
 }
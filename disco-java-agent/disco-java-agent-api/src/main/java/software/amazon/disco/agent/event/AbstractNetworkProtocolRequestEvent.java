@@ -20,8 +20,11 @@ package software.amazon.disco.agent.event;
  * a client is requesting a stream connection with a server, or a packet was received at a certain port.
  */
 public abstract class AbstractNetworkProtocolRequestEvent extends AbstractProtocolRequestEvent implements NetworkProtocolRequestEvent {
+    private final int sourcePort;
+    private final int destinationPort;
+
     /**
-     * Data keys
+     * Data keys, retrievable by name from getData()
      */
     enum DataKey {
         /**
@@ -37,8 +40,8 @@ public abstract class AbstractNetworkProtocolRequestEvent extends AbstractProtoc
 
     public AbstractNetworkProtocolRequestEvent(String origin, int srcPort, int dstPort, String srcIP, String dstIP) {
         super(origin, srcIP, dstIP);
-        withData(DataKey.SOURCE_PORT.name(), srcPort);
-        withData(DataKey.DESTINATION_PORT.name(), dstPort);
+        this.sourcePort = srcPort;
+        this.destinationPort = dstPort;
     }
 
     /**
@@ -46,7 +49,7 @@ public abstract class AbstractNetworkProtocolRequestEvent extends AbstractProtoc
      */
     @Override
     public int getSourcePort() {
-        return (int) getData(DataKey.SOURCE_PORT.name());
+        return sourcePort;
     }
 
     /**
@@ -54,7 +57,7 @@ public abstract class AbstractNetworkProtocolRequestEvent extends AbstractProtoc
      */
     @Override
     public int getDestinationPort() {
-        return (int) getData(DataKey.DESTINATION_PORT.name());
+        return destinationPort;
     }
 
     /**
@@ -81,4 +84,17 @@ public abstract class AbstractNetworkProtocolRequestEvent extends AbstractProtoc
         return Type.NETWORK;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getData(String key) {
+        if (DataKey.SOURCE_PORT.name().equals(key)) {
+            return sourcePort;
+        }
+        if (DataKey.DESTINATION_PORT.name().equals(key)) {
+            return destinationPort;
+        }
+        return super.getData(key);
+    }
 }
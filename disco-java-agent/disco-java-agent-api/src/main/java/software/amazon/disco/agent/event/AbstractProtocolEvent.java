@@ -19,20 +19,22 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Base class for protocol events; These events here typically occur around service events and
  * provide the mechanisms that make them work.
  */
 public abstract class AbstractProtocolEvent extends AbstractEvent implements ProtocolEvent {
+    private Map<String, List<String>> headerMap;
+    private volatile Supplier<Map<String, List<String>>> headerSource;
 
     public AbstractProtocolEvent(String origin) {
         super(origin);
-        withData(DataKey.HEADER_MAP.name(), new HashMap<String, List<String>>());
     }
 
     /**
-     * Data keys
+     * Data keys, retrievable by name from getData()
      */
     enum DataKey {
         /**
@@ -42,16 +44,69 @@ public abstract class AbstractProtocolEvent extends AbstractEvent implements Pro
     }
 
     /**
-     * Get the internal header map.
+     * Get the internal header map. If a header source has been supplied, and not dropped, it is consulted on the first
+     * call only, and its headers merged into the map, with any headers stored explicitly on this event taking precedence.
      *
      * @return the internal header map.
      */
     protected Map<String, List<String>> getHeaderMap() {
-        @SuppressWarnings("unchecked")
-        Map<String, List<String>> headerMap = (Map<String, List<String>>) getData(DataKey.HEADER_MAP.name());
+        Map<String, List<String>> headerMap = getStoredHeaderMap();
+        if (headerSource != null) {
+            //held while the source is read, so that dropHeaderSource() cannot return until any read in progress is done
+            synchronized (this) {
+                Supplier<Map<String, List<String>>> source = headerSource;
+                headerSource = null;
+                Map<String, List<String>> sourceHeaders = source == null ? null : source.get();
+                if (sourceHeaders != null) {
+                    for (Map.Entry<String, List<String>> entry : sourceHeaders.entrySet()) {
+                        headerMap.putIfAbsent(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        }
+        return headerMap;
+    }
+
+    /**
+     * Get the map of headers stored explicitly on this event, creating it if necessary, without consulting any header source.
+     *
+     * @return the map of explicitly stored headers.
+     */
+    private Map<String, List<String>> getStoredHeaderMap() {
+        if (headerMap == null) {
+            headerMap = new HashMap<>();
+        }
         return headerMap;
     }
 
+    /**
+     * Supply a source of headers, such as the intercepted request or response object, which is only read if and when a
+     * Listener first accesses the headers of this event. Listeners which never inspect headers therefore do not pay for
+     * copying them. The source must remain readable until {@link #dropHeaderSource()} is called, which the publisher
+     * must do before the source may be reused, for example once a container recycles its request object. Headers which
+     * no Listener has read by then are no longer available from this event, so Listeners which keep the event beyond
+     * the exchange must read its headers while it is in progress, e.g. during publication.
+     *
+     * @param headerSource a supplier of the header map, called at most once.
+     * @return the 'this' for method chaining
+     */
+    public AbstractProtocolEvent withHeaderSource(Supplier<Map<String, List<String>>> headerSource) {
+        this.headerSource = headerSource;
+        return this;
+    }
+
+    /**
+     * Drop the header source, if no Listener has read it yet, so that it is never read from now on. If another thread
+     * is reading it, wait until that read is done.
+     */
+    public void dropHeaderSource() {
+        if (headerSource != null) {
+            synchronized (this) {
+                headerSource = null;
+            }
+        }
+    }
+
     /**
      * Populate the contents of the inputMap into the header map.
      *
@@ -59,11 +114,10 @@ public abstract class AbstractProtocolEvent extends AbstractEvent implements Pro
      * @return the 'this' for method chaining
      */
     public AbstractProtocolEvent withHeaderMap(Map<String, String> inputMap) {
-        Map<String, List<String>> transformedInputMap = new HashMap<>();
+        Map<String, List<String>> headerMap = getStoredHeaderMap();
         for (Map.Entry<String, String> entry : inputMap.entrySet()) {
-            transformedInputMap.put(entry.getKey(), Collections.singletonList(entry.getValue()));
+            headerMap.put(entry.getKey(), Collections.singletonList(entry.getValue()));
         }
-        getHeaderMap().putAll(transformedInputMap);
         return this;
     }
 
@@ -75,16 +129,21 @@ public abstract class AbstractProtocolEvent extends AbstractEvent implements Pro
      * @return "This" for method chaining.
      */
     public AbstractProtocolEvent withHeaderData(String key, String value) {
-        if (data == null) {
-            // When it's null, we don't populate the map.
-            // Retrieval will return null, so the listener will know it's unable to retrieve the data.
-            return this;
-        }
-        Map<String, List<String>> headerMap = getHeaderMap();
-        headerMap.put(key, Collections.singletonList(value));
+        getStoredHeaderMap().put(key, Collections.singletonList(value));
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getData(String key) {
+        if (DataKey.HEADER_MAP.name().equals(key)) {
+            return getHeaderMap();
+        }
+        return super.getData(key);
+    }
+
     /**
      * {@inheritDoc}
      *
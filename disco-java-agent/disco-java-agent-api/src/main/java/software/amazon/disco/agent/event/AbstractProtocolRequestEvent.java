@@ -19,15 +19,18 @@ package software.amazon.disco.agent.event;
  * This event stores information about the invoker of the protocol event.
  */
 public abstract class AbstractProtocolRequestEvent extends AbstractProtocolEvent implements ProtocolRequestEvent {
+    private Object request;
+    private final String sourceAddress;
+    private final String destinationAddress;
 
     public AbstractProtocolRequestEvent(String origin, String srcAddr, String dstAddr) {
         super(origin);
-        withData(DataKey.SRC_ADDRESS.name(), srcAddr);
-        withData(DataKey.DST_ADDRESS.name(), dstAddr);
+        this.sourceAddress = srcAddr;
+        this.destinationAddress = dstAddr;
     }
 
     /**
-     * Data keys
+     * Data keys, retrievable by name from getData()
      */
     enum DataKey {
         /**
@@ -53,7 +56,7 @@ public abstract class AbstractProtocolRequestEvent extends AbstractProtocolEvent
      * @return The request object.
      */
     public AbstractProtocolRequestEvent withRequest(Object request) {
-        withData(DataKey.REQUEST.name(), request);
+        this.request = request;
         return this;
     }
 
@@ -62,7 +65,7 @@ public abstract class AbstractProtocolRequestEvent extends AbstractProtocolEvent
      */
     @Override
     public Object getRequest() {
-        return getData(DataKey.REQUEST.name());
+        return request;
     }
 
     /**
@@ -70,7 +73,7 @@ public abstract class AbstractProtocolRequestEvent extends AbstractProtocolEvent
      */
     @Override
     public String getSourceAddress() {
-        return (String) getData(DataKey.SRC_ADDRESS.name());
+        return sourceAddress;
     }
 
     /**
@@ -78,7 +81,23 @@ public abstract class AbstractProtocolRequestEvent extends AbstractProtocolEvent
      */
     @Override
     public String getDestinationAddress() {
-        return (String) getData(DataKey.DST_ADDRESS.name());
+        return destinationAddress;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getData(String key) {
+        if (DataKey.REQUEST.name().equals(key)) {
+            return request;
+        }
+        if (DataKey.SRC_ADDRESS.name().equals(key)) {
+            return sourceAddress;
+        }
+        if (DataKey.DST_ADDRESS.name().equals(key)) {
+            return destinationAddress;
+        }
+        return super.getData(key);
+    }
 }
@@ -19,14 +19,17 @@ package software.amazon.disco.agent.event;
  * This event stores information about the resultant outcome of the requested invocation.
  */
 public abstract class AbstractProtocolResponseEvent extends AbstractProtocolEvent implements ProtocolResponseEvent {
+    private final ProtocolRequestEvent requestEvent;
+    private Object response;
+    private String statusIndicator;
 
     public AbstractProtocolResponseEvent(String origin, ProtocolRequestEvent requestEvent) {
         super(origin);
-        withData(DataKey.REQUEST_EVENT.name(), requestEvent);
+        this.requestEvent = requestEvent;
     }
 
     /**
-     * Data keys
+     * Data keys, retrievable by name from getData()
      */
     enum DataKey {
         /**
@@ -52,7 +55,7 @@ public abstract class AbstractProtocolResponseEvent extends AbstractProtocolEven
      * @return "This" for the method chaining.
      */
     public AbstractProtocolResponseEvent withResponse(Object response) {
-        withData(DataKey.RESPONSE.name(), response);
+        this.response = response;
         return this;
     }
 
@@ -63,7 +66,7 @@ public abstract class AbstractProtocolResponseEvent extends AbstractProtocolEven
      * @return "This" for the method chaining.
      */
     public AbstractProtocolResponseEvent withStatusIndicator(String statusIndicator) {
-        withData(DataKey.STATUS_INDICATOR.name(), statusIndicator);
+        this.statusIndicator = statusIndicator;
         return this;
     }
 
@@ -72,7 +75,7 @@ public abstract class AbstractProtocolResponseEvent extends AbstractProtocolEven
      */
     @Override
     public ProtocolRequestEvent getProtocolRequestEvent() {
-        return (ProtocolRequestEvent) getData(DataKey.REQUEST_EVENT.name());
+        return requestEvent;
     }
 
     /**
@@ -80,7 +83,7 @@ public abstract class AbstractProtocolResponseEvent extends AbstractProtocolEven
      */
     @Override
     public Object getResponse() {
-        return getData(DataKey.RESPONSE.name());
+        return response;
     }
 
     /**
@@ -88,7 +91,23 @@ public abstract class AbstractProtocolResponseEvent extends AbstractProtocolEven
      */
     @Override
     public String getStatusIndicator() {
-        return (String) getData(DataKey.STATUS_INDICATOR.name());
+        return statusIndicator;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getData(String key) {
+        if (DataKey.REQUEST_EVENT.name().equals(key)) {
+            return requestEvent;
+        }
+        if (DataKey.RESPONSE.name().equals(key)) {
+            return response;
+        }
+        if (DataKey.STATUS_INDICATOR.name().equals(key)) {
+            return statusIndicator;
+        }
+        return super.getData(key);
+    }
 }
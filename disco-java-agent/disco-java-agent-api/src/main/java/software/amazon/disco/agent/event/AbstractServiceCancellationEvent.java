@@ -18,6 +18,8 @@ package software.amazon.disco.agent.event;
  * An event issued to the event bus when service request is cancelled
  */
 public abstract class AbstractServiceCancellationEvent  extends AbstractServiceEvent implements ServiceCancellationEvent {
+    private ServiceRequestEvent request;
+
     /**
      * Constructor for a AbstractServiceCancellationEvent
      *
@@ -32,7 +34,7 @@ public abstract class AbstractServiceCancellationEvent  extends AbstractServiceE
     }
 
     /**
-     * Data keys
+     * Data keys, retrievable by name from getData()
      */
     enum DataKey {
         /**
@@ -47,7 +49,7 @@ public abstract class AbstractServiceCancellationEvent  extends AbstractServiceE
      * @return the 'this' for method chaining
      */
     public AbstractServiceCancellationEvent withRequest(ServiceRequestEvent request) {
-        withData(DataKey.REQUEST.name(), request);
+        this.request = request;
         return this;
     }
 
@@ -56,6 +58,17 @@ public abstract class AbstractServiceCancellationEvent  extends AbstractServiceE
      */
     @Override
     public ServiceRequestEvent getRequest() {
-        return ServiceRequestEvent.class.cast(getData(DataKey.REQUEST.name()));
+        return request;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getData(String key) {
+        if (DataKey.REQUEST.name().equals(key)) {
+            return request;
+        }
+        return super.getData(key);
     }
 }
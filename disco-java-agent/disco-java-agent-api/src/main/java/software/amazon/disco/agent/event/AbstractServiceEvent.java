@@ -23,9 +23,11 @@ package software.amazon.disco.agent.event;
  * whether that is remote or local.
  */
 public abstract class AbstractServiceEvent extends AbstractEvent implements ServiceEvent {
+    private String service;
+    private String operation;
 
     /**
-     * The data which ServiceEvents may contain
+     * The data which ServiceEvents may contain, retrievable by name from getData()
      */
     enum DataKey {
         /**
@@ -47,8 +49,8 @@ public abstract class AbstractServiceEvent extends AbstractEvent implements Serv
      */
     public AbstractServiceEvent(String origin, String service, String operation) {
         super(origin);
-        withData(DataKey.SERVICE.name(), service);
-        withData(DataKey.OPERATION.name(), operation);
+        this.service = service;
+        this.operation = operation;
     }
 
     /**
@@ -56,7 +58,7 @@ public abstract class AbstractServiceEvent extends AbstractEvent implements Serv
      */
     @Override
     public String getService() {
-        return String.class.cast(getData(DataKey.SERVICE.name()));
+        return service;
     }
 
     /**
@@ -64,7 +66,32 @@ public abstract class AbstractServiceEvent extends AbstractEvent implements Serv
      */
     @Override
     public String getOperation() {
-        return String.class.cast(getData(DataKey.OPERATION.name()));
+        return operation;
+    }
+
+    /**
+     * Reinitialize a recycled event for its next publication, discarding any ad-hoc data.
+     * @param service the service name e.g. WeatherService
+     * @param operation the operation name e.g getWeather
+     */
+    void reset(String service, String operation) {
+        this.service = service;
+        this.operation = operation;
+        this.data = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getData(String key) {
+        if (DataKey.SERVICE.name().equals(key)) {
+            return service;
+        }
+        if (DataKey.OPERATION.name().equals(key)) {
+            return operation;
+        }
+        return super.getData(key);
     }
 
     /**
@@ -19,8 +19,10 @@ package software.amazon.disco.agent.event;
  * Base class for service requests, whether from an activity or a downstream
  */
 abstract public class AbstractServiceRequestEvent extends AbstractServiceEvent implements ServiceRequestEvent {
+    private Object request;
+
     /**
-     * Data keys
+     * Data keys, retrievable by name from getData()
      */
     enum DataKey {
         /**
@@ -45,7 +47,7 @@ abstract public class AbstractServiceRequestEvent extends AbstractServiceEvent i
      * @return the 'this' for method chaining
      */
     public AbstractServiceRequestEvent withRequest(Object request) {
-        withData(DataKey.REQUEST.name(), request);
+        this.request = request;
         return this;
     }
 
@@ -54,6 +56,26 @@ abstract public class AbstractServiceRequestEvent extends AbstractServiceEvent i
      */
     @Override
     public Object getRequest() {
-        return getData(DataKey.REQUEST.name());
+        return request;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void reset(String service, String operation) {
+        super.reset(service, operation);
+        this.request = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getData(String key) {
+        if (DataKey.REQUEST.name().equals(key)) {
+            return request;
+        }
+        return super.getData(key);
     }
 }
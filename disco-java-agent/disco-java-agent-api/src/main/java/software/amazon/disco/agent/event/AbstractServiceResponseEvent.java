@@ -19,8 +19,12 @@ package software.amazon.disco.agent.event;
  * Base class for service responses, whether from an activity or a downstream
  */
 public abstract class AbstractServiceResponseEvent extends AbstractServiceEvent implements ServiceResponseEvent {
+    private ServiceRequestEvent request;
+    private Object response;
+    private Throwable thrown;
+
     /**
-     * Data keys
+     * Data keys, retrievable by name from getData()
      */
     enum DataKey {
         /**
@@ -48,7 +52,7 @@ public abstract class AbstractServiceResponseEvent extends AbstractServiceEvent
      */
     public AbstractServiceResponseEvent(String origin, String service, String operation, ServiceRequestEvent requestEvent) {
         super(origin, service, operation);
-        withData(DataKey.REQUEST.name(), requestEvent);
+        this.request = requestEvent;
     }
 
     /**
@@ -57,7 +61,7 @@ public abstract class AbstractServiceResponseEvent extends AbstractServiceEvent
      * @return the 'this' for method chaining
      */
     public AbstractServiceResponseEvent withResponse(Object response) {
-        withData(DataKey.RESPONSE.name(), response);
+        this.response = response;
         return this;
     }
 
@@ -67,7 +71,7 @@ public abstract class AbstractServiceResponseEvent extends AbstractServiceEvent
      * @return the 'this' for method chaining
      */
     public AbstractServiceResponseEvent withThrown(Throwable thrown) {
-        withData(DataKey.THROWN.name(), thrown);
+        this.thrown = thrown;
         return this;
     }
 
@@ -76,7 +80,7 @@ public abstract class AbstractServiceResponseEvent extends AbstractServiceEvent
      */
     @Override
     public ServiceRequestEvent getRequest() {
-        return ServiceRequestEvent.class.cast(getData(DataKey.REQUEST.name()));
+        return request;
     }
 
     /**
@@ -84,7 +88,7 @@ public abstract class AbstractServiceResponseEvent extends AbstractServiceEvent
      */
     @Override
     public Object getResponse() {
-        return getData(DataKey.RESPONSE.name());
+        return response;
     }
 
     /**
@@ -92,6 +96,36 @@ public abstract class AbstractServiceResponseEvent extends AbstractServiceEvent
      */
     @Override
     public Throwable getThrown() {
-        return Throwable.class.cast(getData(DataKey.THROWN.name()));
+        return thrown;
+    }
+
+    /**
+     * Reinitialize a recycled event for its next publication, discarding any response, thrown exception and ad-hoc data.
+     * @param service the service name e.g. 'WeatherService'
+     * @param operation the operation name e.g. 'getWeather'
+     * @param requestEvent the associated request event
+     */
+    void reset(String service, String operation, ServiceRequestEvent requestEvent) {
+        reset(service, operation);
+        this.request = requestEvent;
+        this.response = null;
+        this.thrown = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getData(String key) {
+        if (DataKey.REQUEST.name().equals(key)) {
+            return request;
+        }
+        if (DataKey.RESPONSE.name().equals(key)) {
+            return response;
+        }
+        if (DataKey.THROWN.name().equals(key)) {
+            return thrown;
+        }
+        return super.getData(key);
     }
 }
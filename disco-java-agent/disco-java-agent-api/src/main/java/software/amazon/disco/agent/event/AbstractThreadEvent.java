@@ -19,8 +19,11 @@ package software.amazon.disco.agent.event;
  * Abstract Event to encapsulate information when execution crosses a thread boundary, within an DiSCo transaction
  */
 public abstract class AbstractThreadEvent extends AbstractEvent implements ThreadEvent {
+    private final Long parentId;
+    private final Long childId;
+
     /**
-     * The data items contained in thread events
+     * The data items contained in thread events, retrievable by name from getData()
      */
     enum DataKey {
         /**
@@ -42,8 +45,8 @@ public abstract class AbstractThreadEvent extends AbstractEvent implements Threa
      */
     public AbstractThreadEvent(String origin, Long parentId, Long childId) {
         super(origin);
-        withData(DataKey.PARENT_ID.name(), parentId);
-        withData(DataKey.CHILD_ID.name(), childId);
+        this.parentId = parentId;
+        this.childId = childId;
     }
 
     /**
@@ -51,7 +54,7 @@ public abstract class AbstractThreadEvent extends AbstractEvent implements Threa
      */
     @Override
     public long getParentId() {
-        return Long.class.cast(getData(DataKey.PARENT_ID.name()));
+        return parentId;
     }
 
     /**
@@ -59,7 +62,21 @@ public abstract class AbstractThreadEvent extends AbstractEvent implements Threa
      */
     @Override
     public long getChildId() {
-        return Long.class.cast(getData(DataKey.CHILD_ID.name()));
+        return childId;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getData(String key) {
+        if (DataKey.PARENT_ID.name().equals(key)) {
+            return parentId;
+        }
+        if (DataKey.CHILD_ID.name().equals(key)) {
+            return childId;
+        }
+        return super.getData(key);
     }
 
     /**
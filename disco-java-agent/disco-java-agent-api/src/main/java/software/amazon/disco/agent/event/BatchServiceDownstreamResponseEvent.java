@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.event;
+
+/**
+ * Specialization of a ServiceDownstreamResponseEvent, for a downstream call which executed a batch of statements or
+ * commands at once, such as JDBC's Statement.executeBatch(). A single pair of events is published per batch, rather
+ * than one per statement.
+ */
+public class BatchServiceDownstreamResponseEvent extends ServiceDownstreamResponseEvent {
+    private int statementCount = -1;
+    private long duration = -1L;
+
+    /**
+     * Keys by which the attributes of this event may be retrieved from getData()
+     */
+    enum DataKey {
+        /**
+         * The number of statements in the batch
+         */
+        STATEMENT_COUNT,
+
+        /**
+         * The time in nanoseconds between the batch being issued and its completion
+         */
+        DURATION
+    }
+
+    /**
+     * Construct a new BatchServiceDownstreamResponseEvent
+     * @param origin the origin of the downstream call e.g. 'SQL'
+     * @param service the service name e.g. the database name
+     * @param operation the operation name e.g. a query string
+     * @param requestEvent the associated request event
+     */
+    public BatchServiceDownstreamResponseEvent(String origin, String service, String operation, ServiceDownstreamRequestEvent requestEvent) {
+        super(origin, service, operation, requestEvent);
+    }
+
+    /**
+     * Add the number of statements in the batch to this Event
+     * @param statementCount the number of statements executed, or reported on, by the batch
+     * @return 'this' for method chaining
+     */
+    public BatchServiceDownstreamResponseEvent withStatementCount(int statementCount) {
+        this.statementCount = statementCount;
+        return this;
+    }
+
+    /**
+     * Add the duration of the batch to this Event
+     * @param duration the time in nanoseconds between the batch being issued and its completion
+     * @return 'this' for method chaining
+     */
+    public BatchServiceDownstreamResponseEvent withDuration(long duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * Get the number of statements in the batch stored in the Event
+     * @return the number of statements, or -1 if not available
+     */
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * Get the duration of the batch stored in the Event
+     * @return the time in nanoseconds between the batch being issued and its completion, or -1 if not available
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getData(String key) {
+        if (DataKey.STATEMENT_COUNT.name().equals(key)) {
+            return statementCount == -1 ? null : statementCount;
+        }
+        if (DataKey.DURATION.name().equals(key)) {
+            return duration == -1L ? null : duration;
+        }
+        return super.getData(key);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.event;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * A small per-thread pool of recycled events. Events are only ever reused on the thread which released them, so no
+ * synchronization is required. Events which are acquired but never released are simply garbage collected.
+ *
+ * @param <T> the type of event pooled
+ */
+class EventPool<T extends AbstractEvent> {
+    private static final int MAX_POOLED_PER_THREAD = 4;
+
+    private final ThreadLocal<ArrayDeque<T>> pool = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Take an event from the current thread's pool, if one with the given origin is available. Events of other
+     * origins are left in the pool, so that interleaved calls from different origins on one thread still reuse them.
+     * @param origin the origin the event must have
+     * @return a previously released event, or null if the caller should create a new one
+     */
+    T poll(String origin) {
+        ArrayDeque<T> events = pool.get();
+        T event = events.peekFirst();
+        if (event == null) {
+            return null;
+        }
+        if (event.getOrigin().equals(origin)) {
+            return events.pollFirst();
+        }
+
+        //the pool is small, so a scan for a matching event is cheap
+        Iterator<T> iterator = events.iterator();
+        while (iterator.hasNext()) {
+            event = iterator.next();
+            if (event.getOrigin().equals(origin)) {
+                iterator.remove();
+                return event;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return an event to the current thread's pool, if the pool is not already full.
+     * @param event the event to be reused
+     */
+    void offer(T event) {
+        ArrayDeque<T> events = pool.get();
+        if (events.size() < MAX_POOLED_PER_THREAD) {
+            events.addFirst(event);
+        }
+    }
+}
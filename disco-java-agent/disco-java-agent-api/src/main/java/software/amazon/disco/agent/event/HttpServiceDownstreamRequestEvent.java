@@ -19,8 +19,11 @@ package software.amazon.disco.agent.event;
  * Specialization of a ServiceDownstreamRequestEvent, to encapsulate data specific to HTTP-like downstream call requests.
  */
 public class HttpServiceDownstreamRequestEvent extends ServiceDownstreamRequestEvent {
+    private String method;
+    private String uri;
+
     /**
-     * Keys to use in the data map
+     * Keys by which the attributes of this event may be retrieved from getData()
      */
     enum DataKey {
         /**
@@ -50,7 +53,7 @@ public class HttpServiceDownstreamRequestEvent extends ServiceDownstreamRequestE
      * @return 'this' for method chaining
      */
     public HttpServiceDownstreamRequestEvent withMethod(String method) {
-        withData(DataKey.METHOD.name(), method);
+        this.method = method;
         return this;
     }
 
@@ -60,7 +63,7 @@ public class HttpServiceDownstreamRequestEvent extends ServiceDownstreamRequestE
      * @return 'this' for method chaining
      */
     public HttpServiceDownstreamRequestEvent withUri(String uri) {
-        withData(DataKey.URI.name(), uri);
+        this.uri = uri;
         return this;
     }
 
@@ -69,7 +72,7 @@ public class HttpServiceDownstreamRequestEvent extends ServiceDownstreamRequestE
      * @return the HTTP method
      */
     public String getMethod() {
-        return (String)getData(DataKey.METHOD.name());
+        return method;
     }
 
     /**
@@ -77,7 +80,7 @@ public class HttpServiceDownstreamRequestEvent extends ServiceDownstreamRequestE
      * @return the URI
      */
     public String getUri() {
-        return (String)getData(DataKey.URI.name());
+        return uri;
     }
 
     /**
@@ -92,4 +95,18 @@ public class HttpServiceDownstreamRequestEvent extends ServiceDownstreamRequestE
     public boolean replaceHeader(String name, String value) {
         return false;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getData(String key) {
+        if (DataKey.METHOD.name().equals(key)) {
+            return method;
+        }
+        if (DataKey.URI.name().equals(key)) {
+            return uri;
+        }
+        return super.getData(key);
+    }
 }
@@ -19,8 +19,12 @@ package software.amazon.disco.agent.event;
  * Specialization of a ServiceDownstreamResponseEvent, to encapsulate data specific to HTTP-like downstream call responses.
  */
 public class HttpServiceDownstreamResponseEvent extends ServiceDownstreamResponseEvent {
+    private int statusCode = -1;
+    private long contentLength = -1L;
+    private long duration = -1L;
+
     /**
-     * Keys to use in the data map
+     * Keys by which the attributes of this event may be retrieved from getData()
      */
     enum DataKey {
         /**
@@ -31,7 +35,12 @@ public class HttpServiceDownstreamResponseEvent extends ServiceDownstreamRespons
         /**
          * The content length value for the returned HTTP payload
          */
-        CONTENT_LENGTH
+        CONTENT_LENGTH,
+
+        /**
+         * The time in nanoseconds between the request being issued and the response being received
+         */
+        DURATION
     }
 
     /**
@@ -51,7 +60,7 @@ public class HttpServiceDownstreamResponseEvent extends ServiceDownstreamRespons
      * @return 'this' for method chaining
      */
     public HttpServiceDownstreamResponseEvent withStatusCode(int statusCode) {
-        withData(DataKey.STATUS_CODE.name(), statusCode);
+        this.statusCode = statusCode;
         return this;
     }
 
@@ -61,7 +70,17 @@ public class HttpServiceDownstreamResponseEvent extends ServiceDownstreamRespons
      * @return 'this' for method chaining
      */
     public HttpServiceDownstreamResponseEvent withContentLength(long contentLength) {
-        withData(DataKey.CONTENT_LENGTH.name(), contentLength);
+        this.contentLength = contentLength;
+        return this;
+    }
+
+    /**
+     * Add the duration of the downstream call to this Event
+     * @param duration the time in nanoseconds between the request being issued and the response being received
+     * @return 'this' for method chaining
+     */
+    public HttpServiceDownstreamResponseEvent withDuration(long duration) {
+        this.duration = duration;
         return this;
     }
 
@@ -70,8 +89,7 @@ public class HttpServiceDownstreamResponseEvent extends ServiceDownstreamRespons
      * @return the HTTP status code, or -1 if not available
      */
     public int getStatusCode() {
-        Object statusCode = getData(DataKey.STATUS_CODE.name());
-        return statusCode == null ? -1 : (int)statusCode;
+        return statusCode;
     }
 
     /**
@@ -79,7 +97,31 @@ public class HttpServiceDownstreamResponseEvent extends ServiceDownstreamRespons
      * @return the HTTP content length, or -1 if not available
      */
     public long getContentLength() {
-        Object contentLength = getData(DataKey.CONTENT_LENGTH.name());
-        return contentLength == null ? -1L : (long)contentLength;
+        return contentLength;
+    }
+
+    /**
+     * Get the duration of the downstream call stored in the Event
+     * @return the time in nanoseconds between the request being issued and the response being received, or -1 if not available
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getData(String key) {
+        if (DataKey.STATUS_CODE.name().equals(key)) {
+            return statusCode == -1 ? null : statusCode;
+        }
+        if (DataKey.CONTENT_LENGTH.name().equals(key)) {
+            return contentLength == -1L ? null : contentLength;
+        }
+        if (DataKey.DURATION.name().equals(key)) {
+            return duration == -1L ? null : duration;
+        }
+        return super.getData(key);
     }
 }
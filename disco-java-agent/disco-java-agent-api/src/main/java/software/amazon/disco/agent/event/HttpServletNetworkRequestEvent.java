@@ -18,6 +18,7 @@ package software.amazon.disco.agent.event;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -105,6 +106,15 @@ public class HttpServletNetworkRequestEvent extends AbstractNetworkProtocolReque
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HttpServletNetworkRequestEvent withHeaderSource(Supplier<Map<String, List<String>>> headerSource) {
+        super.withHeaderSource(headerSource);
+        return this;
+    }
+
     /**
      * Store the HTTP method/verb into this event
      * @param method The HTTP method/verb. Can be "POST", "GET", "PUT", etc
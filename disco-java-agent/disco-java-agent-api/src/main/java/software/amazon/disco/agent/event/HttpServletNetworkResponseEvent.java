@@ -17,6 +17,7 @@ package software.amazon.disco.agent.event;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * A concrete implementation of the HttpNetworkProtocolResponseEvent to express
@@ -39,6 +40,15 @@ public class HttpServletNetworkResponseEvent extends AbstractNetworkProtocolResp
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HttpServletNetworkResponseEvent withHeaderSource(Supplier<Map<String, List<String>>> headerSource) {
+        super.withHeaderSource(headerSource);
+        return this;
+    }
+
     /**
      * Store the status code that resulted from the HTTP response.
      * @param statusCode the status code
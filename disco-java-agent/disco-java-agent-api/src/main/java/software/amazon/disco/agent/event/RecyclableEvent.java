@@ -0,0 +1,31 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.event;
+
+/**
+ * Implemented by events which an interceptor may reuse for a later publication, once dispatch to all Listeners has
+ * completed. Such events are only valid for the duration of the Listener's listen() call. A Listener which needs to keep
+ * an event, or pass it to another thread, must call retain() and keep the returned copy instead.
+ */
+public interface RecyclableEvent extends Event {
+    /**
+     * Create a copy of this event which is never recycled, and so remains valid after listen() returns. Until the event
+     * is recycled, every call returns the same copy, so that Listeners may correlate retained events by identity.
+     *
+     * @return a copy of this event
+     */
+    Event retain();
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.event;
+
+import java.util.Map;
+
+/**
+ * A ServiceDownstreamRequestEvent drawn from a per-thread pool, for interceptors of high-frequency downstream calls,
+ * which would otherwise allocate a new event per call. The interceptor must release() the event once it, and any
+ * response event referring to it, have been published. See {@link RecyclableEvent} for the contract with Listeners.
+ */
+public class RecyclableServiceDownstreamRequestEvent extends ServiceDownstreamRequestEvent implements RecyclableEvent {
+    private static final EventPool<RecyclableServiceDownstreamRequestEvent> POOL = new EventPool<>();
+
+    private boolean released;
+    private ServiceDownstreamRequestEvent retained;
+
+    private RecyclableServiceDownstreamRequestEvent(String origin, String service, String operation) {
+        super(origin, service, operation);
+    }
+
+    /**
+     * Obtain a request event from the current thread's pool, or create a new one if none is available
+     * @param origin the origin of the downstream call e.g. 'SQL'
+     * @param service the service name e.g. 'WeatherService'
+     * @param operation the operation name e.g. 'getWeather'
+     * @return a request event with no request object or ad-hoc data
+     */
+    public static RecyclableServiceDownstreamRequestEvent acquire(String origin, String service, String operation) {
+        RecyclableServiceDownstreamRequestEvent event = POOL.poll(origin);
+        if (event == null) {
+            return new RecyclableServiceDownstreamRequestEvent(origin, service, operation);
+        }
+        event.reset(service, operation);
+        event.released = false;
+        event.retained = null;
+        return event;
+    }
+
+    /**
+     * Return this event to the current thread's pool. The event must not be published or referred to after this call.
+     */
+    public void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        retained = null;
+        reset(null, null);
+        POOL.offer(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The copy is made on the first call only, so that a Listener which retains this event, and later the response
+     * event referring to it, receives a response whose request is the copy it already holds.
+     */
+    @Override
+    public ServiceDownstreamRequestEvent retain() {
+        if (retained != null) {
+            return retained;
+        }
+        ServiceDownstreamRequestEvent copy = new ServiceDownstreamRequestEvent(origin, getService(), getOperation());
+        copy.withRequest(getRequest());
+        if (data != null) {
+            for (Map.Entry<String, Object> entry : data.entrySet()) {
+                copy.withData(entry.getKey(), entry.getValue());
+            }
+        }
+        retained = copy;
+        return copy;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.event;
+
+import java.util.Map;
+
+/**
+ * A ServiceDownstreamResponseEvent drawn from a per-thread pool, for interceptors of high-frequency downstream calls,
+ * which would otherwise allocate a new event per call. The interceptor must release() the event once it has been
+ * published. See {@link RecyclableEvent} for the contract with Listeners.
+ */
+public class RecyclableServiceDownstreamResponseEvent extends ServiceDownstreamResponseEvent implements RecyclableEvent {
+    private static final EventPool<RecyclableServiceDownstreamResponseEvent> POOL = new EventPool<>();
+
+    private boolean released;
+    private ServiceDownstreamResponseEvent retained;
+
+    private RecyclableServiceDownstreamResponseEvent(String origin, String service, String operation, ServiceRequestEvent requestEvent) {
+        super(origin, service, operation, requestEvent);
+    }
+
+    /**
+     * Obtain a response event from the current thread's pool, or create a new one if none is available
+     * @param origin the origin of the downstream call e.g. 'SQL'
+     * @param service the service name e.g. 'WeatherService'
+     * @param operation the operation name e.g. 'getWeather'
+     * @param requestEvent the associated request event
+     * @return a response event with no response, thrown exception or ad-hoc data
+     */
+    public static RecyclableServiceDownstreamResponseEvent acquire(String origin, String service, String operation, ServiceRequestEvent requestEvent) {
+        RecyclableServiceDownstreamResponseEvent event = POOL.poll(origin);
+        if (event == null) {
+            return new RecyclableServiceDownstreamResponseEvent(origin, service, operation, requestEvent);
+        }
+        event.reset(service, operation, requestEvent);
+        event.released = false;
+        event.retained = null;
+        return event;
+    }
+
+    /**
+     * Return this event to the current thread's pool. The event must not be published or referred to after this call.
+     */
+    public void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        retained = null;
+        reset(null, null, null);
+        POOL.offer(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * A recyclable request event referred to by this event is retained as well, giving the same copy as retaining the
+     * request event itself. The copy is made on the first call only.
+     */
+    @Override
+    public ServiceDownstreamResponseEvent retain() {
+        if (retained != null) {
+            return retained;
+        }
+        ServiceRequestEvent requestEvent = getRequest();
+        if (requestEvent instanceof RecyclableEvent) {
+            requestEvent = (ServiceRequestEvent) ((RecyclableEvent) requestEvent).retain();
+        }
+        ServiceDownstreamResponseEvent copy = new ServiceDownstreamResponseEvent(origin, getService(), getOperation(), requestEvent);
+        copy.withResponse(getResponse());
+        copy.withThrown(getThrown());
+        if (data != null) {
+            for (Map.Entry<String, Object> entry : data.entrySet()) {
+                copy.withData(entry.getKey(), entry.getValue());
+            }
+        }
+        retained = copy;
+        return copy;
+    }
+}
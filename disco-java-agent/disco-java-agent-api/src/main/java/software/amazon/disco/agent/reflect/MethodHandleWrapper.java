@@ -34,6 +34,8 @@ public class MethodHandleWrapper {
 
     private final Class rtype;
     private final MethodHandle handle;
+    //the handle adapted once to take and return only Objects, so that it may be invoked exactly without knowing its real type
+    private final MethodHandle exactHandle;
 
     /**
      * Create a new MethodHandleWrapper
@@ -61,6 +63,7 @@ public class MethodHandleWrapper {
         } finally {
             this.rtype = rtype;
             this.handle = handle;
+            this.exactHandle = handle == null ? null : handle.asType(MethodType.genericMethodType(handle.type().parameterCount()));
         }
     }
 
@@ -101,32 +104,112 @@ public class MethodHandleWrapper {
     }
 
     /**
-     * Invoke the method referred to by this MethodHandleWrapper
+     * Invoke the method referred to by this MethodHandleWrapper. Calls with up to 3 arguments are dispatched to the
+     * equivalent arity-specific invoke() methods.
      * @param receiver the object upon which this method is being invoked, the 'this' of the method call
      * @param args the arguments being passed to the method, which should match the types given during construction as 'ptypes'
      * @return the return value of the invoked method
      */
     public Object invoke(Object receiver, Object... args) {
-        Object[] invokeArgs;
+        switch (args.length) {
+            case 0:
+                return invoke(receiver);
+            case 1:
+                return invoke(receiver, args[0]);
+            case 2:
+                return invoke(receiver, args[0], args[1]);
+            case 3:
+                return invoke(receiver, args[0], args[1], args[2]);
+            default:
+                break;
+        }
 
         if (handle == null || receiver == null) {
             return null;
-        } else {
-            if (receiver != null) {
-                invokeArgs = new Object[args.length+1];
-                invokeArgs[0] = receiver;
-                for (int i = 0; i < args.length; i++) {
-                    invokeArgs[i+1] = args[i];
-                }
-            } else {
-                invokeArgs = args;
-            }
+        }
 
-            try {
-                return handle.invokeWithArguments(invokeArgs);
-            } catch (Throwable t) {
-                return null;
-            }
+        Object[] invokeArgs = new Object[args.length+1];
+        invokeArgs[0] = receiver;
+        System.arraycopy(args, 0, invokeArgs, 1, args.length);
+
+        try {
+            return handle.invokeWithArguments(invokeArgs);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * Invoke the method referred to by this MethodHandleWrapper, which takes no arguments
+     * @param receiver the object upon which this method is being invoked, the 'this' of the method call
+     * @return the return value of the invoked method, or null if it could not be invoked
+     */
+    public Object invoke(Object receiver) {
+        if (exactHandle == null || receiver == null) {
+            return null;
+        }
+
+        try {
+            return (Object) exactHandle.invokeExact(receiver);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * Invoke the method referred to by this MethodHandleWrapper, which takes 1 argument
+     * @param receiver the object upon which this method is being invoked, the 'this' of the method call
+     * @param arg0 the first argument
+     * @return the return value of the invoked method, or null if it could not be invoked
+     */
+    public Object invoke(Object receiver, Object arg0) {
+        if (exactHandle == null || receiver == null) {
+            return null;
+        }
+
+        try {
+            return (Object) exactHandle.invokeExact(receiver, arg0);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * Invoke the method referred to by this MethodHandleWrapper, which takes 2 arguments
+     * @param receiver the object upon which this method is being invoked, the 'this' of the method call
+     * @param arg0 the first argument
+     * @param arg1 the second argument
+     * @return the return value of the invoked method, or null if it could not be invoked
+     */
+    public Object invoke(Object receiver, Object arg0, Object arg1) {
+        if (exactHandle == null || receiver == null) {
+            return null;
+        }
+
+        try {
+            return (Object) exactHandle.invokeExact(receiver, arg0, arg1);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * Invoke the method referred to by this MethodHandleWrapper, which takes 3 arguments
+     * @param receiver the object upon which this method is being invoked, the 'this' of the method call
+     * @param arg0 the first argument
+     * @param arg1 the second argument
+     * @param arg2 the third argument
+     * @return the return value of the invoked method, or null if it could not be invoked
+     */
+    public Object invoke(Object receiver, Object arg0, Object arg1, Object arg2) {
+        if (exactHandle == null || receiver == null) {
+            return null;
+        }
+
+        try {
+            return (Object) exactHandle.invokeExact(receiver, arg0, arg1, arg2);
+        } catch (Throwable t) {
+            return null;
         }
     }
 
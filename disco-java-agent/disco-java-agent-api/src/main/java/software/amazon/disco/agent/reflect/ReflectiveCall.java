@@ -17,11 +17,16 @@ package software.amazon.disco.agent.reflect;
 
 import software.amazon.disco.agent.reflect.logging.Logger;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
@@ -31,14 +36,26 @@ import java.util.stream.Collectors;
  * case that the Agent is not loaded, making it safe for clients to use the reflect library in their
  * Prod code.
  *
+ * The target method is resolved at most once per ReflectiveCall (and again after {@link #resetCache()}), into a
+ * MethodHandle, so a ReflectiveCall for a static method may be built once, held in a static final field, and called
+ * repeatedly from any thread. Such a shared ReflectiveCall must not be reconfigured (e.g. with onInstance()) after it
+ * is built. Calls of up to two arguments may be made without allocating an argument array.
+ *
  * @param <T> - the return type of the method being called
  */
 public class ReflectiveCall<T> {
     private static final String DISCO_AGENT_PACKAGE_ROOT = "software.amazon.disco.agent";
     private static final String AGENT_TEMPLATE_CLASS_NAME = DISCO_AGENT_PACKAGE_ROOT + ".DiscoAgentTemplate";
     private static final Map<String, Class> CACHED_TYPES = new ConcurrentHashMap<>();
+    private static final Map<Method, Target> CACHED_TARGETS = new ConcurrentHashMap<>();
+    private static final Set<String> MISSING_TYPES = ConcurrentHashMap.newKeySet();
+    private static final MethodHandle WRAP_TARGET_THROWABLE = createWrapTargetThrowable();
+
+    //incremented by resetCache(), so that ReflectiveCalls held in static fields resolve their target again
+    private static volatile int cacheGeneration;
 
-    private static Boolean discoTemplateClassFound;
+    //volatile so that, once computed by any thread, the presence of the agent is visible to all threads
+    private static volatile Boolean discoTemplateClassFound;
 
     private String fullClassName;
     private String methodName;
@@ -46,7 +63,7 @@ public class ReflectiveCall<T> {
     private Class returnType;
     private Class<?>[] argTypes;
     private T defaultValue;
-    private Method method;
+    private volatile Target target;
     static UncaughtExceptionHandler uncaughtExceptionHandler = null;
 
     /**
@@ -141,10 +158,81 @@ public class ReflectiveCall<T> {
      * @return true if the method configured exists
      */
     public boolean methodFound() {
-        if (method == null) {
+        Target target = this.target;
+        if (target == null || target.generation != cacheGeneration) {
             createMethod();
+            target = this.target;
+        }
+        return target != null;
+    }
+
+    /**
+     * Invoke the given method, which takes no arguments, without allocating an argument array.
+     *
+     * @return any value which the method returns, or null if the call could not be made
+     * @see #call(Object...)
+     */
+    public T call() {
+        try {
+            Target target = resolve();
+            if (target == null) {
+                return defaultValue;
+            }
+            if (target.exact != null && target.arity == 0) {
+                return (T) target.exact.invokeExact(thiz);
+            }
+        } catch (Throwable t) {
+            handleThrowable(t);
+            return null;
+        }
+        return call(new Object[0]);
+    }
+
+    /**
+     * Invoke the given method, which takes one argument, without allocating an argument array.
+     *
+     * @param arg0 the argument to pass to the method invocation
+     * @return any value which the method returns, or null if the call could not be made
+     * @see #call(Object...)
+     */
+    public T call(Object arg0) {
+        try {
+            Target target = resolve();
+            if (target == null) {
+                return defaultValue;
+            }
+            if (target.exact != null && target.arity == 1) {
+                return (T) target.exact.invokeExact(thiz, arg0);
+            }
+        } catch (Throwable t) {
+            handleThrowable(t, arg0);
+            return null;
+        }
+        return call(new Object[] {arg0});
+    }
+
+    /**
+     * Invoke the given method, which takes two arguments, without allocating an argument array.
+     *
+     * @param arg0 the first argument to pass to the method invocation
+     * @param arg1 the second argument to pass to the method invocation
+     * @return any value which the method returns, or null if the call could not be made
+     * @see #call(Object...)
+     */
+    public T call(Object arg0, Object arg1) {
+        try {
+            Target target = resolve();
+            if (target == null) {
+                return defaultValue;
+            }
+            if (target.exact != null && target.arity == 2) {
+                return (T) target.exact.invokeExact(thiz, arg0, arg1);
+            }
+        } catch (Throwable t) {
+            handleThrowable(t, arg0, arg1);
+            return null;
         }
-        return method != null;
+        return call(new Object[] {arg0, arg1});
     }
 
     /**
@@ -157,21 +245,18 @@ public class ReflectiveCall<T> {
      */
     public T call(Object... args) {
         try {
-            if (method == null) {
-                createMethod();
+            Target target = resolve();
+            if (target == null) {
+                return defaultValue;
             }
 
-            if (method == null) {
-                return defaultValue;
+            if (target.spreader != null) {
+                return (T) target.spreader.invokeExact(thiz, args);
             }
 
-            return (T) method.invoke(thiz, args);
-        } catch (IllegalAccessException e) {
-            Logger.warn("IllegalAccessException when trying to call " + fullClassName + ":" + methodName);
-        } catch (InvocationTargetException e) {
-            //the reflected method actually threw a Throwable, so pass it to the calling code if an UncaughtExceptionHandler
-            //is installed
-            dispatchException(e.getCause(), args);
+            return (T) target.method.invoke(thiz, args);
+        } catch (Throwable t) {
+            handleThrowable(t, args);
         }
 
         return null;
@@ -183,12 +268,14 @@ public class ReflectiveCall<T> {
      * @return true if a DiSCo agent is present
      */
     public static boolean isAgentPresent() {
-        if (discoTemplateClassFound == null) {
+        Boolean found = discoTemplateClassFound;
+        if (found == null) {
             // perform a reflective call only if 'discoTemplateClassFound' is null.
             // the value of 'discoTemplateClassFound' will be cached and returned until the 'resetCache()' method is invoked.
-            discoTemplateClassFound = retrieveCachedType(AGENT_TEMPLATE_CLASS_NAME) != null;
+            found = retrieveCachedType(AGENT_TEMPLATE_CLASS_NAME) != null;
+            discoTemplateClassFound = found;
         }
-        return discoTemplateClassFound;
+        return found;
     }
 
     /**
@@ -264,11 +351,15 @@ public class ReflectiveCall<T> {
     }
 
     /**
-     * Reset the type cache and the value of isAgentPresent.
+     * Reset the type and method handle caches, including the record of types known to be missing, and the value of
+     * isAgentPresent. Should be called if an agent is loaded after the reflect API has first been used.
      */
     public static void resetCache() {
         CACHED_TYPES.clear();
+        CACHED_TARGETS.clear();
+        MISSING_TYPES.clear();
         discoTemplateClassFound = null;
+        cacheGeneration++;
     }
 
     /**
@@ -282,6 +373,17 @@ public class ReflectiveCall<T> {
         return CACHED_TYPES;
     }
 
+    /**
+     * Getter for the names of all types which could not be loaded.
+     * <p>
+     * Package private for testing.
+     *
+     * @return set of fully qualified class names known to be missing.
+     */
+    static Set<String> getMissingTypes() {
+        return MISSING_TYPES;
+    }
+
     /**
      * Set the value for 'discoTemplateClassFound' for testing purposes.
      * <p>
@@ -304,6 +406,53 @@ public class ReflectiveCall<T> {
         return discoTemplateClassFound;
     }
 
+    /**
+     * Get the resolved target of this call, resolving it if it has not been resolved since the last resetCache().
+     *
+     * @return the target of this call, or null if it cannot be called, e.g. if the agent is absent
+     */
+    private Target resolve() {
+        Target target = this.target;
+        if (target != null && target.generation == cacheGeneration) {
+            return target;
+        }
+
+        //when no agent is loaded, every call is a no-op returning the default, without any reflective lookups
+        if (!isAgentPresent()) {
+            return null;
+        }
+        createMethod();
+        return this.target;
+    }
+
+    /**
+     * Handle a Throwable from an attempted call in the same way as the original reflective implementation: failures
+     * thrown by the called method are passed to any UncaughtExceptionHandler, while arguments which do not suit the
+     * method are reported by IllegalArgumentException, and Errors are rethrown.
+     *
+     * @param t the Throwable to handle
+     * @param args the arguments of the call
+     */
+    private void handleThrowable(Throwable t, Object... args) {
+        if (t instanceof IllegalAccessException) {
+            Logger.warn("IllegalAccessException when trying to call " + fullClassName + ":" + methodName);
+        } else if (t instanceof InvocationTargetException) {
+            //the reflected method actually threw a Throwable, so pass it to the calling code if an UncaughtExceptionHandler
+            //is installed
+            dispatchException(t.getCause(), args);
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t instanceof IllegalArgumentException) {
+            throw (IllegalArgumentException) t;
+        } else if (t instanceof RuntimeException) {
+            //a MethodHandle reports arguments it cannot convert with e.g. ClassCastException, where Method#invoke would
+            //throw IllegalArgumentException
+            throw new IllegalArgumentException(t);
+        } else {
+            dispatchException(t, args);
+        }
+    }
+
     /**
      * Using the supplied class, method name and argument types information, create a callable Method.
      */
@@ -314,7 +463,7 @@ public class ReflectiveCall<T> {
                 final Class clazz = retrieveCachedType(fullClassName);
 
                 if (clazz != null) {
-                    method = clazz.getDeclaredMethod(methodName, argTypes);
+                    target = retrieveCachedTarget(clazz.getDeclaredMethod(methodName, argTypes));
                 }
             }
         } catch (Throwable t) {
@@ -323,7 +472,109 @@ public class ReflectiveCall<T> {
     }
 
     /**
-     * Attempt to retrieve the class type using the supplied fully qualified class name. If successful, the type will be returned and cached, otherwise null will be returned.
+     * Retrieve the Target for the given Method, creating and caching it if necessary, so that ReflectiveCalls which
+     * are built anew for every call need not pay the cost of creating MethodHandles each time.
+     *
+     * @param method the Method to adapt
+     * @return a Target for the Method
+     */
+    private static Target retrieveCachedTarget(Method method) {
+        int generation = cacheGeneration;
+        Target target = CACHED_TARGETS.get(method);
+        if (target == null || target.generation != generation) {
+            target = new Target(method, generation);
+            CACHED_TARGETS.put(method, target);
+        }
+        return target;
+    }
+
+    /**
+     * Adapt the given Method into a MethodHandle taking the instance followed by the Method's own arguments, in which
+     * any Throwable thrown by the Method is wrapped in an InvocationTargetException, as Method#invoke would wrap it.
+     *
+     * @param method the Method to adapt
+     * @return a MethodHandle for the Method, or null if it is inaccessible, in which case the Method is invoked instead.
+     */
+    private static MethodHandle createMethodHandle(Method method) {
+        if (WRAP_TARGET_THROWABLE == null) {
+            return null;
+        }
+
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            MethodHandle handler = MethodHandles.dropArguments(
+                    WRAP_TARGET_THROWABLE.asType(MethodType.methodType(handle.type().returnType(), Throwable.class)),
+                    1, handle.type().parameterList());
+            return MethodHandles.catchException(handle, Throwable.class, handler);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Create the MethodHandle used to wrap Throwables thrown by called methods.
+     *
+     * @return a MethodHandle for wrapTargetThrowable, or null if it could not be found, in which case Method#invoke is
+     * used for all calls.
+     */
+    private static MethodHandle createWrapTargetThrowable() {
+        try {
+            return MethodHandles.lookup().findStatic(ReflectiveCall.class, "wrapTargetThrowable",
+                    MethodType.methodType(Object.class, Throwable.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Wrap a Throwable thrown by a called method, so that it can be told apart from a failure of the call itself.
+     *
+     * @param t the Throwable thrown by the called method
+     * @return never returns
+     * @throws InvocationTargetException always
+     */
+    private static Object wrapTargetThrowable(Throwable t) throws InvocationTargetException {
+        throw new InvocationTargetException(t);
+    }
+
+    /**
+     * A resolved Method, and the MethodHandles through which it is invoked.
+     */
+    private static final class Target {
+        private static final int MAX_EXACT_ARITY = 2;
+
+        final Method method;
+        final int arity;
+        final int generation;
+        //of type (Object, Object[])Object, or null if the Method must be invoked reflectively
+        final MethodHandle spreader;
+        //of type (Object, Object...)Object taking exactly 'arity' arguments, or null if unavailable
+        final MethodHandle exact;
+
+        Target(Method method, int generation) {
+            this.method = method;
+            this.arity = method.getParameterCount();
+            this.generation = generation;
+
+            MethodHandle handle = createMethodHandle(method);
+            if (handle == null) {
+                this.spreader = null;
+                this.exact = null;
+            } else {
+                this.spreader = handle
+                        .asSpreader(Object[].class, arity)
+                        .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+                this.exact = arity > MAX_EXACT_ARITY ? null : handle.asType(MethodType.genericMethodType(arity + 1));
+            }
+        }
+    }
+
+    /**
+     * Attempt to retrieve the class type using the supplied fully qualified class name. If successful, the type will be returned and cached, otherwise null will be returned
+     * and the name remembered as missing, so that later attempts return null without trying to load the class again.
      * <p>
      * Package private for testing.
      *
@@ -331,14 +582,19 @@ public class ReflectiveCall<T> {
      * @return type of the supplied class name if can be resolved, null otherwise.
      */
     static Class retrieveCachedType(final String fullClassName) {
-        if (CACHED_TYPES.get(fullClassName) == null) {
-            try {
-                CACHED_TYPES.put(fullClassName, Class.forName(fullClassName));
-            } catch (ClassNotFoundException e) {
-                return null;
-            }
+        Class type = CACHED_TYPES.get(fullClassName);
+        if (type != null || MISSING_TYPES.contains(fullClassName)) {
+            return type;
         }
 
-        return CACHED_TYPES.get(fullClassName);
+        try {
+            type = Class.forName(fullClassName);
+            CACHED_TYPES.put(fullClassName, type);
+            return type;
+        } catch (ClassNotFoundException e) {
+            //remember the failure, since throwing and catching ClassNotFoundException is costly
+            MISSING_TYPES.add(fullClassName);
+            return null;
+        }
     }
 }
@@ -34,16 +34,58 @@ public class TransactionContext {
     static final String DISCO_PREFIX = "$amazon.disco";
     static final String TRANSACTIONCONTEXT_CLASS = ".concurrent.TransactionContext";
 
+    //each call is built once, and resolves its target method once, since these are used on every service request
+    private static final ReflectiveCall<Integer> CREATE = ReflectiveCall.returning(int.class)
+            .ofClass(TRANSACTIONCONTEXT_CLASS)
+            .ofMethod("create")
+            .withDefaultValue(0);
+    private static final ReflectiveCall DESTROY = ReflectiveCall.returningVoid()
+            .ofClass(TRANSACTIONCONTEXT_CLASS)
+            .ofMethod("destroy");
+    private static final ReflectiveCall SET = ReflectiveCall.returningVoid()
+            .ofClass(TRANSACTIONCONTEXT_CLASS)
+            .ofMethod("set")
+            .withArgTypes(String.class);
+    private static final ReflectiveCall<String> GET = ReflectiveCall.returning(String.class)
+            .ofClass(TRANSACTIONCONTEXT_CLASS)
+            .ofMethod("get");
+    private static final ReflectiveCall PUT_METADATA = ReflectiveCall.returningVoid()
+            .ofClass(TRANSACTIONCONTEXT_CLASS)
+            .ofMethod("putMetadata")
+            .withArgTypes(String.class, Object.class);
+    private static final ReflectiveCall REMOVE_METADATA = ReflectiveCall.returningVoid()
+            .ofClass(TRANSACTIONCONTEXT_CLASS)
+            .ofMethod("removeMetadata")
+            .withArgTypes(String.class);
+    private static final ReflectiveCall<Object> GET_METADATA = ReflectiveCall.returning(Object.class)
+            .ofClass(TRANSACTIONCONTEXT_CLASS)
+            .ofMethod("getMetadata")
+            .withArgTypes(String.class);
+    private static final ReflectiveCall SET_METADATA_TAG = ReflectiveCall.returningVoid()
+            .ofClass(TRANSACTIONCONTEXT_CLASS)
+            .ofMethod("setMetadataTag")
+            .withArgTypes(String.class, String.class);
+    private static final ReflectiveCall<Map> GET_METADATA_WITH_TAG = ReflectiveCall.returning(Map.class)
+            .ofClass(TRANSACTIONCONTEXT_CLASS)
+            .ofMethod("getMetadataWithTag")
+            .withArgTypes(String.class)
+            .withDefaultValue(Collections.emptyMap());
+    private static final ReflectiveCall CLEAR = ReflectiveCall.returningVoid()
+            .ofClass(TRANSACTIONCONTEXT_CLASS)
+            .ofMethod("clear");
+    private static final ReflectiveCall<String> GET_UNINITIALIZED_TRANSACTION_CONTEXT_VALUE = ReflectiveCall.returning(String.class)
+            .ofClass(TRANSACTIONCONTEXT_CLASS)
+            .ofMethod("getUninitializedTransactionContextValue");
+    private static final ReflectiveCall<Boolean> IS_WITHIN_CREATED_CONTEXT = ReflectiveCall.returning(Boolean.class)
+            .ofClass(TRANSACTIONCONTEXT_CLASS)
+            .ofMethod("isWithinCreatedContext");
+
     /**
      * Create a default transaction ID
      * @return the tx stack depth.
      */
     public static int create() {
-        return ReflectiveCall.returning(int.class)
-                .ofClass(TRANSACTIONCONTEXT_CLASS)
-                .ofMethod("create")
-                .withDefaultValue(0)
-                .call();
+        return CREATE.call();
     }
 
     /**
@@ -53,21 +95,14 @@ public class TransactionContext {
      * this will do nothing.
      */
     public static void destroy() {
-        ReflectiveCall.returningVoid()
-                .ofClass(TRANSACTIONCONTEXT_CLASS)
-                .ofMethod("destroy")
-                .call();
+        DESTROY.call();
     }
     /**
      * Set the DiSCo Transaction ID to a specific value.
      * @param value - the value to set
      */
     public static void set(String value) {
-        ReflectiveCall.returningVoid()
-                .ofClass(TRANSACTIONCONTEXT_CLASS)
-                .ofMethod("set")
-                .withArgTypes(String.class)
-                .call(value);
+        SET.call(value);
     }
 
     /**
@@ -75,10 +110,7 @@ public class TransactionContext {
      * @return - the TransactionContext value
      */
     public static String get() {
-        return ReflectiveCall.returning(String.class)
-                .ofClass(TRANSACTIONCONTEXT_CLASS)
-                .ofMethod("get")
-                .call();
+        return GET.call();
     }
 
     /**
@@ -87,14 +119,9 @@ public class TransactionContext {
      * @param value the metadata value
      */
     public static void putMetadata(String key, Object value) {
-        ReflectiveCall call = ReflectiveCall.returningVoid()
-                .ofClass(TRANSACTIONCONTEXT_CLASS)
-                .ofMethod("putMetadata")
-                .withArgTypes(String.class, Object.class);
-
-        checkMetadataKey(call, key);
+        checkMetadataKey(PUT_METADATA, key);
 
-        call.call(key, value);
+        PUT_METADATA.call(key, value);
     }
 
     /**
@@ -102,14 +129,9 @@ public class TransactionContext {
      * @param key the key of the metadata
      */
     public static void removeMetadata(String key) {
-        ReflectiveCall call = ReflectiveCall.returningVoid()
-                .ofClass(TRANSACTIONCONTEXT_CLASS)
-                .ofMethod("removeMetadata")
-                .withArgTypes(String.class);
+        checkMetadataKey(REMOVE_METADATA, key);
 
-        checkMetadataKey(call, key);
-
-        call.call(key);
+        REMOVE_METADATA.call(key);
     }
 
     /**
@@ -118,14 +140,9 @@ public class TransactionContext {
      * @return the metadata value
      */
     public static Object getMetadata(String key) {
-        ReflectiveCall call = ReflectiveCall.returning(Object.class)
-                .ofClass(TRANSACTIONCONTEXT_CLASS)
-                .ofMethod("getMetadata")
-                .withArgTypes(String.class);
-
-        checkMetadataKey(call, key);
+        checkMetadataKey(GET_METADATA, key);
 
-        return call.call(key);
+        return GET_METADATA.call(key);
     }
 
     /**
@@ -134,11 +151,7 @@ public class TransactionContext {
      * @param tag a String that will be added to label/tag the data.
      */
     public static void setMetadataTag(String key, String tag) {
-        ReflectiveCall.returningVoid()
-                .ofClass(TRANSACTIONCONTEXT_CLASS)
-                .ofMethod("setMetadataTag")
-                .withArgTypes(String.class, String.class)
-                .call(key, tag);
+        SET_METADATA_TAG.call(key, tag);
     }
 
     /**
@@ -147,22 +160,14 @@ public class TransactionContext {
      * @return a map of metadata objects that contained the tag
      */
     public static Map<String, Object> getMetadataWithTag(String tag) {
-        return ReflectiveCall.returning(Map.class)
-                .ofClass(TRANSACTIONCONTEXT_CLASS)
-                .ofMethod("getMetadataWithTag")
-                .withArgTypes(String.class)
-                .withDefaultValue(Collections.emptyMap())
-                .call(tag);
+        return GET_METADATA_WITH_TAG.call(tag);
     }
 
     /**
      * Clear the DiSCo TransactionContext to revert to its default value, or a no-op if Agent not loaded
      */
     public static void clear() {
-        ReflectiveCall.returningVoid()
-                .ofClass(TRANSACTIONCONTEXT_CLASS)
-                .ofMethod("clear")
-                .call();
+        CLEAR.call();
     }
 
     /**
@@ -170,10 +175,7 @@ public class TransactionContext {
      * @return - "disco_null_id"
      */
     public static String getUninitializedTransactionContextValue() {
-        return ReflectiveCall.returning(String.class)
-            .ofClass(TRANSACTIONCONTEXT_CLASS)
-            .ofMethod("getUninitializedTransactionContextValue")
-            .call();
+        return GET_UNINITIALIZED_TRANSACTION_CONTEXT_VALUE.call();
     }
 
     /**
@@ -195,10 +197,7 @@ public class TransactionContext {
      * @return true if we think we're currently inside a created Transaction Context, else false
      */
     public static boolean isWithinCreatedContext() {
-        Boolean result = ReflectiveCall.returning(Boolean.class)
-            .ofClass(TRANSACTIONCONTEXT_CLASS)
-            .ofMethod("isWithinCreatedContext")
-            .call();
+        Boolean result = IS_WITHIN_CREATED_CONTEXT.call();
         return result == null ? false : result;
     }
 
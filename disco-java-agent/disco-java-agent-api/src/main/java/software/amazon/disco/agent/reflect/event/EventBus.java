@@ -22,16 +22,34 @@ import software.amazon.disco.agent.event.Listener;
 
 public class EventBus {
     static final String EVENTBUS_CLASS = ".event.EventBus";
+
+    //each call is built once, and resolves its target method once, since publish() in particular is called frequently
+    private static final ReflectiveCall PUBLISH = ReflectiveCall.returningVoid()
+            .ofClass(EVENTBUS_CLASS)
+            .ofMethod("publish")
+            .withArgTypes(Event.class);
+    private static final ReflectiveCall ADD_LISTENER = ReflectiveCall.returningVoid()
+            .ofClass(EVENTBUS_CLASS)
+            .ofMethod("addListener")
+            .withArgTypes(Listener.class);
+    private static final ReflectiveCall REMOVE_LISTENER = ReflectiveCall.returningVoid()
+            .ofClass(EVENTBUS_CLASS)
+            .ofMethod("removeListener")
+            .withArgTypes(Listener.class);
+    private static final ReflectiveCall REMOVE_ALL_LISTENERS = ReflectiveCall.returningVoid()
+            .ofClass(EVENTBUS_CLASS)
+            .ofMethod("removeAllListeners");
+    private static final ReflectiveCall<Boolean> IS_LISTENER_PRESENT = ReflectiveCall.returning(Boolean.class)
+            .ofClass(EVENTBUS_CLASS)
+            .ofMethod("isListenerPresent")
+            .withArgTypes(Listener.class);
+
     /**
      * Publish an event which will be broadcast to all listeners
      * @param e the event to publish
      */
     static public void publish(Event e)  {
-        ReflectiveCall.returningVoid()
-            .ofClass(EVENTBUS_CLASS)
-            .ofMethod("publish")
-            .withArgTypes(Event.class)
-            .call(e);
+        PUBLISH.call(e);
     }
 
     /**
@@ -39,12 +57,7 @@ public class EventBus {
      * @param l the listener to add
      */
     static public void addListener(Listener l) {
-        ReflectiveCall
-            .returningVoid()
-            .ofClass(EVENTBUS_CLASS)
-            .ofMethod("addListener")
-            .withArgTypes(Listener.class)
-            .call(l);
+        ADD_LISTENER.call(l);
     }
 
     /**
@@ -52,23 +65,14 @@ public class EventBus {
      * @param l the listener to remove. It is safe to remove a listener not currently added.
      */
     static public void removeListener(Listener l) {
-        ReflectiveCall
-            .returningVoid()
-            .ofClass(EVENTBUS_CLASS)
-            .ofMethod("removeListener")
-            .withArgTypes(Listener.class)
-            .call(l);
+        REMOVE_LISTENER.call(l);
     }
 
     /**
      * Remove all listeners from the EventBus, returning it to its initial state
      */
     static public void removeAllListeners() {
-        ReflectiveCall
-            .returningVoid()
-            .ofClass(EVENTBUS_CLASS)
-            .ofMethod("removeAllListeners")
-            .call();
+        REMOVE_ALL_LISTENERS.call();
     }
 
     /**
@@ -77,12 +81,7 @@ public class EventBus {
      * @return true if the listener is presently registered to receive events
      */
     static public boolean isListenerPresent(Listener l) {
-        Boolean returnValue =  ReflectiveCall
-                .returning(Boolean.class)
-                .ofClass(EVENTBUS_CLASS)
-                .ofMethod("isListenerPresent")
-                .withArgTypes(Listener.class)
-                .call(l);
+        Boolean returnValue = IS_LISTENER_PRESENT.call(l);
 
         return returnValue == null  ? false : returnValue;
     }
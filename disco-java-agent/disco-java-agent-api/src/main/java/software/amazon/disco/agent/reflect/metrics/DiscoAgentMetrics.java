@@ -17,6 +17,10 @@ package software.amazon.disco.agent.reflect.metrics;
 
 import software.amazon.disco.agent.reflect.ReflectiveCall;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Clients of the disco.agent.reflect package may retrieve Disco agent metrics information, such as how long the agent
  * has been running.
@@ -38,4 +42,98 @@ public class DiscoAgentMetrics {
 
         return returnValue == null ? -1L : returnValue;
     }
+
+    /**
+     * Retrieve how long each phase of agent startup took, e.g. plugin scanning, or the installation of each Installable.
+     *
+     * @return a map of phase name to its duration in nanoseconds, or an empty map if the agent is not loaded.
+     */
+    public static Map<String, Long> getStartupPhaseDurations() {
+        @SuppressWarnings("unchecked")
+        Map<String, Long> result = (Map<String, Long>) ReflectiveCall.returning(Map.class)
+                .ofClass(DISCOAGENTMETRICS_CLASS)
+                .ofMethod("getStartupPhaseDurations")
+                .withDefaultValue(Collections.emptyMap())
+                .call();
+        return result;
+    }
+
+    /**
+     * Retrieve how many classes each Installable has transformed. Only populated when the agent is started with the
+     * 'transformationmetrics' argument.
+     *
+     * @return a map of Installable name to transformed class count, or an empty map if the agent is not loaded.
+     */
+    public static Map<String, Long> getTransformedClassCounts() {
+        @SuppressWarnings("unchecked")
+        Map<String, Long> result = (Map<String, Long>) ReflectiveCall.returning(Map.class)
+                .ofClass(DISCOAGENTMETRICS_CLASS)
+                .ofMethod("getTransformedClassCounts")
+                .withDefaultValue(Collections.emptyMap())
+                .call();
+        return result;
+    }
+
+    /**
+     * Retrieve how long each Installable has spent matching and transforming classes. Only populated when the agent is
+     * started with the 'transformationmetrics' argument.
+     *
+     * @return a map of Installable name to time in nanoseconds, or an empty map if the agent is not loaded.
+     */
+    public static Map<String, Long> getTransformationTimes() {
+        @SuppressWarnings("unchecked")
+        Map<String, Long> result = (Map<String, Long>) ReflectiveCall.returning(Map.class)
+                .ofClass(DISCOAGENTMETRICS_CLASS)
+                .ofMethod("getTransformationTimes")
+                .withDefaultValue(Collections.emptyMap())
+                .call();
+        return result;
+    }
+
+    /**
+     * Retrieve the names of any Installables which were disabled for exceeding the budget given by the
+     * 'transformationbudget' agent argument.
+     *
+     * @return the set of disabled Installable names, or an empty set if none or the agent is not loaded.
+     */
+    public static Set<String> getDisabledInstallables() {
+        @SuppressWarnings("unchecked")
+        Set<String> result = (Set<String>) ReflectiveCall.returning(Set.class)
+                .ofClass(DISCOAGENTMETRICS_CLASS)
+                .ofMethod("getDisabledInstallables")
+                .withDefaultValue(Collections.emptySet())
+                .call();
+        return result;
+    }
+
+    /**
+     * Retrieve the total number of request and response header bytes which interceptors have captured into events.
+     *
+     * @return the total captured header bytes, or -1 if the agent is not loaded.
+     */
+    public static long getCapturedHeaderBytes() {
+        Long returnValue = ReflectiveCall
+                .returning(Long.class)
+                .ofClass(DISCOAGENTMETRICS_CLASS)
+                .ofMethod("getCapturedHeaderBytes")
+                .call();
+
+        return returnValue == null ? -1L : returnValue;
+    }
+
+    /**
+     * Retrieve the number of requests and responses whose headers interceptors have captured into events. Dividing
+     * {@link #getCapturedHeaderBytes()} by this gives the mean header bytes captured per request.
+     *
+     * @return the number of header captures, or -1 if the agent is not loaded.
+     */
+    public static long getHeaderCaptureCount() {
+        Long returnValue = ReflectiveCall
+                .returning(Long.class)
+                .ofClass(DISCOAGENTMETRICS_CLASS)
+                .ofMethod("getHeaderCaptureCount")
+                .call();
+
+        return returnValue == null ? -1L : returnValue;
+    }
 }
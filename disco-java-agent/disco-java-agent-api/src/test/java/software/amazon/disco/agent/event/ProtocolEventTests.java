@@ -19,8 +19,11 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ProtocolEventTests {
     private Object request = new Object();
@@ -86,6 +89,77 @@ public class ProtocolEventTests {
         Assert.assertEquals("data", event.getFirstHeader("custom-header"));
     }
 
+    @Test
+    public void testHeaderSourceReadLazilyAndOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        HttpServletNetworkRequestEvent event = new HttpServletNetworkRequestEvent("Origin", 80, 1500, "127.0.0.1", "0.0.0.0")
+                .withHeaderSource(() -> {
+                    calls.incrementAndGet();
+                    return Collections.singletonMap("custom-header", Collections.singletonList("data"));
+                });
+
+        Assert.assertEquals(0, calls.get());
+        Assert.assertEquals("data", event.getFirstHeader("custom-header"));
+        Assert.assertEquals(Collections.singletonList("data"), event.getHeaders("custom-header"));
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testExplicitHeadersTakePrecedenceOverHeaderSource() {
+        Map<String, List<String>> sourceHeaders = new HashMap<>();
+        sourceHeaders.put("host", Collections.singletonList("example.com"));
+        sourceHeaders.put("custom-header", Collections.singletonList("data"));
+        HttpServletNetworkRequestEvent event = new HttpServletNetworkRequestEvent("Origin", 80, 1500, "127.0.0.1", "0.0.0.0")
+                .withHeaderSource(() -> sourceHeaders)
+                .withHost("amazon.com");
+
+        Assert.assertEquals("amazon.com", event.getHost());
+        Assert.assertEquals("data", event.getFirstHeader("custom-header"));
+        Assert.assertEquals(2, event.getAllHeaders().size());
+    }
+
+    @Test
+    public void testHeaderMapDataMaterializesHeaderSource() {
+        HttpServletNetworkResponseEvent event = new HttpServletNetworkResponseEvent("Origin", null)
+                .withHeaderSource(() -> Collections.singletonMap("custom-header", Collections.singletonList("data")));
+
+        Assert.assertEquals(event.getAllHeaders(), event.getData("HEADER_MAP"));
+        Assert.assertEquals("data", event.getHeaderData("custom-header"));
+    }
+
+    @Test
+    public void testDroppedHeaderSourceNotRead() {
+        AtomicInteger calls = new AtomicInteger();
+        HttpServletNetworkRequestEvent event = new HttpServletNetworkRequestEvent("Origin", 80, 1500, "127.0.0.1", "0.0.0.0")
+                .withHeaderSource(() -> {
+                    calls.incrementAndGet();
+                    return Collections.singletonMap("custom-header", Collections.singletonList("data"));
+                })
+                .withHost("amazon.com");
+        event.dropHeaderSource();
+
+        Assert.assertNull(event.getFirstHeader("custom-header"));
+        Assert.assertEquals("amazon.com", event.getHost());
+        Assert.assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void testHeadersReadBeforeDropRetained() {
+        HttpServletNetworkRequestEvent event = new HttpServletNetworkRequestEvent("Origin", 80, 1500, "127.0.0.1", "0.0.0.0")
+                .withHeaderSource(() -> Collections.singletonMap("custom-header", Collections.singletonList("data")));
+        event.getAllHeaders();
+        event.dropHeaderSource();
+
+        Assert.assertEquals("data", event.getFirstHeader("custom-header"));
+    }
+
+    @Test
+    public void testNoHeaderSource() {
+        HttpServletNetworkResponseEvent event = new HttpServletNetworkResponseEvent("Origin", null);
+        Assert.assertTrue(event.getAllHeaders().isEmpty());
+        Assert.assertNull(event.getFirstHeader("custom-header"));
+    }
+
     private void test(NetworkProtocolEvent event) {
         Assert.assertEquals("Origin", event.getOrigin());
         Assert.assertEquals(NetworkProtocolEvent.NetworkType.TCP, event.getNetworkType());
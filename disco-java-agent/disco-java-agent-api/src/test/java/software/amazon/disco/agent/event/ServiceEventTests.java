@@ -71,12 +71,15 @@ public class ServiceEventTests {
         ServiceDownstreamRequestEvent requestEvent = Mockito.mock(ServiceDownstreamRequestEvent.class);
         HttpServiceDownstreamResponseEvent responseEvent = new HttpServiceDownstreamResponseEvent("Origin", "Service", "Operation", requestEvent)
                 .withStatusCode(200)
-                .withContentLength(42L);
+                .withContentLength(42L)
+                .withDuration(1000L);
 
         test(responseEvent);
 
         Assert.assertEquals(200, responseEvent.getStatusCode());
         Assert.assertEquals(42L, responseEvent.getContentLength());
+        Assert.assertEquals(1000L, responseEvent.getDuration());
+        Assert.assertEquals(1000L, responseEvent.getData("DURATION"));
     }
 
     @Test
@@ -88,6 +91,148 @@ public class ServiceEventTests {
 
         Assert.assertEquals(-1, responseEvent.getStatusCode());
         Assert.assertEquals(-1L, responseEvent.getContentLength());
+        Assert.assertEquals(-1L, responseEvent.getDuration());
+        Assert.assertNull(responseEvent.getData("DURATION"));
+    }
+
+    @Test
+    public void testBatchServiceDownstreamResponseEvent() {
+        ServiceDownstreamRequestEvent requestEvent = Mockito.mock(ServiceDownstreamRequestEvent.class);
+        BatchServiceDownstreamResponseEvent responseEvent = new BatchServiceDownstreamResponseEvent("Origin", "Service", "Operation", requestEvent)
+                .withStatementCount(3)
+                .withDuration(1000L);
+
+        test(responseEvent);
+
+        Assert.assertEquals(3, responseEvent.getStatementCount());
+        Assert.assertEquals(1000L, responseEvent.getDuration());
+        Assert.assertEquals(3, responseEvent.getData("STATEMENT_COUNT"));
+        Assert.assertEquals(1000L, responseEvent.getData("DURATION"));
+    }
+
+    @Test
+    public void testBatchServiceDownstreamResponseEventWithoutResponse() {
+        ServiceDownstreamRequestEvent requestEvent = Mockito.mock(ServiceDownstreamRequestEvent.class);
+        BatchServiceDownstreamResponseEvent responseEvent = new BatchServiceDownstreamResponseEvent("Origin", "Service", "Operation", requestEvent);
+
+        test(responseEvent);
+
+        Assert.assertEquals(-1, responseEvent.getStatementCount());
+        Assert.assertEquals(-1L, responseEvent.getDuration());
+        Assert.assertNull(responseEvent.getData("STATEMENT_COUNT"));
+        Assert.assertNull(responseEvent.getData("DURATION"));
+    }
+
+    @Test
+    public void testBuiltInAttributesRetrievableByName() {
+        ServiceDownstreamRequestEvent requestEvent = Mockito.mock(ServiceDownstreamRequestEvent.class);
+        HttpServiceDownstreamResponseEvent event = new HttpServiceDownstreamResponseEvent("Origin", "Service", "Operation", requestEvent);
+        Assert.assertNull(event.getData("STATUS_CODE"));
+
+        event.withStatusCode(200).withResponse(response);
+        Assert.assertEquals("Service", event.getData("SERVICE"));
+        Assert.assertEquals("Operation", event.getData("OPERATION"));
+        Assert.assertEquals(requestEvent, event.getData("REQUEST"));
+        Assert.assertEquals(response, event.getData("RESPONSE"));
+        Assert.assertEquals(200, event.getData("STATUS_CODE"));
+        Assert.assertNull(event.getData("CONTENT_LENGTH"));
+    }
+
+    @Test
+    public void testAdHocData() {
+        HttpServiceDownstreamRequestEvent event = new HttpServiceDownstreamRequestEvent("Origin", "Service", "Operation");
+        Assert.assertNull(event.getData("custom"));
+
+        event.withData("custom", "value");
+        event.withMethod("GET");
+        Assert.assertEquals("value", event.getData("custom"));
+        Assert.assertEquals("GET", event.getData("METHOD"));
+        Assert.assertEquals("GET", event.getMethod());
+    }
+
+    @Test
+    public void testRecyclableEventsReusedAfterRelease() {
+        RecyclableServiceDownstreamRequestEvent requestEvent = RecyclableServiceDownstreamRequestEvent.acquire("Origin", "Service", "Operation");
+        requestEvent.withRequest(request).withData("custom", "value");
+        RecyclableServiceDownstreamResponseEvent responseEvent = RecyclableServiceDownstreamResponseEvent.acquire("Origin", "Service", "Operation", requestEvent);
+        responseEvent.withResponse(response).withThrown(thrown);
+        test(requestEvent);
+        test(responseEvent);
+        responseEvent.release();
+        requestEvent.release();
+        requestEvent.release();
+
+        RecyclableServiceDownstreamRequestEvent reusedRequest = RecyclableServiceDownstreamRequestEvent.acquire("Origin", "Service", "Operation");
+        RecyclableServiceDownstreamResponseEvent reusedResponse = RecyclableServiceDownstreamResponseEvent.acquire("Origin", "Service", "Operation", reusedRequest);
+        Assert.assertSame(requestEvent, reusedRequest);
+        Assert.assertSame(responseEvent, reusedResponse);
+        Assert.assertNotSame(reusedRequest, RecyclableServiceDownstreamRequestEvent.acquire("Origin", "Service", "Operation"));
+        Assert.assertNull(reusedRequest.getRequest());
+        Assert.assertNull(reusedRequest.getData("custom"));
+        Assert.assertSame(reusedRequest, reusedResponse.getRequest());
+        Assert.assertNull(reusedResponse.getResponse());
+        Assert.assertNull(reusedResponse.getThrown());
+    }
+
+    @Test
+    public void testRecyclableEventsReusedWhenOriginsInterleave() {
+        RecyclableServiceDownstreamRequestEvent first = RecyclableServiceDownstreamRequestEvent.acquire("OriginA", "Service", "Operation");
+        first.release();
+        RecyclableServiceDownstreamRequestEvent second = RecyclableServiceDownstreamRequestEvent.acquire("OriginB", "Service", "Operation");
+        second.release();
+
+        //the most recently released event has a different origin, but must stay pooled for its own origin
+        Assert.assertSame(first, RecyclableServiceDownstreamRequestEvent.acquire("OriginA", "Service", "Operation"));
+        Assert.assertSame(second, RecyclableServiceDownstreamRequestEvent.acquire("OriginB", "Service", "Operation"));
+    }
+
+    @Test
+    public void testRecyclableEventsRetain() {
+        RecyclableServiceDownstreamRequestEvent requestEvent = RecyclableServiceDownstreamRequestEvent.acquire("Origin", "Service", "Operation");
+        requestEvent.withRequest(request).withData("custom", "value");
+        RecyclableServiceDownstreamResponseEvent responseEvent = RecyclableServiceDownstreamResponseEvent.acquire("Origin", "Service", "Operation", requestEvent);
+        responseEvent.withResponse(response).withThrown(thrown);
+
+        ServiceDownstreamResponseEvent retained = responseEvent.retain();
+        responseEvent.release();
+        requestEvent.release();
+
+        test(retained);
+        Assert.assertFalse(retained instanceof RecyclableEvent);
+        Assert.assertEquals(response, retained.getResponse());
+        Assert.assertEquals(thrown, retained.getThrown());
+        Assert.assertFalse(retained.getRequest() instanceof RecyclableEvent);
+        Assert.assertEquals(request, retained.getRequest().getRequest());
+        Assert.assertEquals("value", retained.getRequest().getData("custom"));
+        Assert.assertEquals("Operation", retained.getRequest().getOperation());
+    }
+
+    @Test
+    public void testRetainedResponseRefersToRetainedRequest() {
+        RecyclableServiceDownstreamRequestEvent requestEvent = RecyclableServiceDownstreamRequestEvent.acquire("Origin", "Service", "Operation");
+        ServiceDownstreamRequestEvent retainedRequest = requestEvent.retain();
+        RecyclableServiceDownstreamResponseEvent responseEvent = RecyclableServiceDownstreamResponseEvent.acquire("Origin", "Service", "Operation", requestEvent);
+
+        ServiceDownstreamResponseEvent retainedResponse = responseEvent.retain();
+        Assert.assertSame(retainedRequest, retainedResponse.getRequest());
+        Assert.assertSame(retainedRequest, requestEvent.retain());
+        Assert.assertSame(retainedResponse, responseEvent.retain());
+        responseEvent.release();
+        requestEvent.release();
+    }
+
+    @Test
+    public void testRecycledEventRetainedAfresh() {
+        RecyclableServiceDownstreamRequestEvent requestEvent = RecyclableServiceDownstreamRequestEvent.acquire("Origin", "Service", "Operation");
+        ServiceDownstreamRequestEvent first = requestEvent.retain();
+        requestEvent.release();
+
+        RecyclableServiceDownstreamRequestEvent reused = RecyclableServiceDownstreamRequestEvent.acquire("Origin", "Service", "Other");
+        Assert.assertSame(requestEvent, reused);
+        ServiceDownstreamRequestEvent second = reused.retain();
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals("Other", second.getOperation());
+        reused.release();
     }
 
     private void test(AbstractServiceEvent event) {
@@ -36,4 +36,11 @@ public class ThreadEventTests {
         Assert.assertEquals(2L, event.getChildId());
         Assert.assertEquals(ThreadEvent.Operation.EXITING, event.getOperation());
     }
+
+    @Test
+    public void testThreadIdsRetrievableByName() {
+        ThreadEvent event = new ThreadEnterEvent("Origin", 1L, 2L);
+        Assert.assertEquals(1L, event.getData("PARENT_ID"));
+        Assert.assertEquals(2L, event.getData("CHILD_ID"));
+    }
 }
@@ -48,4 +48,85 @@ public class MethodHandleWrapperTests {
                 Integer.class);
         Assert.assertFalse(handler.isHandleLoaded());
     }
+
+    @Test
+    public void testInvokeNoArgs() {
+        MethodHandleWrapper handler = new MethodHandleWrapper(String.class.getName(),
+                ClassLoader.getSystemClassLoader(),
+                "toString",
+                String.class);
+        Assert.assertEquals("foo", handler.invoke("foo"));
+        Assert.assertEquals("foo", handler.invoke("foo", new Object[0]));
+    }
+
+    @Test
+    public void testInvokeOneArg() {
+        MethodHandleWrapper handler = new MethodHandleWrapper(String.class.getName(),
+                ClassLoader.getSystemClassLoader(),
+                "concat",
+                String.class,
+                String.class);
+        Assert.assertEquals("foobar", handler.invoke("foo", "bar"));
+    }
+
+    @Test
+    public void testInvokeTwoPrimitiveArgs() {
+        MethodHandleWrapper handler = new MethodHandleWrapper(String.class.getName(),
+                ClassLoader.getSystemClassLoader(),
+                "replace",
+                String.class,
+                char.class, char.class);
+        Assert.assertEquals("fxx", handler.invoke("foo", 'o', 'x'));
+    }
+
+    @Test
+    public void testInvokeThreeArgs() {
+        MethodHandleWrapper handler = new MethodHandleWrapper(StringBuilder.class.getName(),
+                ClassLoader.getSystemClassLoader(),
+                "replace",
+                StringBuilder.class,
+                int.class, int.class, String.class);
+        Assert.assertEquals("fxo", handler.invoke(new StringBuilder("foo"), 1, 2, "x").toString());
+    }
+
+    @Test
+    public void testInvokeFourArgs() {
+        MethodHandleWrapper handler = new MethodHandleWrapper(String.class.getName(),
+                ClassLoader.getSystemClassLoader(),
+                "regionMatches",
+                boolean.class,
+                int.class, String.class, int.class, int.class);
+        Assert.assertEquals(true, handler.invoke("foobar", 3, "xbar", 1, 3));
+    }
+
+    @Test
+    public void testInvokeNullReceiver() {
+        MethodHandleWrapper handler = new MethodHandleWrapper(String.class.getName(),
+                ClassLoader.getSystemClassLoader(),
+                "concat",
+                String.class,
+                String.class);
+        Assert.assertNull(handler.invoke(null, "bar"));
+    }
+
+    @Test
+    public void testInvokeWrongArity() {
+        MethodHandleWrapper handler = new MethodHandleWrapper(String.class.getName(),
+                ClassLoader.getSystemClassLoader(),
+                "concat",
+                String.class,
+                String.class);
+        Assert.assertNull(handler.invoke("foo"));
+        Assert.assertNull(handler.invoke("foo", "bar", "baz"));
+    }
+
+    @Test
+    public void testInvokeWhenHandleNotLoaded() {
+        MethodHandleWrapper handler = new MethodHandleWrapper("com.FakeClass",
+                ClassLoader.getSystemClassLoader(),
+                "noMethod",
+                Integer.class);
+        Assert.assertNull(handler.invoke("foo"));
+        Assert.assertNull(handler.invoke("foo", 1, 2, 3, 4));
+    }
 }
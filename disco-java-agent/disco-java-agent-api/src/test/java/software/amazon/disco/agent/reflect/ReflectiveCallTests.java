@@ -29,6 +29,7 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class ReflectiveCallTests {
     private static final String TEST_CLASS_NAME = "software.amazon.disco.agent.reflect.ReflectiveCallTests$TestClass";
@@ -186,6 +187,203 @@ public class ReflectiveCallTests {
         assertTrue(ReflectiveCall.getCachedTypes().isEmpty());
     }
 
+    @Test
+    public void testCallStaticMethodWithArgs() {
+        String result = ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("concat")
+            .withArgTypes(String.class, int.class)
+            .call("foo", 1);
+        assertEquals("foo1", result);
+    }
+
+    @Test
+    public void testCallMethodReturningPrimitive() {
+        int result = ReflectiveCall.returning(int.class)
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("length")
+            .withArgTypes(String.class)
+            .call("foo");
+        assertEquals(3, result);
+    }
+
+    @Test
+    public void testCallInstanceMethod() {
+        String result = ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("prefix")
+            .onInstance(new PublicTestClass("foo"))
+            .withArgTypes(String.class)
+            .call("bar");
+        assertEquals("foobar", result);
+    }
+
+    @Test
+    public void testCallNonPublicClassMethod() {
+        String result = ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallTests$TestClass")
+            .ofMethod("foo")
+            .call();
+        assertEquals("foo", result);
+    }
+
+    @Test
+    public void testReusedCall() {
+        ReflectiveCall<String> call = ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("concat")
+            .withArgTypes(String.class, int.class);
+        assertEquals("foo1", call.call("foo", 1));
+        assertEquals("bar2", call.call("bar", 2));
+    }
+
+    @Test
+    public void testReusedCallReturnsDefaultUntilAgentPresent() {
+        ReflectiveCall.setDiscoTemplateClassFound(false);
+        ReflectiveCall<String> call = ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("concat")
+            .withArgTypes(String.class, int.class)
+            .withDefaultValue("default");
+        assertEquals("default", call.call("foo", 1));
+
+        ReflectiveCall.setDiscoTemplateClassFound(true);
+        assertEquals("foo1", call.call("foo", 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongArgumentCountThrowsIllegalArgumentException() {
+        ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("concat")
+            .withArgTypes(String.class, int.class)
+            .call("foo");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongArgumentTypeThrowsIllegalArgumentException() {
+        ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("concat")
+            .withArgTypes(String.class, int.class)
+            .call("foo", "bar");
+    }
+
+    @Test
+    public void testWrongArgumentsNotDispatched() {
+        AtomicReference<Throwable> caught = new AtomicReference<>(null);
+        UncaughtExceptionHandler.install((call, args, thrown) -> {
+            caught.set(thrown);
+        });
+
+        try {
+            ReflectiveCall.returning(String.class)
+                .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+                .ofMethod("concat")
+                .withArgTypes(String.class, int.class)
+                .call("foo");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertNull(caught.get());
+        } finally {
+            UncaughtExceptionHandler.install(null);
+        }
+    }
+
+    @Test
+    public void testErrorThrownByMethodDispatched() {
+        AtomicReference<Throwable> caught = new AtomicReference<>(null);
+        UncaughtExceptionHandler.install((call, args, thrown) -> {
+            caught.set(thrown);
+        });
+
+        Object result = ReflectiveCall.returningVoid()
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("throwError")
+            .withArgTypes(String.class)
+            .call("foo");
+
+        UncaughtExceptionHandler.install(null);
+        assertNull(result);
+        assertTrue(caught.get() instanceof AssertionError);
+        assertEquals("foo", caught.get().getMessage());
+    }
+
+    @Test
+    public void testCallsOfEachArity() {
+        assertEquals("", ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("concat")
+            .withArgTypes()
+            .call());
+        assertEquals("foo", ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("concat")
+            .withArgTypes(String.class)
+            .call("foo"));
+        assertEquals("foo1", ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("concat")
+            .withArgTypes(String.class, int.class)
+            .call("foo", 1));
+        assertEquals("foo1bar", ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("concat")
+            .withArgTypes(String.class, int.class, String.class)
+            .call("foo", 1, "bar"));
+    }
+
+    @Test
+    public void testResetCacheInvalidatesReusedCall() {
+        ReflectiveCall<String> call = ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("concat")
+            .withArgTypes(String.class, int.class)
+            .withDefaultValue("default");
+        assertEquals("foo1", call.call("foo", 1));
+
+        ReflectiveCall.resetCache();
+        ReflectiveCall.setDiscoTemplateClassFound(false);
+        assertEquals("default", call.call("foo", 1));
+    }
+
+    @Test
+    public void testRetrieveCachedTypeRemembersMissingType() {
+        assertNull(ReflectiveCall.retrieveCachedType("non.existing.class"));
+        assertTrue(ReflectiveCall.getMissingTypes().contains("non.existing.class"));
+        assertNull(ReflectiveCall.retrieveCachedType("non.existing.class"));
+        assertEquals(1, ReflectiveCall.getMissingTypes().size());
+    }
+
+    @Test
+    public void testRetrieveCachedTypeDoesNotRetryMissingType() {
+        // a type which does exist, but which has been recorded as missing, must not be loaded
+        ReflectiveCall.getMissingTypes().add(TEST_CLASS_NAME);
+        assertNull(ReflectiveCall.retrieveCachedType(TEST_CLASS_NAME));
+        assertTrue(ReflectiveCall.getCachedTypes().isEmpty());
+    }
+
+    @Test
+    public void testResetCacheClearsMissingTypes() {
+        ReflectiveCall.retrieveCachedType("non.existing.class");
+        ReflectiveCall.resetCache();
+        assertTrue(ReflectiveCall.getMissingTypes().isEmpty());
+    }
+
+    @Test
+    public void testCallReturnsDefaultWithoutLookupsWhenAgentAbsent() {
+        ReflectiveCall.setDiscoTemplateClassFound(false);
+        String result = ReflectiveCall.returning(String.class)
+            .ofClass(".reflect.ReflectiveCallTests$PublicTestClass")
+            .ofMethod("concat")
+            .withArgTypes(String.class, int.class)
+            .withDefaultValue("default")
+            .call("foo", 1);
+        assertEquals("default", result);
+        assertTrue(ReflectiveCall.getCachedTypes().isEmpty());
+        assertTrue(ReflectiveCall.getMissingTypes().isEmpty());
+    }
+
     //methods to call reflectively, just for the test
     public static void testMethod() {
         throw new RuntimeException("Test");
@@ -200,4 +398,40 @@ public class ReflectiveCallTests {
             return "foo";
         }
     }
+
+    public static class PublicTestClass {
+        private final String value;
+
+        public PublicTestClass(String value) {
+            this.value = value;
+        }
+
+        public static String concat() {
+            return "";
+        }
+
+        public static String concat(String s) {
+            return s;
+        }
+
+        public static String concat(String s, int i) {
+            return s + i;
+        }
+
+        public static String concat(String s, int i, String t) {
+            return s + i + t;
+        }
+
+        public static void throwError(String message) {
+            throw new AssertionError(message);
+        }
+
+        public static int length(String s) {
+            return s.length();
+        }
+
+        public String prefix(String s) {
+            return value + s;
+        }
+    }
 }
@@ -15,6 +15,7 @@
 
 package software.amazon.disco.agent.reflect.metrics;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 public class DiscoAgentMetricsTest {
@@ -22,4 +23,30 @@ public class DiscoAgentMetricsTest {
     public void testGetAgentUptimeWhenDiscoNotLoaded() {
         DiscoAgentMetrics.getAgentUptime();
     }
+
+    @Test
+    public void testGetStartupPhaseDurationsWhenDiscoNotLoaded() {
+        Assert.assertTrue(DiscoAgentMetrics.getStartupPhaseDurations().isEmpty());
+    }
+
+    @Test
+    public void testGetTransformedClassCountsWhenDiscoNotLoaded() {
+        Assert.assertTrue(DiscoAgentMetrics.getTransformedClassCounts().isEmpty());
+    }
+
+    @Test
+    public void testGetTransformationTimesWhenDiscoNotLoaded() {
+        Assert.assertTrue(DiscoAgentMetrics.getTransformationTimes().isEmpty());
+    }
+
+    @Test
+    public void testGetDisabledInstallablesWhenDiscoNotLoaded() {
+        Assert.assertTrue(DiscoAgentMetrics.getDisabledInstallables().isEmpty());
+    }
+
+    @Test
+    public void testGetHeaderCaptureMetricsWhenDiscoNotLoaded() {
+        Assert.assertEquals(-1L, DiscoAgentMetrics.getCapturedHeaderBytes());
+        Assert.assertEquals(-1L, DiscoAgentMetrics.getHeaderCaptureCount());
+    }
 }
@@ -27,12 +27,14 @@ import software.amazon.disco.agent.interception.InterceptionInstaller;
 import software.amazon.disco.agent.logging.LogManager;
 import software.amazon.disco.agent.logging.Logger;
 import software.amazon.disco.agent.logging.LoggerFactory;
+import software.amazon.disco.agent.metrics.DiscoAgentMetrics;
 import software.amazon.disco.agent.plugin.PluginDiscovery;
 import software.amazon.disco.agent.plugin.PluginOutcome;
 
 import java.lang.instrument.Instrumentation;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -57,6 +59,7 @@ public class DiscoAgentTemplate {
      * @param agentArgs any arguments passed as part of the -javaagent argument string
      */
     public DiscoAgentTemplate(String agentArgs) {
+        long start = System.nanoTime();
         if (agentConfigFactory == null) {
             this.config = new AgentConfigParser().parseCommandLine(agentArgs);
         } else {
@@ -78,6 +81,7 @@ public class DiscoAgentTemplate {
         } else if (config.isVerbose()) {
             LogManager.setMinimumLevel(Logger.Level.DEBUG);
         }
+        DiscoAgentMetrics.recordStartupPhase(DiscoAgentMetrics.PHASE_CONFIG_PARSE, System.nanoTime() - start);
     }
 
     /**
@@ -128,8 +132,13 @@ public class DiscoAgentTemplate {
 
         //give the Plugin Discovery subsystem the chance to scan any configured plugin folder.
         if (allowPlugins) {
+            long start = System.nanoTime();
             PluginDiscovery.scan(instrumentation, config);
+            DiscoAgentMetrics.recordStartupPhase(DiscoAgentMetrics.PHASE_PLUGIN_SCAN, System.nanoTime() - start);
+
+            start = System.nanoTime();
             installables.addAll(PluginDiscovery.processInstallables());
+            DiscoAgentMetrics.recordStartupPhase(DiscoAgentMetrics.PHASE_INSTALLABLE_INSTANTIATION, System.nanoTime() - start);
         } else {
             if (config.getPluginPath() != null) {
                 log.warn("DiSCo(Core) plugin path set but agent is disallowing plugins. No plugins will be loaded");
@@ -142,11 +151,18 @@ public class DiscoAgentTemplate {
             installable.handleArguments(config.getArgs());
         }
 
+        Set<Installable> deferred = extractDeferrableInstallables(instrumentation, installables);
         interceptionInstaller.install(instrumentation, installables, config, customIgnoreMatcher);
 
         // sets the BiFunction to be indirectly invoked by Thread's intercepted 'start()' method to decorate its Runnable target.
         DiscoRunnableDecorator.setDecorateFunction(new DecoratedRunnable.RunnableDecorateFunction());
 
+        //non-critical Installables are installed in the background, so that premain may return sooner
+        if (!deferred.isEmpty()) {
+            log.info("DiSCo(Core) deferring installation of " + deferred.size() + " Installables");
+            interceptionInstaller.installDeferred(instrumentation, deferred, config, customIgnoreMatcher);
+        }
+
         //after Installables have been installed, process the remaining plugin behaviour
         if (allowPlugins) {
             return PluginDiscovery.apply();
@@ -155,6 +171,35 @@ public class DiscoAgentTemplate {
         }
     }
 
+    /**
+     * Remove any Installables which may be installed in the background from the given set, unless deferred installation
+     * is disabled by config, or the JVM does not support retransformation.
+     *
+     * @param instrumentation the Instrumentation object given to every Agent
+     * @param installables    the full set of Installables, from which deferrable ones are removed
+     * @return the removed, deferrable, Installables
+     */
+    private Set<Installable> extractDeferrableInstallables(Instrumentation instrumentation, Set<Installable> installables) {
+        Set<Installable> deferred = new HashSet<>();
+        if (config.isEagerInstall()) {
+            return deferred;
+        }
+
+        for (Installable installable : installables) {
+            if (installable.isDeferrable()) {
+                deferred.add(installable);
+            }
+        }
+
+        if (!deferred.isEmpty() && !instrumentation.isRetransformClassesSupported()) {
+            log.warn("DiSCo(Core) retransformation not supported, installing all Installables before premain returns");
+            deferred.clear();
+        }
+
+        installables.removeAll(deferred);
+        return deferred;
+    }
+
     /**
      * Get the AgentConfig for inspection if needed
      *
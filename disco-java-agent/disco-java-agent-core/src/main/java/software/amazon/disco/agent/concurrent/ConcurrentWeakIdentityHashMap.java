@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.concurrent;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A map from objects of the application, such as JDBC Connections or OkHttp Calls, to state which an interceptor keeps
+ * about them, for when a field cannot be added to their classes because interceptors may be installed with
+ * retransformation. Keys are compared by identity, so that an application's equals() and hashCode() are never called,
+ * and are weakly referenced, so that the map does not outlive them. Unlike a synchronized WeakHashMap, reads take no
+ * lock, and writers on different keys do not contend.
+ *
+ * Entries whose keys have been collected are expunged on the next write.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public class ConcurrentWeakIdentityHashMap<K, V> {
+    private final ConcurrentMap<Object, V> map = new ConcurrentHashMap<>();
+    private final ReferenceQueue<K> collectedKeys = new ReferenceQueue<>();
+
+    /**
+     * Get the value mapped to a key.
+     *
+     * @param key the key
+     * @return the value, or null if none, or if the key is null
+     */
+    public V get(K key) {
+        return key == null ? null : map.get(new LookupKey(key));
+    }
+
+    /**
+     * Map a key to a value, replacing any existing value.
+     *
+     * @param key the key, which must not be null
+     * @param value the value, which must not be null
+     * @return the previous value, or null if none
+     */
+    public V put(K key, V value) {
+        expungeCollectedKeys();
+        return map.put(new WeakKey<>(key, collectedKeys), value);
+    }
+
+    /**
+     * Map a key to a value, unless it is already mapped to one.
+     *
+     * @param key the key, which must not be null
+     * @param value the value, which must not be null
+     * @return the existing value, or null if none, in which case the key is now mapped to the given value
+     */
+    public V putIfAbsent(K key, V value) {
+        expungeCollectedKeys();
+        return map.putIfAbsent(new WeakKey<>(key, collectedKeys), value);
+    }
+
+    /**
+     * Remove the value mapped to a key.
+     *
+     * @param key the key
+     * @return the removed value, or null if none, or if the key is null
+     */
+    public V remove(K key) {
+        expungeCollectedKeys();
+        return key == null ? null : map.remove(new LookupKey(key));
+    }
+
+    /**
+     * Get the number of entries, after expunging those whose keys have been collected. Package-private for tests.
+     *
+     * @return the number of entries
+     */
+    int size() {
+        expungeCollectedKeys();
+        return map.size();
+    }
+
+    /**
+     * Remove the entries of all keys which have been collected since the last write.
+     */
+    private void expungeCollectedKeys() {
+        Reference<? extends K> collected;
+        while ((collected = collectedKeys.poll()) != null) {
+            map.remove(collected);
+        }
+    }
+
+    /**
+     * The key under which an entry is stored, referencing the application's object weakly. Once the object is collected
+     * the key is equal only to itself, so that it can still be expunged.
+     *
+     * @param <K> the type of keys
+     */
+    private static final class WeakKey<K> extends WeakReference<K> {
+        private final int hash;
+
+        WeakKey(K referent, ReferenceQueue<K> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            Object referent = get();
+            return referent != null && referent == referentOf(o);
+        }
+    }
+
+    /**
+     * A short-lived key for looking up an entry, referencing the application's object strongly.
+     */
+    private static final class LookupKey {
+        private final Object referent;
+
+        LookupKey(Object referent) {
+            this.referent = referent;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o == this || referent == referentOf(o);
+        }
+    }
+
+    /**
+     * @param key a WeakKey or LookupKey
+     * @return the object which the key refers to, or null if it has been collected
+     */
+    private static Object referentOf(Object key) {
+        return key instanceof WeakKey ? ((WeakKey<?>) key).get()
+                : key instanceof LookupKey ? ((LookupKey) key).referent
+                : null;
+    }
+}
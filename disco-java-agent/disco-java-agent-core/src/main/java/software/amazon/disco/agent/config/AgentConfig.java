@@ -32,6 +32,10 @@ public class AgentConfig {
     private String pluginPath = null;
     private boolean verbose = false;
     private boolean extraverbose = false;
+    private boolean transformationMetrics = false;
+    private boolean eagerInstall = false;
+    private long transformationBudgetMillis = 0;
+    private int typePoolCacheSize = 0;
     private String loggerFactoryClass;
 
     /**
@@ -120,6 +124,42 @@ public class AgentConfig {
         return extraverbose;
     }
 
+    /**
+     * Get whether the number of classes transformed by each Installable, and the time spent doing so, should be recorded
+     * in DiscoAgentMetrics. This adds a small cost to every class load, so is disabled by default.
+     * @return true if per-Installable transformation metrics are enabled
+     */
+    public boolean isTransformationMetrics() {
+        return transformationMetrics;
+    }
+
+    /**
+     * Get whether all Installables should be installed before premain returns, even those which declare themselves
+     * deferrable.
+     * @return true if deferred installation is disabled
+     */
+    public boolean isEagerInstall() {
+        return eagerInstall;
+    }
+
+    /**
+     * Get the maximum time each deferrable Installable's transformer may spend matching and transforming classes during
+     * the startup window following its installation, after which it is removed.
+     * @return the budget in milliseconds, or 0 if unlimited
+     */
+    public long getTransformationBudgetMillis() {
+        return transformationBudgetMillis;
+    }
+
+    /**
+     * Get the maximum number of type descriptions to cache per ClassLoader, in a type pool cache shared between all
+     * Installables.
+     * @return the cache size, or 0 if each Installable should use ByteBuddy's default, uncached, type pool.
+     */
+    public int getTypePoolCacheSize() {
+        return typePoolCacheSize;
+    }
+
     /**
      * Set whether this Agent should install no installables and be a runtime-only agent.
      * @param isRuntimeOnly true for a runtime-only agent, else false (the default)
@@ -152,6 +192,40 @@ public class AgentConfig {
         this.extraverbose = extraverbose;
     }
 
+    /**
+     * Set if per-Installable transformation metrics are enabled
+     * @param transformationMetrics true to record transformed class counts and transformation times
+     */
+    protected void setTransformationMetrics(boolean transformationMetrics) {
+        this.transformationMetrics = transformationMetrics;
+    }
+
+    /**
+     * Set if all Installables should be installed before premain returns
+     * @param eagerInstall true to disable deferred installation of deferrable Installables
+     */
+    protected void setEagerInstall(boolean eagerInstall) {
+        this.eagerInstall = eagerInstall;
+    }
+
+    /**
+     * Set the maximum time each deferrable Installable's transformer may spend matching and transforming classes during
+     * the startup window following its installation
+     * @param transformationBudgetMillis the budget in milliseconds, or 0 for unlimited
+     */
+    protected void setTransformationBudgetMillis(long transformationBudgetMillis) {
+        this.transformationBudgetMillis = transformationBudgetMillis;
+    }
+
+    /**
+     * Set the maximum number of type descriptions to cache per ClassLoader, in a type pool cache shared between all
+     * Installables
+     * @param typePoolCacheSize the cache size, or 0 to disable the shared cache
+     */
+    protected void setTypePoolCacheSize(int typePoolCacheSize) {
+        this.typePoolCacheSize = typePoolCacheSize;
+    }
+
     /**
      * Get the LoggerFactory class name which was set
      * @return the LoggerFactory class name
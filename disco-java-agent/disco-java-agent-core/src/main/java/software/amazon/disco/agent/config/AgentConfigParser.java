@@ -22,6 +22,7 @@ import java.util.Arrays;
  * Parses command line arguments passed to the DiSCo agent via command line
  */
 public class AgentConfigParser {
+    static final int DEFAULT_TYPE_POOL_CACHE_SIZE = 1000;
 
     /**
      * Parses command line arguments.
@@ -63,6 +64,26 @@ public class AgentConfigParser {
                 case "extraverbose":
                     result.setExtraverbose(true);
                     break;
+                case "transformationmetrics":
+                    result.setTransformationMetrics(true);
+                    break;
+                case "eagerinstall":
+                    result.setEagerInstall(true);
+                    break;
+                case "transformationbudget":
+                    try {
+                        result.setTransformationBudgetMillis(Long.parseLong(value));
+                    } catch (NumberFormatException e) {
+                        //leave the budget unlimited
+                    }
+                    break;
+                case "typepoolcache":
+                    try {
+                        result.setTypePoolCacheSize(value.isEmpty() ? DEFAULT_TYPE_POOL_CACHE_SIZE : Integer.parseInt(value));
+                    } catch (NumberFormatException e) {
+                        result.setTypePoolCacheSize(DEFAULT_TYPE_POOL_CACHE_SIZE);
+                    }
+                    break;
                 case "loggerfactory":
                     result.setLoggerFactoryClass(value);
                     break;
@@ -18,6 +18,7 @@ package software.amazon.disco.agent.interception;
 import software.amazon.disco.agent.config.AgentConfig;
 import software.amazon.disco.agent.logging.LogManager;
 import software.amazon.disco.agent.logging.Logger;
+import software.amazon.disco.agent.metrics.DiscoAgentMetrics;
 import net.bytebuddy.agent.builder.AgentBuilder;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
@@ -30,6 +31,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import static net.bytebuddy.matcher.ElementMatchers.*;
@@ -41,6 +43,7 @@ public class InterceptionInstaller {
     private static final InterceptionInstaller INSTANCE = new InterceptionInstaller(new DefaultAgentBuilderFactory());
     private static final Logger log = LogManager.getLogger(InterceptionInstaller.class);
     private final Supplier<AgentBuilder> agentBuilderFactory;
+    private SharedTypePoolCache sharedTypePoolCache = null;
     /**
      * Common low-level and otherwise problematic namespaces to ignore.
      */
@@ -76,47 +79,149 @@ public class InterceptionInstaller {
 
         List<ClassFileTransformer> disposables = new ArrayList<>(3);
         for (Installable installable: installables) {
-            //We create a new Agent for each Installable, otherwise their matching rules can
-            //compete with each other.
-            AgentBuilder agentBuilder = agentBuilderFactory.get()
-                    .ignore(ignoreMatcher);
-
-            //The Interception listener is expensive during class loading, and limited value most of the time
-            if (config.isExtraverbose()) {
-                agentBuilder = agentBuilder.with(InterceptionListener.create(installable));
-            }
+            ClassFileTransformer transformer = install(instrumentation, installable, config, ignoreMatcher, false);
 
-            agentBuilder = config.getAgentBuilderTransformer().apply(agentBuilder, installable);
-
-            log.info("DiSCo(Core) attempting to install "+installable.getClass().getName());
-            agentBuilder = installable.install(agentBuilder);
-
-            if (agentBuilder != null) {
-                ClassFileTransformer transformer = agentBuilder.installOn(instrumentation);
-
-                //3 of our Core installables are special cases which are strictly one-shot. They each
-                //intercept a particular class (not 'any subclass of' style matching), and furthermore
-                //these are JDK classes and so can only be loaded a maximum of once, into the bootstrap classloader,
-                //therefore we know that once they have been applied, they are dead weight.
-                //In the case of Thread, it applies the transformation immediately as Thread has already been loaded.
-                //In the case of FJP and FJT we force the class to load before disposing of the interceptor.
-                //Better factoring of this might be to have a subclass of Installable like 'DisposableInstallable', but its
-                //use would be pretty dangerous - and generally wrong for any non-bootstrap class - because even when an
-                //interceptor appears to only type match one specific class, that class could be loaded multiple times into
-                //multiple loaders. So for now at least this coupling here makes it completely locked in and specific.
-                if (installable.getClass().getName().endsWith("ThreadInterceptor")
-                 || installable.getClass().getName().endsWith("ForkJoinPoolInterceptor")
-                 || installable.getClass().getName().endsWith("ForkJoinTaskInterceptor")) {
-                    disposables.add(transformer);
-                }
+            //3 of our Core installables are special cases which are strictly one-shot. They each
+            //intercept a particular class (not 'any subclass of' style matching), and furthermore
+            //these are JDK classes and so can only be loaded a maximum of once, into the bootstrap classloader,
+            //therefore we know that once they have been applied, they are dead weight.
+            //In the case of Thread, it applies the transformation immediately as Thread has already been loaded.
+            //In the case of FJP and FJT we force the class to load before disposing of the interceptor.
+            //Better factoring of this might be to have a subclass of Installable like 'DisposableInstallable', but its
+            //use would be pretty dangerous - and generally wrong for any non-bootstrap class - because even when an
+            //interceptor appears to only type match one specific class, that class could be loaded multiple times into
+            //multiple loaders. So for now at least this coupling here makes it completely locked in and specific.
+            if (transformer != null
+             && (installable.getClass().getName().endsWith("ThreadInterceptor")
+             || installable.getClass().getName().endsWith("ForkJoinPoolInterceptor")
+             || installable.getClass().getName().endsWith("ForkJoinTaskInterceptor"))) {
+                disposables.add(transformer);
             }
         }
 
+        long forkJoinStart = System.nanoTime();
         ForkJoinPool.class.getClassLoader(); //force class to be loaded and transformed
         ForkJoinTask.class.getClassLoader(); //force class to be loaded and transformed
         for (ClassFileTransformer transformer: disposables) {
             instrumentation.removeTransformer(transformer);
         }
+        DiscoAgentMetrics.recordStartupPhase(DiscoAgentMetrics.PHASE_FORK_JOIN_RETRANSFORMATION, System.nanoTime() - forkJoinStart);
+    }
+
+    /**
+     * Install a set of deferrable Installables on a background thread, so that the caller (i.e. the agent's premain)
+     * need not wait for them. The Installables are installed with retransformation, so that any classes they match
+     * which are loaded before installation completes are still transformed.
+     * @param instrumentation - the Instrumentation instance, as passed to 'premain'
+     * @param installables - the collection of deferrable Installable hooks passed in from the Agent
+     * @param config - the command line config passed into the agent.
+     * @param customIgnoreMatcher extra ignore rules to be OR'd with the default
+     * @return the started background thread, or null if there was nothing to install
+     */
+    public Thread installDeferred(Instrumentation instrumentation, Set<Installable> installables, AgentConfig config,
+                                  ElementMatcher.Junction<? super TypeDescription> customIgnoreMatcher) {
+        if (installables.isEmpty()) {
+            return null;
+        }
+
+        final ElementMatcher<? super TypeDescription> ignoreMatcher = createIgnoreMatcher(customIgnoreMatcher);
+        final List<Installable> deferred = new ArrayList<>(installables);
+
+        //a plain Thread rather than an Executor, to avoid loading any concurrency classes which Disco may intercept
+        Thread thread = new Thread(() -> {
+            long start = System.nanoTime();
+            for (Installable installable: deferred) {
+                try {
+                    install(instrumentation, installable, config, ignoreMatcher, true);
+                } catch (Throwable t) {
+                    log.error("DiSCo(Core) failed to install deferred Installable " + installable.getClass().getName(), t);
+                }
+            }
+            DiscoAgentMetrics.recordStartupPhase(DiscoAgentMetrics.PHASE_DEFERRED_INSTALLATION, System.nanoTime() - start);
+            log.info("DiSCo(Core) deferred installation complete");
+        }, "disco-deferred-install");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Install a single Installable, giving it its own AgentBuilder.
+     * @param instrumentation - the Instrumentation instance, as passed to 'premain'
+     * @param installable - the Installable to install
+     * @param config - the command line config passed into the agent.
+     * @param ignoreMatcher - the ignore rules for the AgentBuilder
+     * @param retransform - true to retransform any already loaded classes which the Installable matches
+     * @return the installed ClassFileTransformer, or null if the Installable declined installation
+     */
+    private ClassFileTransformer install(Instrumentation instrumentation, Installable installable, AgentConfig config,
+                                         ElementMatcher<? super TypeDescription> ignoreMatcher, boolean retransform) {
+        //We create a new Agent for each Installable, otherwise their matching rules can
+        //compete with each other.
+        AgentBuilder agentBuilder = agentBuilderFactory.get()
+                .ignore(ignoreMatcher);
+
+        //Classes cannot change shape when retransformed, see Installable#isDeferrable
+        if (retransform) {
+            agentBuilder = agentBuilder
+                    .disableClassFormatChanges()
+                    .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION);
+        }
+
+        //Installables tend to match against the same common supertypes, so may share their parsed descriptions. The
+        //shared descriptions outlive any single transformation, so must only refer weakly to their ClassLoader.
+        if (config.getTypePoolCacheSize() > 0) {
+            agentBuilder = agentBuilder
+                    .with(getSharedTypePoolCache(config.getTypePoolCacheSize()))
+                    .with(AgentBuilder.LocationStrategy.ForClassLoader.WEAK);
+        }
+
+        //The Interception listener is expensive during class loading, and limited value most of the time
+        if (config.isExtraverbose()) {
+            agentBuilder = agentBuilder.with(InterceptionListener.create(installable));
+        }
+
+        //Similarly, transformation metrics cost a little on every class load, so are opt-in, unless needed to enforce a
+        //budget. The budget guards against slow plugin Installables, and applies only to deferrable ones, since removing
+        //the transformer of an Installable which must be present from startup, such as those propagating the
+        //TransactionContext between threads, would leave some classes instrumented and others not.
+        long budgetNanos = installable.isDeferrable() ? TimeUnit.MILLISECONDS.toNanos(config.getTransformationBudgetMillis()) : 0;
+        TransformationMetricsListener metricsListener = null;
+        if (config.isTransformationMetrics() || budgetNanos > 0) {
+            metricsListener = TransformationMetricsListener.create(installable, budgetNanos);
+            agentBuilder = agentBuilder.with(metricsListener);
+        }
+
+        agentBuilder = config.getAgentBuilderTransformer().apply(agentBuilder, installable);
+
+        log.info("DiSCo(Core) attempting to install "+installable.getClass().getName());
+        agentBuilder = installable.install(agentBuilder);
+
+        if (agentBuilder == null) {
+            return null;
+        }
+
+        long installStart = System.nanoTime();
+        ClassFileTransformer transformer = agentBuilder.installOn(instrumentation);
+        DiscoAgentMetrics.recordStartupPhase(DiscoAgentMetrics.PHASE_INSTALL_PREFIX + installable.getClass().getName(),
+                System.nanoTime() - installStart);
+
+        if (metricsListener != null) {
+            metricsListener.setTransformer(instrumentation, transformer);
+        }
+        return transformer;
+    }
+
+    /**
+     * Get the type pool cache shared by every Installable's AgentBuilder, creating it if necessary.
+     * @param size the maximum number of types to cache per ClassLoader
+     * @return the shared type pool cache
+     */
+    synchronized SharedTypePoolCache getSharedTypePoolCache(int size) {
+        if (sharedTypePoolCache == null) {
+            sharedTypePoolCache = new SharedTypePoolCache(size);
+        }
+        return sharedTypePoolCache;
     }
 
     /**
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.interception;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.pool.TypePool;
+import software.amazon.disco.agent.concurrent.ConcurrentWeakIdentityHashMap;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A ByteBuddy PoolStrategy whose type descriptions are cached per ClassLoader, and shared between the AgentBuilders of
+ * every Installable. Without it, each Installable's matchers parse the same common supertypes (e.g. java.lang.Object)
+ * independently.
+ *
+ * ClassLoaders are held weakly. Cached type descriptions refer back to the ClassFileLocator they were parsed with, so
+ * this strategy must be paired with {@link AgentBuilder.LocationStrategy.ForClassLoader#WEAK}, otherwise every cached
+ * description would keep its ClassLoader, and so its cache entry, reachable forever. With weak locators, a ClassLoader
+ * which is no longer used (e.g. that of a redeployed webapp) is collected, and its cache along with it.
+ */
+class SharedTypePoolCache extends AgentBuilder.PoolStrategy.WithTypePoolCache {
+    private final int maximumSize;
+    private final TypePool.CacheProvider bootstrapCacheProvider;
+    private final ConcurrentWeakIdentityHashMap<ClassLoader, TypePool.CacheProvider> cacheProviders = new ConcurrentWeakIdentityHashMap<>();
+
+    /**
+     * Construct a new SharedTypePoolCache
+     * @param maximumSize the maximum number of types to cache for each ClassLoader
+     */
+    SharedTypePoolCache(int maximumSize) {
+        super(TypePool.Default.ReaderMode.FAST);
+        this.maximumSize = maximumSize;
+        this.bootstrapCacheProvider = new BoundedCacheProvider(maximumSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected TypePool.CacheProvider locate(ClassLoader classLoader) {
+        if (classLoader == null) {
+            return bootstrapCacheProvider;
+        }
+
+        //looked up on every class load by every Installable, so only the first lookup for a ClassLoader writes
+        TypePool.CacheProvider cacheProvider = cacheProviders.get(classLoader);
+        if (cacheProvider == null) {
+            cacheProvider = new BoundedCacheProvider(maximumSize);
+            TypePool.CacheProvider existing = cacheProviders.putIfAbsent(classLoader, cacheProvider);
+            if (existing != null) {
+                cacheProvider = existing;
+            }
+        }
+        return cacheProvider;
+    }
+
+    /**
+     * A CacheProvider holding at most a fixed number of entries, evicting the longest-held entry one at a time once full.
+     * Registration never blocks, so concurrent class loads in the same ClassLoader do not contend on a lock.
+     */
+    static class BoundedCacheProvider implements TypePool.CacheProvider {
+        private final int maximumSize;
+        private final ConcurrentMap<String, TypePool.Resolution> resolutions = new ConcurrentHashMap<>();
+        private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        /**
+         * Construct a new BoundedCacheProvider
+         * @param maximumSize the maximum number of types to cache
+         */
+        BoundedCacheProvider(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public TypePool.Resolution find(String name) {
+            return resolutions.get(name);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public TypePool.Resolution register(String name, TypePool.Resolution resolution) {
+            TypePool.Resolution previous = resolutions.putIfAbsent(name, resolution);
+            if (previous != null) {
+                return previous;
+            }
+
+            insertionOrder.add(name);
+            if (size.incrementAndGet() > maximumSize) {
+                evict();
+            }
+            return resolution;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void clear() {
+            String name;
+            while ((name = insertionOrder.poll()) != null) {
+                if (resolutions.remove(name) != null) {
+                    size.decrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * Remove the longest-held entries until the cache is back within its maximum size.
+         */
+        private void evict() {
+            while (size.get() > maximumSize) {
+                String eldest = insertionOrder.poll();
+                if (eldest == null) {
+                    return;
+                }
+                if (resolutions.remove(eldest) != null) {
+                    size.decrementAndGet();
+                }
+            }
+        }
+    }
+}
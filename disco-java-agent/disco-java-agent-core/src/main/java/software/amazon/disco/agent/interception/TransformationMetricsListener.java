@@ -0,0 +1,170 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.interception;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.utility.JavaModule;
+import software.amazon.disco.agent.logging.LogManager;
+import software.amazon.disco.agent.logging.Logger;
+import software.amazon.disco.agent.metrics.DiscoAgentMetrics;
+import software.amazon.disco.agent.metrics.InstallableMetrics;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A ByteBuddy listener which accounts for the number of classes transformed by an Installable, and the time its
+ * transformer spends handling each class. ByteBuddy calls onDiscovery() before matching a class and onComplete() after
+ * any transformation has finished, so the time between the two covers both matching and transformation.
+ *
+ * If given a budget, the listener acts as a circuit breaker: once the Installable's transformation time during the
+ * startup window following its installation exceeds the budget, its transformer is removed from the Instrumentation,
+ * so that a badly behaved matcher cannot continue to slow down application startup. Time spent after the window is
+ * not held against the budget, so that an application which keeps loading classes for as long as it runs does not
+ * eventually exhaust it. The budget is checked at intervals rather than after every class, so the breaker may trip
+ * slightly beyond the budget.
+ */
+class TransformationMetricsListener extends AgentBuilder.Listener.Adapter {
+    private static final Logger log = LogManager.getLogger(TransformationMetricsListener.class);
+    static final long DEFAULT_BUDGET_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(5);
+    static final long BUDGET_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final InstallableMetrics metrics;
+    private final long budgetNanos;
+    private final long budgetBaselineNanos;
+    private final long budgetWindowEnd;
+    private final ThreadLocal<long[]> discoveryTime = ThreadLocal.withInitial(() -> new long[1]);
+    private final AtomicBoolean disabled = new AtomicBoolean(false);
+    private volatile boolean budgetClosed;
+    private volatile long nextBudgetCheck;
+    private volatile Instrumentation instrumentation;
+    private volatile ClassFileTransformer transformer;
+
+    private TransformationMetricsListener(Installable installable, long budgetNanos, long budgetWindowNanos) {
+        this.metrics = DiscoAgentMetrics.getInstallableMetrics(installable.getClass().getName());
+        this.budgetNanos = budgetNanos;
+        this.budgetBaselineNanos = metrics.getTransformationTime();
+        long now = System.nanoTime();
+        this.budgetWindowEnd = now + budgetWindowNanos;
+        this.nextBudgetCheck = now;
+        this.budgetClosed = budgetNanos <= 0;
+    }
+
+    /**
+     * Create a listener which records metrics only
+     * @param installable the Installable whose transformer this listener observes
+     * @return a new listener
+     */
+    static TransformationMetricsListener create(Installable installable) {
+        return create(installable, 0);
+    }
+
+    /**
+     * Create a listener which records metrics, and removes the Installable's transformer once over budget during the
+     * default startup window
+     * @param installable the Installable whose transformer this listener observes
+     * @param budgetNanos the maximum transformation time in nanoseconds during the startup window, or 0 for unlimited
+     * @return a new listener
+     */
+    static TransformationMetricsListener create(Installable installable, long budgetNanos) {
+        return create(installable, budgetNanos, DEFAULT_BUDGET_WINDOW_NANOS);
+    }
+
+    /**
+     * Create a listener which records metrics, and removes the Installable's transformer once over budget during the
+     * given startup window. Package-private for tests.
+     * @param installable the Installable whose transformer this listener observes
+     * @param budgetNanos the maximum transformation time in nanoseconds during the startup window, or 0 for unlimited
+     * @param budgetWindowNanos the length of the startup window in nanoseconds, beginning now
+     * @return a new listener
+     */
+    static TransformationMetricsListener create(Installable installable, long budgetNanos, long budgetWindowNanos) {
+        return new TransformationMetricsListener(installable, budgetNanos, budgetWindowNanos);
+    }
+
+    /**
+     * Supply the transformer to remove if the budget is exceeded. Called once the AgentBuilder has been installed,
+     * since the transformer does not exist when the listener is created.
+     * @param instrumentation the Instrumentation the transformer was installed on
+     * @param transformer the Installable's transformer
+     */
+    void setTransformer(Instrumentation instrumentation, ClassFileTransformer transformer) {
+        this.instrumentation = instrumentation;
+        this.transformer = transformer;
+        //any retransformation during installation may already have used up the budget
+        checkBudget(System.nanoTime());
+    }
+
+    /**
+     * Get the metrics this listener records into
+     * @return the metrics for this listener's Installable
+     */
+    InstallableMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void onDiscovery(String typeName, ClassLoader classLoader, JavaModule module, boolean loaded) {
+        discoveryTime.get()[0] = System.nanoTime();
+    }
+
+    @Override
+    public void onTransformation(TypeDescription typeDescription, ClassLoader classLoader, JavaModule module, boolean loaded, DynamicType dynamicType) {
+        metrics.recordClassTransformed();
+    }
+
+    @Override
+    public void onComplete(String typeName, ClassLoader classLoader, JavaModule module, boolean loaded) {
+        long now = System.nanoTime();
+        metrics.recordTransformationTime(now - discoveryTime.get()[0]);
+        if (!budgetClosed && now - nextBudgetCheck >= 0) {
+            nextBudgetCheck = now + BUDGET_CHECK_INTERVAL_NANOS;
+            checkBudget(now);
+        }
+    }
+
+    /**
+     * If a budget was given and has been exceeded, remove the transformer, at most once. Once the startup window has
+     * passed without the budget being exceeded, the budget is no longer checked.
+     * @param now the current value of System.nanoTime()
+     */
+    private void checkBudget(long now) {
+        if (budgetClosed || transformer == null) {
+            return;
+        }
+
+        long spentNanos = metrics.getTransformationTime() - budgetBaselineNanos;
+        if (spentNanos <= budgetNanos) {
+            if (now - budgetWindowEnd >= 0) {
+                budgetClosed = true;
+            }
+            return;
+        }
+
+        budgetClosed = true;
+        if (disabled.compareAndSet(false, true)) {
+            instrumentation.removeTransformer(transformer);
+            metrics.markDisabled();
+            log.error("DiSCo(Core) disabling " + metrics.getInstallableName() + " after spending "
+                    + spentNanos + "ns transforming " + metrics.getTransformedClassCount()
+                    + " classes, exceeding its budget of " + budgetNanos + "ns");
+        }
+    }
+}
@@ -15,15 +15,38 @@
 
 package software.amazon.disco.agent.metrics;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
- * A dedicated class for recording and managing Disco metrics (e.g. agent uptime).
+ * A dedicated class for recording and managing Disco metrics (e.g. agent uptime, and how long each phase of agent
+ * startup took).
  */
 public class DiscoAgentMetrics {
+    public static final String PHASE_CONFIG_PARSE = "configParse";
+    public static final String PHASE_PLUGIN_SCAN = "pluginScan";
+    public static final String PHASE_INSTALLABLE_INSTANTIATION = "installableInstantiation";
+    public static final String PHASE_INSTALL_PREFIX = "install:";
+    public static final String PHASE_FORK_JOIN_RETRANSFORMATION = "forkJoinRetransformation";
+    public static final String PHASE_PLUGIN_INIT = "pluginInit";
+    public static final String PHASE_PLUGIN_LISTENER_REGISTRATION = "pluginListenerRegistration";
+    public static final String PHASE_DEFERRED_INSTALLATION = "deferredInstallation";
 
     static final long AGENT_NOT_STARTED_LONG = -1L;
 
     static long agentStartTime = AGENT_NOT_STARTED_LONG;
 
+    //insertion ordered, so that phases are reported in the order they occurred
+    static final Map<String, Long> startupPhaseDurations = Collections.synchronizedMap(new LinkedHashMap<>());
+    static final Map<String, InstallableMetrics> installableMetrics = new ConcurrentHashMap<>();
+    static final LongAdder capturedHeaderBytes = new LongAdder();
+    static final LongAdder headerCaptures = new LongAdder();
+
     /**
      * Simple utility method to observe how long the Disco agent has been running on this system.
      *
@@ -46,4 +69,106 @@ public class DiscoAgentMetrics {
         agentStartTime = agentStartTime == AGENT_NOT_STARTED_LONG ? System.nanoTime() : agentStartTime;
         return agentStartTime;
     }
+
+    /**
+     * Record the duration of a phase of agent startup. If the same phase is recorded more than once, e.g. because
+     * two instances of the same Installable class were installed, the durations are summed.
+     *
+     * @param phase the name of the phase, usually one of the PHASE_ constants in this class
+     * @param durationNanos the time in nanoseconds spent in the phase
+     */
+    public static void recordStartupPhase(String phase, long durationNanos) {
+        startupPhaseDurations.merge(phase, durationNanos, Long::sum);
+    }
+
+    /**
+     * Get the durations of each phase of agent startup which has been recorded so far.
+     *
+     * @return a copy of the map of phase name to its duration in nanoseconds, in the order the phases first occurred.
+     */
+    public static Map<String, Long> getStartupPhaseDurations() {
+        synchronized (startupPhaseDurations) {
+            return new LinkedHashMap<>(startupPhaseDurations);
+        }
+    }
+
+    /**
+     * Get, creating if necessary, the transformation metrics of a given Installable.
+     *
+     * @param installableName the name of the Installable, usually its fully qualified class name
+     * @return the InstallableMetrics for that name
+     */
+    public static InstallableMetrics getInstallableMetrics(String installableName) {
+        return installableMetrics.computeIfAbsent(installableName, InstallableMetrics::new);
+    }
+
+    /**
+     * Get the number of classes which have been transformed by each Installable.
+     *
+     * @return a map of Installable name to the number of classes it has transformed so far.
+     */
+    public static Map<String, Long> getTransformedClassCounts() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (InstallableMetrics metrics : installableMetrics.values()) {
+            result.put(metrics.getInstallableName(), metrics.getTransformedClassCount());
+        }
+        return result;
+    }
+
+    /**
+     * Get the time spent by each Installable's ClassFileTransformer, matching and transforming classes.
+     *
+     * @return a map of Installable name to the time in nanoseconds it has spent in class transformation so far.
+     */
+    public static Map<String, Long> getTransformationTimes() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (InstallableMetrics metrics : installableMetrics.values()) {
+            result.put(metrics.getInstallableName(), metrics.getTransformationTime());
+        }
+        return result;
+    }
+
+    /**
+     * Get the names of any Installables whose transformers were removed for exceeding the transformation time budget.
+     *
+     * @return the set of disabled Installable names, empty if none
+     */
+    public static Set<String> getDisabledInstallables() {
+        Set<String> result = new HashSet<>();
+        for (InstallableMetrics metrics : installableMetrics.values()) {
+            if (metrics.isDisabled()) {
+                result.add(metrics.getInstallableName());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Record that the headers of a request or response were captured into an event.
+     *
+     * @param bytes the number of bytes (header name and value characters) captured
+     */
+    public static void recordHeaderCapture(long bytes) {
+        capturedHeaderBytes.add(bytes);
+        headerCaptures.increment();
+    }
+
+    /**
+     * Get the total number of header bytes captured into events so far.
+     *
+     * @return the total captured header bytes
+     */
+    public static long getCapturedHeaderBytes() {
+        return capturedHeaderBytes.sum();
+    }
+
+    /**
+     * Get the number of requests or responses whose headers have been captured into events so far. Together with
+     * {@link #getCapturedHeaderBytes()} this gives the mean number of header bytes captured per request.
+     *
+     * @return the number of header captures
+     */
+    public static long getHeaderCaptureCount() {
+        return headerCaptures.sum();
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing the class transformation work done on behalf of a single Installable. These are updated
+ * concurrently from whichever threads happen to be loading classes, hence the use of LongAdders.
+ */
+public class InstallableMetrics {
+    private final String installableName;
+    private final LongAdder transformedClassCount = new LongAdder();
+    private final LongAdder transformationTime = new LongAdder();
+    private volatile boolean disabled = false;
+
+    /**
+     * Construct a new InstallableMetrics. Use DiscoAgentMetrics.getInstallableMetrics() rather than calling directly.
+     *
+     * @param installableName the name of the Installable, usually its fully qualified class name
+     */
+    InstallableMetrics(String installableName) {
+        this.installableName = installableName;
+    }
+
+    /**
+     * Record that a class was transformed by this Installable
+     */
+    public void recordClassTransformed() {
+        transformedClassCount.increment();
+    }
+
+    /**
+     * Record time spent by this Installable's transformer, whether or not the class was ultimately transformed
+     *
+     * @param durationNanos the time in nanoseconds
+     */
+    public void recordTransformationTime(long durationNanos) {
+        transformationTime.add(durationNanos);
+    }
+
+    /**
+     * Get the name of the Installable these metrics belong to
+     *
+     * @return the Installable name
+     */
+    public String getInstallableName() {
+        return installableName;
+    }
+
+    /**
+     * Get the number of classes transformed by this Installable
+     *
+     * @return the transformed class count
+     */
+    public long getTransformedClassCount() {
+        return transformedClassCount.sum();
+    }
+
+    /**
+     * Get the total time spent by this Installable's transformer, matching and transforming classes
+     *
+     * @return the time in nanoseconds
+     */
+    public long getTransformationTime() {
+        return transformationTime.sum();
+    }
+
+    /**
+     * Record that this Installable's transformer was removed, having exceeded its transformation time budget
+     */
+    public void markDisabled() {
+        disabled = true;
+    }
+
+    /**
+     * Get whether this Installable's transformer was removed, having exceeded its transformation time budget
+     *
+     * @return true if disabled
+     */
+    public boolean isDisabled() {
+        return disabled;
+    }
+}
@@ -23,9 +23,11 @@ import software.amazon.disco.agent.interception.Installable;
 import software.amazon.disco.agent.interception.Package;
 import software.amazon.disco.agent.logging.LogManager;
 import software.amazon.disco.agent.logging.Logger;
+import software.amazon.disco.agent.metrics.DiscoAgentMetrics;
 
 import java.io.File;
 import java.lang.instrument.Instrumentation;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -33,6 +35,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
@@ -68,22 +71,51 @@ import java.util.jar.Manifest;
  *                    The absence of this attribute will defer to the Disco-Bootstrap-Classloader attribute for
  *                    determining the classloader to use.
  * At startup, the decoupled disco agent searches the Config's pluginPath for such JAR files, and loads the plugins according
- * to the Manifest's content.
+ * to the Manifest's content. Manifests are read concurrently, each JAR file is opened exactly once, and the classes named in
+ * the Manifest are only resolved at the point they are first needed.
  */
 public class PluginDiscovery {
     private static final Logger log = LogManager.getLogger(PluginDiscovery.class);
 
-    //results of the scan()
+    //results of the scan(). Classes are named by the scan, but only resolved when first needed
     static class ClassInfo {
         final String pluginName;
-        final Class<?> clazz;
+        final String className;
+        final ClassLoader classLoader;
         final ClassLoaderType classLoaderType;
+        private Class<?> clazz;
 
-        ClassInfo(String pluginName, Class<?> clazz, ClassLoaderType classLoaderType) {
+        ClassInfo(String pluginName, String className, ClassLoader classLoader, ClassLoaderType classLoaderType) {
             this.pluginName = pluginName;
-            this.clazz = clazz;
+            this.className = className;
+            this.classLoader = classLoader;
             this.classLoaderType = classLoaderType;
         }
+
+        /**
+         * Resolve the named class from the plugin's classloader, the first time it is requested
+         * @return the resolved Class
+         * @throws Exception reflection errors may occur if the class cannot be found
+         */
+        Class<?> getClazz() throws Exception {
+            if (clazz == null) {
+                clazz = classForName(className, classLoader);
+            }
+            return clazz;
+        }
+    }
+
+    //a plugin JAR which has been opened, and its Manifest read, but not yet loaded into any classloader
+    static class ScannedJar {
+        final File file;
+        JarFile jar;
+        Manifest manifest;
+        long scanTime;
+        Throwable error;
+
+        ScannedJar(File file) {
+            this.file = file;
+        }
     }
     private static List<ClassInfo> installableClasses;
     private static List<ClassInfo> initClasses;
@@ -119,14 +151,28 @@ public class PluginDiscovery {
 
             File[] files = pluginDir.listFiles();
             if (files != null) {
+                List<ScannedJar> scannedJars = new ArrayList<>(files.length);
                 for (File jarFile : files) {
                     if (jarFile.getName().substring(jarFile.getName().lastIndexOf(".")).equalsIgnoreCase(".jar")) {
-                        processJarFile(instrumentation, jarFile, config.isRuntimeOnly());
+                        scannedJars.add(new ScannedJar(jarFile));
                     } else {
                         //ignore non JAR file
                         log.info("DiSCo(Core) non JAR file found on plugin path, skipping this file");
                     }
                 }
+
+                //the file i/o of reading each Manifest is done in parallel, but the plugins are then processed in
+                //directory order, so that classloader search paths are appended deterministically.
+                readManifests(scannedJars);
+                for (ScannedJar scannedJar : scannedJars) {
+                    try {
+                        processJarFile(instrumentation, scannedJar, config.isRuntimeOnly());
+                    } catch (Throwable t) {
+                        log.error("DiSCo(Core) error while processing plugin " + scannedJar.file.getName(), t);
+                    } finally {
+                        closeQuietly(scannedJar.jar);
+                    }
+                }
             }
         } catch (Throwable t) {
             //safely do nothing
@@ -143,23 +189,33 @@ public class PluginDiscovery {
         Set<Installable> installables = new HashSet<>();
         if (installableClasses != null && !installableClasses.isEmpty()) {
             for (ClassInfo info : installableClasses) {
-                if (Installable.class.isAssignableFrom(info.clazz)) {
+                Class<?> clazz;
+                try {
+                    clazz = info.getClazz();
+                } catch (Exception e) {
+                    log.warn("DiSCo(Core) cannot locate Installable: " + info.className, e);
+                    continue;
+                }
+
+                if (Installable.class.isAssignableFrom(clazz)) {
                     try {
-                        Installable installable = (Installable)info.clazz.getDeclaredConstructor().newInstance();
+                        Installable installable = (Installable)clazz.getDeclaredConstructor().newInstance();
                         installables.add(installable);
                         pluginOutcomes.get(info.pluginName).installables.add(installable);
                     } catch (Exception e) {
-                        log.warn("DiSCo(Core) could not instantiate Installable " + info.clazz.getName(), e);
+                        log.warn("DiSCo(Core) could not instantiate Installable " + clazz.getName(), e);
                     }
-                } else if (Package.class.isAssignableFrom(info.clazz)) {
+                } else if (Package.class.isAssignableFrom(clazz)) {
                     try {
-                        Package pkg = (Package)info.clazz.getDeclaredConstructor().newInstance();
+                        Package pkg = (Package)clazz.getDeclaredConstructor().newInstance();
                         Collection<Installable> pkgInstallables = pkg.get();
                         installables.addAll(pkgInstallables);
                         pluginOutcomes.get(info.pluginName).installables.addAll(pkgInstallables);
                     } catch (Exception e) {
-                        log.warn("DiSCo(Core) could not instantiate Package " + info.clazz.getName(), e);
+                        log.warn("DiSCo(Core) could not instantiate Package " + clazz.getName(), e);
                     }
+                } else {
+                    log.warn("DiSCo(Core) specified Installable is not an instance of Installable or Package: " + info.className);
                 }
             }
         }
@@ -173,28 +229,41 @@ public class PluginDiscovery {
      * and information.
      */
     public static Collection<PluginOutcome> apply() {
+        long start = System.nanoTime();
         if (initClasses != null && !initClasses.isEmpty()) {
             for (ClassInfo info : initClasses) {
                 try {
-                    info.clazz.getDeclaredMethod("init").invoke(null);
-                    pluginOutcomes.get(info.pluginName).initClass = info.clazz;
+                    Class<?> clazz = info.getClazz();
+                    clazz.getDeclaredMethod("init").invoke(null);
+                    pluginOutcomes.get(info.pluginName).initClass = clazz;
                 } catch (Exception e) {
-                    log.warn("DiSCo(Core) could not process the init() method of " + info.clazz.getName(), e);
+                    log.warn("DiSCo(Core) could not process the init() method of " + info.className, e);
                 }
             }
         }
+        DiscoAgentMetrics.recordStartupPhase(DiscoAgentMetrics.PHASE_PLUGIN_INIT, System.nanoTime() - start);
 
+        start = System.nanoTime();
         if (listenerClasses != null && !listenerClasses.isEmpty()) {
             for (ClassInfo info : listenerClasses) {
+                if (LogManager.isDebugEnabled()) {
+                    log.debug("DiSCo(Core) attempting to add Listener from plugin using class: " + info.className);
+                }
                 try {
-                    Listener listener = (Listener) info.clazz.getDeclaredConstructor().newInstance();
+                    Class<?> clazz = info.getClazz();
+                    if (!Listener.class.isAssignableFrom(clazz)) {
+                        log.warn("DiSCo(Core) specified Listener is not an instance of Listener: " + info.className);
+                        continue;
+                    }
+                    Listener listener = (Listener) clazz.getDeclaredConstructor().newInstance();
                     EventBus.addListener(listener);
                     pluginOutcomes.get(info.pluginName).listeners.add(listener);
                 } catch (Exception e) {
-                    log.warn("DiSCo(Core) could not add the Listener " + info.clazz.getName(), e);
+                    log.warn("DiSCo(Core) could not add the Listener " + info.className, e);
                 }
             }
         }
+        DiscoAgentMetrics.recordStartupPhase(DiscoAgentMetrics.PHASE_PLUGIN_LISTENER_REGISTRATION, System.nanoTime() - start);
 
         return pluginOutcomes.values();
     }
@@ -207,17 +276,91 @@ public class PluginDiscovery {
         return pluginOutcomes;
     }
 
+    /**
+     * Open each of the given JAR files, and read its Manifest. Since this is dominated by file i/o, the JARs are shared
+     * between a small number of plain threads rather than being read one after the other. Neither ForkJoinPool nor any
+     * Executor is used, since those are targets of Disco's own concurrency interceptions which have not been installed yet.
+     * @param scannedJars the JAR files to read, whose results are populated in-place
+     */
+    static void readManifests(List<ScannedJar> scannedJars) {
+        int threadCount = Math.min(scannedJars.size(), Runtime.getRuntime().availableProcessors());
+        if (threadCount <= 1) {
+            for (ScannedJar scannedJar : scannedJars) {
+                readManifest(scannedJar);
+            }
+            return;
+        }
+
+        AtomicInteger nextIndex = new AtomicInteger(0);
+        Runnable reader = () -> {
+            int index;
+            while ((index = nextIndex.getAndIncrement()) < scannedJars.size()) {
+                readManifest(scannedJars.get(index));
+            }
+        };
+
+        List<Thread> threads = new ArrayList<>(threadCount - 1);
+        for (int i = 0; i < threadCount - 1; i++) {
+            Thread thread = new Thread(reader, "disco-plugin-scan-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+
+        //the calling thread takes its share of the work too. Every worker is joined even if interrupted, since a worker
+        //still running could be populating a ScannedJar while the caller processes and closes it.
+        boolean interrupted = false;
+        try {
+            reader.run();
+        } finally {
+            for (Thread thread : threads) {
+                while (thread.isAlive()) {
+                    try {
+                        thread.join();
+                    } catch (InterruptedException e) {
+                        //stop workers claiming further JARs, but keep waiting for those in progress
+                        nextIndex.set(scannedJars.size());
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                log.warn("DiSCo(Core) interrupted while waiting for plugin scan to complete");
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Open a single JAR file and read its Manifest. The JarFile is left open, so that it may be reused when loading the
+     * plugin into its classloader.
+     * @param scannedJar the JAR file to read, whose results are populated in-place
+     */
+    static void readManifest(ScannedJar scannedJar) {
+        long start = System.nanoTime();
+        try {
+            scannedJar.jar = new JarFile(scannedJar.file);
+            scannedJar.manifest = scannedJar.jar.getManifest();
+        } catch (Throwable t) {
+            scannedJar.error = t;
+        }
+        scannedJar.scanTime = System.nanoTime() - start;
+    }
+
     /**
      * Process a single JAR file which is assumed to be a plugin
      * @param instrumentation and instrumentation instance, used to add discovered plugins to classpaths
-     * @param jarFile the jar file to be processed
+     * @param scannedJar the already opened jar file to be processed
      * @param runtimeOnly if the Agent is configured as runtime only, Installables will not be considered from plugins. Init plugins and Listener plugins are unaffected.
-     * @throws Exception class reflection or file i/o errors may occur
+     * @throws Exception file i/o errors may occur
      */
-    static void processJarFile(Instrumentation instrumentation, File jarFile, boolean runtimeOnly) throws Exception {
-        JarFile jar = new JarFile(jarFile);
-        Manifest manifest = jar.getManifest();
-        jar.close();
+    static void processJarFile(Instrumentation instrumentation, ScannedJar scannedJar, boolean runtimeOnly) throws Exception {
+        if (scannedJar.error != null) {
+            throw new Exception("could not read " + scannedJar.file.getName(), scannedJar.error);
+        }
+
+        long start = System.nanoTime();
+        Manifest manifest = scannedJar.manifest;
         if (manifest == null) {
             log.info("DiSCo(Core) JAR file without manifest found on plugin path, skipping this file");
             return;
@@ -250,18 +393,19 @@ public class PluginDiscovery {
         }
 
         //process the plugin based on the Manifest
-        String pluginName = jarFile.getName();
-        pluginOutcomes.put(pluginName, new PluginOutcome(pluginName));
+        String pluginName = scannedJar.file.getName();
+        PluginOutcome outcome = new PluginOutcome(pluginName);
+        pluginOutcomes.put(pluginName, outcome);
         ClassLoaderType classLoaderType = getClassLoaderFromAttributes(bootstrapClassloaderAttribute, classLoaderAttribute);
-        pluginOutcomes.get(pluginName).classLoaderType = classLoaderType;
-        if (classLoaderType.equals(ClassLoaderType.INVALID)) {
-            //this JAR provided an invalid input for 'Disco-Classloader' and thus should not be loaded
-            return;
+        outcome.classLoaderType = classLoaderType;
+        if (!classLoaderType.equals(ClassLoaderType.INVALID)) {
+            //an INVALID input for 'Disco-Classloader' means the plugin should not be loaded
+            ClassLoader classLoader = loadJar(instrumentation, scannedJar.jar, classLoaderType);
+            processInitClass(pluginName, initClassName, classLoader, classLoaderType);
+            processInstallableClasses(pluginName, installableClassNames, classLoader, runtimeOnly, classLoaderType);
+            processListenerClasses(pluginName, listenerClassNames, classLoader, classLoaderType);
         }
-        ClassLoader classLoader = loadJar(instrumentation, jarFile, classLoaderType);
-        processInitClass(pluginName, initClassName, classLoader, classLoaderType);
-        processInstallableClasses(pluginName, installableClassNames, classLoader, runtimeOnly, classLoaderType);
-        processListenerClasses(pluginName, listenerClassNames, classLoader, classLoaderType);
+        outcome.scanTime = scannedJar.scanTime + (System.nanoTime() - start);
     }
 
     /**
@@ -291,65 +435,57 @@ public class PluginDiscovery {
     /**
      * Having discovered a plugin JAR, add it to the classloader as specified in its Manifest
      * @param instrumentation and instrumentation instance, used to add discovered plugins to classpaths
-     * @param jarFile the jar file to be processed
+     * @param jar the already opened jar file to be processed. The caller remains responsible for closing it.
      * @param classLoaderType the classloader to load the plugin into
      * @return The ClassLoader in which the plugin JAR was added to
-     * @throws Exception JAR file processing may produce I/O exceptions
      */
-    static ClassLoader loadJar(Instrumentation instrumentation, File jarFile, ClassLoaderType classLoaderType) throws Exception {
-        JarFile jar = null;
+    static ClassLoader loadJar(Instrumentation instrumentation, JarFile jar, ClassLoaderType classLoaderType) {
         ClassLoader classLoader = null;
         if (LogManager.isDebugEnabled()) {
-            log.debug("DiSCo(Core) attempting to load JAR file into " + classLoaderType.name() + " classloader: " + jarFile.getName());
+            log.debug("DiSCo(Core) attempting to load JAR file into " + classLoaderType.name() + " classloader: " + jar.getName());
         }
         switch (classLoaderType) {
             case SYSTEM:
-                jar = Injector.addToSystemClasspath(instrumentation, jarFile);
+                Injector.addToSystemClasspath(instrumentation, jar);
                 classLoader = ClassLoader.getSystemClassLoader();
                 break;
             case BOOTSTRAP:
-                jar = Injector.addToBootstrapClasspath(instrumentation, jarFile);
+                Injector.addToBootstrapClasspath(instrumentation, jar);
                 classLoader = null;
                 break;
             case PLUGIN:
                 PluginClassLoader pluginClassLoader = new PluginClassLoader();
-                jar = Injector.addToURLClassLoaderClasspath(pluginClassLoader, jarFile);
+                Injector.addToURLClassLoaderClasspath(pluginClassLoader, jar);
                 classLoader = pluginClassLoader;
                 break;
         }
-        if (jar != null) {
-            jar.close();
-        }
 
         return classLoader;
     }
 
     /**
-     * Helper method to discover the Class specified for initialization via the init() static method
+     * Helper method to record the Class specified for initialization via the init() static method
      * @param pluginName the name of the plugin JAR file where the init class is defined
      * @param initClassName the name of the init class determined from the Manifest
      * @param classLoader the classloader the plugin was loaded by
      * @param classLoaderType the ClassLoaderType representing the classloader that loaded this plugin
-     * @throws Exception reflection errors may occur if the class cannot be found
      */
-    static void processInitClass(String pluginName, String initClassName, ClassLoader classLoader, ClassLoaderType classLoaderType) throws Exception {
+    static void processInitClass(String pluginName, String initClassName, ClassLoader classLoader, ClassLoaderType classLoaderType) {
         if (initClassName != null) {
-            Class<?> clazz = classForName(initClassName.trim(), classLoader);
-            ClassInfo initInfo = new ClassInfo(pluginName, clazz, classLoaderType);
-            initClasses.add(initInfo);
+            initClasses.add(new ClassInfo(pluginName, initClassName.trim(), classLoader, classLoaderType));
         }
     }
 
     /**
-     * Helper method to discover the Classes specified for Installables in the plugin
+     * Helper method to record the Classes specified for Installables in the plugin. They are resolved and type-checked
+     * later, in processInstallables()
      * @param pluginName the name of the plugin JAR file where the classes are defined
      * @param installableClassNames the names of the Installable or Package classes determined from the Manifest
      * @param classLoader the classloader the plugin was loaded by
      * @param runtimeOnly true if the agent is configured to be runtime only, thus no Installables will be used for instrumentation.
      * @param classLoaderType the ClassLoaderType representing the classloader that loaded this plugin
-     * @throws Exception reflection errors may occur if the class cannot be found
      */
-    static void processInstallableClasses(String pluginName, String installableClassNames, ClassLoader classLoader, boolean runtimeOnly, ClassLoaderType classLoaderType) throws Exception {
+    static void processInstallableClasses(String pluginName, String installableClassNames, ClassLoader classLoader, boolean runtimeOnly, ClassLoaderType classLoaderType) {
         if (installableClassNames != null) {
             String[] classNames = splitString(installableClassNames);
             for (String className: classNames) {
@@ -358,47 +494,38 @@ public class PluginDiscovery {
                     continue;
                 }
 
-                try {
-                    Class<?> clazz = classForName(className.trim(), classLoader);
-                    if (Installable.class.isAssignableFrom(clazz) || Package.class.isAssignableFrom(clazz)) {
-                        ClassInfo installableInfo = new ClassInfo(pluginName, clazz, classLoaderType);
-                        installableClasses.add(installableInfo);
-                    } else {
-                        log.warn("DiSCo(Core) specified Installable is not an instance of Installable or Package: " + className);
-                    }
-                } catch (ClassNotFoundException e) {
-                    log.warn("DiSCo(Core) cannot locate Installable: " + className, e);
-                }
+                installableClasses.add(new ClassInfo(pluginName, className.trim(), classLoader, classLoaderType));
             }
         }
     }
 
     /**
-     * Helper method to discover the Classes specified to be Listeners in the Plugin.
+     * Helper method to record the Classes specified to be Listeners in the Plugin. They are resolved and type-checked
+     * later, in apply()
      * @param pluginName the name of the plugin JAR file where the classes are defined
      * @param listenerClassNames the names of the Listener classes determined from the Manifest
      * @param classLoader the classloader the plugin was loaded by
      * @param classLoaderType the ClassLoaderType representing the classloader that loaded this plugin
-     * @throws Exception reflection errors may occur if the class cannot be found
      */
-    static void processListenerClasses(String pluginName, String listenerClassNames, ClassLoader classLoader, ClassLoaderType classLoaderType) throws Exception {
+    static void processListenerClasses(String pluginName, String listenerClassNames, ClassLoader classLoader, ClassLoaderType classLoaderType) {
         if (listenerClassNames != null) {
             String[] classNames = splitString(listenerClassNames);
             for (String className : classNames) {
-                if (LogManager.isDebugEnabled()) {
-                    log.debug("DiSCo(Core) attempting to add Listener from plugin using class: " + className);
-                }
-                try {
-                    Class<?> clazz = classForName(className.trim(), classLoader);
-                    if (Listener.class.isAssignableFrom(clazz)) {
-                        ClassInfo installableInfo = new ClassInfo(pluginName, clazz, classLoaderType);
-                        listenerClasses.add(installableInfo);
-                    } else {
-                        log.warn("DiSCo(Core) specified Listener is not an instance of Listener: " + className);
-                    }
-                } catch (ClassNotFoundException e) {
-                    log.warn("DiSCo(Core) failed to instantiate Listener: " + className, e);
-                }
+                listenerClasses.add(new ClassInfo(pluginName, className.trim(), classLoader, classLoaderType));
+            }
+        }
+    }
+
+    /**
+     * Close a JarFile, ignoring any errors
+     * @param jar the JarFile to close, may be null
+     */
+    static void closeQuietly(JarFile jar) {
+        if (jar != null) {
+            try {
+                jar.close();
+            } catch (Throwable t) {
+                //survive failure
             }
         }
     }
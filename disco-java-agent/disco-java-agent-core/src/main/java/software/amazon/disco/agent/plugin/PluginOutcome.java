@@ -31,6 +31,8 @@ public class PluginOutcome {
     public Class<?> initClass;
     public List<Listener> listeners;
     public List<Installable> installables;
+    //time in nanoseconds spent reading this plugin's Manifest and adding it to its classloader
+    public long scanTime;
 
     /**
      * Construct a PluginOutcome given the JarFile which was processed
@@ -135,6 +135,41 @@ public class DiscoAgentTemplateTests {
         Assert.assertTrue(DiscoRunnableDecorator.maybeDecorate(runnable) instanceof DecoratedRunnable);
     }
 
+    @Test
+    public void testDeferrableInstallablesInstalledInBackground() {
+        Mockito.doReturn(null).when(mockInterceptionInstaller).installDeferred(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.when(instrumentation.isRetransformClassesSupported()).thenReturn(true);
+        Installable eager = new DummyInstallable();
+        Installable deferrable = new DeferrableInstallable();
+        install(createDiscoAgentTemplate(), new HashSet<>(Arrays.asList(eager, deferrable)));
+
+        Mockito.verify(mockInterceptionInstaller).install(Mockito.any(), installableSetArgumentCaptor.capture(), Mockito.any(), Mockito.any());
+        Assert.assertEquals(Collections.singleton(eager), installableSetArgumentCaptor.getValue());
+        Mockito.verify(mockInterceptionInstaller).installDeferred(Mockito.any(), installableSetArgumentCaptor.capture(), Mockito.any(), Mockito.any());
+        Assert.assertEquals(Collections.singleton(deferrable), installableSetArgumentCaptor.getValue());
+    }
+
+    @Test
+    public void testDeferrableInstallablesInstalledEagerlyWhenConfigured() {
+        Mockito.when(instrumentation.isRetransformClassesSupported()).thenReturn(true);
+        Set<Installable> installables = new HashSet<>(Arrays.asList(new DummyInstallable(), new DeferrableInstallable()));
+        install(createDiscoAgentTemplate("eagerinstall"), installables);
+
+        Mockito.verify(mockInterceptionInstaller).install(Mockito.any(), installableSetArgumentCaptor.capture(), Mockito.any(), Mockito.any());
+        Assert.assertEquals(2, installableSetArgumentCaptor.getValue().size());
+        Mockito.verify(mockInterceptionInstaller, Mockito.never()).installDeferred(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void testDeferrableInstallablesInstalledEagerlyWithoutRetransformation() {
+        Set<Installable> installables = new HashSet<>(Arrays.asList(new DummyInstallable(), new DeferrableInstallable()));
+        install(createDiscoAgentTemplate(), installables);
+
+        Mockito.verify(mockInterceptionInstaller).install(Mockito.any(), installableSetArgumentCaptor.capture(), Mockito.any(), Mockito.any());
+        Assert.assertEquals(2, installableSetArgumentCaptor.getValue().size());
+        Mockito.verify(mockInterceptionInstaller, Mockito.never()).installDeferred(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
     private DiscoAgentTemplate createDiscoAgentTemplate(String... args) {
         List<String> argsList = new LinkedList<>(Arrays.asList(args));
         argsList.add("domain=DOMAIN");
@@ -159,4 +194,16 @@ public class DiscoAgentTemplateTests {
             return agentBuilder;
         }
     }
+
+    static class DeferrableInstallable implements Installable {
+        @Override
+        public AgentBuilder install(AgentBuilder agentBuilder) {
+            return agentBuilder;
+        }
+
+        @Override
+        public boolean isDeferrable() {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.concurrent;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+
+public class ConcurrentWeakIdentityHashMapTests {
+    @Test
+    public void testPutGetRemove() {
+        ConcurrentWeakIdentityHashMap<Object, String> map = new ConcurrentWeakIdentityHashMap<>();
+        Object key = new Object();
+        Assert.assertNull(map.put(key, "value"));
+        Assert.assertEquals("value", map.get(key));
+        Assert.assertEquals("value", map.put(key, "other"));
+        Assert.assertEquals("other", map.remove(key));
+        Assert.assertNull(map.get(key));
+        Assert.assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        ConcurrentWeakIdentityHashMap<Object, String> map = new ConcurrentWeakIdentityHashMap<>();
+        Object key = new Object();
+        Assert.assertNull(map.putIfAbsent(key, "value"));
+        Assert.assertEquals("value", map.putIfAbsent(key, "other"));
+        Assert.assertEquals("value", map.get(key));
+        Assert.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testNullKeyIsAbsent() {
+        ConcurrentWeakIdentityHashMap<Object, String> map = new ConcurrentWeakIdentityHashMap<>();
+        Assert.assertNull(map.get(null));
+        Assert.assertNull(map.remove(null));
+    }
+
+    @Test
+    public void testKeysComparedByIdentity() {
+        ConcurrentWeakIdentityHashMap<String, String> map = new ConcurrentWeakIdentityHashMap<>();
+        String key = new String("key");
+        String equalKey = new String("key");
+        map.put(key, "value");
+        Assert.assertNull(map.get(equalKey));
+        map.put(equalKey, "other");
+        Assert.assertEquals("value", map.get(key));
+        Assert.assertEquals("other", map.get(equalKey));
+        Assert.assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testCollectedKeysAreExpunged() throws Exception {
+        ConcurrentWeakIdentityHashMap<Object, String> map = new ConcurrentWeakIdentityHashMap<>();
+        Object key = new Object();
+        WeakReference<Object> collected = new WeakReference<>(key);
+        map.put(key, "value");
+        key = null;
+
+        for (int i = 0; i < 100 && map.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(collected.get());
+        Assert.assertEquals(0, map.size());
+    }
+}
@@ -28,6 +28,41 @@ public class AgentConfigParserTest {
         assertTrue(config.isRuntimeOnly());
         assertTrue(config.isVerbose());
         assertFalse(config.isExtraverbose());
+        assertFalse(config.isTransformationMetrics());
+        assertFalse(config.isEagerInstall());
+        assertEquals(0L, config.getTransformationBudgetMillis());
+        assertEquals(0, config.getTypePoolCacheSize());
         assertEquals("path/to/plugins", config.getPluginPath());
     }
+
+    @Test
+    public void testTransformationMetricsArgument() {
+        AgentConfig config = new AgentConfigParser().parseCommandLine("transformationmetrics");
+        assertTrue(config.isTransformationMetrics());
+    }
+
+    @Test
+    public void testEagerInstallArgument() {
+        AgentConfig config = new AgentConfigParser().parseCommandLine("eagerinstall");
+        assertTrue(config.isEagerInstall());
+    }
+
+    @Test
+    public void testTransformationBudgetArgument() {
+        AgentConfig config = new AgentConfigParser().parseCommandLine("transformationbudget=500");
+        assertEquals(500L, config.getTransformationBudgetMillis());
+    }
+
+    @Test
+    public void testInvalidTransformationBudgetArgumentIgnored() {
+        AgentConfig config = new AgentConfigParser().parseCommandLine("transformationbudget=lots");
+        assertEquals(0L, config.getTransformationBudgetMillis());
+        assertEquals(0, config.getTypePoolCacheSize());
+    }
+
+    @Test
+    public void testTypePoolCacheArgument() {
+        assertEquals(AgentConfigParser.DEFAULT_TYPE_POOL_CACHE_SIZE, new AgentConfigParser().parseCommandLine("typepoolcache").getTypePoolCacheSize());
+        assertEquals(50, new AgentConfigParser().parseCommandLine("typepoolcache=50").getTypePoolCacheSize());
+    }
 }
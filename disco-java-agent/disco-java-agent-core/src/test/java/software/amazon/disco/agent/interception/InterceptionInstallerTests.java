@@ -96,6 +96,59 @@ public class InterceptionInstallerTests {
         Mockito.verify(factory.agentBuilder).with(Mockito.any(AgentBuilder.Listener.class));
     }
 
+    @Test
+    public void testAgentBuilderHasTransformationMetricsListenerWhenEnabled() {
+        MockAgentBuilderFactory factory = new MockAgentBuilderFactory();
+        InterceptionInstaller interceptionInstaller = new InterceptionInstaller(factory);
+        AgentConfig agentConfig = new AgentConfigParser().parseCommandLine("transformationmetrics");
+        interceptionInstaller.install(Mockito.mock(Instrumentation.class), new HashSet<>(Arrays.asList((a)->a)), agentConfig, ElementMatchers.none());
+        Mockito.verify(factory.agentBuilder).with(Mockito.any(TransformationMetricsListener.class));
+    }
+
+    @Test
+    public void testAgentBuilderHasTransformationMetricsListenerWhenBudgetSet() {
+        MockAgentBuilderFactory factory = new MockAgentBuilderFactory();
+        InterceptionInstaller interceptionInstaller = new InterceptionInstaller(factory);
+        AgentConfig agentConfig = new AgentConfigParser().parseCommandLine("transformationbudget=100");
+        interceptionInstaller.install(Mockito.mock(Instrumentation.class), new HashSet<>(Arrays.asList(new DeferrableInstallable())), agentConfig, ElementMatchers.none());
+        Mockito.verify(factory.agentBuilder).with(Mockito.any(TransformationMetricsListener.class));
+    }
+
+    @Test
+    public void testBudgetNotAppliedToNonDeferrableInstallable() {
+        MockAgentBuilderFactory factory = new MockAgentBuilderFactory();
+        InterceptionInstaller interceptionInstaller = new InterceptionInstaller(factory);
+        AgentConfig agentConfig = new AgentConfigParser().parseCommandLine("transformationbudget=100");
+        interceptionInstaller.install(Mockito.mock(Instrumentation.class), new HashSet<>(Arrays.asList((a)->a)), agentConfig, ElementMatchers.none());
+        Mockito.verify(factory.agentBuilder, Mockito.never()).with(Mockito.any(TransformationMetricsListener.class));
+    }
+
+    @Test
+    public void testTypePoolCacheSharedBetweenInstallables() {
+        MockAgentBuilderFactory factory = new MockAgentBuilderFactory();
+        InterceptionInstaller interceptionInstaller = new InterceptionInstaller(factory);
+        AgentConfig agentConfig = new AgentConfigParser().parseCommandLine("typepoolcache");
+        interceptionInstaller.install(Mockito.mock(Instrumentation.class), new HashSet<>(Arrays.asList((a)->a, (a)->a)), agentConfig, ElementMatchers.none());
+        Mockito.verify(factory.agentBuilder, Mockito.times(2)).with(interceptionInstaller.getSharedTypePoolCache(1));
+    }
+
+    @Test
+    public void testTypePoolCacheUsesWeakClassFileLocators() {
+        MockAgentBuilderFactory factory = new MockAgentBuilderFactory();
+        InterceptionInstaller interceptionInstaller = new InterceptionInstaller(factory);
+        AgentConfig agentConfig = new AgentConfigParser().parseCommandLine("typepoolcache");
+        interceptionInstaller.install(Mockito.mock(Instrumentation.class), new HashSet<>(Arrays.asList((a)->a)), agentConfig, ElementMatchers.none());
+        Mockito.verify(factory.agentBuilder).with(AgentBuilder.LocationStrategy.ForClassLoader.WEAK);
+    }
+
+    @Test
+    public void testNoTypePoolCacheByDefault() {
+        MockAgentBuilderFactory factory = new MockAgentBuilderFactory();
+        InterceptionInstaller interceptionInstaller = new InterceptionInstaller(factory);
+        interceptionInstaller.install(Mockito.mock(Instrumentation.class), new HashSet<>(Arrays.asList((a)->a)), new AgentConfig(null), ElementMatchers.none());
+        Mockito.verify(factory.agentBuilder, Mockito.never()).with(Mockito.any(AgentBuilder.PoolStrategy.class));
+    }
+
     @Test
     public void testAgentBuilderIsInstalledOnInstrumentation() {
         MockAgentBuilderFactory factory = new MockAgentBuilderFactory();
@@ -241,6 +294,54 @@ public class InterceptionInstallerTests {
         Assert.assertNotEquals(originalBuilder, differentBuilder);
     }
 
+    @Test
+    public void testInstallDeferredWithNothingToInstall() {
+        InterceptionInstaller interceptionInstaller = new InterceptionInstaller(new MockAgentBuilderFactory());
+        Assert.assertNull(interceptionInstaller.installDeferred(Mockito.mock(Instrumentation.class), new HashSet<>(), new AgentConfig(null), ElementMatchers.none()));
+    }
+
+    @Test
+    public void testInstallDeferredRetransformsInBackground() throws Exception {
+        MockAgentBuilderFactory factory = new MockAgentBuilderFactory();
+        AgentBuilder.RedefinitionListenable.WithoutBatchStrategy retransformingBuilder = mockRetransformingBuilder(factory);
+        InterceptionInstaller interceptionInstaller = new InterceptionInstaller(factory);
+        Instrumentation instrumentation = Mockito.mock(Instrumentation.class);
+        Installable installable = Mockito.mock(Installable.class);
+        Mockito.when(installable.install(retransformingBuilder)).thenReturn(retransformingBuilder);
+
+        Thread thread = interceptionInstaller.installDeferred(instrumentation, new HashSet<>(Arrays.asList(installable)), new AgentConfig(null), ElementMatchers.none());
+        Assert.assertNotSame(Thread.currentThread(), thread);
+        Assert.assertTrue(thread.isDaemon());
+        thread.join();
+
+        Mockito.verify(factory.agentBuilder).disableClassFormatChanges();
+        Mockito.verify(retransformingBuilder).installOn(instrumentation);
+    }
+
+    @Test
+    public void testInstallDeferredContinuesAfterFailure() throws Exception {
+        MockAgentBuilderFactory factory = new MockAgentBuilderFactory();
+        AgentBuilder.RedefinitionListenable.WithoutBatchStrategy retransformingBuilder = mockRetransformingBuilder(factory);
+        InterceptionInstaller interceptionInstaller = new InterceptionInstaller(factory);
+        Installable failing = Mockito.mock(Installable.class);
+        Installable succeeding = Mockito.mock(Installable.class);
+        Mockito.when(failing.install(Mockito.any())).thenThrow(new RuntimeException());
+
+        Thread thread = interceptionInstaller.installDeferred(Mockito.mock(Instrumentation.class), new HashSet<>(Arrays.asList(failing, succeeding)), new AgentConfig(null), ElementMatchers.none());
+        thread.join();
+
+        Mockito.verify(failing).install(retransformingBuilder);
+        Mockito.verify(succeeding).install(retransformingBuilder);
+    }
+
+    private static AgentBuilder.RedefinitionListenable.WithoutBatchStrategy mockRetransformingBuilder(MockAgentBuilderFactory factory) {
+        AgentBuilder frozenBuilder = Mockito.mock(AgentBuilder.class);
+        AgentBuilder.RedefinitionListenable.WithoutBatchStrategy retransformingBuilder = Mockito.mock(AgentBuilder.RedefinitionListenable.WithoutBatchStrategy.class);
+        Mockito.when(factory.agentBuilder.disableClassFormatChanges()).thenReturn(frozenBuilder);
+        Mockito.when(frozenBuilder.with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)).thenReturn(retransformingBuilder);
+        return retransformingBuilder;
+    }
+
     private boolean classMatches(Class clazz) {
         return InterceptionInstaller.createIgnoreMatcher(ElementMatchers.none()).matches(new TypeDescription.ForLoadedType(clazz));
     }
@@ -251,6 +352,7 @@ public class InterceptionInstallerTests {
         public MockAgentBuilderFactory() {
             AgentBuilder.Ignored agentBuilder = Mockito.mock(AgentBuilder.Ignored.class);
             Mockito.when(agentBuilder.ignore(Mockito.any(ElementMatcher.class))).thenReturn(agentBuilder);
+            Mockito.when(agentBuilder.with(Mockito.any(AgentBuilder.PoolStrategy.class))).thenReturn(agentBuilder);
             this.agentBuilder = agentBuilder;
         }
         @Override
@@ -258,4 +360,16 @@ public class InterceptionInstallerTests {
             return agentBuilder;
         }
     }
+
+    static class DeferrableInstallable implements Installable {
+        @Override
+        public AgentBuilder install(AgentBuilder agentBuilder) {
+            return agentBuilder;
+        }
+
+        @Override
+        public boolean isDeferrable() {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.interception;
+
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.pool.TypePool;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+public class SharedTypePoolCacheTests {
+    @Test
+    public void testSameCacheProviderForSameClassLoader() {
+        SharedTypePoolCache cache = new SharedTypePoolCache(10);
+        ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+        Assert.assertSame(cache.locate(classLoader), cache.locate(classLoader));
+        Assert.assertSame(cache.locate(null), cache.locate(null));
+    }
+
+    @Test
+    public void testDifferentCacheProviderForDifferentClassLoader() {
+        SharedTypePoolCache cache = new SharedTypePoolCache(10);
+        ClassLoader other = new URLClassLoader(new URL[0]);
+        Assert.assertNotSame(cache.locate(ClassLoader.getSystemClassLoader()), cache.locate(other));
+        Assert.assertNotSame(cache.locate(null), cache.locate(other));
+    }
+
+    @Test
+    public void testTypeDescriptionsSharedBetweenTypePools() {
+        SharedTypePoolCache cache = new SharedTypePoolCache(10);
+        ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+        ClassFileLocator locator = ClassFileLocator.ForClassLoader.WeaklyReferenced.of(classLoader);
+        String name = SharedTypePoolCacheTests.class.getName();
+        Assert.assertNull(cache.locate(classLoader).find(name));
+
+        //type descriptions are lazy, so ask for something which requires the class file to be parsed
+        Assert.assertFalse(cache.typePool(locator, classLoader).describe(name).resolve().getDeclaredMethods().isEmpty());
+        TypePool.Resolution cached = cache.locate(classLoader).find(name);
+        Assert.assertNotNull(cached);
+
+        cache.typePool(locator, classLoader).describe(name).resolve().getDeclaredMethods();
+        Assert.assertSame(cached, cache.locate(classLoader).find(name));
+    }
+
+    @Test
+    public void testBoundedCacheProviderRegisterAndFind() {
+        SharedTypePoolCache.BoundedCacheProvider provider = new SharedTypePoolCache.BoundedCacheProvider(10);
+        TypePool.Resolution resolution = Mockito.mock(TypePool.Resolution.class);
+        Assert.assertNull(provider.find("foo"));
+        Assert.assertSame(resolution, provider.register("foo", resolution));
+        Assert.assertSame(resolution, provider.find("foo"));
+    }
+
+    @Test
+    public void testBoundedCacheProviderKeepsFirstRegistration() {
+        SharedTypePoolCache.BoundedCacheProvider provider = new SharedTypePoolCache.BoundedCacheProvider(10);
+        TypePool.Resolution first = Mockito.mock(TypePool.Resolution.class);
+        provider.register("foo", first);
+        Assert.assertSame(first, provider.register("foo", Mockito.mock(TypePool.Resolution.class)));
+    }
+
+    @Test
+    public void testBoundedCacheProviderEvictsEldestWhenFull() {
+        SharedTypePoolCache.BoundedCacheProvider provider = new SharedTypePoolCache.BoundedCacheProvider(2);
+        provider.register("a", Mockito.mock(TypePool.Resolution.class));
+        provider.register("b", Mockito.mock(TypePool.Resolution.class));
+        provider.register("c", Mockito.mock(TypePool.Resolution.class));
+        Assert.assertNull(provider.find("a"));
+        Assert.assertNotNull(provider.find("b"));
+        Assert.assertNotNull(provider.find("c"));
+    }
+
+    @Test
+    public void testBoundedCacheProviderStaysBoundedUnderConcurrentRegistration() throws Exception {
+        SharedTypePoolCache.BoundedCacheProvider provider = new SharedTypePoolCache.BoundedCacheProvider(10);
+        TypePool.Resolution resolution = Mockito.mock(TypePool.Resolution.class);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            String prefix = "thread" + t + "-";
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    provider.register(prefix + i, resolution);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int found = 0;
+        for (int t = 0; t < threads.length; t++) {
+            for (int i = 0; i < 1000; i++) {
+                found += provider.find("thread" + t + "-" + i) == null ? 0 : 1;
+            }
+        }
+        Assert.assertTrue(found > 0);
+        Assert.assertTrue(found <= 10);
+    }
+
+    @Test
+    public void testClassLoaderCollectedWhileCached() throws Exception {
+        SharedTypePoolCache cache = new SharedTypePoolCache(10);
+        URLClassLoader classLoader = new URLClassLoader(new URL[] {
+                SharedTypePoolCacheTests.class.getProtectionDomain().getCodeSource().getLocation()}, null);
+        ClassFileLocator locator = ClassFileLocator.ForClassLoader.WeaklyReferenced.of(classLoader);
+        cache.typePool(locator, classLoader).describe(SharedTypePoolCacheTests.class.getName()).resolve().getDeclaredMethods();
+
+        WeakReference<ClassLoader> reference = new WeakReference<>(classLoader);
+        classLoader = null;
+        locator = null;
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(reference.get());
+    }
+
+    @Test
+    public void testBoundedCacheProviderClear() {
+        SharedTypePoolCache.BoundedCacheProvider provider = new SharedTypePoolCache.BoundedCacheProvider(10);
+        provider.register("foo", Mockito.mock(TypePool.Resolution.class));
+        provider.clear();
+        Assert.assertNull(provider.find("foo"));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License").
+ *   You may not use this file except in compliance with the License.
+ *   A copy of the License is located at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   or in the "license" file accompanying this file. This file is distributed
+ *   on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *   express or implied. See the License for the specific language governing
+ *   permissions and limitations under the License.
+ */
+
+package software.amazon.disco.agent.interception;
+
+import net.bytebuddy.agent.builder.AgentBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import software.amazon.disco.agent.metrics.InstallableMetrics;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+
+public class TransformationMetricsListenerTests {
+    @Test
+    public void testTransformationCountedAndTimed() {
+        TransformationMetricsListener listener = TransformationMetricsListener.create(new CountedInstallable());
+        InstallableMetrics metrics = listener.getMetrics();
+        long countBefore = metrics.getTransformedClassCount();
+        long timeBefore = metrics.getTransformationTime();
+
+        listener.onDiscovery("SomeClass", null, null, false);
+        listener.onTransformation(null, null, null, false, null);
+        listener.onComplete("SomeClass", null, null, false);
+
+        Assert.assertEquals(CountedInstallable.class.getName(), metrics.getInstallableName());
+        Assert.assertEquals(countBefore + 1, metrics.getTransformedClassCount());
+        Assert.assertTrue(metrics.getTransformationTime() >= timeBefore);
+    }
+
+    @Test
+    public void testIgnoredClassTimedButNotCounted() {
+        TransformationMetricsListener listener = TransformationMetricsListener.create(new IgnoredInstallable());
+        InstallableMetrics metrics = listener.getMetrics();
+
+        listener.onDiscovery("SomeClass", null, null, false);
+        listener.onIgnored(null, null, null, false);
+        listener.onComplete("SomeClass", null, null, false);
+
+        Assert.assertEquals(0L, metrics.getTransformedClassCount());
+    }
+
+    @Test
+    public void testTransformerRemovedOnceWhenOverBudget() {
+        TransformationMetricsListener listener = TransformationMetricsListener.create(new OverBudgetInstallable(), 1);
+        Instrumentation instrumentation = Mockito.mock(Instrumentation.class);
+        ClassFileTransformer transformer = Mockito.mock(ClassFileTransformer.class);
+        listener.setTransformer(instrumentation, transformer);
+        Assert.assertFalse(listener.getMetrics().isDisabled());
+
+        listener.getMetrics().recordTransformationTime(2);
+        listener.onDiscovery("SomeClass", null, null, false);
+        listener.onComplete("SomeClass", null, null, false);
+        listener.onDiscovery("OtherClass", null, null, false);
+        listener.onComplete("OtherClass", null, null, false);
+
+        Mockito.verify(instrumentation, Mockito.times(1)).removeTransformer(transformer);
+        Assert.assertTrue(listener.getMetrics().isDisabled());
+    }
+
+    @Test
+    public void testTransformerNotRemovedWithoutBudget() {
+        TransformationMetricsListener listener = TransformationMetricsListener.create(new CountedInstallable());
+        Instrumentation instrumentation = Mockito.mock(Instrumentation.class);
+        listener.setTransformer(instrumentation, Mockito.mock(ClassFileTransformer.class));
+
+        listener.getMetrics().recordTransformationTime(Long.MAX_VALUE / 2);
+        listener.onDiscovery("SomeClass", null, null, false);
+        listener.onComplete("SomeClass", null, null, false);
+
+        Mockito.verifyNoInteractions(instrumentation);
+    }
+
+    @Test
+    public void testBudgetCheckedWhenTransformerSet() {
+        TransformationMetricsListener listener = TransformationMetricsListener.create(new InstalledOverBudgetInstallable(), 1);
+        listener.getMetrics().recordTransformationTime(2);
+        Instrumentation instrumentation = Mockito.mock(Instrumentation.class);
+        ClassFileTransformer transformer = Mockito.mock(ClassFileTransformer.class);
+        listener.setTransformer(instrumentation, transformer);
+
+        Mockito.verify(instrumentation).removeTransformer(transformer);
+    }
+
+    @Test
+    public void testBudgetNotEnforcedAfterStartupWindow() {
+        TransformationMetricsListener listener = TransformationMetricsListener.create(new LateOverBudgetInstallable(), 1, 0);
+        Instrumentation instrumentation = Mockito.mock(Instrumentation.class);
+        listener.setTransformer(instrumentation, Mockito.mock(ClassFileTransformer.class));
+
+        listener.getMetrics().recordTransformationTime(2);
+        listener.onDiscovery("SomeClass", null, null, false);
+        listener.onComplete("SomeClass", null, null, false);
+
+        Mockito.verifyNoInteractions(instrumentation);
+        Assert.assertFalse(listener.getMetrics().isDisabled());
+    }
+
+    @Test
+    public void testTimeBeforeInstallationNotCountedAgainstBudget() {
+        TransformationMetricsListener.create(new ReinstalledInstallable()).getMetrics().recordTransformationTime(Long.MAX_VALUE / 2);
+        TransformationMetricsListener listener = TransformationMetricsListener.create(new ReinstalledInstallable(), Long.MAX_VALUE / 4);
+        Instrumentation instrumentation = Mockito.mock(Instrumentation.class);
+        listener.setTransformer(instrumentation, Mockito.mock(ClassFileTransformer.class));
+
+        Mockito.verifyNoInteractions(instrumentation);
+    }
+
+    static class CountedInstallable implements Installable {
+        @Override
+        public AgentBuilder install(AgentBuilder agentBuilder) {
+            return agentBuilder;
+        }
+    }
+
+    static class IgnoredInstallable implements Installable {
+        @Override
+        public AgentBuilder install(AgentBuilder agentBuilder) {
+            return agentBuilder;
+        }
+    }
+
+    static class OverBudgetInstallable implements Installable {
+        @Override
+        public AgentBuilder install(AgentBuilder agentBuilder) {
+            return agentBuilder;
+        }
+    }
+
+    static class InstalledOverBudgetInstallable implements Installable {
+        @Override
+        public AgentBuilder install(AgentBuilder agentBuilder) {
+            return agentBuilder;
+        }
+    }
+
+    static class LateOverBudgetInstallable implements Installable {
+        @Override
+        public AgentBuilder install(AgentBuilder agentBuilder) {
+            return agentBuilder;
+        }
+    }
+
+    static class ReinstalledInstallable implements Installable {
+        @Override
+        public AgentBuilder install(AgentBuilder agentBuilder) {
+            return agentBuilder;
+        }
+    }
+}
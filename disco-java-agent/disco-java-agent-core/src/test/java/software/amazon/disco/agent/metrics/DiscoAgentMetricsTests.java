@@ -19,11 +19,20 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
 public class DiscoAgentMetricsTests {
 
     @Before
     public void before() {
         DiscoAgentMetrics.agentStartTime = DiscoAgentMetrics.AGENT_NOT_STARTED_LONG;
+        DiscoAgentMetrics.startupPhaseDurations.clear();
+        DiscoAgentMetrics.installableMetrics.clear();
+        DiscoAgentMetrics.capturedHeaderBytes.reset();
+        DiscoAgentMetrics.headerCaptures.reset();
     }
 
     @Test
@@ -43,4 +52,63 @@ public class DiscoAgentMetricsTests {
         Assert.assertEquals(startTime, DiscoAgentMetrics.setAgentStartTime());
     }
 
+    @Test
+    public void testStartupPhasesReportedInOrder() {
+        DiscoAgentMetrics.recordStartupPhase(DiscoAgentMetrics.PHASE_CONFIG_PARSE, 3L);
+        DiscoAgentMetrics.recordStartupPhase(DiscoAgentMetrics.PHASE_PLUGIN_SCAN, 2L);
+        DiscoAgentMetrics.recordStartupPhase(DiscoAgentMetrics.PHASE_PLUGIN_INIT, 1L);
+        Map<String, Long> phases = DiscoAgentMetrics.getStartupPhaseDurations();
+        Assert.assertEquals(Arrays.asList(DiscoAgentMetrics.PHASE_CONFIG_PARSE, DiscoAgentMetrics.PHASE_PLUGIN_SCAN, DiscoAgentMetrics.PHASE_PLUGIN_INIT),
+                new ArrayList<>(phases.keySet()));
+        Assert.assertEquals(Long.valueOf(3L), phases.get(DiscoAgentMetrics.PHASE_CONFIG_PARSE));
+    }
+
+    @Test
+    public void testStartupPhaseRecordedTwiceIsSummed() {
+        DiscoAgentMetrics.recordStartupPhase(DiscoAgentMetrics.PHASE_INSTALL_PREFIX + "Foo", 3L);
+        DiscoAgentMetrics.recordStartupPhase(DiscoAgentMetrics.PHASE_INSTALL_PREFIX + "Foo", 4L);
+        Assert.assertEquals(Long.valueOf(7L), DiscoAgentMetrics.getStartupPhaseDurations().get(DiscoAgentMetrics.PHASE_INSTALL_PREFIX + "Foo"));
+    }
+
+    @Test
+    public void testStartupPhaseDurationsIsACopy() {
+        DiscoAgentMetrics.getStartupPhaseDurations().put("phase", 1L);
+        Assert.assertTrue(DiscoAgentMetrics.getStartupPhaseDurations().isEmpty());
+    }
+
+    @Test
+    public void testInstallableMetrics() {
+        InstallableMetrics metrics = DiscoAgentMetrics.getInstallableMetrics("Foo");
+        Assert.assertSame(metrics, DiscoAgentMetrics.getInstallableMetrics("Foo"));
+        metrics.recordClassTransformed();
+        metrics.recordClassTransformed();
+        metrics.recordTransformationTime(5L);
+        metrics.recordTransformationTime(6L);
+        Assert.assertEquals(Long.valueOf(2L), DiscoAgentMetrics.getTransformedClassCounts().get("Foo"));
+        Assert.assertEquals(Long.valueOf(11L), DiscoAgentMetrics.getTransformationTimes().get("Foo"));
+    }
+
+    @Test
+    public void testNoInstallableMetricsByDefault() {
+        Assert.assertTrue(DiscoAgentMetrics.getTransformedClassCounts().isEmpty());
+        Assert.assertTrue(DiscoAgentMetrics.getTransformationTimes().isEmpty());
+        Assert.assertTrue(DiscoAgentMetrics.getDisabledInstallables().isEmpty());
+    }
+
+    @Test
+    public void testDisabledInstallables() {
+        DiscoAgentMetrics.getInstallableMetrics("Foo").markDisabled();
+        DiscoAgentMetrics.getInstallableMetrics("Bar");
+        Assert.assertEquals(Collections.singleton("Foo"), DiscoAgentMetrics.getDisabledInstallables());
+    }
+
+    @Test
+    public void testHeaderCaptureMetrics() {
+        Assert.assertEquals(0L, DiscoAgentMetrics.getCapturedHeaderBytes());
+        Assert.assertEquals(0L, DiscoAgentMetrics.getHeaderCaptureCount());
+        DiscoAgentMetrics.recordHeaderCapture(100);
+        DiscoAgentMetrics.recordHeaderCapture(20);
+        Assert.assertEquals(120L, DiscoAgentMetrics.getCapturedHeaderBytes());
+        Assert.assertEquals(2L, DiscoAgentMetrics.getHeaderCaptureCount());
+    }
 }
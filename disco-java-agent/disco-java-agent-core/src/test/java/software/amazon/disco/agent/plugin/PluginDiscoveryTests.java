@@ -40,9 +40,11 @@ import java.lang.instrument.Instrumentation;
 import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.jar.JarFile;
@@ -129,7 +131,10 @@ public class PluginDiscoveryTests {
         // custom PluginClassLoader has bootstrap as a parent, ClassDefNotFound exceptions occur when trying to call findClass
         // for these classes (as Listeners and Installables) aren't defined. Therefore, this test will ensure the right classloader
         // is used, and that the JAR does indeed exist as a URL in this classloader.
-        ClassLoader classLoader = PluginDiscovery.loadJar(instrumentation, jarFile, ClassLoaderType.PLUGIN);
+        ClassLoader classLoader;
+        try (JarFile jar = new JarFile(jarFile)) {
+            classLoader = PluginDiscovery.loadJar(instrumentation, jar, ClassLoaderType.PLUGIN);
+        }
         Assert.assertTrue(classLoader instanceof PluginClassLoader);
         Assert.assertEquals(((URLClassLoader)classLoader).getURLs()[0], jarFile.toURI().toURL());
         Mockito.verify(instrumentation, Mockito.times(0)).appendToBootstrapClassLoaderSearch(Mockito.any());
@@ -181,7 +186,10 @@ public class PluginDiscoveryTests {
         // classes aren't located in the bootstrap classloader (but they are located in the system classloader). Therefore,
         // ClassDefNotFound exceptions occur when trying to call findClass for these classes (as Listeners and Installables)
         // aren't defined. Therefore, this test will ensure the right classloader is used, and that the JAR was added to this classloader.
-        ClassLoader classLoader = PluginDiscovery.loadJar(instrumentation, jarFile, ClassLoaderType.BOOTSTRAP);
+        ClassLoader classLoader;
+        try (JarFile jar = new JarFile(jarFile)) {
+            classLoader = PluginDiscovery.loadJar(instrumentation, jar, ClassLoaderType.BOOTSTRAP);
+        }
         Assert.assertFalse(classLoader instanceof PluginClassLoader);
         Mockito.verify(instrumentation, Mockito.times(1)).appendToBootstrapClassLoaderSearch(Mockito.any());
         Mockito.verify(instrumentation, Mockito.times(0)).appendToSystemClassLoaderSearch(Mockito.any());
@@ -442,6 +450,75 @@ public class PluginDiscoveryTests {
         Assert.assertTrue(outcomes.isEmpty());
     }
 
+    @Test
+    public void testMultiplePluginsAllScannedWithScanTime() throws Exception {
+        for (int i = 0; i < 8; i++) {
+            createJar("plugin_" + i, "Disco-Classloader: plugin");
+        }
+        Collection<PluginOutcome> outcomes = scanAndApply(instrumentation, agentConfig);
+        Assert.assertEquals(8, outcomes.size());
+        for (PluginOutcome outcome : outcomes) {
+            Assert.assertEquals(ClassLoaderType.PLUGIN, outcome.classLoaderType);
+            Assert.assertTrue(outcome.scanTime > 0);
+        }
+    }
+
+    @Test
+    public void testUnreadableJarDoesNotPreventOtherPlugins() throws Exception {
+        File corrupt = tempFolder.newFile("corrupt.jar");
+        Files.write(corrupt.toPath(), "not a jar".getBytes());
+        createJar("plugin_valid", "Disco-Classloader: plugin");
+        Collection<PluginOutcome> outcomes = scanAndApply(instrumentation, agentConfig);
+        Assert.assertEquals(1, outcomes.size());
+        Assert.assertEquals("plugin_valid.jar", outcomes.iterator().next().name);
+    }
+
+    @Test
+    public void testListenerClassNotResolvedDuringScan() throws Exception {
+        createJar("plugin_with_missing_listener",
+                "Disco-Classloader: plugin\n" +
+                        "Disco-Listener-Classes: com.example.DoesNotExist");
+        PluginDiscovery.scan(instrumentation, agentConfig);
+        Assert.assertTrue(PluginDiscovery.getPluginOutcomes().containsKey("plugin_with_missing_listener.jar"));
+        installables.addAll(PluginDiscovery.processInstallables());
+        pluginOutcomes = PluginDiscovery.apply();
+        Assert.assertTrue(pluginOutcomes.iterator().next().listeners.isEmpty());
+    }
+
+    @Test
+    public void testReadManifestsInParallel() throws Exception {
+        List<PluginDiscovery.ScannedJar> scannedJars = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            scannedJars.add(new PluginDiscovery.ScannedJar(createJar("parallel_" + i, "Foobar: " + i)));
+        }
+        PluginDiscovery.readManifests(scannedJars);
+        for (int i = 0; i < 4; i++) {
+            PluginDiscovery.ScannedJar scannedJar = scannedJars.get(i);
+            Assert.assertNull(scannedJar.error);
+            Assert.assertEquals(String.valueOf(i), scannedJar.manifest.getMainAttributes().getValue("Foobar"));
+            PluginDiscovery.closeQuietly(scannedJar.jar);
+        }
+    }
+
+    @Test
+    public void testReadManifestsWaitsForWorkersWhenInterrupted() throws Exception {
+        List<PluginDiscovery.ScannedJar> scannedJars = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            scannedJars.add(new PluginDiscovery.ScannedJar(createJar("interrupted_" + i, "Foobar: " + i)));
+        }
+        Thread.currentThread().interrupt();
+        try {
+            PluginDiscovery.readManifests(scannedJars);
+            Assert.assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        for (PluginDiscovery.ScannedJar scannedJar : scannedJars) {
+            Assert.assertNotEquals(0, scannedJar.scanTime);
+            PluginDiscovery.closeQuietly(scannedJar.jar);
+        }
+    }
+
     @Test
     public void testSplitString() {
         String[] result = PluginDiscovery.splitString("    com.foo.Foo        com.foo.Bar     ");
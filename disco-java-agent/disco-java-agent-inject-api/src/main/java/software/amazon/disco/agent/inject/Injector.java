@@ -103,8 +103,25 @@ public class Injector {
      */
     public static JarFile addToURLClassLoaderClasspath(URLClassLoader urlClassLoader, File jarFile) {
         try {
-            JarFile jar = new JarFile(jarFile);
-            addURL(urlClassLoader, jarFile.toURI().toURL());
+            return addToURLClassLoaderClasspath(urlClassLoader, new JarFile(jarFile));
+        } catch (Throwable t){
+            //safely continue
+        }
+
+        return null;
+    }
+
+    /**
+     * Add an already opened disco plugin of any kind, or an entire agent Jar, to the provided URLClassLoader. This avoids
+     * reopening a JAR which the caller has already opened, e.g. to inspect its Manifest.
+     *
+     * @param urlClassLoader the URLClassLoader to add the Jar file URL to
+     * @param jar the already opened JarFile
+     * @return the same JarFile, or null if it could not be added. Calling code remains responsible for calling close() on it.
+     */
+    public static JarFile addToURLClassLoaderClasspath(URLClassLoader urlClassLoader, JarFile jar) {
+        try {
+            addURL(urlClassLoader, new File(jar.getName()).toURI().toURL());
             return jar;
         } catch (Throwable t){
             //safely continue
@@ -122,7 +139,23 @@ public class Injector {
      */
     public static JarFile addToSystemClasspath(Instrumentation instrumentation, File jarFile) {
         try {
-            JarFile jar = new JarFile(jarFile);
+            return addToSystemClasspath(instrumentation, new JarFile(jarFile));
+        } catch (Throwable t){
+            //safely continue
+        }
+
+        return null;
+    }
+
+    /**
+     * Add an already opened disco plugin of any kind, or an entire agent Jar, to the System classloader.
+     *
+     * @param instrumentation an Instrumentation instance to use
+     * @param jar the already opened JarFile
+     * @return the same JarFile, or null if it could not be added. Calling code remains responsible for calling close() on it.
+     */
+    public static JarFile addToSystemClasspath(Instrumentation instrumentation, JarFile jar) {
+        try {
             instrumentation.appendToSystemClassLoaderSearch(jar);
             return jar;
         } catch (Throwable t){
@@ -143,7 +176,24 @@ public class Injector {
      */
     public static JarFile addToBootstrapClasspath(Instrumentation instrumentation, File jarFile) {
         try {
-            JarFile jar = new JarFile(jarFile);
+            return addToBootstrapClasspath(instrumentation, new JarFile(jarFile));
+        } catch (Throwable t) {
+            //survive any failures
+        }
+
+        return null;
+    }
+
+    /**
+     * Add an already opened disco plugin of any kind, or an entire agent Jar, to the bootstrap classloader. See
+     * {@link #addToBootstrapClasspath(Instrumentation, File)}.
+     *
+     * @param instrumentation an Instrumentation instance to use
+     * @param jar the already opened JarFile
+     * @return the same JarFile, or null if it could not be added. Calling code remains responsible for calling close() on it.
+     */
+    public static JarFile addToBootstrapClasspath(Instrumentation instrumentation, JarFile jar) {
+        try {
             instrumentation.appendToBootstrapClassLoaderSearch(jar);
 
             //This is a hack to work around what is apparently a deficiency in Java. Adding a new Jar to the
@@ -157,7 +207,7 @@ public class Injector {
             Field bootLoaderProxyField = classFileLocator.getDeclaredField("BOOT_LOADER_PROXY");
             bootLoaderProxyField.setAccessible(true);
             Object bootLoaderProxy = bootLoaderProxyField.get(null);
-            addURL(bootLoaderProxy, jarFile.toURI().toURL());
+            addURL(bootLoaderProxy, new File(jar.getName()).toURI().toURL());
 
             return jar;
         } catch (Throwable t) {
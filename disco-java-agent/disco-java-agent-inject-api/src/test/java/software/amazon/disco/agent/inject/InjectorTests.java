@@ -29,6 +29,7 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
 import java.util.zip.ZipEntry;
 
@@ -76,6 +77,19 @@ public class InjectorTests {
         Assert.assertNotNull(url);
     }
 
+    @Test
+    public void testAddOpenedJarToURLClassLoaderClasspath() throws Exception {
+        MyURLClassLoader myURLClassLoader = new MyURLClassLoader();
+        final String name = "testAddOpenedJarToURLClassLoaderClasspath";
+        Assert.assertNull(myURLClassLoader.getResource(name));
+        File dummyJarFile = createJar(name, false);
+        try (JarFile jar = new JarFile(dummyJarFile)) {
+            Assert.assertSame(jar, Injector.addToURLClassLoaderClasspath(myURLClassLoader, jar));
+        }
+        Assert.assertEquals(dummyJarFile.toURI().toURL(), myURLClassLoader.url);
+        Assert.assertNotNull(myURLClassLoader.getResource(name));
+    }
+
     @Test
     public void testAddToSystemClasspath() throws Exception {
         final String name = "testAddToSystemClasspath";
@@ -43,4 +43,23 @@ public interface Installable {
      * @param args command line arguments in the form ["key1=value1", "key2=value2,value3", "value4"]
      */
     default void handleArguments(List<String> args) {}
+
+    /**
+     * Declare whether this Installable may be installed after the agent's premain has returned, on a background thread,
+     * rather than before the application's main method runs. Deferring non-critical Installables, such as those for
+     * downstream clients which are rarely used during application startup, makes agent startup faster.
+     *
+     * Deferred Installables are installed with retransformation, so any matching classes which were loaded in the
+     * meantime are still transformed. Retransformation cannot change the shape of a class, so a deferrable Installable
+     * must only modify method bodies (e.g. using Advice), and not add fields, methods or interfaces. Events which occur
+     * before a deferred Installable has been installed are not captured.
+     *
+     * Overrides returning true need only document what makes that particular Installable safe to defer.
+     *
+     * @return true if this Installable may be installed in the background, false (the default) if it must be installed
+     * before premain returns.
+     */
+    default boolean isDeferrable() {
+        return false;
+    }
 }
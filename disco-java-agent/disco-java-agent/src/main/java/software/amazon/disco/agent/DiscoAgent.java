@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Canonical 'empty' agent used as a vessel for discovered plugins. Unless building a monolithic agent for a site-specific
@@ -105,6 +106,11 @@ public class DiscoAgent {
         dump(outcomes);
 
         log.info("DiSCo(Agent) agent startup complete in " + DiscoAgentMetrics.getAgentUptime());
+        if (LogManager.isDebugEnabled()) {
+            for (Map.Entry<String, Long> phase: DiscoAgentMetrics.getStartupPhaseDurations().entrySet()) {
+                log.debug("DiSCo(Agent) startup phase " + phase.getKey() + " took (ns): " + phase.getValue());
+            }
+        }
     }
 
     /**
@@ -120,6 +126,7 @@ public class DiscoAgent {
             builder.append("DiSCo(Agent) Plugin name: ").append(outcome.name).append("\n");
 
             builder.append("\tPlugin ClassLoader: ").append(outcome.classLoaderType).append("\n");
+            builder.append("\tScan time (ns): ").append(outcome.scanTime).append("\n");
 
             if (outcome.initClass != null) {
                 builder.append("\tInit: ").append(outcome.initClass.getName()).append("\n");
@@ -32,6 +32,9 @@ include("disco-java-agent-web:disco-java-agent-web-plugin")
 include("disco-java-agent-sql")
 include("disco-java-agent-sql:disco-java-agent-sql-plugin")
 
+include("disco-java-agent-netty")
+include("disco-java-agent-netty:disco-java-agent-netty-plugin")
+
 include("disco-java-agent-kotlin")
 include("disco-java-agent-kotlin:disco-java-agent-kotlin-plugin")
 